@@ -0,0 +1,76 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.benchmark;
+
+import de.jeanpierrehotz.snake.GameConfig;
+import de.jeanpierrehotz.snake.GameEngine;
+import de.jeanpierrehotz.snake.autopilot.ShortestPathAutopilot;
+
+/**
+ * Diese Klasse prft, dass der {@link ShortestPathAutopilot} auf kleinen Spielfeldern mit allen
+ * Einstellungen (unendlich / mit Regeln) spielen kann, ohne dass eine Exception das Spiel beendet.<br>
+ * Gerade ohne Regeln berlappt sich die Schlange auf kleinen Spielfeldern schnell und wird
+ * lnger, als das Spielfeld Felder hat (z.B. auf 4x9 Feldern mit dem Startwert 2).<br>
+ * Aufruf: {@code AutopilotCheck}; der Exit-Code ist 1, falls ein Spiel fehlgeschlagen ist.
+ * @author Jean-Pierre Hotz
+ */
+public class AutopilotCheck{
+    /**
+     * Die grte Breite bzw. Hhe der geprften Spielfelder
+     */
+    private static final int MAX_SIZE = 9;
+    /**
+     * Die Anzahl an Startwerten, die fr jedes Spielfeld gespielt werden
+     */
+    private static final int SEEDS = 10;
+    /**
+     * Die Anzahl an Ticks pro Feld, nach der ein Spiel abgebrochen wird (ohne Regeln stirbt
+     * die Schlange nie)
+     */
+    private static final int TICKS_PER_CELL = 50;
+    
+    /**
+     * Diese Methode spielt ein Spiel mit den gegebenen Einstellungen
+     * @param config    Die Einstellungen des Spiels
+     */
+    private static void play(GameConfig config){
+        GameEngine engine = new GameEngine(config);
+        engine.setAutopilot(new ShortestPathAutopilot());
+        
+        long maxTicks = (long) TICKS_PER_CELL * config.getColumns() * config.getRows();
+        for(long tick = 0; tick < maxTicks && !engine.isGameOver(); tick++)
+            engine.step();
+    }
+    
+    /**
+     * Diese Methode spielt alle Spiele, und gibt die fehlgeschlagenen aus
+     * @param args  Wird nicht benutzt
+     */
+    public static void main(String[] args){
+        int games = 0, failures = 0;
+        for(int w = 2; w <= MAX_SIZE; w++){
+            for(int h = 2; h <= MAX_SIZE; h++){
+                for(boolean inf : new boolean[]{false, true}){
+                    for(boolean wR : new boolean[]{false, true}){
+                        for(long seed = 0; seed < SEEDS; seed++){
+                            games++;
+                            try{
+                                play(new GameConfig(w, h, inf, wR, true, seed));
+                            }catch(RuntimeException e){
+                                failures++;
+                                System.out.println(String.format("%dx%d inf=%b rules=%b seed=%d: %s", w, h, inf, wR, seed, e));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        
+        System.out.println(games + " games, " + failures + " failed");
+        if(failures > 0)
+            System.exit(1);
+    }
+}
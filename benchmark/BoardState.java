@@ -0,0 +1,144 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.benchmark;
+
+import java.util.Random;
+
+import de.jeanpierrehotz.snake.parts.Food;
+import de.jeanpierrehotz.snake.parts.Snake;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse bietet Hilfsmethoden, um fr die Benchmarks eine Schlange mit einer
+ * bestimmten Lnge auf einem Spielfeld zu erzeugen.<br>
+ * Die Schlange luft dabei auf einem geschlossenen Weg, der jedes Feld des Spielfelds genau
+ * einmal besucht, weshalb sie sich (egal wie lang sie ist) beliebig lange bewegen kann,
+ * ohne sich selbst zu fressen oder gegen den Rand zu laufen.
+ * @author Jean-Pierre Hotz
+ */
+public final class BoardState{
+    /**
+     * Ein Food-Objekt auerhalb des Spielfelds, das somit nie gefressen werden kann
+     */
+    public static final Food NO_FOOD = new Food(-1, -1);
+    
+    private BoardState(){}
+    
+    /**
+     * Diese Methode gibt ihnen die Richtung, in die die Schlange auf dem geschlossenen Weg
+     * von dem gegebenen Feld aus gehen muss.<br>
+     * Bei gerader Hhe luft der Weg zeilenweise in Schlangenlinien und ber die erste Spalte
+     * zurck; bei gerader Breite das gleiche spaltenweise.
+     * @param x     Die x-Koordinate des Felds
+     * @param y     Die y-Koordinate des Felds
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @return      die Richtung, in die die Schlange gehen muss
+     */
+    public static Direction getCycleDirection(int x, int y, int w, int h){
+        if(h % 2 == 0 && w >= 2){
+            if(x == 0)
+                return (y == 0)? Direction.right: Direction.up;
+            if(y % 2 == 0)
+                return (x < w - 1)? Direction.right: Direction.down;
+            if(x > 1)
+                return Direction.left;
+            return (y == h - 1)? Direction.left: Direction.down;
+        }else if(w % 2 == 0 && h >= 2){
+//          Hier ist alles wie oben, nur sind x und y vertauscht
+            if(y == 0)
+                return (x == 0)? Direction.down: Direction.left;
+            if(x % 2 == 0)
+                return (y < h - 1)? Direction.down: Direction.right;
+            if(y > 1)
+                return Direction.up;
+            return (x == w - 1)? Direction.up: Direction.right;
+        }
+        throw new IllegalArgumentException("No closed path on a " + w + "x" + h + " board");
+    }
+    
+    /**
+     * Diese Methode lsst die gegebene Schlange ein Feld auf dem geschlossenen Weg weiter
+     * gehen, ohne etwas zu fressen
+     * @param snake     Die Schlange, die bewegt werden soll
+     * @param w         Die Breite des Spielfelds
+     * @param h         Die Hhe des Spielfelds
+     * @return          das Ergebnis der Bewegung
+     */
+    public static Snake.MoveResult stepOnCycle(Snake snake, int w, int h){
+        snake.changeDirectionTo(getCycleDirection(snake.getFirstX(), snake.getFirstY(), w, h));
+        return snake.step(NO_FOOD);
+    }
+    
+    /**
+     * Diese Methode lsst die gegebene Schlange (mit Lnge 1) zuerst in die obere linke Ecke
+     * laufen, und dann auf dem geschlossenen Weg so lange fressen, bis sie die gegebene Lnge hat.<br>
+     * Die Regeln der Schlange werden danach wiederhergestellt.
+     * @param snake     Die Schlange, die wachsen soll
+     * @param w         Die Breite des Spielfelds
+     * @param h         Die Hhe des Spielfelds
+     * @param length    Die Lnge, die die Schlange haben soll
+     */
+    public static void grow(Snake snake, int w, int h, int length){
+        boolean wR = snake.isWithRules();
+        boolean inf = snake.isInfinite();
+        
+//      Auf dem Weg in die Ecke darf die Schlange ber den Rand laufen
+        snake.setWithRules(false);
+        snake.setInfinite(true);
+        
+        snake.changeDirectionTo(Direction.up);
+        while(snake.getFirstY() != 0)
+            snake.step(NO_FOOD);
+        snake.changeDirectionTo(Direction.left);
+        while(snake.getFirstX() != 0)
+            snake.step(NO_FOOD);
+        
+//      Nun legen wir jeweils ein Food-Objekt direkt vor die Schlange
+        while(snake.getLength() < length){
+            Direction dir = getCycleDirection(snake.getFirstX(), snake.getFirstY(), w, h);
+            int x = snake.getFirstX(), y = snake.getFirstY();
+            switch(dir){
+                case up:    y--; break;
+                case down:  y++; break;
+                case left:  x--; break;
+                case right: x++; break;
+            }
+            snake.changeDirectionTo(dir);
+            snake.step(new Food(x, y));
+        }
+        
+        snake.setWithRules(wR);
+        snake.setInfinite(inf);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Lnge, die eine Schlange haben muss, um den gegebenen
+     * Anteil des Spielfelds zu belegen
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param fill  Der Anteil des Spielfelds (0 .. 1)
+     * @return      die Lnge der Schlange (mindestens 1, hchstens ein Feld weniger als das Spielfeld)
+     */
+    public static int getLength(int w, int h, double fill){
+        return Math.max(1, Math.min(w * h - 1, (int) Math.round(fill * w * h)));
+    }
+    
+    /**
+     * Diese Methode erzeugt ein Array mit (reproduzierbar) zuflligen Feldern des Spielfelds
+     * @param w         Die Breite des Spielfelds
+     * @param h         Die Hhe des Spielfelds
+     * @param count     Die Anzahl an Feldern (eine Zweierpotenz)
+     * @return          die zuflligen Felder
+     */
+    public static int[] getRandomCells(int w, int h, int count){
+        Random random = new Random(42);
+        int[] cells = new int[count];
+        for(int i = 0; i < count; i++)
+            cells[i] = random.nextInt(w * h);
+        return cells;
+    }
+}
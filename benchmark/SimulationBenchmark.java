@@ -0,0 +1,289 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import de.jeanpierrehotz.snake.GameConfig;
+import de.jeanpierrehotz.snake.GameEngine;
+import de.jeanpierrehotz.snake.autopilot.PerturbedHamiltonianAutopilot;
+import de.jeanpierrehotz.snake.autopilot.ShortestPathAutopilot;
+import de.jeanpierrehotz.snake.parts.Food;
+import de.jeanpierrehotz.snake.parts.Snake;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+
+/**
+ * Diese Klasse misst die Geschwindigkeit der zeitkritischen Methoden der Simulation:
+ * <ul>
+ *     <li>step:      {@link Snake#step(Food)}</li>
+ *     <li>contains:  {@link Snake#contains(int, int)}</li>
+ *     <li>food:      das Generieren eines Food-Objekts (wie in {@link GameEngine})</li>
+ *     <li>autopilot: {@link GameEngine#step()} whrend gecheatet wird</li>
+ *     <li>shortestpath: {@link GameEngine#step()} mit einem {@link ShortestPathAutopilot}</li>
+ *     <li>perturbed: {@link GameEngine#step()} mit einem {@link PerturbedHamiltonianAutopilot}</li>
+ * </ul>
+ * Jede Messung wird fr alle Kombinationen aus Spielfeldgre, Anteil des Spielfelds, den
+ * die Schlange belegt, und den Einstellungen unendlich / mit Regeln ausgefhrt, und gibt
+ * die Anzahl an Operationen pro Sekunde sowie die pro Operation allokierten Bytes aus.<br>
+ * Aufruf: {@code SimulationBenchmark [Filter]}, wobei nur Messungen ausgefhrt werden,
+ * deren Name den Filter enthlt.
+ * @author Jean-Pierre Hotz
+ */
+public class SimulationBenchmark{
+    /**
+     * Die Spielfeldgren (Spalten, Zeilen) aus dem Bereich der UI
+     */
+    private static final int[][] SIZES = {{16, 9}, {80, 45}, {160, 90}, {320, 180}};
+    /**
+     * Die Anteile des Spielfelds, die die Schlange belegt
+     */
+    private static final double[] FILLS = {0.01, 0.5, 0.99};
+    
+    /**
+     * Die Anzahl und Dauer (in ms) der Durchlufe zum Aufwrmen und zum Messen
+     */
+    private static final int WARMUP_ITERATIONS = 3, WARMUP_TIME = 100;
+    private static final int MEASURE_ITERATIONS = 5, MEASURE_TIME = 200;
+    /**
+     * Die Anzahl an Operationen, die am Stck (ohne Zeitmessung dazwischen) ausgefhrt werden
+     */
+    private static final int BATCH = 1024;
+    
+    /**
+     * In dieser Variable werden die Ergebnisse der Operationen gesammelt, damit der
+     * JIT-Compiler diese nicht wegoptimieren kann
+     */
+    private static volatile long sink;
+    
+    /**
+     * Der ThreadMXBean, mit dem die allokierten Bytes des Threads gemessen werden
+     */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    /**
+     * Diese Klasse reprsentiert eine Messung mit ihrem Zustand
+     * @author Jean-Pierre Hotz
+     */
+    private static abstract class Operation{
+        /**
+         * Diese Methode (re)initialisiert den Zustand der Messung; die Zeit dafr wird nicht gemessen
+         */
+        abstract void setUp();
+        
+        /**
+         * Diese Methode fhrt die gegebene Anzahl an Operationen aus
+         * @param n     Die Anzahl an Operationen
+         * @return      ein Wert, der von den Ergebnissen der Operationen abhngt
+         */
+        abstract long run(int n);
+        
+        /**
+         * Diese Methode zeigt ihnen, ob der Zustand vor den nchsten Operationen neu
+         * initialisiert werden muss
+         * @return  ob {@link #setUp()} aufgerufen werden muss
+         */
+        boolean needsSetUp(){
+            return false;
+        }
+    }
+    
+    /**
+     * Diese Methode erzeugt die Messung mit dem gegebenen Namen
+     * @param name  Der Name der Messung
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param fill  Der Anteil des Spielfelds, den die Schlange belegt
+     * @param inf   ob das Spielfeld unendlich ist
+     * @param wR    ob die Schlange sich an Regeln zu halten hat
+     * @return      die Messung
+     */
+    private static Operation create(String name, final int w, final int h, double fill, final boolean inf, final boolean wR){
+        final int length = BoardState.getLength(w, h, fill);
+        
+        if(name.equals("step")){
+            return new Operation(){
+                Snake snake;
+                
+                void setUp(){
+                    snake = new Snake(new SnakePlayingGrid(w, h, 0, false), Direction.right, wR, inf, new Random(1));
+                    BoardState.grow(snake, w, h, length);
+                }
+                
+                long run(int n){
+                    long r = 0;
+                    for(int i = 0; i < n; i++)
+                        r += BoardState.stepOnCycle(snake, w, h).ordinal();
+                    return r;
+                }
+            };
+        }else if(name.equals("contains")){
+            return new Operation(){
+                Snake snake;
+                int[] cells;
+                int index;
+                
+                void setUp(){
+                    snake = new Snake(new SnakePlayingGrid(w, h, 0, false), Direction.right, wR, inf, new Random(1));
+                    BoardState.grow(snake, w, h, length);
+                    cells = BoardState.getRandomCells(w, h, 4096);
+                }
+                
+                long run(int n){
+                    long r = 0;
+                    for(int i = 0; i < n; i++){
+                        int cell = cells[index++ & (cells.length - 1)];
+                        if(snake.contains(cell % w, cell / w))
+                            r++;
+                    }
+                    return r;
+                }
+            };
+        }else if(name.equals("food")){
+            return new Operation(){
+                SnakePlayingGrid grid;
+                Random random;
+                
+                void setUp(){
+                    grid = new SnakePlayingGrid(w, h, 0, false);
+                    random = new Random(1);
+                    BoardState.grow(new Snake(grid, Direction.right, wR, inf, random), w, h, length);
+                }
+                
+                long run(int n){
+                    long r = 0;
+                    for(int i = 0; i < n; i++){
+//                      genauso wie GameEngine.generateFood()
+                        int cell = grid.getRandomFreeCell(random);
+                        Food food = new Food(cell % w, cell / w);
+                        r += food.getxInGrid() + food.getyInGrid();
+                    }
+                    return r;
+                }
+            };
+        }else if(name.equals("autopilot") || name.equals("shortestpath") || name.equals("perturbed")){
+            final String autopilot = name;
+            return new Operation(){
+                GameEngine engine;
+                
+                void setUp(){
+                    engine = new GameEngine(new GameConfig(w, h, inf, wR, true, 1));
+                    if(autopilot.equals("shortestpath"))
+                        engine.setAutopilot(new ShortestPathAutopilot());
+                    else if(autopilot.equals("perturbed"))
+                        engine.setAutopilot(new PerturbedHamiltonianAutopilot());
+                    BoardState.grow(engine.getSnake(), w, h, length);
+                }
+                
+                boolean needsSetUp(){
+//                  Ein beendetes Spiel wrde nichts mehr machen, und somit das Ergebnis verflschen
+                    return engine.isGameOver();
+                }
+                
+                long run(int n){
+                    long r = 0;
+                    for(int i = 0; i < n; i++)
+                        r += engine.step().ordinal();
+                    return r;
+                }
+            };
+        }
+        throw new IllegalArgumentException("Unknown benchmark: " + name);
+    }
+    
+    /**
+     * Diese Methode fhrt eine Messung aus, und gibt deren Ergebnis aus
+     * @param name  Der Name der Messung
+     * @param op    Die Messung
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param fill  Der Anteil des Spielfelds, den die Schlange belegt
+     * @param inf   ob das Spielfeld unendlich ist
+     * @param wR    ob die Schlange sich an Regeln zu halten hat
+     */
+    private static void measure(String name, Operation op, int w, int h, double fill, boolean inf, boolean wR){
+        op.setUp();
+        
+        for(int i = 0; i < WARMUP_ITERATIONS; i++)
+            iteration(op, WARMUP_TIME * 1000000L, null);
+        
+        double min = Double.MAX_VALUE, max = 0, sum = 0;
+        long totalOps = 0, totalBytes = 0;
+        long[] counters = new long[2];
+        for(int i = 0; i < MEASURE_ITERATIONS; i++){
+            counters[0] = counters[1] = 0;
+            double opsPerSecond = iteration(op, MEASURE_TIME * 1000000L, counters);
+            min = Math.min(min, opsPerSecond);
+            max = Math.max(max, opsPerSecond);
+            sum += opsPerSecond;
+            totalOps += counters[0];
+            totalBytes += counters[1];
+        }
+        
+        System.out.println(String.format("%-10s %4dx%-4d fill=%4.0f%% inf=%-5b rules=%-5b %,16.0f ops/s  [%,.0f .. %,.0f]  %8.2f B/op",
+                name, w, h, fill * 100, inf, wR,
+                sum / MEASURE_ITERATIONS, min, max,
+                (totalOps == 0)? 0.0: (double) totalBytes / totalOps));
+    }
+    
+    /**
+     * Diese Methode fhrt die Operationen der Messung fr die gegebene Zeit aus
+     * @param op        Die Messung
+     * @param duration  Die Dauer in ns
+     * @param counters  Ein Array, in dem die Anzahl an Operationen und die allokierten Bytes
+     *                  aufaddiert werden, oder {@code null}
+     * @return          die Anzahl an Operationen pro Sekunde
+     */
+    private static double iteration(Operation op, long duration, long[] counters){
+        long ops = 0, elapsed = 0, bytes = 0;
+        long r = 0;
+        
+        while(elapsed < duration){
+            if(op.needsSetUp())
+                op.setUp();
+            
+            long allocated = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            r += op.run(BATCH);
+            elapsed += System.nanoTime() - start;
+            bytes += THREADS.getCurrentThreadAllocatedBytes() - allocated;
+            ops += BATCH;
+        }
+        sink += r;
+        
+        if(counters != null){
+            counters[0] += ops;
+            counters[1] += bytes;
+        }
+        return ops * 1e9 / elapsed;
+    }
+    
+    /**
+     * Diese Methode fhrt alle Messungen (bzw. die, die den gegebenen Filter enthalten) aus
+     * @param args  Optional ein Filter fr die Namen der Messungen
+     */
+    public static void main(String[] args){
+        String filter = (args.length > 0)? args[0]: "";
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        
+        for(String name : new String[]{"step", "contains", "food", "autopilot", "shortestpath", "perturbed"}){
+            if(!name.contains(filter))
+                continue;
+            
+            for(int[] size : SIZES){
+                for(double fill : FILLS){
+                    for(boolean inf : new boolean[]{false, true}){
+                        for(boolean wR : new boolean[]{false, true}){
+                            measure(name, create(name, size[0], size[1], fill, inf, wR), size[0], size[1], fill, inf, wR);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
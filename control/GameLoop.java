@@ -0,0 +1,242 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.control;
+
+import java.util.concurrent.locks.LockSupport;
+
+import de.jeanpierrehotz.metrics.Metrics;
+
+/**
+ * Diese Klasse reprsentiert die Zeitsteuerung fr den Spielablauf.<br>
+ * Sie besitzt einen einzigen Thread, der whrend der gesamten Lebensdauer des Objekts luft,
+ * und lediglich pausiert bzw. wieder aufgenommen wird (es wird also nicht bei jedem Wiederaufnehmen
+ * ein neuer Thread erzeugt).<br>
+ * Die Ticks werden zu festen Zeitpunkten (in ns) ausgefhrt: Der nchste Zeitpunkt ergibt sich
+ * aus dem vorherigen Zeitpunkt plus dem Abstand, und nicht aus dem Ende des vorherigen Ticks.
+ * Dadurch wird die Dauer eines Ticks selbst ausgeglichen, und die Tickrate driftet nicht.<br>
+ * Falls ein Tick lnger dauert als vorgesehen, so wird mit der eingestellten
+ * {@link OverrunPolicy} entschieden, ob die verpassten Ticks nachgeholt oder ausgelassen werden.
+ * @author Jean-Pierre Hotz
+ */
+public class GameLoop{
+    /**
+     * Dieses Interface reprsentiert die Aufgabe, die von dem GameLoop ausgefhrt wird
+     * @author Jean-Pierre Hotz
+     */
+    public static interface Task{
+        /**
+         * Diese Methode fhrt einen Tick aus
+         */
+        public void tick();
+        
+        /**
+         * Diese Methode gibt ihnen den Abstand, in dem die Ticks derzeit ausgefhrt werden sollen
+         * @return  der Abstand zwischen zwei Ticks in ns
+         */
+        public long getTickPeriod();
+    }
+    
+    /**
+     * Diese Enumeration gibt an, wie mit Ticks umgegangen wird, die verpasst wurden, da
+     * (z.B. unter Last) ein Tick lnger gedauert hat als vorgesehen
+     * @author Jean-Pierre Hotz
+     */
+    public static enum OverrunPolicy{
+        /**
+         * Die verpassten Ticks werden (ohne Pause) nachgeholt, allerdings hchstens
+         * {@link GameLoop#setMaxCatchUpTicks(int)} viele; alle weiteren werden ausgelassen
+         */
+        CATCH_UP,
+        /**
+         * Die verpassten Ticks werden ausgelassen, und es wird mit dem nchsten regulren
+         * Zeitpunkt weitergemacht
+         */
+        SKIP;
+    }
+    
+    /**
+     * Die Aufgabe, die in jedem Tick ausgefhrt wird
+     */
+    private final Task task;
+    /**
+     * Der Thread, in dem die Ticks ausgefhrt werden
+     */
+    private final Thread thread;
+    /**
+     * Dieses Objekt wird zum Warten des Threads whrend der Pause benutzt
+     */
+    private final Object lock = new Object();
+    
+    /**
+     * Diese Variable gibt an, ob der GameLoop derzeit pausiert ist
+     */
+    private volatile boolean paused;
+    /**
+     * Diese Variable gibt an, ob der GameLoop (endgltig) beendet wurde
+     */
+    private volatile boolean disposed;
+    /**
+     * Diese Variable zeigt dem Thread an, dass das Spiel wieder aufgenommen wurde, und
+     * der nchste Tick daher sofort ausgefhrt werden soll
+     */
+    private boolean resumed;
+    
+    /**
+     * Diese Variable gibt an, wie mit verpassten Ticks umgegangen wird
+     */
+    private volatile OverrunPolicy overrunPolicy;
+    /**
+     * Diese Variable gibt an, wie viele verpasste Ticks hchstens nachgeholt werden
+     */
+    private volatile int maxCatchUpTicks;
+    
+    /**
+     * Dieser Konstruktor erzeugt einen (pausierten) GameLoop, der die gegebene Aufgabe ausfhrt.
+     * Der Thread wird dabei bereits gestartet.
+     * @param task  Die Aufgabe, die in jedem Tick ausgefhrt wird
+     * @param name  Der Name des Threads
+     */
+    public GameLoop(Task task, String name){
+        this.task = task;
+        this.paused = true;
+        this.overrunPolicy = OverrunPolicy.CATCH_UP;
+        this.maxCatchUpTicks = 5;
+        
+        this.thread = new Thread(new Runnable(){
+            @Override
+            public void run(){
+                loop();
+            }
+        }, name);
+//      Der Thread soll das Beenden des Programms nicht verhindern
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+    
+    /**
+     * Diese Methode setzt, wie mit verpassten Ticks umgegangen wird
+     * @param policy    wie mit verpassten Ticks umgegangen wird
+     */
+    public void setOverrunPolicy(OverrunPolicy policy){
+        this.overrunPolicy = policy;
+    }
+    
+    /**
+     * Diese Methode setzt, wie viele verpasste Ticks bei {@link OverrunPolicy#CATCH_UP}
+     * hchstens nachgeholt werden
+     * @param max   die Anzahl an Ticks, die hchstens nachgeholt werden
+     */
+    public void setMaxCatchUpTicks(int max){
+        this.maxCatchUpTicks = max;
+    }
+    
+    /**
+     * Diese Methode pausiert den GameLoop. Ein Tick, der gerade ausgefhrt wird, wird noch beendet.
+     */
+    public void pause(){
+        paused = true;
+    }
+    
+    /**
+     * Diese Methode nimmt den GameLoop wieder auf. Der erste Tick wird sofort ausgefhrt.
+     */
+    public void resume(){
+        synchronized(lock){
+            paused = false;
+            resumed = true;
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob der GameLoop pausiert ist
+     * @return  ob der GameLoop pausiert ist
+     */
+    public boolean isPaused(){
+        return paused;
+    }
+    
+    /**
+     * Diese Methode beendet den GameLoop endgltig
+     */
+    public void dispose(){
+        synchronized(lock){
+            disposed = true;
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Diese Methode wird von dem Thread des GameLoops ausgefhrt
+     */
+    private void loop(){
+//      Der Zeitpunkt, zu dem der nchste Tick ausgefhrt werden soll
+        long deadline = System.nanoTime();
+        
+        while(!disposed){
+//          Falls der GameLoop pausiert ist, so warten wir, bis er wieder aufgenommen wird
+            if(paused){
+                synchronized(lock){
+                    while(paused && !disposed){
+                        try{
+                            lock.wait();
+                        }catch(InterruptedException e){
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            }
+            synchronized(lock){
+                if(resumed){
+                    resumed = false;
+                    deadline = System.nanoTime();
+                }
+            }
+            if(disposed)
+                return;
+            
+            long now = System.nanoTime();
+            
+//          Falls der Zeitpunkt fr den nchsten Tick noch nicht erreicht ist, so warten wir
+//          (hchstens) bis dahin, und schauen dann erneut, ob wir noch laufen sollen
+            if(now - deadline < 0){
+                LockSupport.parkNanos(deadline - now);
+                continue;
+            }
+            
+//          Ansonsten wird der Tick ausgefhrt (und falls gewnscht gemessen, wie spt und wie lange),
+            if(Metrics.ENABLED){
+                Metrics.TICK_JITTER.record(now - deadline);
+                task.tick();
+                Metrics.TICK_TIME.record(System.nanoTime() - now);
+            }else{
+                task.tick();
+            }
+            
+//          und der nchste Zeitpunkt ergibt sich aus dem vorherigen Zeitpunkt
+            long period = task.getTickPeriod();
+            deadline += period;
+            
+//          Falls wir dabei bereits hinter dem nchsten Zeitpunkt liegen, so haben wir Ticks verpasst
+            long late = System.nanoTime() - deadline;
+            if(late > 0 && period > 0){
+                long missed = late / period;
+                
+                if(overrunPolicy == OverrunPolicy.SKIP){
+//                  Beim Auslassen springen wir zu dem letzten regulren Zeitpunkt, damit der
+//                  nchste Tick wieder im gleichen Takt liegt
+                    deadline += missed * period;
+                }else if(missed > maxCatchUpTicks){
+//                  Beim Nachholen werden hchstens maxCatchUpTicks Ticks nachgeholt
+                    deadline += (missed - maxCatchUpTicks) * period;
+                }
+            }else if(period == 0){
+//              Ohne Abstand wird der nchste Tick sofort ausgefhrt
+                deadline = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.control;
+
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse reprsentiert eine beschrnkte Warteschlange fr die Richtungseingaben des Users
+ * zwischen genau einem schreibenden Thread (dem KeyListener der UI) und genau einem lesenden
+ * Thread (dem GameLoop).<br>
+ * Die Eingaben werden in einem Ringpuffer gespeichert, dessen Lese- und Schreibposition
+ * jeweils nur von einem Thread verndert werden; es werden daher weder Locks noch
+ * Allokationen bentigt.<br>
+ * Jede Eingabe wird mit dem Zeitpunkt gespeichert, an dem sie gemacht wurde, damit die
+ * Zeit bis zu dem Tick, in dem sie bernommen wird, gemessen werden kann.<br>
+ * Pro Tick wird mit der eingestellten {@link Policy} entschieden, welche Eingaben bernommen werden.
+ * @author Jean-Pierre Hotz
+ */
+public class InputQueue{
+    /**
+     * Diese Enumeration gibt an, wie viele Eingaben pro Tick bernommen werden
+     * @author Jean-Pierre Hotz
+     */
+    public static enum Policy{
+        /**
+         * Pro Tick wird hchstens eine Richtungsnderung bernommen; weitere Eingaben
+         * bleiben fr die nchsten Ticks in der Warteschlange.<br>
+         * Dadurch gehen zwei schnell aufeinander folgende Eingaben (z.B. oben, dann links)
+         * nicht verloren.
+         */
+        ONE_TURN_PER_TICK,
+        /**
+         * Pro Tick werden alle Eingaben gelesen, und nur die letzte gltige bernommen
+         * (so wie vor der Warteschlange)
+         */
+        LATEST_PER_TICK;
+    }
+    
+    /**
+     * Die Richtungen und Zeitpunkte (in ns) der Eingaben im Ringpuffer;
+     * die Lnge der Arrays ist eine Zweierpotenz
+     */
+    private final Direction[] directions;
+    private final long[] timestamps;
+    
+    /**
+     * Die Position, an der als nchstes gelesen wird (wird nur vom lesenden Thread verndert)
+     */
+    private volatile long readPosition;
+    /**
+     * Die Position, an der als nchstes geschrieben wird (wird nur vom schreibenden Thread verndert)
+     */
+    private volatile long writePosition;
+    
+    /**
+     * Die eingestellte Policy, und ob Eingaben in die entgegengesetzte Richtung ignoriert werden
+     */
+    private volatile Policy policy = Policy.ONE_TURN_PER_TICK;
+    private volatile boolean ignoringReversals = true;
+    
+    /**
+     * Diese Variablen zhlen die verworfenen (da die Warteschlange voll war), gelesenen und
+     * bernommenen Eingaben, sowie die gesamte und grte Zeit zwischen Eingabe und Tick in ns
+     */
+    private volatile long droppedCount, consumedCount, appliedCount;
+    private volatile long totalLatency, maxLatency;
+    
+    /**
+     * Dieser Konstruktor erzeugt eine leere Warteschlange
+     * @param capacity  Die Anzahl an Eingaben, die die Warteschlange hchstens aufnimmt
+     *                  (wird auf eine Zweierpotenz aufgerundet)
+     */
+    public InputQueue(int capacity){
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.directions = new Direction[size];
+        this.timestamps = new long[size];
+    }
+    
+    /**
+     * Diese Methode fgt eine Eingabe hinzu; darf nur von dem schreibenden Thread aufgerufen werden
+     * @param dir   Die eingegebene Richtung
+     * @param time  Der Zeitpunkt der Eingabe (siehe {@link System#nanoTime()})
+     * @return      ob die Eingabe hinzugefgt wurde, oder verworfen, da die Warteschlange voll ist
+     */
+    public boolean offer(Direction dir, long time){
+        long write = writePosition;
+        if(write - readPosition == directions.length){
+            droppedCount++;
+            return false;
+        }
+        
+        int index = (int) write & (directions.length - 1);
+        directions[index] = dir;
+        timestamps[index] = time;
+//      Erst durch das Schreiben der (volatile) Position wird die Eingabe fr den lesenden Thread sichtbar
+        writePosition = write + 1;
+        return true;
+    }
+    
+    /**
+     * Diese Methode entscheidet (nach der eingestellten Policy), in welche Richtung die Schlange
+     * in diesem Tick gehen soll, und entfernt die dabei gelesenen Eingaben aus der Warteschlange.
+     * Darf nur von dem lesenden Thread aufgerufen werden.
+     * @param current   Die Richtung, in die die Schlange derzeit geht
+     * @param length    Die Lnge der Schlange (eine Schlange der Lnge 1 darf umkehren)
+     * @param now       Der Zeitpunkt des Ticks (siehe {@link System#nanoTime()})
+     * @return          die neue Richtung, oder {@code null} falls die Richtung nicht gendert wird
+     */
+    public Direction nextTurn(Direction current, int length, long now){
+        Direction result = null;
+        Direction dir = current;
+        boolean onePerTick = policy == Policy.ONE_TURN_PER_TICK;
+        boolean noReversal = ignoringReversals && length > 1;
+        
+        long read = readPosition;
+        long write = writePosition;
+        while(read != write){
+            int index = (int) read & (directions.length - 1);
+            Direction input = directions[index];
+            recordLatency(now - timestamps[index]);
+            directions[index] = null;
+            read++;
+            
+//          Eingaben, die nichts ndern, oder die Schlange umkehren lassen, werden bersprungen
+            if(input == dir || (noReversal && input == current.getOpposite()))
+                continue;
+            
+            result = dir = input;
+            if(onePerTick)
+                break;
+        }
+        readPosition = read;
+        
+        if(result != null)
+            appliedCount++;
+        return result;
+    }
+    
+    /**
+     * Diese Methode entfernt alle Eingaben aus der Warteschlange;
+     * darf nur von dem lesenden Thread (bzw. whrend dieser pausiert ist) aufgerufen werden
+     */
+    public void clear(){
+        long read = readPosition;
+        long write = writePosition;
+        while(read != write)
+            directions[(int) read++ & (directions.length - 1)] = null;
+        readPosition = read;
+    }
+    
+    /**
+     * Diese Methode speichert die Zeit zwischen einer Eingabe und dem Tick, in dem sie gelesen wurde
+     * @param latency   die Zeit in ns
+     */
+    private void recordLatency(long latency){
+        consumedCount++;
+        totalLatency += latency;
+        if(latency > maxLatency)
+            maxLatency = latency;
+    }
+    
+    /**
+     * Diese Methode setzt die Policy, nach der Eingaben pro Tick bernommen werden
+     * @param policy    Die Policy
+     */
+    public void setPolicy(Policy policy){
+        this.policy = policy;
+    }
+    
+    /**
+     * Diese Methode setzt, ob Eingaben in die entgegengesetzte Richtung ignoriert werden
+     * @param ignore    ob Eingaben in die entgegengesetzte Richtung ignoriert werden
+     */
+    public void setIgnoringReversals(boolean ignore){
+        this.ignoringReversals = ignore;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Eingaben, die verworfen wurden, da die Warteschlange voll war
+     * @return  die Anzahl an verworfenen Eingaben
+     */
+    public long getDroppedCount(){
+        return droppedCount;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Eingaben, die (in einem Tick) gelesen wurden
+     * @return  die Anzahl an gelesenen Eingaben
+     */
+    public long getConsumedCount(){
+        return consumedCount;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Ticks, in denen die Richtung gendert wurde
+     * @return  die Anzahl an bernommenen Richtungsnderungen
+     */
+    public long getAppliedCount(){
+        return appliedCount;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die durchschnittliche Zeit zwischen einer Eingabe und dem Tick,
+     * in dem sie gelesen wurde
+     * @return  die durchschnittliche Zeit in ns
+     */
+    public long getAverageLatency(){
+        long count = consumedCount;
+        return (count == 0)? 0: totalLatency / count;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die grte Zeit zwischen einer Eingabe und dem Tick,
+     * in dem sie gelesen wurde
+     * @return  die grte Zeit in ns
+     */
+    public long getMaxLatency(){
+        return maxLatency;
+    }
+}
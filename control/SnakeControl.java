@@ -7,21 +7,35 @@ package de.jeanpierrehotz.control;
 
 import java.awt.Color;
 import java.awt.Graphics;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.jeanpierrehotz.metrics.Metrics;
+import de.jeanpierrehotz.metrics.PaintEvent;
+import de.jeanpierrehotz.metrics.TickEvent;
+import de.jeanpierrehotz.snake.Camera;
+import de.jeanpierrehotz.snake.FrameBuffer;
+import de.jeanpierrehotz.snake.FrameSnapshot;
+import de.jeanpierrehotz.snake.GameAdapter;
+import de.jeanpierrehotz.snake.GameConfig;
+import de.jeanpierrehotz.snake.GameEngine;
+import de.jeanpierrehotz.snake.GameEngine.EndCause;
+import de.jeanpierrehotz.snake.GameListener;
 
 import de.jeanpierrehotz.snake.parts.Food;
 import de.jeanpierrehotz.snake.parts.Snake;
 import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
 import de.jeanpierrehotz.snake.parts.Snake.Direction;
 
-import de.jeanpierrehotz.snake.parts.exceptions.SnakeAteItselfException;
-import de.jeanpierrehotz.snake.parts.exceptions.SnakeHitBordersException;
+import de.jeanpierrehotz.snake.replay.ReplayRecorder;
 
-import de.jeanpierrehotz.ui.SnakeUI;
+import de.jeanpierrehotz.snake.save.Checkpoint;
+import de.jeanpierrehotz.snake.save.CheckpointWriter;
+import de.jeanpierrehotz.snake.save.GameSnapshot;
 
-import static de.jeanpierrehotz.snake.parts.Snake.Direction.up;
-import static de.jeanpierrehotz.snake.parts.Snake.Direction.down;
-import static de.jeanpierrehotz.snake.parts.Snake.Direction.right;
-import static de.jeanpierrehotz.snake.parts.Snake.Direction.left;
+import de.jeanpierrehotz.ui.GridLayer;
+import de.jeanpierrehotz.ui.SnakeUI;
 
 import static de.jeanpierrehotz.control.SnakeControl.CauseOfPause.*;
 
@@ -29,8 +43,9 @@ import static de.jeanpierrehotz.control.SnakeControl.CauseOfPause.*;
  * Diese Klasse reprsentiert eine Steuerung eines Snake-Spiels. Dieses Spiel
  * wird von einem {@link SnakeUI}-Objekt angezeigt.<br>
  * Diese Steuerung beinhaltet einen Thread, der fr den Spielablauf zustndig ist,
- * und ein {@link Snake}-, ein {@link Food}- und ein {@link SnakePlayingGrid}-Objekt,
- * die insgesamt das Spiel an sich bilden.<br>
+ * und ein {@link GameEngine}-Objekt, das mit einem {@link Snake}-, einem {@link Food}- 
+ * und einem {@link SnakePlayingGrid}-Objekt das Spiel an sich bildet.<br>
+ * Die Steuerung vermittelt damit nur zwischen dem (von der UI unabhngigen) Spiel und der UI.<br>
  * Die Klasse bietet der UI die Mglichkeit ein neues Spiel zu starten, das vorherige
  * Spiel (falls es eins gibt!) wieder aufzunehmen, und evtl. vorher die Einstellungen
  * erneut zu speichern.<br>
@@ -44,47 +59,121 @@ import static de.jeanpierrehotz.control.SnakeControl.CauseOfPause.*;
  */
 public class SnakeControl{
     /**
-     * Dieses Objekt ist reprsentiert die Schlange,
-     * die sich auf der Spielflche bewegen soll
+     * Dieses Objekt reprsentiert das Spiel, das derzeitig gespielt wird
      */
-    private Snake playingSnake;
+    private GameEngine engine;
+    
     /**
-     * Dieses Objekt reprsentiert das Essen der Schlange,
-     * das sich derzeit auf dem Spielfeld befindet
+     * Diese Variable zeigt ihnen an, ob die Steuerung
+     * sich derzeitig in einem Spiel befindet.<br>
+     * Sie wird von dem Thread des GameLoops und dem Thread der UI gelesen.
      */
-    private Food currentFood;
+    private volatile boolean inGame;
+    
+    /**
+     * Dieser GameLoop ist fr das Steuern des zeitlichen Ablaufs eines Spiels zustndig.<br>
+     * Er wird nur einmal erzeugt, und bei jedem Spiel nur pausiert und wieder aufgenommen.
+     */
+    private GameLoop gameLoop;
     /**
-     * Dieses Objekt reprsentiert das Spielfeld, auf dem derzeitig gespielt wird
+     * Diese Geschwindigkeitskurve gibt an, in welchem Abstand die Ticks ausgefhrt werden
      */
-    private SnakePlayingGrid playGrid;
+    private volatile SpeedCurve speedCurve;
     
     /**
-     * Diese Variable zeigt ihnen an, ob die Steuerung
-     * sich derzeitig in einem Spiel befindet
+     * ber diese Warteschlange werden die Richtungseingaben des Users an den GameLoop bergeben,
+     * der sie zu Beginn eines Ticks bernimmt
      */
-    private boolean inGame;
+    private final InputQueue input = new InputQueue(16);
+    
+    /**
+     * Dieses Objekt ist dafr zustndig, das Spiel, und die Optionen / das Startmen anzuzeigen
+     */
+    private SnakeUI gui;
+    /**
+     * Dieses Objekt enthlt ein zwischengespeichertes Bild des Spielfelds, damit dieses
+     * nicht bei jedem Frame Linie fr Linie gezeichnet werden muss
+     */
+    private GridLayer gridLayer;
     /**
-     * Diese Variable zeigt ihnen an, ob der User in dem derzeitigen Spiel "cheatet"
+     * Dieses Objekt zeichnet das derzeitige Spiel auf, falls mit der System-Property
+     * {@value ReplayRecorder#DIRECTORY_PROPERTY} ein Ordner dafr angegeben wurde (ansonsten {@code null})
      */
-    private boolean cheating;
+    private ReplayRecorder recorder;
     /**
-     * Diese Variable zeigt ihnen an, ob das Spielfeld unendlich sein soll
+     * ber dieses Objekt werden Spielstnde gespeichert, ohne dass der GameLoop dabei auf die
+     * Festplatte warten muss
      */
-    private boolean infinite;
+    private final CheckpointWriter checkpoints = new CheckpointWriter("Snake-Checkpoints");
     /**
-     * Diese Variable zeigt ihnen an, ob das Spiel mit den blichen Regeln abluft.
+     * Die Datei, in der das Spiel gespeichert wird, oder {@code null} falls nicht gespeichert werden soll
+     * (siehe {@link Checkpoint#getDefaultFile()})
      */
-    private boolean withRules;
+    private final Path saveFile = Checkpoint.getDefaultFile();
+    /**
+     * Diese Variable zeigt dem GameLoop an, dass nach dem nchsten Tick ein Spielstand gespeichert
+     * werden soll
+     */
+    private volatile boolean checkpointRequested;
     
     /**
-     * Dieser Thread ist fr das Steuern des zeitlichen Ablaufs eines Spiels zustndig
+     * ber dieses Objekt wird der Zustand des Spiels nach jedem Tick an die UI verffentlicht,
+     * ohne dass der GameLoop auf das Zeichnen warten muss
+     */
+    private volatile FrameBuffer frames = new FrameBuffer();
+    /**
+     * Der Ausschnitt, der von einem Spielfeld gezeichnet wird, das nicht vollstndig in das Fenster
+     * passt, oder {@code null} falls das gesamte Spielfeld gezeichnet wird
+     */
+    private Camera camera;
+    /**
+     * Die kleinste Gre eines Felds in px, mit der ein Spielfeld noch vollstndig gezeichnet wird
+     */
+    private static final int MIN_CELL_SIZE = 4;
+    /**
+     * Der Name der System-Property, mit der die Gre eines Felds in px festgelegt werden kann,
+     * mit der ein Ausschnitt eines zu groen Spielfelds gezeichnet wird
+     */
+    public static final String CELL_SIZE_PROPERTY = "snake.huge.cellSize";
+    /**
+     * Die Gre eines Felds in px, mit der ein Ausschnitt eines zu groen Spielfelds gezeichnet wird
+     */
+    private static final int VIEWPORT_CELL_SIZE = Math.max(MIN_CELL_SIZE, Integer.getInteger(CELL_SIZE_PROPERTY, 8));
+    /**
+     * Dieses Objekt stellt sicher, dass immer nur ein Thread gleichzeitig zeichnet
+     * (und somit den Zustand aus {@link SnakeControl#frames} abholt)
+     */
+    private final Object paintLock = new Object();
+    /**
+     * Die Nummer des Zustands, der zuletzt (inkrementell) gezeichnet wurde
+     */
+    private long lastPaintedSequence = -1;
+    /**
+     * Diese Variable gibt an, ob die Bewegung des zuletzt gezeichneten Zustands noch nicht
+     * vollstndig (interpoliert) gezeichnet wurde
      */
-    private Thread playThread;
+    private boolean interpolating;
+    /**
+     * Der kleinste Abstand zwischen zwei Ticks in ns, bei dem die Bewegung der Schlange noch
+     * interpoliert wird; bei schnelleren Ticks ist die Bewegung ohnehin flssig
+     */
+    private static final long MIN_INTERPOLATED_PERIOD = 20000000L;
     
     /**
-     * Dieses Objekt ist dafr zustndig, das Spiel, und die Optionen / das Startmen anzuzeigen
+     * Diese Variable gibt an, ob (beim Cheaten) im Turbo-Modus gespielt wird, also die Ticks so
+     * schnell wie mglich am Stck ausgefhrt werden
      */
-    private SnakeUI gui;
+    private volatile boolean turbo;
+    /**
+     * Wie lange (in ns) im Turbo-Modus hchstens am Stck Ticks ausgefhrt werden, bevor ein neuer
+     * Frame angefordert wird, und der GameLoop z.B. auf das Pausieren reagieren kann
+     */
+    private static final long TURBO_BATCH = 2000000L;
+    /**
+     * Die Anzahl an Ticks seit dem Zeitpunkt, ab dem die Ticks pro Sekunde gemessen werden
+     * (werden nur von dem Thread des GameLoops benutzt)
+     */
+    private long ticksMeasured, measureStart = System.nanoTime();
 
     /**
      * Sobald ein neues Steuerungs-Objekt erzeugt wird, wird mit diesem auch ein neues
@@ -92,7 +181,86 @@ public class SnakeControl{
      * Dieses UI-Objekt wird in seinem Konstruktor sichtbar gemacht.
      */
     public SnakeControl(){
+        speedCurve = SpeedCurve.CLASSIC;
+        gameLoop = new GameLoop(new Timer(), "Snake-GameLoop");
+        
         gui = new SnakeUI(this);
+        gridLayer = new GridLayer(gui);
+    }
+    
+    /**
+     * Diese Methode setzt die Geschwindigkeitskurve, die angibt, in welchem Abstand die Ticks
+     * des Spiels ausgefhrt werden
+     * @param curve     Die Geschwindigkeitskurve
+     */
+    public void setSpeedCurve(SpeedCurve curve){
+        this.speedCurve = curve;
+    }
+    
+    /**
+     * Diese Methode schaltet den Turbo-Modus ein bzw. aus.<br>
+     * Im Turbo-Modus werden die Ticks (falls gecheatet wird) ohne Abstand am Stck ausgefhrt,
+     * und hchstens mit der Bildwiederholrate (bzw. bei minimiertem Fenster gar nicht) gezeichnet.
+     * Dadurch kann ein Spiel des Autopiloten in kurzer Zeit zu Ende gespielt werden.
+     * @param turbo     ob im Turbo-Modus gespielt werden soll
+     */
+    public void setTurbo(boolean turbo){
+        this.turbo = turbo;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob der Turbo-Modus eingeschaltet ist
+     * @return  ob der Turbo-Modus eingeschaltet ist
+     * @see SnakeControl#setTurbo(boolean)
+     */
+    public boolean isTurbo(){
+        return turbo;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob derzeit tatschlich im Turbo-Modus gespielt wird
+     * (was nur beim Cheaten mglich ist)
+     * @return  ob im Turbo-Modus gespielt wird
+     */
+    private boolean isTurboActive(){
+        return turbo && engine.getConfig().isCheating();
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Abstand bis zum nchsten Tick
+     * @return  der Abstand in ns
+     */
+    private long getTickPeriod(){
+        return isTurboActive()? 0: speedCurve.getTickPeriod(engine);
+    }
+    
+    /**
+     * Diese Methode setzt, wie mit Ticks umgegangen wird, die (z.B. unter Last) verpasst wurden
+     * @param policy    wie mit verpassten Ticks umgegangen wird
+     * @param maxCatchUpTicks   wie viele verpasste Ticks hchstens nachgeholt werden
+     */
+    public void setOverrunPolicy(GameLoop.OverrunPolicy policy, int maxCatchUpTicks){
+        gameLoop.setOverrunPolicy(policy);
+        gameLoop.setMaxCatchUpTicks(maxCatchUpTicks);
+    }
+    
+    /**
+     * Diese Methode setzt, wie die Richtungseingaben des Users pro Tick bernommen werden
+     * @param policy            wie viele Eingaben pro Tick bernommen werden
+     * @param ignoreReversals   ob Eingaben in die entgegengesetzte Richtung ignoriert werden
+     */
+    public void setInputPolicy(InputQueue.Policy policy, boolean ignoreReversals){
+        input.setPolicy(policy);
+        input.setIgnoringReversals(ignoreReversals);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Warteschlange der Richtungseingaben, z.B. um die Zeit
+     * zwischen Eingabe und Tick auszulesen
+     * @return  die Warteschlange der Richtungseingaben
+     */
+    public InputQueue getInputQueue(){
+        return input;
     }
     
     /**
@@ -101,17 +269,77 @@ public class SnakeControl{
      */
     public void init(){
 //      Wir lesen alle Werte ein
-        int sp = gui.getColumns();
-        int ze = gui.getRows();
+        GameConfig config = new GameConfig(gui.getColumns(), gui.getRows(), gui.shouldBeInfinite(), gui.shouldBeWithRules(), gui.shouldBeCheating());
+        
+//      und beginnen ein neues Spiel mit diesen
+        start(new GameEngine(config));
+    }
+    
+    /**
+     * Diese Methode ldt das zuletzt gespeicherte Spiel, und setzt es fort
+     * @return  ob das Spiel geladen werden konnte
+     * @see SnakeControl#saveGame()
+     */
+    public boolean loadGame(){
+        if(saveFile == null)
+            return false;
+        
+        GameEngine loaded;
+        try{
+            loaded = Checkpoint.read(saveFile).toEngine();
+        }catch(IOException e){
+            return false;
+        }catch(IllegalArgumentException e){
+//          Die gespeicherten freien Felder passen nicht zu der Schlange
+            return false;
+        }
+        
+        start(loaded);
+        return true;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob es ein gespeichertes Spiel gibt
+     * @return  ob es ein gespeichertes Spiel gibt
+     */
+    public boolean hasSavedGame(){
+        return saveFile != null && Files.isRegularFile(saveFile);
+    }
+    
+    /**
+     * Diese Methode speichert den derzeitigen Zustand des Spiels.<br>
+     * Dabei wird der Zustand kopiert, und dann von einem eigenen Thread gespeichert. Da das Kopieren
+     * nicht gleichzeitig mit einem Tick geschehen darf, wird diese Methode nur aufgerufen, whrend das
+     * Spiel pausiert ist; whrend des Spiels wird stattdessen {@link SnakeControl#requestCheckpoint()} benutzt.
+     */
+    public void saveGame(){
+        if(engine == null || saveFile == null)
+            return;
+        
+        checkpoints.save(GameSnapshot.of(engine), saveFile);
+    }
+    
+    /**
+     * Diese Methode lsst den Zustand des laufenden Spiels nach dem nchsten Tick (von dem GameLoop)
+     * speichern
+     * @see SnakeControl#saveGame()
+     */
+    public void requestCheckpoint(){
+        checkpointRequested = true;
+    }
+    
+    /**
+     * Diese Methode beginnt das gegebene Spiel, und berechnet dafr die Offsets und die Gre eines Felds
+     * @param newEngine     Das Spiel, das begonnen wird
+     */
+    private void start(GameEngine newEngine){
+        int sp = newEngine.getConfig().getColumns();
+        int ze = newEngine.getConfig().getRows();
         
         int vsp = (gui.getWidth() - 40) / sp;    //  Diese Werte geben an, wie breit / hoch ein Feld wre,
         int vze = (gui.getHeight() - 40) / ze;   //  wenn diese  nicht quadratisch wren
         
         boolean dG = gui.shouldDrawGrid();
-        infinite = gui.shouldBeInfinite();
-        withRules = gui.shouldBeWithRules();
-        
-        cheating = gui.shouldBeCheating();
         
 //      
 //      Hier eine kleine Erluterung der Berechnung der Offsets
@@ -154,53 +382,143 @@ public class SnakeControl{
 //      Wir nehmen den kleineren der Werte fr die theoretische Gre eines Felds,
 //      damit alle der Felder sichtbar sein knnen
 //      
-        if(vsp > vze){
+        camera = null;
+        if(Math.min(vsp, vze) < MIN_CELL_SIZE){
+//          Wren die Felder dafr zu klein, so wird nur ein Ausschnitt um den Kopf gezeichnet
+            init(newEngine, useCamera(sp, ze), dG);
+        }else if(vsp > vze){
 //          Die Berechung beider Offsets mit dem kleineren 
 //          Wert fr die Breite eines Feldteils eingesetzt
             gui.setOffSets((gui.getWidth() - sp * vze) / 2, (gui.getHeight() - ze * vze) / 2 + 10);
             
 //          Dann wird ein Spiel mit den gegebenen und berechneten Informationen vorbereitet
-            init(sp, ze, vze, Direction.getRandomDirection(), withRules, infinite, dG);
+            init(newEngine, vze, dG);
         }else{
 //          Die Berechung beider Offsets mit dem kleineren 
 //          Wert fr die Breite eines Feldteils eingesetzt
             gui.setOffSets((gui.getWidth() - sp * vsp) / 2, (gui.getHeight() - ze * vsp) / 2 + 10);
             
 //          Dann wird ein Spiel mit den gegebenen und berechneten Informationen vorbereitet
-            init(sp, ze, vsp, Direction.getRandomDirection(), withRules, infinite, dG);
+            init(newEngine, vsp, dG);
         }
         
-//      Auerdem zeigen wir an, dass wir uns jetzt in einem Spiel befinden
+//      Auerdem zeigen wir an, dass wir uns jetzt in einem Spiel befinden,
+//      und dass das neue Spiel vollstndig gezeichnet werden muss
+        requestFullRedraw();
         inGame = true;
         
 //      Lassen die UI das Spiel anzeigen
         gui.showGame();
         
-//      Und starten den zeitsteuernden Thread fr das Spiel
-        playThread = new Thread(new Timer());
-        playThread.start();
+//      Und nehmen den zeitsteuernden GameLoop fr das Spiel wieder auf
+        gameLoop.resume();
+    }
+    
+    /**
+     * Diese Methode bereitet das gegebene Spiel mit den gegebenen Werten vor
+     * @param newEngine Das Spiel
+     * @param s         Die Gre eines Feld in px
+     * @param dG        Ob das Spielfeld gezeichnet werden soll
+     */
+    private void init(GameEngine newEngine, int s, boolean dG){
+//      Das Spiel erzeugt das Spielfeld, die Schlange und das erste Food-Objekt selbst
+        engine = newEngine;
+//      wir mssen nur noch angeben, wie das Spielfeld gezeichnet werden soll
+        SnakePlayingGrid grid = engine.getPlayingGrid();
+        grid.setSize(grid.getWidth(), grid.getHeight(), s);
+        engine.getPlayingGrid().setDrawingGrid(dG);
+//      und uns informieren lassen, sobald das Spiel vorbei ist
+        engine.addGameListener(gameOverListener);
+//      Der Zustand des neuen Spiels wird ber einen neuen FrameBuffer verffentlicht
+        frames = new FrameBuffer();
+        frames.setCamera(camera);
+//      Eingaben aus dem vorherigen Spiel werden verworfen (der GameLoop ist hier pausiert)
+        input.clear();
+//      Und das neue Spiel wird (falls gewnscht) aufgezeichnet
+        startRecording();
+    }
+    
+    /**
+     * Diese Methode bereitet das Zeichnen eines Ausschnitts eines Spielfelds vor, das nicht
+     * vollstndig in das Fenster passt.<br>
+     * Der Ausschnitt umfasst so viele Felder der Gre {@link SnakeControl#VIEWPORT_CELL_SIZE}, wie in
+     * das Fenster passen, und wird zentriert; er folgt dann dem Kopf der Schlange (siehe {@link Camera}).
+     * @param sp    Die Breite des Spielfelds in Feldern
+     * @param ze    Die Hhe des Spielfelds in Feldern
+     * @return      die Gre eines Felds in px
+     */
+    private int useCamera(int sp, int ze){
+        int s = VIEWPORT_CELL_SIZE;
+        int columns = Math.max(1, Math.min(sp, (gui.getWidth() - 40) / s));
+        int rows = Math.max(1, Math.min(ze, (gui.getHeight() - 40) / s));
+        
+//      Die Offsets geben die Stelle des Ausschnitts an (siehe SnakeControl#start(GameEngine))
+        gui.setOffSets((gui.getWidth() - columns * s) / 2, (gui.getHeight() - rows * s) / 2 + 10);
+        camera = new Camera(columns, rows);
+        return s;
+    }
+    
+    /**
+     * Diese Methode beendet die Aufzeichnung des vorherigen Spiels, und beginnt (falls ein Ordner
+     * dafr angegeben wurde) die Aufzeichnung des derzeitigen Spiels
+     * @see ReplayRecorder#getDefaultDirectory()
+     */
+    private void startRecording(){
+        stopRecording();
+        
+        Path directory = ReplayRecorder.getDefaultDirectory();
+        if(directory == null)
+            return;
+        
+        try{
+            recorder = ReplayRecorder.record(engine, directory);
+        }catch(IOException e){
+//          Kann das Spiel nicht aufgezeichnet werden, so wird es trotzdem gespielt
+            recorder = null;
+        }
     }
     
     /**
-     * Diese Methode initialisiert alle am Spiel beteiligten Objekte mit den gegebenen Werten
-     * @param w     Die Breite des Spielfelds in Feldern
-     * @param h     Die Hhe des Spielfelds in Feldern
-     * @param s     Die Gre eines Feld in px
-     * @param dir   Die Richtung, in die die Schlange anfangs gehen soll
-     * @param wR    Ob die Schlange sich an Regeln halten soll
-     * @param inf   Ob das Spielfeld unendlich sein soll
-     * @param dG    Ob das Spielfeld gezeichnet werden soll
+     * Diese Methode beendet (falls vorhanden) die Aufzeichnung des derzeitigen Spiels
      */
-    private void init(int w, int h, int s, Direction dir, boolean wR, boolean inf, boolean dG){
-//      Zuerst mssen wir ein Spielfeld erzeugen, auf dem sich die Schlange befinden kann
-        playGrid = new SnakePlayingGrid(w, h, s, dG);
-//      Dann bentigen wir eine Schlange, damit wir wissen, 
-//      wo wir das Food-Objekt generieren knnen
-        playingSnake = new Snake(w, h, dir, wR, inf);
-//      Schlussendlich generieren wir ein neues Food-Objekt
-        generateFood();
+    private void stopRecording(){
+        if(recorder == null)
+            return;
+        
+        try{
+            recorder.close();
+        }catch(IOException e){
+//          Die Aufzeichnung ist dann unvollstndig, kann aber bis zu dem Fehler nachgespielt werden
+        }
+        recorder = null;
     }
     
+    /**
+     * Dieser GameListener pausiert das Spiel mit der entsprechenden Nachricht,
+     * sobald das Spiel vorbei ist
+     */
+    private GameListener gameOverListener = new GameAdapter(){
+        @Override
+        public void onGameOver(EndCause cause){
+            switch(cause){
+                case ATE_SELF:
+                    pauseGame(Snake.ATE_ITSELF_MESSAGE, EatenItself);
+                    break;
+                case HIT_BORDER:
+                    pauseGame(Snake.HIT_BORDERS_MESSAGE, BorderHit);
+                    break;
+                case BOARD_FULL:
+                    pauseGame(BOARD_FULL_MESSAGE, BoardFull);
+                    break;
+            }
+        }
+    };
+    
+    /**
+     * Die Nachricht, die angezeigt wird, falls die Schlange das gesamte Spielfeld belegt
+     */
+    private static final String BOARD_FULL_MESSAGE = "Your Snake filled the whole board!";
+    
     /**
      * Diese Enumeration wird benutzt um zu unterscheiden, aus welchem Grund das Spiel 
      * pausiert wurde, um zu entscheiden, ob es wieder aufnehmbar ist, oder nicht.
@@ -215,6 +533,11 @@ public class SnakeControl{
          * Falls die Schlange sich selbst gefressen hat
          */
         EatenItself,
+        /*
+         * Falls die Schlange das gesamte Spielfeld belegt, und kein Food-Objekt mehr
+         * erzeugt werden kann
+         */
+        BoardFull,
         /*
          * Falls der Pausierbefehl von der UI kam (z.B. Escape gedrckt)
          */
@@ -230,11 +553,12 @@ public class SnakeControl{
      * @see CauseOfPause
      */
     public void pauseGame(String message, CauseOfPause cause){
-//      Wir brechen den Thread ab, indem wir ihm sagen, dass wir nicht mehr in einem Spiel sind
+//      Wir zeigen an, dass wir nicht mehr in einem Spiel sind, und pausieren den GameLoop
         inGame = false;
+        gameLoop.pause();
         
-//      Falls das Spiel durch den "Tod" der Schlange verursacht wird
-        if(cause == BorderHit || cause == EatenItself){
+//      Falls das Spiel durch den "Tod" der Schlange oder ein volles Spielfeld beendet wird
+        if(cause == BorderHit || cause == EatenItself || cause == BoardFull){
 //          wird der UI gesagt, dass das Spiel nicht wieder aufnehmbar ist
             gui.setResumable(false);
         }else{
@@ -248,7 +572,7 @@ public class SnakeControl{
         gui.repaint();
         
 //      Und die UI soll wieder ihre Komponenten ausgeben
-        gui.showUI(message, playingSnake.getScore());
+        gui.showUI(message, engine.getScore());
     }
     
     /**
@@ -259,14 +583,15 @@ public class SnakeControl{
 //      Zuerst lassen wir von der UI wieder das Spiel anzeigen
         gui.showGame();
         
-//      Dann lassen wir angeben, dass wir uns wieder in einem Spiel befinden
+//      Dann lassen wir angeben, dass wir uns wieder in einem Spiel befinden,
+//      das (da evtl. die Einstellungen gendert wurden) vollstndig gezeichnet werden muss
+        requestFullRedraw();
         inGame = true;
         
-//      Und starten den zeitsteuernden Thread wieder.
+//      Und nehmen den zeitsteuernden GameLoop wieder auf.
 //      Die am Spiel beteiligten Objekte sind noch in ihrem vorherigen Zustand, und knnen
 //      daher einfach dort weitermachen, wo sie aufgehrt haben.
-        playThread = new Thread(new Timer());
-        playThread.start();
+        gameLoop.resume();
     }
     
     /**
@@ -281,50 +606,31 @@ public class SnakeControl{
         int vze = (gui.getHeight() - 40) / ze;
         
         boolean dG = gui.shouldDrawGrid();
-        boolean inf = gui.shouldBeInfinite();
-        boolean wR = gui.shouldBeWithRules();
+        GameConfig config = new GameConfig(sp, ze, gui.shouldBeInfinite(), gui.shouldBeWithRules(), gui.shouldBeCheating());
         
-        cheating = gui.shouldBeCheating();
+//      Dann werden die Einstellungen in das laufende Spiel bernommen
+        engine.applyConfig(config);
         
 //      Dann die Offsets berechnet, und gespeichert
 //      Fr weitere Informationen dazu siehe SnakeControl#init()
-        if(vsp > vze){
+        camera = null;
+        if(Math.min(vsp, vze) < MIN_CELL_SIZE){
+            engine.getPlayingGrid().setSize(sp, ze, useCamera(sp, ze));
+        }else if(vsp > vze){
             gui.setOffSets((gui.getWidth() - sp * vze) / 2, (gui.getHeight() - ze * vze)/ 2 + 10);
             
-//          Dann wird die Gre des Spielfelds gespeichert
-            playGrid.setSize(sp, ze, vze);
-            
-//          Und falls gecheatet werden soll
-            if(cheating){
-//              Wird auf jeden Fall ohne Regeln und mit unendlichem Spielfeld gespielt
-                playingSnake.setWithRules(false);
-                playingSnake.setInfinite(true);
-            }else{
-//              und falls nicht werden die eingelesenen Werte gespeichert
-                playingSnake.setWithRules(wR);
-                playingSnake.setInfinite(inf);
-            }
+//          Dann wird die Zeichengre des Spielfelds gespeichert
+            engine.getPlayingGrid().setSize(sp, ze, vze);
         }else{
             gui.setOffSets((gui.getWidth() - sp * vsp) / 2, (gui.getHeight() - ze * vsp) / 2 + 10);
             
-//          Dann wird die Gre des Spielfelds gespeichert
-            playGrid.setSize(sp, ze, vsp);
-
-//          Und falls gecheatet werden soll
-            if(cheating){
-//              Wird auf jeden Fall ohne Regeln und mit unendlichem Spielfeld gespielt
-                playingSnake.setWithRules(false);
-                playingSnake.setInfinite(true);
-            }else{
-//              und falls nicht werden die eingelesenen Werte gespeichert
-                playingSnake.setWithRules(wR);
-                playingSnake.setInfinite(inf);
-            }
+//          Dann wird die Zeichengre des Spielfelds gespeichert
+            engine.getPlayingGrid().setSize(sp, ze, vsp);
         }
-//      Letzten Endes werden alle brigen Werte gespeichert
-        playGrid.setDrawingGrid(dG);
-        playingSnake.notifySizeChanged(sp, ze);
-        currentFood.notifySizeChanged(sp, ze);
+//      Letzten Endes wird gespeichert, ob das Spielfeld gezeichnet werden soll,
+//      und ob nur ein Ausschnitt davon gezeichnet wird
+        engine.getPlayingGrid().setDrawingGrid(dG);
+        frames.setCamera(camera);
         
 //      Und das Spiel wieder aufgenommen
         resumeGame();
@@ -332,53 +638,338 @@ public class SnakeControl{
     
     /**
      * Diese Methode zeichnet das Spielfeld, da die UI keinen
-     * Zugriff auf die spielbeteiligten Objekte hat
-     * @param x     das x-Offset des Spielfelds
-     * @param y     das y-Offset des Spielfelds
+     * Zugriff auf die spielbeteiligten Objekte hat.<br>
+     * Dabei wird der zuletzt verffentlichte Zustand des Spiels gezeichnet.
+     * @param x     das x-Offset des Spielfelds (bzw. des gezeichneten Ausschnitts)
+     * @param y     das y-Offset des Spielfelds (bzw. des gezeichneten Ausschnitts)
      * @param g     das Graphics-Objekt auf dem gezeichnet werden soll
      */
     public void paintEverything(int x, int y, Graphics g){
-//      zuerst wird sicher gestellt, dass in Schwarz gezeichnet wird
+        long start = Metrics.ENABLED? System.nanoTime(): 0;
+        PaintEvent event = new PaintEvent();
+        event.begin();
+        synchronized(paintLock){
+            FrameSnapshot frame = frames.acquire();
+            int s = engine.getPlayingGrid().getSize();
+            paintFrame(x - frame.getViewX() * s, y - frame.getViewY() * s, frame, g);
+            
+            if(event.shouldCommit()){
+                event.sequence = frame.getSequence();
+                event.fullRedraw = true;
+                event.cellsPainted = frame.getViewColumns() * frame.getViewRows();
+                event.commit();
+            }
+        }
+        if(Metrics.ENABLED)
+            Metrics.PAINT_TIME.record(System.nanoTime() - start);
+    }
+    
+    /**
+     * Diese Methode zeichnet den gegebenen Zustand des Spiels vollstndig
+     * @param x         das x-Offset des (gesamten) Spielfelds
+     * @param y         das y-Offset des (gesamten) Spielfelds
+     * @param frame     der Zustand des Spiels
+     * @param g         das Graphics-Objekt auf dem gezeichnet werden soll
+     */
+    private void paintFrame(int x, int y, FrameSnapshot frame, Graphics g){
+        if(frame.hasViewport()){
+            paintViewport(x, y, frame, g);
+            return;
+        }
+        
+        SnakePlayingGrid playGrid = engine.getPlayingGrid();
+        int s = playGrid.getSize();
+        int w = frame.getWidth();
+        
+//      Zuerst malen wir das (zwischengespeicherte) Spielfeld
+        gridLayer.drawGrid(playGrid, x, y, g);
+        
+//      dann die Schlange in Schwarz,
+        g.setColor(Color.BLACK);
+        for(int i = 1; i < frame.getLength(); i++){
+            int cell = frame.getCell(i);
+            g.fillRect(x + (cell % w) * s, y + (cell / w) * s, s, s);
+        }
+//      mit ihrem Kopf in Rot
+        if(frame.getLength() > 0){
+            int cell = frame.getCell(0);
+            g.setColor(Color.RED);
+            g.fillRect(x + (cell % w) * s, y + (cell / w) * s, s, s);
+            g.setColor(Color.BLACK);
+        }
+//      Und das Food-Objekt
+        if(frame.getFoodCell() >= 0)
+            g.fillOval(x + (frame.getFoodCell() % w) * s, y + (frame.getFoodCell() / w) * s, s, s);
+    }
+    
+    /**
+     * Diese Methode zeichnet den Ausschnitt des gegebenen Zustands vollstndig.<br>
+     * Dabei werden nur die Linien und die Belegung des Ausschnitts gezeichnet (siehe
+     * {@link FrameSnapshot#isOccupiedInView(int, int)}), weshalb der Aufwand nur von der Gre des
+     * Fensters abhngt, und nicht von der Gre des Spielfelds oder der Lnge der Schlange.
+     * @param x         das x-Offset des (gesamten) Spielfelds
+     * @param y         das y-Offset des (gesamten) Spielfelds
+     * @param frame     der Zustand des Spiels
+     * @param g         das Graphics-Objekt auf dem gezeichnet werden soll
+     */
+    private void paintViewport(int x, int y, FrameSnapshot frame, Graphics g){
+        SnakePlayingGrid playGrid = engine.getPlayingGrid();
+        int s = playGrid.getSize();
+        int cols = frame.getViewColumns();
+        int rows = frame.getViewRows();
+        int left = x + frame.getViewX() * s;
+        int top = y + frame.getViewY() * s;
+        
+//      Zuerst lschen wir den Ausschnitt, und malen die Linien des Spielfelds darin
+        g.setColor(gui.getBackground());
+        g.fillRect(left, top, cols * s + 1, rows * s + 1);
         g.setColor(Color.BLACK);
+        playGrid.drawPlayingGrid(x, y, frame.getViewX(), frame.getViewY(), cols, rows, g);
         
-//      Dann malen wir das Spielfeld
-        playGrid.drawPlayingGrid(x, y, g);
-//      die Schlange
-        playingSnake.drawSnake(x, y, playGrid.getSize(), g);
+//      dann die belegten Felder in Schwarz, wobei nebeneinander liegende Felder einer Zeile
+//      als ein Rechteck gezeichnet werden
+        for(int row = 0; row < rows; row++){
+            int col = 0;
+            while(col < cols){
+                if(!frame.isOccupiedInView(col, row)){
+                    col++;
+                    continue;
+                }
+                int first = col;
+                while(col < cols && frame.isOccupiedInView(col, row))
+                    col++;
+                g.fillRect(left + first * s, top + row * s, (col - first) * s, s);
+            }
+        }
+//      mit dem Kopf in Rot
+        int head = frame.getHead();
+        int w = frame.getWidth();
+        if(head >= 0 && frame.isVisible(head)){
+            g.setColor(Color.RED);
+            g.fillRect(x + (head % w) * s, y + (head / w) * s, s, s);
+            g.setColor(Color.BLACK);
+        }
 //      Und das Food-Objekt
-        currentFood.drawFood(x, y, playGrid.getSize(), g);
+        if(frame.getFoodCell() >= 0 && frame.isVisible(frame.getFoodCell()))
+            g.fillOval(x + (frame.getFoodCell() % w) * s, y + (frame.getFoodCell() / w) * s, s, s);
     }
     
     /**
-     * Diese Methode soll aufgerufen werden, sobald eine Nachricht des Users anzeigt, dass
-     * er mchte, dass die Schlange ihre Richtung ndert.<br>
-     * Diese greift auf das Snake-Objekt zu, und aktualisiert dessen Attribut.
-     * @param directionChangingTo   die Richtung, in die sich die Schlange bewegen soll
+     * Diese Methode lsst beim nchsten Zeichnen das gesamte Spiel neu zeichnen, indem
+     * der derzeitige Zustand des Spiels (vollstndig) verffentlicht wird
      */
-    public void onDirectionChanging(Direction directionChangingTo){
-        playingSnake.changeDirectionTo(directionChangingTo);
+    public void requestFullRedraw(){
+        frames.invalidate();
+        frames.publish(engine, true);
+    }
+    
+    /**
+     * Diese Methode zeichnet das Spiel inkrementell auf ein Bild, das zwischen den Aufrufen
+     * erhalten bleibt.<br>
+     * Dabei werden nur die Felder neu gezeichnet, die sich seit dem zuletzt gezeichneten Zustand
+     * verndert haben (i.d.R. der alte und der neue Kopf, das freigegebene Ende und evtl. das
+     * Food-Objekt). Das gesamte Spiel wird nur gezeichnet, falls dies mit dem Parameter full
+     * angefordert wurde, oder der Zustand nicht auf den zuletzt gezeichneten folgt
+     * (z.B. nach {@link SnakeControl#requestFullRedraw()}).<br>
+     * Die Bewegung des Kopfs und des Endes wird zwischen zwei Ticks interpoliert (siehe
+     * {@link SnakeControl#paintInterpolation(int, int, FrameSnapshot, Graphics)}); solange diese nicht
+     * vollstndig gezeichnet wurde, wird unabhngig von den Ticks der nchste Frame angefordert.<br>
+     * Wird nur ein Ausschnitt des Spielfelds gezeichnet, so werden vernderte Felder auerhalb des
+     * Ausschnitts bersprungen.
+     * @param x             das x-Offset des Spielfelds (bzw. des gezeichneten Ausschnitts)
+     * @param y             das y-Offset des Spielfelds (bzw. des gezeichneten Ausschnitts)
+     * @param background    die Hintergrundfarbe
+     * @param g             das Graphics-Objekt des Bilds, auf dem gezeichnet werden soll
+     * @param full          ob das gesamte Spiel (z.B. auf einem neuen Bild) gezeichnet werden soll
+     */
+    public void paintGame(int x, int y, Color background, Graphics g, boolean full){
+        long start = Metrics.ENABLED? System.nanoTime(): 0;
+        PaintEvent event = new PaintEvent();
+        event.begin();
+        boolean animating;
+        synchronized(paintLock){
+            FrameSnapshot frame = frames.acquire();
+            
+//          Falls seit dem letzten Zeichnen nichts verffentlicht wurde, und die Bewegung
+//          vollstndig gezeichnet wurde, ist das Bild aktuell
+            boolean painted = !full && frame.getSequence() == lastPaintedSequence;
+            if(painted && !interpolating)
+                return;
+            
+            SnakePlayingGrid playGrid = engine.getPlayingGrid();
+//          Die Felder werden relativ zu dem gesamten Spielfeld gezeichnet
+            x -= frame.getViewX() * playGrid.getSize();
+            y -= frame.getViewY() * playGrid.getSize();
+            if(!painted){
+                if(full || frame.isFullRedraw() || frame.getChangesSince() != lastPaintedSequence
+                        || frame.getWidth() != playGrid.getWidth() || frame.getHeight() != playGrid.getHeight()){
+//                  Falls alles gezeichnet werden soll, lschen wir das gesamte Bild, und zeichnen alles
+                    g.setColor(background);
+                    g.fillRect(0, 0, gui.getWidth(), gui.getHeight());
+                    paintFrame(x, y, frame, g);
+                    event.fullRedraw = true;
+                    event.cellsPainted = frame.getViewColumns() * frame.getViewRows();
+                }else{
+//                  Ansonsten zeichnen wir nur die vernderten (sichtbaren) Felder
+                    for(int i = 0; i < frame.getChangedCellCount(); i++){
+                        if(frame.isVisible(frame.getChangedCell(i)))
+                            paintCell(x, y, frame.getChangedCell(i), frame.getChangedState(i), g);
+                    }
+                    event.cellsPainted = frame.getChangedCellCount();
+                }
+                lastPaintedSequence = frame.getSequence();
+            }
+            
+//          Der Kopf und das Ende werden (evtl.) entsprechend der seit dem Tick vergangenen Zeit
+//          nur teilweise gezeichnet
+            interpolating = paintInterpolation(x, y, frame, g);
+            animating = interpolating;
+            
+            if(!painted && event.shouldCommit()){
+                event.sequence = lastPaintedSequence;
+                event.commit();
+            }
+        }
+        if(Metrics.ENABLED)
+            Metrics.PAINT_TIME.record(System.nanoTime() - start);
+        
+//      Solange die Bewegung nicht vollstndig gezeichnet wurde, wird (hchstens mit der
+//      Bildwiederholrate) der nchste Frame angefordert, unabhngig von den Ticks des Spiels
+        if(animating)
+            gui.requestFrame();
+    }
+    
+    /**
+     * Diese Methode zeichnet die Bewegung der Schlange whrend des letzten Ticks: Der Kopf schiebt
+     * sich von seinem vorherigen Feld aus in sein neues Feld, und das Ende verlsst sein vorheriges
+     * Feld, jeweils entsprechend dem Anteil des Abstands zum nchsten Tick, der bereits vergangen ist.<br>
+     * Die beiden Felder mssen vorher mit ihrem tatschlichen Zustand gezeichnet worden sein.
+     * Bewegungen ber den Rand des Spielfelds hinweg, und Felder auerhalb des gezeichneten Ausschnitts
+     * werden nicht interpoliert.
+     * @param x         das x-Offset des Spielfelds
+     * @param y         das y-Offset des Spielfelds
+     * @param frame     der gezeichnete Zustand des Spiels
+     * @param g         das Graphics-Objekt auf dem gezeichnet werden soll
+     * @return          ob die Bewegung noch nicht vollstndig gezeichnet wurde
+     */
+    private boolean paintInterpolation(int x, int y, FrameSnapshot frame, Graphics g){
+        long period = frame.getTickPeriod();
+        if(period < MIN_INTERPOLATED_PERIOD || frame.getHead() < 0)
+            return false;
+        
+        long elapsed = System.nanoTime() - frame.getTickTime();
+        if(elapsed >= period)
+            elapsed = period;
+        int s = engine.getPlayingGrid().getSize();
+        int grown = (int) (s * elapsed / period);
+        
+//      Das Feld des Kopfs wird geleert, und nur der bereits erreichte Teil rot gezeichnet
+        int head = frame.getHead();
+        if(isNeighbour(frame.getPreviousHead(), head, frame.getWidth()) && frame.isVisible(head)){
+            paintCell(x, y, head, 0, g);
+            g.setColor(Color.RED);
+            fillTowards(x, y, head, frame.getPreviousHead(), grown, frame.getWidth(), s, g);
+        }
+        
+//      Von dem vorherigen Feld des Endes wird nur der noch nicht verlassene Teil schwarz gezeichnet
+        int tail = frame.getTail();
+        int previousTail = frame.getPreviousTail();
+        if(isNeighbour(previousTail, tail, frame.getWidth()) && previousTail != head && frame.isVisible(previousTail)){
+            paintCell(x, y, previousTail, 0, g);
+            g.setColor(Color.BLACK);
+            fillTowards(x, y, previousTail, tail, s - grown, frame.getWidth(), s, g);
+            if(previousTail == frame.getFoodCell())
+                g.fillOval(x + (previousTail % frame.getWidth()) * s, y + (previousTail / frame.getWidth()) * s, s, s);
+        }
+        g.setColor(Color.BLACK);
+        
+        return elapsed < period;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob die beiden gegebenen Felder (ohne ber den Rand des Spielfelds
+     * zu gehen) nebeneinander liegen
+     * @param a         Das erste Feld, oder -1
+     * @param b         Das zweite Feld
+     * @param w         Die Breite des Spielfelds
+     * @return          ob die Felder nebeneinander liegen
+     */
+    private static boolean isNeighbour(int a, int b, int w){
+        if(a < 0)
+            return false;
+        int dx = Math.abs(a % w - b % w);
+        int dy = Math.abs(a / w - b / w);
+        return dx + dy == 1;
     }
     
     /**
-     * Diese Methode generiert ein neues Food-Objekt, das so gut es geht nicht innerhalb der
-     * Schlange liegt.
+     * Diese Methode fllt den Teil des gegebenen Felds, der an das benachbarte Feld grenzt
+     * @param x             das x-Offset des Spielfelds
+     * @param y             das y-Offset des Spielfelds
+     * @param cell          das Feld, das (teilweise) gefllt wird
+     * @param neighbour     das benachbarte Feld
+     * @param amount        wie weit das Feld (in px, von dem benachbarten Feld aus) gefllt wird
+     * @param w             die Breite des Spielfelds
+     * @param s             die Gre eines Felds in px
+     * @param g             das Graphics-Objekt auf dem gezeichnet werden soll
      */
-    private void generateFood(){
-//      Wir bentigen eine x- und eine y-Koordinate fr das Food-Objekt,
-//      und auerdem noch einen Zhler
-        int x = 0, y = 0, ctr = 0;
+    private static void fillTowards(int x, int y, int cell, int neighbour, int amount, int w, int s, Graphics g){
+        int cx = x + (cell % w) * s;
+        int cy = y + (cell / w) * s;
         
-//      Wir wollen mindestens einmal einen zuflligen Wert fr die Koordinaten zuweisen
-        do{
-            x = (int) (Math.random() * playGrid.getWidth());    //  dieser Wert liegt im Intervall [0 .. Breite]
-            y = (int) (Math.random() * playGrid.getHeight());   //  dieser Wert liegt im Intervall [0 .. Hhe]
-//      dies tun wir so lange, wie die Schlange das Feld mit den generierten Koordinaten nicht mehr
-//      berdeckt, allerdings hchstens 4000 Iterationen, damit sichergestellt wird, dass das Spiel
-//      sich nicht aufhngt, sobald die Schlange das gesamte Feld bedeckt
-        }while(playingSnake.contains(x, y) && ctr++ < 4000);
+        if(neighbour == cell - 1)
+            g.fillRect(cx, cy, amount, s);
+        else if(neighbour == cell + 1)
+            g.fillRect(cx + s - amount, cy, amount, s);
+        else if(neighbour < cell)
+            g.fillRect(cx, cy, s, amount);
+        else
+            g.fillRect(cx, cy + s - amount, s, amount);
+    }
+    
+    /**
+     * Diese Methode zeichnet ein einzelnes Feld genauso, wie es von
+     * {@link SnakeControl#paintEverything(int, int, Graphics)} gezeichnet wrde
+     * @param x             das x-Offset des Spielfelds
+     * @param y             das y-Offset des Spielfelds
+     * @param cell          das Feld (als y * Breite + x)
+     * @param state         der Zustand des Felds (siehe {@link FrameSnapshot#getChangedState(int)})
+     * @param g             das Graphics-Objekt auf dem gezeichnet werden soll
+     */
+    private void paintCell(int x, int y, int cell, int state, Graphics g){
+        SnakePlayingGrid playGrid = engine.getPlayingGrid();
         
-//      dann erzeugen wir ein neues Food-Objekt mit den generierten Koordinaten
-        currentFood = new Food(x, y);
+        int w = playGrid.getWidth();
+        int s = playGrid.getSize();
+        int cx = x + (cell % w) * s;
+        int cy = y + (cell / w) * s;
+        
+//      Zuerst lschen wir das Feld, indem wir den Ausschnitt des Spielfelds ausgeben
+        gridLayer.drawCell(playGrid, x, y, cell, g);
+        g.setColor(Color.BLACK);
+        
+//      Ein Teil der Schlange berdeckt die Linien des Spielfelds; der Kopf ist rot
+        if((state & FrameSnapshot.HEAD) != 0){
+            g.setColor(Color.RED);
+            g.fillRect(cx, cy, s, s);
+            g.setColor(Color.BLACK);
+        }else if((state & FrameSnapshot.BODY) != 0){
+            g.fillRect(cx, cy, s, s);
+        }
+        
+        if((state & FrameSnapshot.FOOD) != 0)
+            g.fillOval(cx, cy, s, s);
+    }
+    
+    /**
+     * Diese Methode soll aufgerufen werden, sobald eine Nachricht des Users anzeigt, dass
+     * er mchte, dass die Schlange ihre Richtung ndert.<br>
+     * Diese fgt die Richtung (mit dem Zeitpunkt der Eingabe) in die Warteschlange ein, aus der
+     * sie zu Beginn des nchsten Ticks bernommen wird.
+     * @param directionChangingTo   die Richtung, in die sich die Schlange bewegen soll
+     */
+    public void onDirectionChanging(Direction directionChangingTo){
+        input.offer(directionChangingTo, System.nanoTime());
     }
     
     /**
@@ -399,412 +990,113 @@ public class SnakeControl{
         new SnakeControl();
     }
     
-    /**
-     * Diese Methode lsst die Schlange sich selbststndig (abhngig von den Einstellungen) bewegen.
-     * Sie versucht sich an die Regeln so gut es geht zu halten, und das bestmgliche
-     * computer-gesteuerte Ergebnis zu erzielen.
-     * @param ctr   der Zhlstand, der der Bewegung der Schlange bei Cheats hilft
-     * @return      der aktualisierte Zhlstand
-     */
-    private int moveIfCheating(int ctr) {
-        int x = playingSnake.getFirstX();
-        int y = playingSnake.getFirstY();
-
-        if(withRules) {
-            if(infinite) {
-                
-                /*
-                 * Bei Regeln mit unendlicher Welt fahren wir die ganze Hhe ab (nach oben oder unten),
-                 * fahren eins nach rechts und fahren dann wieder hoch.
-                 * Diesen Prozess wiederholen wir, bis das Spiel beendet wurde.
-                 */
-                
-                if(ctr == 0) {
-                    playingSnake.changeDirectionTo(right);
-                }else if(ctr == 1) {
-                    playingSnake.changeDirectionTo(down);
-                }else if(ctr == playGrid.getHeight()) {
-                    playingSnake.changeDirectionTo(right);
-                }else if(ctr == playGrid.getHeight() + 1) {
-                    playingSnake.changeDirectionTo(up);
-                }
-
-                ctr = (ctr + 1) % (2 * playGrid.getHeight());
-            }else {
-
-                /*
-                 * Bei Regeln und endlicher Welt mssen wir zwischen drei Fllen unterscheiden:
-                 *  - Hhe ist gerade, Breite ist egal
-                 *  - Hhe ist ungerade, Breite ist gerade
-                 *  - Hhe ist ungerade, Breite ist ungerade
-                 */
-                
-                if(playGrid.getHeight() % 2 == 0) {
-                    
-                    /*
-                     * Wenn die Hhe gerade ist (Breite ist egal)
-                     */
-
-                    /*
-                     * Beim ersten Durchlauf (bei allen anderen Durchlufen ist ctr = 1)
-                     * wird die Snake in die (fr ihre Position) richtige Richtung gelenkt,
-                     * um zu verhindern, dass sie auf keinen markanten Punkt trifft, und
-                     * einfach in die Wand fhrt
-                     */
-                    
-                    if(ctr == 0) {
-                        ctr++;
-                        if(x == 0) {
-                            playingSnake.changeDirectionTo(up);
-                        }else if(y % 2 == 0) {
-                            playingSnake.changeDirectionTo(right);
-                        }else {
-                            playingSnake.changeDirectionTo(left);
-                        }
-                    }
-
-                    /*
-                     * Dann wird sie nach folgendem Muster bewegt (Pfeile zeigen einen besonderen
-                     * Punkt, an dem die Richtung in die von dem Pfeil angezeigte Richtung gewechselt):
-                     * 
-                     *   __ __ __ __ __ __ __ __ __ __ __ __ __ __ __ __ __ __
-                     *  |->|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     *  |__|vv|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|
-                     *  |__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     *  |__|vv|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|
-                     *  |__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     *  |__|vv|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|
-                     *  |__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     *  |^^|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|
-                     *  
-                     */
-
-                    if(x == 0 && y == 0) {
-                        playingSnake.changeDirectionTo(right);
-                    }else if(y == playGrid.getHeight() - 1) {
-                        if(x == 0) {
-                            playingSnake.changeDirectionTo(up);
-                        }else if(x == playGrid.getWidth() - 1){
-                            playingSnake.changeDirectionTo(left);
-                        }
-                    }else if(x == playGrid.getWidth() - 1 && y % 2 == 0) {
-                        playingSnake.changeDirectionTo(down);
-                    }else if(x == playGrid.getWidth() - 1 && y % 2 == 1) {
-                        playingSnake.changeDirectionTo(left);
-                    }else if(x == 1 && y % 2 == 1) {
-                        playingSnake.changeDirectionTo(down);
-                    }else if(x == 1 && y % 2 == 0) {
-                        playingSnake.changeDirectionTo(right);
-                    }
-                }else if(playGrid.getWidth() % 2 == 0) {
-
-                    /*
-                     * Wenn die Hhe ungerade, und die Breite gerade ist
-                     */
-                    
-                    /*
-                     * Beim ersten Durchlauf (bei allen anderen Durchlufen ist ctr = 1)
-                     * wird die Snake in die (fr ihre Position) richtige Richtung gelenkt,
-                     * um zu verhindern, dass sie auf keinen markanten Punkt trifft, und
-                     * einfach in die Wand fhrt
-                     */
-                    
-                    if(ctr == 0) {
-                        if(x == 0) {
-                            playingSnake.changeDirectionTo(up);
-                        }else if(y == 0 || y % 2 == 1) {
-                            playingSnake.changeDirectionTo(right);
-                        }else if(y % 2 == 0) {
-                            playingSnake.changeDirectionTo(left);
-                        }
-                        ctr++;
-                    }
-
-                    /*
-                     * Dann wird sie nach folgendem Muster bewegt (Pfeile zeigen einen besonderen
-                     * Punkt, an dem die Richtung in die von dem Pfeil angezeigte Richtung gewechselt):
-                     * 
-                     *  __ __ __ __ __ __ __ __ __ __ __ __ __ __ __ __
-                     * |->|__|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     * |__|vv|<-|vv|<-|vv|<-|vv|<-|vv|<-|vv|<-|vv|<-|vv|
-                     * |__|__|^^|<-|^^|<-|^^|<-|^^|<-|^^|<-|^^|<-|^^|<-|
-                     * |__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     * |__|vv|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|
-                     * |__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     * |__|vv|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|
-                     * |__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     * |^^|__|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|
-                     */
-
-
-                    if(x == 0) {
-                        if(y == 0) {
-                            playingSnake.changeDirectionTo(right);
-                        }else if(y == playGrid.getHeight() - 1) {
-                            playingSnake.changeDirectionTo(Direction.up);
-                        }
-                    }else if(y == 0) {
-                        if(x == playGrid.getWidth() - 1) {
-                            playingSnake.changeDirectionTo(down);
-                        }
-                    }else if(y == playGrid.getHeight() - 1) {
-                        if(x == playGrid.getWidth() - 1) {
-                            playingSnake.changeDirectionTo(Direction.left);
-                        }
-                    }else if(y == 1 || y == 2) {
-                        if(x == 1) {
-                            playingSnake.changeDirectionTo(down);
-                        }else if(x % 2 == 1) {
-                            if(y == 1) {
-                                playingSnake.changeDirectionTo(down);
-                            }else {
-                                playingSnake.changeDirectionTo(Direction.left);
-                            }
-                        }else {
-                            if(y == 1) {
-                                playingSnake.changeDirectionTo(Direction.left);
-                            }else {
-                                playingSnake.changeDirectionTo(Direction.up);
-                            }
-                        }
-                    }else if(y % 2 == 1) {
-                        if(x == 1) {
-                            playingSnake.changeDirectionTo(right);
-                        }else if(x == playGrid.getWidth() - 1) {
-                            playingSnake.changeDirectionTo(down);
-                        }
-                    }else if(y % 2 == 0) {
-                        if(x == 1) {
-                            playingSnake.changeDirectionTo(down);
-                        }else if(x == playGrid.getWidth() - 1) {
-                            playingSnake.changeDirectionTo(Direction.left);
-                        }
-                    }
-                }else {
-                    
-                    /*
-                     * Wenn die Hhe und die Breite ungerade sind wird in 2-Durchlauf Zyklen gearbeitet.
-                     * Dabei wird nach dem Schema gearbeitet, als wre die Hhe ungerade und die Breite gerade.
-                     * Um dieses Schema allerdings ausfhren zu knnen muss man eine Spalte auslassen.
-                     * Dadurch wird mit jedem Durchlauf eines Zykluses zwischen der ersten Spalte und der
-                     * letzten Spalte auslassen gewechselt.
-                     */
-                    
-                    /*
-                     * Am Punkt P(2|0) wird zwischen den auszulassenden Spalten gewechselt
-                     */
-                    
-                    if(x == 2 && y == 0) {
-                        ctr += (ctr == 1)? 1: -1;
-                    }
-                    
-                    /*
-                     * Beim ersten Durchlauf (bei allen anderen Durchlufen ist ctr =/= 0)
-                     * wird die Snake in die (fr ihre Position) richtige Richtung gelenkt,
-                     * um zu verhindern, dass sie auf keinen markanten Punkt trifft, und
-                     * einfach in die Wand fhrt
-                     */
-                    
-                    if(ctr == 0) {
-                        if(x == 0) {
-                            playingSnake.changeDirectionTo(Direction.up);
-                        }else if(y == 0 || y % 2 == 1) {
-                            playingSnake.changeDirectionTo(right);
-                        }else if(y % 2 == 0) {
-                            playingSnake.changeDirectionTo(Direction.left);
-                        }
-                        ctr++;
-                    }
-                    
-                    /*
-                     * Im zweiten Durchlauf wird die (imaginre) Position der Snake verschoben, damit
-                     */
-                    
-                    else if(ctr == 2) {
-                        x--;
-                    }
-                    
-                    /*
-                     * Dann wird sie nach folgendem Muster bewegt (Pfeile zeigen einen besonderen
-                     * Punkt, an dem die Richtung in die von dem Pfeil angezeigte Richtung gewechselt):
-                     * 
-                     * Durchlauf 1 des Zyklus (ctr = 1):
-                     *  __ __ __ __ __ __ __ __ __ __ __ __ __ __ __ __ __
-                     * |->|__|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|__|
-                     * |__|vv|<-|vv|<-|vv|<-|vv|<-|vv|<-|vv|<-|vv|<-|vv|__|
-                     * |__|__|^^|<-|^^|<-|^^|<-|^^|<-|^^|<-|^^|<-|^^|<-|__|
-                     * |__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|__|
-                     * |__|vv|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|__|
-                     * |__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|__|
-                     * |__|vv|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|__|
-                     * |__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|__|
-                     * |^^|__|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|__|
-                     * 
-                     * Durchlauf 2 des Zyklus (ctr = 2):
-                     *  __ __ __ __ __ __ __ __ __ __ __ __ __ __ __ __ __
-                     * |->|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     * |__|__|vv|<-|vv|<-|vv|<-|vv|<-|vv|<-|vv|<-|vv|<-|vv|
-                     * |__|__|__|^^|<-|^^|<-|^^|<-|^^|<-|^^|<-|^^|<-|^^|<-|
-                     * |__|__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     * |__|__|vv|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|
-                     * |__|__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     * |__|__|vv|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|
-                     * |__|__|->|__|__|__|__|__|__|__|__|__|__|__|__|__|vv|
-                     * |^^|__|__|__|__|__|__|__|__|__|__|__|__|__|__|__|<-|
-                     * 
-                     * Somit ist gewhrleistet, dass innerhalb kurzer Zeit (eines Zykluses) das gesamte Spielfeld
-                     * abgefahren wird, und die Schlange (so gut wie mglich) nicht in sich selbst hineinfhrt.
-                     * 
-                     */
-                    
-                    if((ctr == 1 && x == 0) || (ctr == 2 && x == -1)) {
-                        if(y == 0) {
-                            playingSnake.changeDirectionTo(right);
-                        }else if(y == playGrid.getHeight() - 1) {
-                            playingSnake.changeDirectionTo(Direction.up);
-                        }
-                    }else if(y == 0) {
-                        if(x == playGrid.getWidth() - 2) {
-                            playingSnake.changeDirectionTo(down);
-                        }
-                    }else if(y == playGrid.getHeight() - 1) {
-                        if(x == playGrid.getWidth() - 2) {
-                            playingSnake.changeDirectionTo(Direction.left);
-                        }
-                    }else if(y == 1 || y == 2) {
-                        if(x == 1) {
-                            playingSnake.changeDirectionTo(down);
-                        }else if(x % 2 == 1) {
-                            if(y == 1) {
-                                playingSnake.changeDirectionTo(down);
-                            }else {
-                                playingSnake.changeDirectionTo(Direction.left);
-                            }
-                        }else {
-                            if(y == 1) {
-                                playingSnake.changeDirectionTo(Direction.left);
-                            }else {
-                                playingSnake.changeDirectionTo(Direction.up);
-                            }
-                        }
-                    }else if(y % 2 == 1) {
-                        if(x == 1) {
-                            playingSnake.changeDirectionTo(right);
-                        }else if(x == playGrid.getWidth() - 2) {
-                            playingSnake.changeDirectionTo(down);
-                        }
-                    }else if(y % 2 == 0) {
-                        if(x == 1) {
-                            playingSnake.changeDirectionTo(down);
-                        }else if(x == playGrid.getWidth() - 2) {
-                            playingSnake.changeDirectionTo(Direction.left);
-                        }
-                    }
-
-                    
-                }
-            }
-        }else {
-//          falls der Zhlstand auf 0 steht
-            if(ctr == 0)
-//              wird die Schlange nach unten gesteuert
-                playingSnake.changeDirectionTo(down);
-//          falls der Zhlstand auf 1 steht
-            else if(ctr == 1)
-//              wird die Schlange nach rechts gesteuert
-                playingSnake.changeDirectionTo(right);
-//              Danach wird der Zhlstand erhht, und so geteilt, 
-//                  dass er mindestens eine Zeile durchluft, falls das 
-//                  Spielbrett breiter ist als die Schlange lang,
-//                  oder die Schlangenlnge durchluft, falls diese lnger
-//                  ist als die Spielfeldbreite
-            ctr = (ctr + 1) % 
-                    ((playGrid.getWidth() > playingSnake.getScore())? 
-                            playGrid.getWidth(): 
-                            playingSnake.getScore() + 1);
-        }
-
-        return ctr;
-    }
-
     /**
      * Diese Methode fhrt einen Tick des Spiels aus.<br>
-     * Dieser besteht daraus das Snake-Objekt um ein Feld zu bewegen, falls das Food-Objekt
-     * gefressen wurde ein neues zu generieren, falls die Schlange stirbt das Spiel
-     * abzubrechen, und die UI das aktualisierte Bild ausgeben zu lassen.<br>
-     * Auerdem wird, falls gecheatet wird die Schlange selbststndig bewegt.
-     * @param ctr   der Zhlstand, der der Bewegung der Schlange bei Cheats hilft
-     * @return      der aktualisierte Zhlstand
-     * @see SnakeControl#moveIfCheating(int)
-     */
-    private int onTick(int ctr){
-//      Falls gecheatet wird
-        if(cheating){
-//          Wird die Schlange selbststndig bewegt
-            ctr = moveIfCheating(ctr);
-        }
+     * Dieser besteht daraus die nchste Richtungseingabe des Users zu bernehmen (siehe
+     * {@link InputQueue#nextTurn(Direction, int, long)}), das Spiel einen Schritt weiter laufen zu lassen (falls das Spiel
+     * dabei vorbei ist, wird es ber {@link SnakeControl#gameOverListener} abgebrochen), 
+     * und den neuen Zustand zu verffentlichen. Die UI wird von {@link Timer#tick()} benachrichtigt.
+     * @see GameEngine#step()
+     */
+    private void onTick(){
+        TickEvent event = new TickEvent();
+        event.begin();
         
-        try{
-//          Nun bewegen wir die Schlange um ein Feld, und falls diese uns sagt, dass
-//          sie das Food-Objekt gefressen hat
-            if(playingSnake.move(currentFood, playGrid.getWidth(), playGrid.getHeight())){
-//              generieren wir ein neues
-                generateFood();
-            }
-//      falls dabei allerdings eine Exception geworfen wird
-        }catch(SnakeAteItselfException | SnakeHitBordersException e){
-//          brechen wir das Spiel ab
-            pauseGame(e.getMessage(), (e instanceof SnakeAteItselfException)? EatenItself: BorderHit);
+//      Zuerst bernehmen wir (falls vorhanden) die nchste Richtungseingabe des Users
+        Snake snake = engine.getSnake();
+        Direction turn = input.nextTurn(snake.getDirection(), snake.getLength(), System.nanoTime());
+        if(turn != null)
+            engine.changeDirection(turn);
+        
+//      Das Spiel bewegt die Schlange um ein Feld, und generiert (falls ntig) ein neues Food-Objekt
+        engine.step();
+//      und verffentlichen den neuen Zustand (falls der vorherige bereits gezeichnet wurde)
+        frames.onTick(engine, getTickPeriod());
+        ticksMeasured++;
+        if(Metrics.ENABLED){
+            Metrics.SNAKE_LENGTH.set(snake.getLength());
+            Metrics.SCORE.set(snake.getScore());
         }
         
-//      Dann lassen wir die UI das neue Bild ausgeben
-        gui.repaint();
+//      Falls ein Spielstand gespeichert werden soll, wird der Zustand nach diesem Tick kopiert,
+//      und von einem eigenen Thread gespeichert
+        if(checkpointRequested){
+            checkpointRequested = false;
+            saveGame();
+        }
         
-//      und geben schlielich den evtl. aktualisierten Zhlstand zurck
-        return ctr;
+//      Der Tick wird (falls eingeschaltet) mit dem Zustand danach an den JDK Flight Recorder gemeldet
+        if(event.shouldCommit()){
+            event.tick = engine.getTicks();
+            event.snakeLength = snake.getLength();
+            event.score = snake.getScore();
+            event.direction = snake.getDirection().name();
+            event.endCause = engine.isGameOver()? engine.getEndCause().name(): null;
+            event.commit();
+        }
     }
 
     /**
-     * Diese Klasse entspricht Zeitsteuerung fr den Spielablauf.<br>
-     * Dieser gibt, sobald ausgefhrt, (sofern nich gecheatet wird) in einem
-     * von der Teilfeldgre abhngigen zeitlichen Abstand eine Nachricht an das
-     * SnakeControl-Objekt.<br>
-     * Falls gecheatet wird wird dieser Thread so schnell es geht durchgefhrt
+     * Diese Klasse entspricht der Aufgabe des GameLoops fr den Spielablauf.<br>
+     * Sie lsst, sobald der GameLoop luft, einen Tick des Spiels ausfhren, und gibt
+     * den Abstand zwischen zwei Ticks mit der eingestellten Geschwindigkeitskurve an.<br>
+     * Falls gecheatet wird wird der Tick (mit {@link SpeedCurve#CLASSIC}) so schnell es geht durchgefhrt
      * (so gut es geht ohne zeitliche Verzgerung)
      * @author Jean-Pierre Hotz
+     * @see GameLoop
      */
-    private class Timer implements Runnable{
+    private class Timer implements GameLoop.Task{
         @Override
-        public void run(){
-//          der Zhlstand, der nur fr das Cheaten relevant ist
-            int ctr = 0;
+        public void tick(){
+//          Es wird nur ein Tick ausgefhrt, falls wir uns in einem Spiel befinden
+            if(!inGame)
+                return;
             
-//          Eine Referenz auf den derzeitigen Thread, da ein geschleifter
-//          Thread von seiner Referenz abhngig gemacht werden soll
-            Thread currentThread = Thread.currentThread();
-//          Abbruchbedingung ist, dass entweder das SnakeControl-Objekt sich nicht mehr
-//          in einem Spiel befindet, oder die Referenz auf den Thread sich gendert hat
-            while(currentThread == playThread && inGame){
-//              Es wird ein Tick ausgefhrt und der aktualisierte Zhlstand gespeichert
-                ctr = onTick(ctr);
-                
-                try{
-//                  Dann wird der Thread (falls nicht gecheatet wird) abhngig
-//                  von der Gre eines Teilfeldes pausiert
-                    Thread.sleep((cheating)? (withRules)? 5: 0: (int) (((5 * playGrid.getSize()) / 3f) + (100f / 3f)));
-                }catch (InterruptedException e){
-                    e.printStackTrace();
-                }
+            if(isTurboActive()){
+//              Im Turbo-Modus werden so viele Ticks wie mglich am Stck ausgefhrt, bis das Spiel
+//              vorbei ist bzw. pausiert wird, oder es Zeit fr einen neuen Frame wird
+                long end = System.nanoTime() + TURBO_BATCH;
+                do{
+                    onTick();
+                }while(inGame && System.nanoTime() - end < 0);
+            }else{
+                onTick();
+            }
+            
+//          Dann lassen wir die UI das neue Bild ausgeben; mehrere angeforderte Frames werden
+//          dabei zu einem pro Bildwiederholung zusammengefasst
+            gui.requestFrame();
+            
+//          Etwa einmal pro Sekunde wird angezeigt, wie viele Ticks pro Sekunde ausgefhrt werden
+//          (liegt der Beginn der Messung lnger zurck, war das Spiel dazwischen pausiert)
+            long now = System.nanoTime();
+            if(now - measureStart >= 1000000000L){
+                if(now - measureStart < 2000000000L)
+                    gui.showTicksPerSecond(ticksMeasured * 1000000000L / (now - measureStart));
+                ticksMeasured = 0;
+                measureStart = now;
             }
         }
+        
+        @Override
+        public long getTickPeriod(){
+            return SnakeControl.this.getTickPeriod();
+        }
     }
     
     /**
-     * Diese Methode lsst den zeitsteuernden Thread auf jeden Fall abbrechen, indem wir im eine
-     * null-Referenz zuweisen
-     * @see Timer
+     * Diese Methode lsst den zeitsteuernden GameLoop auf jeden Fall abbrechen
+     * @see GameLoop#dispose()
      */
     public void disposeThread(){
-        playThread = null;
+        gameLoop.dispose();
+        stopRecording();
+        
+//      Zuletzt warten wir, bis alle Spielstnde gespeichert wurden
+        try{
+            checkpoints.flush();
+        }catch(IOException e){
+//          Der vorherige Spielstand bleibt dann erhalten, da dieser nur atomar ersetzt wird
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.control;
+
+import de.jeanpierrehotz.snake.GameEngine;
+
+/**
+ * Dieses Interface reprsentiert eine Geschwindigkeitskurve, die angibt, in welchem zeitlichen
+ * Abstand die Ticks eines Spiels ausgefhrt werden sollen.<br>
+ * Der Abstand wird vor jedem Tick neu erfragt, weshalb er sich auch whrend eines Spiels
+ * (z.B. abhngig von dem Score) ndern kann.
+ * @author Jean-Pierre Hotz
+ * @see GameLoop
+ */
+public interface SpeedCurve{
+    /**
+     * Die ursprngliche Geschwindigkeitskurve des Spiels:<br>
+     * Falls nicht gecheatet wird, hngt der Abstand linear von der Gre eines Felds in px ab
+     * ((5 * Gre + 100) / 3 ms); falls gecheatet wird, wird (mit Regeln) alle 5 ms bzw.
+     * (ohne Regeln) ohne Verzgerung ein Tick ausgefhrt.
+     */
+    public static final SpeedCurve CLASSIC = new SpeedCurve(){
+        @Override
+        public long getTickPeriod(GameEngine engine){
+            if(engine.getConfig().isCheating())
+                return (engine.getConfig().isWithRules())? 5000000L: 0L;
+            return 1000000L * (int) (((5 * engine.getPlayingGrid().getSize()) / 3f) + (100f / 3f));
+        }
+    };
+    
+    /**
+     * Diese Methode gibt ihnen den zeitlichen Abstand, in dem die Ticks des gegebenen Spiels
+     * derzeit ausgefhrt werden sollen
+     * @param engine    Das Spiel, dessen Ticks ausgefhrt werden
+     * @return          der Abstand zwischen zwei Ticks in ns
+     */
+    public long getTickPeriod(GameEngine engine);
+}
@@ -0,0 +1,47 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Dieses JFR-Event beschreibt die Erzeugung eines Food-Objekts (siehe {@code GameEngine#generateFood()}).<br>
+ * Es kann in einer Aufnahme ber den Namen {@code de.jeanpierrehotz.snake.FoodPlacement} eingeschaltet
+ * bzw. mit einem Schwellwert versehen werden.
+ * @author Jean-Pierre Hotz
+ */
+@Name("de.jeanpierrehotz.snake.FoodPlacement")
+@Label("Food Placement")
+@Category("Snake")
+@Description("Die Erzeugung eines Food-Objekts auf einem freien Feld")
+@StackTrace(false)
+public class FoodEvent extends Event{
+    /**
+     * Die Anzahl an Feldern, die ausprobiert wurden (das vorgegebene Feld, und evtl. ein zuflliges)
+     */
+    @Label("Attempts")
+    public int attempts;
+    /**
+     * Ob das Food-Objekt erzeugt werden konnte
+     */
+    @Label("Placed")
+    public boolean placed;
+    /**
+     * Das Feld (als y * Breite + x), auf dem das Food-Objekt erzeugt wurde, oder -1
+     */
+    @Label("Cell")
+    public int cell;
+    /**
+     * Die Anzahl an freien Feldern vor der Erzeugung
+     */
+    @Label("Free Cells")
+    public int freeCells;
+}
@@ -0,0 +1,163 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Diese Klasse zhlt, wie oft welche Werte (z.B. Dauern in ns) aufgetreten sind, um daraus
+ * Perzentile zu berechnen.<br>
+ * Die Werte werden dafr in Bereiche eingeteilt: Jede Zweierpotenz wird in
+ * {@link Histogram#SUB_BUCKETS} gleich groe Bereiche unterteilt, weshalb jeder Wert mit einem
+ * relativen Fehler von hchstens 1 / {@link Histogram#SUB_BUCKETS} gespeichert wird, unabhngig davon,
+ * wie gro er ist. Werte unter {@link Histogram#SUB_BUCKETS} werden exakt gespeichert.<br>
+ * Das Eintragen eines Werts bentigt keine Sperre und erzeugt keine Objekte, und darf von mehreren
+ * Threads gleichzeitig aufgerufen werden. Das Auslesen ist nicht atomar, d.h. whrenddessen
+ * eingetragene Werte werden evtl. nur teilweise bercksichtigt.
+ * @author Jean-Pierre Hotz
+ */
+public class Histogram{
+    /**
+     * Die Anzahl an Bits, mit der eine Zweierpotenz unterteilt wird
+     */
+    private static final int SUB_BITS = 5;
+    /**
+     * Die Anzahl an Bereichen, in die jede Zweierpotenz unterteilt wird
+     */
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /**
+     * Die Anzahl an Bereichen insgesamt (fr alle nicht negativen long-Werte)
+     */
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+    
+    /**
+     * Die Anzahl der Werte in jedem Bereich
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    /**
+     * Die Anzahl aller Werte
+     */
+    private final AtomicLong count = new AtomicLong();
+    /**
+     * Die Summe aller Werte
+     */
+    private final AtomicLong sum = new AtomicLong();
+    /**
+     * Der grte Wert
+     */
+    private final AtomicLong max = new AtomicLong();
+    
+    /**
+     * Diese Methode trgt den gegebenen Wert ein.<br>
+     * Negative Werte werden als 0 eingetragen.
+     * @param value     Der Wert
+     */
+    public void record(long value){
+        if(value < 0)
+            value = 0;
+        
+        counts.incrementAndGet(getBucket(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        
+//      Der grte Wert ndert sich nur selten, weshalb meist nur gelesen wird
+        long m = max.get();
+        while(value > m && !max.compareAndSet(m, value))
+            m = max.get();
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl der eingetragenen Werte
+     * @return  die Anzahl der Werte
+     */
+    public long getCount(){
+        return count.get();
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den grten eingetragenen Wert
+     * @return  den grten Wert, oder 0 falls kein Wert eingetragen wurde
+     */
+    public long getMax(){
+        return max.get();
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Durchschnitt der eingetragenen Werte
+     * @return  den Durchschnitt, oder 0 falls kein Wert eingetragen wurde
+     */
+    public double getMean(){
+        long n = count.get();
+        return (n == 0)? 0: (double) sum.get() / n;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Wert, den der gegebene Anteil der eingetragenen Werte nicht
+     * berschreitet (z.B. 0.99 fr das 99. Perzentil)
+     * @param quantile  Der Anteil zwischen 0 und 1
+     * @return          die obere Grenze des Bereichs, in dem das Perzentil liegt (hchstens der
+     *                  grte Wert), oder 0 falls kein Wert eingetragen wurde
+     */
+    public long getPercentile(double quantile){
+        long total = 0;
+        for(int i = 0; i < BUCKETS; i++)
+            total += counts.get(i);
+        if(total == 0)
+            return 0;
+        
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++){
+            seen += counts.get(i);
+            if(seen >= rank)
+                return Math.min(getUpperBound(i), max.get());
+        }
+        return max.get();
+    }
+    
+    /**
+     * Diese Methode lscht alle eingetragenen Werte
+     */
+    public void reset(){
+        for(int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Bereich, in den der gegebene Wert gehrt
+     * @param value     Der (nicht negative) Wert
+     * @return          der Index des Bereichs
+     */
+    private static int getBucket(long value){
+        if(value < SUB_BUCKETS)
+            return (int) value;
+        
+//      Die hchsten SUB_BITS + 1 Bits bestimmen den Bereich: das hchste Bit die Zweierpotenz,
+//      die folgenden den Bereich innerhalb dieser
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den grten Wert, der in den gegebenen Bereich gehrt
+     * @param bucket    Der Index des Bereichs
+     * @return          der grte Wert des Bereichs
+     */
+    private static long getUpperBound(int bucket){
+        if(bucket < SUB_BUCKETS)
+            return bucket;
+        
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+}
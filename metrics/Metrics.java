@@ -0,0 +1,195 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Diese Klasse enthlt alle Messwerte des Spiels, die ber JMX (siehe {@link SnakeMetricsMBean})
+ * ausgelesen werden knnen.<br>
+ * Die Messwerte werden nur erfasst, falls die System-Property {@value Metrics#ENABLED_PROPERTY}
+ * beim Start auf {@code true} gesetzt ist. Da {@link Metrics#ENABLED} eine Konstante ist, entfernt der
+ * JIT-Compiler alle Messungen, die mit {@code if(Metrics.ENABLED)} umschlossen sind, falls diese
+ * ausgeschaltet sind; sie kosten dann also nichts.<br>
+ * Mit der System-Property {@value Metrics#DUMP_FILE_PROPERTY} knnen die Messwerte zustzlich alle
+ * {@value Metrics#DUMP_INTERVAL_PROPERTY} Sekunden (Standard: 10) an eine Datei angehngt werden.
+ * @author Jean-Pierre Hotz
+ */
+public final class Metrics{
+    /**
+     * Der Name der System-Property, die die Messwerte einschaltet
+     */
+    public static final String ENABLED_PROPERTY = "snake.metrics";
+    /**
+     * Der Name der System-Property, die die Datei angibt, an die die Messwerte regelmig angehngt werden
+     */
+    public static final String DUMP_FILE_PROPERTY = "snake.metrics.dumpFile";
+    /**
+     * Der Name der System-Property, die den Abstand (in s) angibt, in dem die Messwerte an die Datei
+     * angehngt werden
+     */
+    public static final String DUMP_INTERVAL_PROPERTY = "snake.metrics.dumpInterval";
+    /**
+     * Der Name, unter dem die Messwerte ber JMX ausgelesen werden knnen
+     */
+    public static final String OBJECT_NAME = "de.jeanpierrehotz.snake:type=Metrics";
+    
+    /**
+     * Ob die Messwerte erfasst werden
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+    
+    /**
+     * Die Dauer der Ticks des GameLoops in ns
+     */
+    public static final Histogram TICK_TIME = new Histogram();
+    /**
+     * Die Versptung, mit der die Ticks gegenber ihrem vorgesehenen Zeitpunkt beginnen, in ns
+     */
+    public static final Histogram TICK_JITTER = new Histogram();
+    /**
+     * Die Dauer des Zeichnens eines Frames in ns
+     */
+    public static final Histogram PAINT_TIME = new Histogram();
+    /**
+     * Die Dauer der Erzeugung eines Food-Objekts in ns
+     */
+    public static final Histogram FOOD_TIME = new Histogram();
+    /**
+     * Die Anzahl an Food-Objekten, die nicht auf dem vorgegebenen Feld erzeugt werden konnten, und
+     * deshalb auf einem zuflligen Feld erzeugt wurden
+     */
+    public static final AtomicLong FOOD_RETRIES = new AtomicLong();
+    /**
+     * Die Lnge der Schlange nach dem letzten Tick
+     */
+    public static final AtomicLong SNAKE_LENGTH = new AtomicLong();
+    /**
+     * Der Score nach dem letzten Tick
+     */
+    public static final AtomicLong SCORE = new AtomicLong();
+    
+    static{
+        if(ENABLED){
+            register();
+            startDumping();
+        }
+    }
+    
+    /**
+     * Diese Klasse kann nicht instanziiert werden
+     */
+    private Metrics(){}
+    
+    /**
+     * Diese Methode lscht alle Messwerte
+     */
+    public static void reset(){
+        TICK_TIME.reset();
+        TICK_JITTER.reset();
+        PAINT_TIME.reset();
+        FOOD_TIME.reset();
+        FOOD_RETRIES.set(0);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen alle Messwerte in einer Zeile (Zeiten in s)
+     * @return  die Messwerte
+     */
+    public static String format(){
+        return String.format(Locale.ROOT,
+                "ticks=%d tick[p50=%.1f p99=%.1f p999=%.1f max=%.1f] jitter[p50=%.1f p99=%.1f max=%.1f] "
+                + "paints=%d paint[p50=%.1f p99=%.1f max=%.1f] food=%d food[p99=%.1f] foodRetries=%d length=%d score=%d",
+                TICK_TIME.getCount(), toMicros(TICK_TIME.getPercentile(0.5)), toMicros(TICK_TIME.getPercentile(0.99)),
+                toMicros(TICK_TIME.getPercentile(0.999)), toMicros(TICK_TIME.getMax()),
+                toMicros(TICK_JITTER.getPercentile(0.5)), toMicros(TICK_JITTER.getPercentile(0.99)),
+                toMicros(TICK_JITTER.getMax()),
+                PAINT_TIME.getCount(), toMicros(PAINT_TIME.getPercentile(0.5)), toMicros(PAINT_TIME.getPercentile(0.99)),
+                toMicros(PAINT_TIME.getMax()),
+                FOOD_TIME.getCount(), toMicros(FOOD_TIME.getPercentile(0.99)), FOOD_RETRIES.get(),
+                SNAKE_LENGTH.get(), SCORE.get());
+    }
+    
+    /**
+     * Diese Methode rechnet den gegebenen Wert von ns in s um
+     * @param nanos     Der Wert in ns
+     * @return          der Wert in s
+     */
+    static double toMicros(double nanos){
+        return nanos / 1000.0;
+    }
+    
+    /**
+     * Diese Methode meldet die Messwerte bei dem JMX-Server der JVM an
+     */
+    private static void register(){
+        try{
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new SnakeMetrics(), new ObjectName(OBJECT_NAME));
+        }catch(JMException e){
+//          Die Messwerte werden dann trotzdem erfasst, und knnen (z.B.) in eine Datei geschrieben werden
+        }catch(SecurityException e){}
+    }
+    
+    /**
+     * Diese Methode startet (falls eine Datei angegeben wurde) einen Thread, der die Messwerte
+     * regelmig an die Datei anhngt
+     */
+    private static void startDumping(){
+        final Path file;
+        final long interval;
+        try{
+            String name = System.getProperty(DUMP_FILE_PROPERTY);
+            if(name == null || name.isEmpty())
+                return;
+            file = Paths.get(name);
+            interval = Math.max(1, Long.getLong(DUMP_INTERVAL_PROPERTY, 10)) * 1000;
+        }catch(RuntimeException e){
+//          z.B. falls die Property nicht gelesen werden darf, oder der Pfad ungltig ist
+            return;
+        }
+        
+        Thread dumper = new Thread(new Runnable(){
+            @Override
+            public void run(){
+                while(true){
+                    try{
+                        Thread.sleep(interval);
+                    }catch(InterruptedException e){
+                        return;
+                    }
+                    dump(file);
+                }
+            }
+        }, "Snake-MetricsDump");
+        dumper.setDaemon(true);
+        dumper.start();
+    }
+    
+    /**
+     * Diese Methode hngt die derzeitigen Messwerte (mit dem Zeitpunkt) an die gegebene Datei an
+     * @param file  Die Datei
+     */
+    private static void dump(Path file){
+        try(Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+            out.write(System.currentTimeMillis() + " " + format() + System.lineSeparator());
+        }catch(IOException e){
+//          Die Messwerte werden beim nchsten Mal erneut geschrieben
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Dieses JFR-Event beschreibt einen Schritt der Schlange (siehe {@code Snake#step(Food)}).<br>
+ * Da es bei jedem Tick (und bei Simulationen sehr hufig) auftritt, ist es standardmig ausgeschaltet,
+ * und muss ber den Namen {@code de.jeanpierrehotz.snake.Move} eingeschaltet werden.
+ * @author Jean-Pierre Hotz
+ */
+@Name("de.jeanpierrehotz.snake.Move")
+@Label("Snake Move")
+@Category("Snake")
+@Description("Ein Schritt der Schlange auf ihrem Spielfeld")
+@Enabled(false)
+@StackTrace(false)
+public class MoveEvent extends Event{
+    /**
+     * Das Ergebnis des Schritts (siehe {@code Snake.MoveResult})
+     */
+    @Label("Result")
+    public String result;
+    /**
+     * Die Lnge der Schlange nach dem Schritt
+     */
+    @Label("Snake Length")
+    public int snakeLength;
+}
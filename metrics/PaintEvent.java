@@ -0,0 +1,43 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Dieses JFR-Event beschreibt das Zeichnen eines Frames (siehe {@code SnakeControl#paintGame(...)} und
+ * {@code SnakeControl#paintEverything(...)}).<br>
+ * Es kann in einer Aufnahme ber den Namen {@code de.jeanpierrehotz.snake.Paint} eingeschaltet bzw.
+ * mit einem Schwellwert versehen werden.
+ * @author Jean-Pierre Hotz
+ */
+@Name("de.jeanpierrehotz.snake.Paint")
+@Label("Snake Paint")
+@Category("Snake")
+@Description("Das Zeichnen des Spielfelds, der Schlange und des Food-Objekts")
+@StackTrace(false)
+public class PaintEvent extends Event{
+    /**
+     * Die Nummer des gezeichneten Zustands
+     */
+    @Label("Sequence")
+    public long sequence;
+    /**
+     * Ob alles gezeichnet wurde, oder nur die vernderten Felder
+     */
+    @Label("Full Redraw")
+    public boolean fullRedraw;
+    /**
+     * Die Anzahl an gezeichneten Feldern
+     */
+    @Label("Cells Painted")
+    public int cellsPainted;
+}
@@ -0,0 +1,112 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.metrics;
+
+/**
+ * Diese Klasse stellt die Messwerte aus {@link Metrics} ber JMX zur Verfgung
+ * @author Jean-Pierre Hotz
+ */
+class SnakeMetrics implements SnakeMetricsMBean{
+    @Override
+    public long getTickCount(){
+        return Metrics.TICK_TIME.getCount();
+    }
+    
+    @Override
+    public double getTickMeanMicros(){
+        return Metrics.toMicros(Metrics.TICK_TIME.getMean());
+    }
+    
+    @Override
+    public double getTickP50Micros(){
+        return Metrics.toMicros(Metrics.TICK_TIME.getPercentile(0.5));
+    }
+    
+    @Override
+    public double getTickP99Micros(){
+        return Metrics.toMicros(Metrics.TICK_TIME.getPercentile(0.99));
+    }
+    
+    @Override
+    public double getTickP999Micros(){
+        return Metrics.toMicros(Metrics.TICK_TIME.getPercentile(0.999));
+    }
+    
+    @Override
+    public double getTickMaxMicros(){
+        return Metrics.toMicros(Metrics.TICK_TIME.getMax());
+    }
+    
+    @Override
+    public double getTickJitterP50Micros(){
+        return Metrics.toMicros(Metrics.TICK_JITTER.getPercentile(0.5));
+    }
+    
+    @Override
+    public double getTickJitterP99Micros(){
+        return Metrics.toMicros(Metrics.TICK_JITTER.getPercentile(0.99));
+    }
+    
+    @Override
+    public double getTickJitterMaxMicros(){
+        return Metrics.toMicros(Metrics.TICK_JITTER.getMax());
+    }
+    
+    @Override
+    public long getPaintCount(){
+        return Metrics.PAINT_TIME.getCount();
+    }
+    
+    @Override
+    public double getPaintP50Micros(){
+        return Metrics.toMicros(Metrics.PAINT_TIME.getPercentile(0.5));
+    }
+    
+    @Override
+    public double getPaintP99Micros(){
+        return Metrics.toMicros(Metrics.PAINT_TIME.getPercentile(0.99));
+    }
+    
+    @Override
+    public double getPaintMaxMicros(){
+        return Metrics.toMicros(Metrics.PAINT_TIME.getMax());
+    }
+    
+    @Override
+    public long getFoodCount(){
+        return Metrics.FOOD_TIME.getCount();
+    }
+    
+    @Override
+    public double getFoodP99Micros(){
+        return Metrics.toMicros(Metrics.FOOD_TIME.getPercentile(0.99));
+    }
+    
+    @Override
+    public long getFoodRetries(){
+        return Metrics.FOOD_RETRIES.get();
+    }
+    
+    @Override
+    public long getSnakeLength(){
+        return Metrics.SNAKE_LENGTH.get();
+    }
+    
+    @Override
+    public long getScore(){
+        return Metrics.SCORE.get();
+    }
+    
+    @Override
+    public String getSummary(){
+        return Metrics.format();
+    }
+    
+    @Override
+    public void reset(){
+        Metrics.reset();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.metrics;
+
+/**
+ * Dieses Interface beschreibt die Messwerte, die ber JMX (z.B. mit jconsole) ausgelesen werden
+ * knnen. Alle Zeiten werden in s angegeben.
+ * @author Jean-Pierre Hotz
+ * @see Metrics
+ */
+public interface SnakeMetricsMBean{
+    /**
+     * @return  die Anzahl an ausgefhrten Ticks
+     */
+    public long getTickCount();
+    
+    /**
+     * @return  die durchschnittliche Dauer eines Ticks
+     */
+    public double getTickMeanMicros();
+    
+    /**
+     * @return  das 50. Perzentil der Dauer eines Ticks
+     */
+    public double getTickP50Micros();
+    
+    /**
+     * @return  das 99. Perzentil der Dauer eines Ticks
+     */
+    public double getTickP99Micros();
+    
+    /**
+     * @return  das 99,9. Perzentil der Dauer eines Ticks
+     */
+    public double getTickP999Micros();
+    
+    /**
+     * @return  die lngste Dauer eines Ticks
+     */
+    public double getTickMaxMicros();
+    
+    /**
+     * @return  das 50. Perzentil der Versptung eines Ticks gegenber seinem vorgesehenen Zeitpunkt
+     */
+    public double getTickJitterP50Micros();
+    
+    /**
+     * @return  das 99. Perzentil der Versptung eines Ticks gegenber seinem vorgesehenen Zeitpunkt
+     */
+    public double getTickJitterP99Micros();
+    
+    /**
+     * @return  die grte Versptung eines Ticks gegenber seinem vorgesehenen Zeitpunkt
+     */
+    public double getTickJitterMaxMicros();
+    
+    /**
+     * @return  die Anzahl an gezeichneten Frames
+     */
+    public long getPaintCount();
+    
+    /**
+     * @return  das 50. Perzentil der Dauer des Zeichnens eines Frames
+     */
+    public double getPaintP50Micros();
+    
+    /**
+     * @return  das 99. Perzentil der Dauer des Zeichnens eines Frames
+     */
+    public double getPaintP99Micros();
+    
+    /**
+     * @return  die lngste Dauer des Zeichnens eines Frames
+     */
+    public double getPaintMaxMicros();
+    
+    /**
+     * @return  die Anzahl an erzeugten Food-Objekten
+     */
+    public long getFoodCount();
+    
+    /**
+     * @return  das 99. Perzentil der Dauer der Erzeugung eines Food-Objekts
+     */
+    public double getFoodP99Micros();
+    
+    /**
+     * @return  die Anzahl an Food-Objekten, die nicht auf dem vorgegebenen Feld erzeugt werden konnten
+     */
+    public long getFoodRetries();
+    
+    /**
+     * @return  die Lnge der Schlange nach dem letzten Tick
+     */
+    public long getSnakeLength();
+    
+    /**
+     * @return  der Score nach dem letzten Tick
+     */
+    public long getScore();
+    
+    /**
+     * @return  alle Messwerte in einer Zeile
+     */
+    public String getSummary();
+    
+    /**
+     * Diese Methode lscht alle Messwerte
+     */
+    public void reset();
+}
@@ -0,0 +1,53 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Dieses JFR-Event beschreibt einen Tick des Spiels (siehe {@code SnakeControl#onTick()}).<br>
+ * Es kann in einer Aufnahme ber den Namen {@code de.jeanpierrehotz.snake.Tick} eingeschaltet bzw.
+ * mit einem Schwellwert versehen werden (z.B. {@code jfr configure de.jeanpierrehotz.snake.Tick#threshold=2ms}),
+ * um z.B. Pausen der GarbageCollection mit dem Zustand des Spiels in Verbindung zu bringen.
+ * @author Jean-Pierre Hotz
+ */
+@Name("de.jeanpierrehotz.snake.Tick")
+@Label("Snake Tick")
+@Category("Snake")
+@Description("Ein Tick des Spiels: Eingabe, Bewegung der Schlange und Verffentlichung des Zustands")
+@StackTrace(false)
+public class TickEvent extends Event{
+    /**
+     * Die Nummer des Ticks
+     */
+    @Label("Tick")
+    public long tick;
+    /**
+     * Die Lnge der Schlange nach dem Tick
+     */
+    @Label("Snake Length")
+    public int snakeLength;
+    /**
+     * Der Score nach dem Tick
+     */
+    @Label("Score")
+    public int score;
+    /**
+     * Die Richtung der Schlange nach dem Tick
+     */
+    @Label("Direction")
+    public String direction;
+    /**
+     * Der Grund, weshalb das Spiel vorbei ist, oder {@code null} falls es noch luft
+     */
+    @Label("End Cause")
+    public String endCause;
+}
@@ -0,0 +1,103 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake;
+
+/**
+ * Diese Klasse reprsentiert einen Ausschnitt eines Spielfelds, das zu gro ist, um vollstndig
+ * gezeichnet zu werden.<br>
+ * Der Ausschnitt folgt dem Kopf der Schlange: Verlsst der Kopf den mittleren Bereich des
+ * Ausschnitts (die Hlfte der Breite bzw. Hhe), so wird der Ausschnitt auf den Kopf zentriert.
+ * Dadurch bleibt der Ausschnitt meistens unverndert, und es mssen nur die vernderten Felder
+ * gezeichnet werden. Der Ausschnitt ragt nie ber den Rand des Spielfelds hinaus.<br>
+ * Ein Camera-Objekt wird von einem {@link FrameBuffer} auf dem Thread des Spiels bewegt; der
+ * gezeichnete Ausschnitt wird in dem jeweiligen {@link FrameSnapshot} verffentlicht.
+ * @author Jean-Pierre Hotz
+ */
+public class Camera{
+    /**
+     * Die Anzahl an Spalten und Zeilen, die der Ausschnitt hchstens umfasst
+     */
+    private final int columns, rows;
+    /**
+     * Die erste Spalte und die erste Zeile des Ausschnitts, oder -1 falls der Ausschnitt
+     * noch nicht auf den Kopf zentriert wurde
+     */
+    private int x = -1, y = -1;
+    
+    /**
+     * Dieser Konstruktor erzeugt einen Ausschnitt mit der gegebenen Gre
+     * @param columns   Die Anzahl an Spalten, die der Ausschnitt hchstens umfasst
+     * @param rows      Die Anzahl an Zeilen, die der Ausschnitt hchstens umfasst
+     */
+    public Camera(int columns, int rows){
+        if(columns < 1 || rows < 1)
+            throw new IllegalArgumentException("Invalid viewport size " + columns + "x" + rows);
+        this.columns = columns;
+        this.rows = rows;
+    }
+    
+    /**
+     * Diese Methode bewegt den Ausschnitt (falls ntig) so, dass der Kopf in dessen mittlerem Bereich liegt
+     * @param head      Das Feld des Kopfs (als y * Breite + x)
+     * @param width     Die Breite des Spielfelds
+     * @param height    Die Hhe des Spielfelds
+     */
+    public void follow(int head, int width, int height){
+        x = follow(x, head % width, getColumns(width), width);
+        y = follow(y, head / width, getRows(height), height);
+    }
+    
+    /**
+     * Diese Methode bewegt den Ausschnitt in einer Richtung
+     * @param start     Der bisherige Anfang des Ausschnitts, oder -1
+     * @param head      Die Koordinate des Kopfs
+     * @param length    Die Lnge des Ausschnitts
+     * @param max       Die Lnge des Spielfelds
+     * @return          der neue Anfang des Ausschnitts
+     */
+    private static int follow(int start, int head, int length, int max){
+        int margin = length / 4;
+        if(start < 0 || head < start + margin || head >= start + length - margin)
+            start = head - length / 2;
+        return Math.max(0, Math.min(start, max - length));
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die erste Spalte des Ausschnitts
+     * @return  die erste Spalte
+     */
+    public int getX(){
+        return x;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die erste Zeile des Ausschnitts
+     * @return  die erste Zeile
+     */
+    public int getY(){
+        return y;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Spalten des Ausschnitts auf einem Spielfeld mit der
+     * gegebenen Breite
+     * @param width     Die Breite des Spielfelds
+     * @return          die Anzahl an Spalten
+     */
+    public int getColumns(int width){
+        return Math.min(columns, width);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Zeilen des Ausschnitts auf einem Spielfeld mit der
+     * gegebenen Hhe
+     * @param height    Die Hhe des Spielfelds
+     * @return          die Anzahl an Zeilen
+     */
+    public int getRows(int height){
+        return Math.min(rows, height);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.jeanpierrehotz.snake.parts.Food;
+import de.jeanpierrehotz.snake.parts.Snake;
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+
+/**
+ * Diese Klasse verffentlicht den Zustand eines Spiels als {@link FrameSnapshot}s vom Thread
+ * des Spiels an den Thread, der das Spiel zeichnet.<br>
+ * Dazu gibt es drei FrameSnapshots (Triple-Buffering): einen, in den das Spiel schreibt, einen,
+ * der zuletzt verffentlicht wurde, und einen, der gerade gezeichnet wird. Beim Verffentlichen
+ * bzw. Abholen wird der eigene FrameSnapshot lediglich mit dem verffentlichten (atomar) getauscht.
+ * Dadurch muss das Spiel nie auf das Zeichnen warten, und beim Zeichnen wird nie ein halb
+ * geschriebener Zustand gesehen.<br>
+ * Um nicht bei jedem Tick die gesamte Schlange kopieren zu mssen, wird (auer es wird
+ * erzwungen) nur dann verffentlicht, wenn der zuletzt verffentlichte FrameSnapshot bereits
+ * abgeholt wurde. Die vernderten Felder werden bis dahin gesammelt.<br>
+ * Ist ein Ausschnitt gesetzt (siehe {@link FrameBuffer#setCamera(Camera)}), so wird statt der
+ * Schlange nur die Belegung des Ausschnitts kopiert, weshalb der Aufwand dann nicht von der
+ * Lnge der Schlange abhngt.
+ * @author Jean-Pierre Hotz
+ */
+public class FrameBuffer{
+    /**
+     * Dieses Bit zeigt an, dass der verffentlichte FrameSnapshot noch nicht abgeholt wurde
+     */
+    private static final int FRESH = 4;
+    /**
+     * Die Anzahl an vernderten Feldern, die hchstens gesammelt werden
+     */
+    private static final int MAX_CHANGED_CELLS = 256;
+    
+    /**
+     * Die drei FrameSnapshots
+     */
+    private final FrameSnapshot[] slots = {new FrameSnapshot(), new FrameSnapshot(), new FrameSnapshot()};
+    /**
+     * Der Index des verffentlichten FrameSnapshots (und evtl. {@link FrameBuffer#FRESH})
+     */
+    private final AtomicInteger published = new AtomicInteger(1);
+    /**
+     * Der Index des FrameSnapshots, in den geschrieben wird (gehrt dem Spiel)
+     */
+    private int back = 0;
+    /**
+     * Der Index des FrameSnapshots, der gezeichnet wird (gehrt dem Zeichnenden)
+     */
+    private int front = 2;
+    
+    /**
+     * Die seit dem letzten Verffentlichen vernderten Felder
+     */
+    private final int[] pendingCells = new int[MAX_CHANGED_CELLS];
+    private int pendingCount;
+    /**
+     * Diese Variable gibt an, ob die gesammelten Felder unvollstndig sind
+     */
+    private boolean pendingOverflow = true;
+    /**
+     * Die Nummer, sowie die Breite und Hhe des Spielfelds des zuletzt verffentlichten FrameSnapshots
+     */
+    private long lastPublished = -1;
+    private int lastWidth, lastHeight;
+    
+    /**
+     * Die Felder des Kopfs und des Endes der Schlange nach bzw. vor dem letzten Tick
+     */
+    private int lastHead = -1, lastTail = -1, previousHead = -1, previousTail = -1;
+    /**
+     * Der Zeitpunkt des letzten Ticks und der Abstand bis zum nchsten Tick in ns
+     */
+    private long tickTime, tickPeriod;
+    
+    /**
+     * Der Ausschnitt, der gezeichnet wird, oder {@code null} falls das gesamte Spielfeld gezeichnet wird
+     */
+    private Camera camera;
+    /**
+     * Die erste Spalte und Zeile des Ausschnitts in dem zuletzt verffentlichten FrameSnapshot
+     */
+    private int lastViewX, lastViewY;
+    
+    /**
+     * Diese Methode wird nach jedem Tick des Spiels aufgerufen. Sie merkt sich die dabei
+     * vernderten Felder, sowie die Lage des Kopfs und des Endes vor und nach dem Tick,
+     * und verffentlicht den Zustand, falls der vorherige bereits abgeholt wurde.
+     * @param engine        Das Spiel
+     * @param tickPeriod    Der Abstand bis zum nchsten Tick in ns
+     */
+    public synchronized void onTick(GameEngine engine, long tickPeriod){
+//      Der Kopf und das Ende wurden evtl. nur teilweise (interpoliert) gezeichnet, weshalb sie
+//      beim nchsten Zeichnen auf jeden Fall mit ihrem tatschlichen Zustand gezeichnet werden
+        addPending(lastHead);
+        addPending(previousTail);
+        for(int i = 0; i < engine.getChangedCellCount(); i++)
+            addPending(engine.getChangedCell(i));
+        
+        Snake snake = engine.getSnake();
+        previousHead = lastHead;
+        previousTail = lastTail;
+        lastHead = snake.getCell(0);
+        lastTail = snake.getCell(snake.getLength() - 1);
+        this.tickTime = System.nanoTime();
+        this.tickPeriod = tickPeriod;
+        
+        publish(engine, false);
+    }
+    
+    /**
+     * Diese Methode merkt sich das gegebene Feld als verndert
+     * @param cell  Das Feld, oder -1
+     */
+    private void addPending(int cell){
+        if(cell < 0)
+            return;
+        if(pendingCount == pendingCells.length)
+            pendingOverflow = true;
+        else
+            pendingCells[pendingCount++] = cell;
+    }
+    
+    /**
+     * Diese Methode markiert die gesammelten Felder als unvollstndig, wodurch beim nchsten
+     * verffentlichten Zustand alles gezeichnet wird (z.B. nachdem die Einstellungen gendert wurden)
+     */
+    public synchronized void invalidate(){
+        pendingOverflow = true;
+//      Die Felder vor dem letzten Tick passen evtl. nicht mehr zum Spielfeld
+        lastHead = lastTail = previousHead = previousTail = -1;
+    }
+    
+    /**
+     * Diese Methode setzt den Ausschnitt des Spielfelds, der gezeichnet wird.<br>
+     * Da sich dadurch alles Gezeichnete ndert, wird der nchste Zustand vollstndig gezeichnet.
+     * @param camera    Der Ausschnitt, oder {@code null} falls das gesamte Spielfeld gezeichnet wird
+     */
+    public synchronized void setCamera(Camera camera){
+        this.camera = camera;
+        pendingOverflow = true;
+    }
+    
+    /**
+     * Diese Methode verffentlicht den derzeitigen Zustand des Spiels
+     * @param engine    Das Spiel
+     * @param force     ob auch verffentlicht werden soll, falls der vorherige Zustand
+     *                  noch nicht abgeholt wurde
+     * @return          ob verffentlicht wurde
+     */
+    public synchronized boolean publish(GameEngine engine, boolean force){
+        if(!force && (published.get() & FRESH) != 0)
+            return false;
+        
+//      Wir schreiben den Zustand in unseren eigenen FrameSnapshot
+        capture(slots[back], engine);
+//      und tauschen ihn mit dem verffentlichten aus
+        back = published.getAndSet(back | FRESH) & ~FRESH;
+        return true;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den zuletzt verffentlichten Zustand des Spiels.<br>
+     * Der FrameSnapshot bleibt unverndert, bis diese Methode das nchste Mal aufgerufen wird.
+     * Diese Methode darf daher nur von einem Thread gleichzeitig benutzt werden.
+     * @return  der zuletzt verffentlichte Zustand
+     */
+    public FrameSnapshot acquire(){
+//      Falls seit dem letzten Abholen ein neuer Zustand verffentlicht wurde,
+//      tauschen wir unseren FrameSnapshot mit diesem aus
+        if((published.get() & FRESH) != 0)
+            front = published.getAndSet(front) & ~FRESH;
+        return slots[front];
+    }
+    
+    /**
+     * Diese Methode schreibt den derzeitigen Zustand des Spiels in den gegebenen FrameSnapshot
+     * @param frame     Der FrameSnapshot
+     * @param engine    Das Spiel
+     */
+    private void capture(FrameSnapshot frame, GameEngine engine){
+        SnakePlayingGrid grid = engine.getPlayingGrid();
+        Snake snake = engine.getSnake();
+        Food food = engine.getFood();
+        
+        frame.tick = engine.getTicks();
+        frame.width = grid.getWidth();
+        frame.height = grid.getHeight();
+        frame.score = engine.getScore();
+        
+        frame.length = snake.getLength();
+        frame.head = snake.getCell(0);
+        frame.tail = snake.getCell(frame.length - 1);
+        if(camera == null){
+            if(frame.body.length < frame.length)
+                frame.body = new int[Integer.highestOneBit(frame.length) << 1];
+            snake.copyCells(frame.body);
+            frame.viewX = frame.viewY = frame.viewColumns = frame.viewRows = 0;
+        }else{
+            captureViewport(frame, grid);
+        }
+        
+        frame.foodCell = (food == null)? -1: food.getyInGrid() * frame.width + food.getxInGrid();
+        
+        frame.tickTime = tickTime;
+        frame.tickPeriod = tickPeriod;
+        frame.previousHead = (previousHead != lastHead)? previousHead: -1;
+        frame.previousTail = (previousTail != lastTail)? previousTail: -1;
+        
+//      Nach einer Grennderung passen die gesammelten Felder nicht mehr zum Spielfeld
+        if(frame.width != lastWidth || frame.height != lastHeight)
+            pendingOverflow = true;
+//      Genauso muss nach einer Bewegung des Ausschnitts alles gezeichnet werden
+        if(frame.viewX != lastViewX || frame.viewY != lastViewY)
+            pendingOverflow = true;
+        
+//      Die vernderten Felder werden mit ihrem derzeitigen Zustand bernommen
+        frame.sequence = lastPublished + 1;
+        frame.changesSince = lastPublished;
+        frame.fullRedraw = pendingOverflow;
+        if(frame.changedCells.length < pendingCount){
+            frame.changedCells = new int[pendingCells.length];
+            frame.changedStates = new byte[pendingCells.length];
+        }
+        frame.changedCount = pendingOverflow? 0: pendingCount;
+        int head = snake.getCell(0);
+        for(int i = 0; i < frame.changedCount; i++){
+            int cell = pendingCells[i];
+            int state = 0;
+            if(cell == head)
+                state |= FrameSnapshot.HEAD;
+            else if(grid.isOccupied(cell))
+                state |= FrameSnapshot.BODY;
+            if(cell == frame.foodCell)
+                state |= FrameSnapshot.FOOD;
+            frame.changedCells[i] = cell;
+            frame.changedStates[i] = (byte) state;
+        }
+        
+        pendingCount = 0;
+        pendingOverflow = false;
+        lastPublished = frame.sequence;
+        lastWidth = frame.width;
+        lastHeight = frame.height;
+        lastViewX = frame.viewX;
+        lastViewY = frame.viewY;
+    }
+    
+    /**
+     * Diese Methode lsst den Ausschnitt dem Kopf folgen, und schreibt die Belegung des Ausschnitts
+     * in den gegebenen FrameSnapshot
+     * @param frame     Der FrameSnapshot
+     * @param grid      Das Spielfeld
+     */
+    private void captureViewport(FrameSnapshot frame, SnakePlayingGrid grid){
+        camera.follow(frame.head, frame.width, frame.height);
+        frame.viewX = camera.getX();
+        frame.viewY = camera.getY();
+        frame.viewColumns = camera.getColumns(frame.width);
+        frame.viewRows = camera.getRows(frame.height);
+        
+        int words = (frame.viewColumns * frame.viewRows + 63) >>> 6;
+        if(frame.view.length < words)
+            frame.view = new long[words];
+        grid.copyOccupancy(frame.viewX, frame.viewY, frame.viewColumns, frame.viewRows, frame.view);
+    }
+}
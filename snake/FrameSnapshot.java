@@ -0,0 +1,325 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake;
+
+/**
+ * Diese Klasse reprsentiert den Zustand eines Spiels nach einem Tick, so wie er gezeichnet
+ * werden soll.<br>
+ * Ein FrameSnapshot wird ausschlielich von einem {@link FrameBuffer} beschrieben, und ist
+ * unvernderlich, sobald er verffentlicht wurde. Dadurch kann er ohne Synchronisation
+ * gezeichnet werden, whrend das Spiel weiterluft.<br>
+ * Neben der gesamten Schlange und dem Food-Objekt enthlt er die Felder, die sich seit dem
+ * vorherigen verffentlichten FrameSnapshot (siehe {@link FrameSnapshot#getChangesSince()})
+ * verndert haben, mit ihrem Zustand.<br>
+ * Wird nur ein Ausschnitt des Spielfelds gezeichnet (siehe {@link Camera}), so enthlt er statt
+ * der gesamten Schlange nur die Belegung dieses Ausschnitts, sowie den Kopf und das Ende.
+ * @author Jean-Pierre Hotz
+ */
+public class FrameSnapshot{
+    /**
+     * Diese Konstanten geben (als Bits) den Zustand eines vernderten Felds an;
+     * ist keins der Bits gesetzt, so ist das Feld leer
+     */
+    public static final int BODY = 1, HEAD = 2, FOOD = 4;
+    
+    /**
+     * Die fortlaufende Nummer dieses FrameSnapshots, oder -1 falls noch keiner verffentlicht wurde
+     */
+    long sequence = -1;
+    /**
+     * Der Tick, nach dem dieser Zustand aufgenommen wurde
+     */
+    long tick;
+    /**
+     * Die Breite und die Hhe des Spielfelds
+     */
+    int width, height;
+    /**
+     * Die gepackten Koordinaten (y * Breite + x) der Teile der Schlange (beginnend mit dem Kopf),
+     * und die Lnge der Schlange
+     */
+    int[] body = new int[16];
+    int length;
+    /**
+     * Die Felder des Kopfs und des Endes der Schlange
+     */
+    int head = -1, tail = -1;
+    /**
+     * Das Feld, auf dem das Food-Objekt liegt, oder -1
+     */
+    int foodCell = -1;
+    /**
+     * Der Score des Spiels
+     */
+    int score;
+    
+    /**
+     * Der Zeitpunkt (in ns, siehe {@link System#nanoTime()}) des Ticks, und der Abstand bis zum
+     * nchsten Tick in ns
+     */
+    long tickTime, tickPeriod;
+    /**
+     * Die Felder, auf denen der Kopf bzw. das Ende der Schlange vor dem Tick lagen,
+     * oder -1 falls sie sich dabei nicht bewegt haben
+     */
+    int previousHead = -1, previousTail = -1;
+    
+    /**
+     * Die erste Spalte und Zeile, sowie die Anzahl an Spalten und Zeilen des gezeichneten
+     * Ausschnitts (0 Spalten, falls das gesamte Spielfeld gezeichnet wird)
+     */
+    int viewX, viewY, viewColumns, viewRows;
+    /**
+     * Die Belegung des Ausschnitts als Bitset (Index Zeile * Spalten + Spalte, relativ zu dem Ausschnitt)
+     */
+    long[] view = new long[0];
+    
+    /**
+     * Die Nummer des vorherigen verffentlichten FrameSnapshots
+     */
+    long changesSince = -1;
+    /**
+     * Diese Variable gibt an, ob die vernderten Felder unvollstndig sind, und daher
+     * alles gezeichnet werden muss
+     */
+    boolean fullRedraw = true;
+    /**
+     * Die vernderten Felder und ihr Zustand, sowie die Anzahl an vernderten Feldern
+     */
+    int[] changedCells = new int[0];
+    byte[] changedStates = new byte[0];
+    int changedCount;
+    
+    /**
+     * Diese Methode gibt ihnen die fortlaufende Nummer dieses FrameSnapshots
+     * @return  die Nummer, oder -1 falls noch kein Zustand verffentlicht wurde
+     */
+    public long getSequence(){
+        return sequence;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Tick, nach dem dieser Zustand aufgenommen wurde
+     * @return  der Tick
+     */
+    public long getTick(){
+        return tick;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Breite des Spielfelds
+     * @return  die Breite des Spielfelds in Feldern
+     */
+    public int getWidth(){
+        return width;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Hhe des Spielfelds
+     * @return  die Hhe des Spielfelds in Feldern
+     */
+    public int getHeight(){
+        return height;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Lnge der Schlange
+     * @return  die Lnge der Schlange
+     */
+    public int getLength(){
+        return length;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die gepackte Koordinate (y * Breite + x) des i-ten Teils
+     * der Schlange, wobei das Teil mit dem Index 0 der Kopf ist.<br>
+     * Wird nur ein Ausschnitt gezeichnet (siehe {@link FrameSnapshot#hasViewport()}), so sind die
+     * Teile nicht enthalten.
+     * @param i     Der Index des Teils
+     * @return      die gepackte Koordinate des Teils
+     */
+    public int getCell(int i){
+        return body[i];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld des Kopfs der Schlange
+     * @return  das Feld (als y * Breite + x), oder -1 falls es keine Schlange gibt
+     */
+    public int getHead(){
+        return head;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld des letzten Teils der Schlange
+     * @return  das Feld (als y * Breite + x), oder -1 falls es keine Schlange gibt
+     */
+    public int getTail(){
+        return tail;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld, auf dem das Food-Objekt liegt
+     * @return  das Feld des Food-Objekts, oder -1 falls es keins gibt
+     */
+    public int getFoodCell(){
+        return foodCell;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Score des Spiels
+     * @return  der Score
+     */
+    public int getScore(){
+        return score;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Zeitpunkt, zu dem der Tick ausgefhrt wurde
+     * @return  der Zeitpunkt in ns (siehe {@link System#nanoTime()})
+     */
+    public long getTickTime(){
+        return tickTime;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Abstand zwischen dem Tick und dem nchsten Tick.<br>
+     * Zusammen mit {@link FrameSnapshot#getTickTime()} kann damit die Bewegung der Schlange
+     * whrend dieser Zeit gleichmig (interpoliert) gezeichnet werden.
+     * @return  der Abstand in ns, oder 0 falls er nicht bekannt ist
+     */
+    public long getTickPeriod(){
+        return tickPeriod;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld, auf dem der Kopf vor dem Tick lag
+     * @return  das Feld (als y * Breite + x), oder -1 falls sich der Kopf nicht bewegt hat
+     */
+    public int getPreviousHead(){
+        return previousHead;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld, auf dem das Ende der Schlange vor dem Tick lag
+     * @return  das Feld (als y * Breite + x), oder -1 falls sich das Ende nicht bewegt hat
+     *          (z.B. da die Schlange gewachsen ist)
+     */
+    public int getPreviousTail(){
+        return previousTail;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob nur ein Ausschnitt des Spielfelds gezeichnet wird
+     * @return  ob nur ein Ausschnitt gezeichnet wird
+     */
+    public boolean hasViewport(){
+        return viewColumns > 0;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die erste Spalte des gezeichneten Ausschnitts
+     * @return  die erste Spalte (0, falls das gesamte Spielfeld gezeichnet wird)
+     */
+    public int getViewX(){
+        return viewX;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die erste Zeile des gezeichneten Ausschnitts
+     * @return  die erste Zeile (0, falls das gesamte Spielfeld gezeichnet wird)
+     */
+    public int getViewY(){
+        return viewY;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Spalten des gezeichneten Ausschnitts
+     * @return  die Anzahl an Spalten (die Breite, falls das gesamte Spielfeld gezeichnet wird)
+     */
+    public int getViewColumns(){
+        return hasViewport()? viewColumns: width;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Zeilen des gezeichneten Ausschnitts
+     * @return  die Anzahl an Zeilen (die Hhe, falls das gesamte Spielfeld gezeichnet wird)
+     */
+    public int getViewRows(){
+        return hasViewport()? viewRows: height;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob das gegebene Feld in dem gezeichneten Ausschnitt liegt
+     * @param cell  Das Feld (als y * Breite + x)
+     * @return      ob das Feld gezeichnet wird
+     */
+    public boolean isVisible(int cell){
+        if(!hasViewport())
+            return true;
+        int col = cell % width - viewX;
+        int row = cell / width - viewY;
+        return col >= 0 && row >= 0 && col < viewColumns && row < viewRows;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob das gegebene Feld des Ausschnitts belegt ist
+     * @param col   Die Spalte, relativ zu dem Ausschnitt
+     * @param row   Die Zeile, relativ zu dem Ausschnitt
+     * @return      ob das Feld belegt ist
+     */
+    public boolean isOccupiedInView(int col, int row){
+        int bit = row * viewColumns + col;
+        return (view[bit >>> 6] & (1L << bit)) != 0;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Nummer des vorherigen verffentlichten FrameSnapshots.<br>
+     * Nur falls genau dieser zuletzt gezeichnet wurde, reicht es die vernderten Felder
+     * neu zu zeichnen.
+     * @return  die Nummer des vorherigen FrameSnapshots
+     */
+    public long getChangesSince(){
+        return changesSince;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob die vernderten Felder unvollstndig sind (z.B. da sich
+     * zu viele Felder verndert haben, oder die Einstellungen verndert wurden), und daher
+     * alles gezeichnet werden muss
+     * @return  ob alles gezeichnet werden muss
+     */
+    public boolean isFullRedraw(){
+        return fullRedraw;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an vernderten Feldern
+     * @return  die Anzahl an vernderten Feldern
+     */
+    public int getChangedCellCount(){
+        return changedCount;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das i-te vernderte Feld
+     * @param i     Der Index des vernderten Felds
+     * @return      das Feld (als y * Breite + x)
+     */
+    public int getChangedCell(int i){
+        return changedCells[i];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Zustand des i-ten vernderten Felds
+     * @param i     Der Index des vernderten Felds
+     * @return      der Zustand (eine Kombination aus {@link FrameSnapshot#BODY},
+     *              {@link FrameSnapshot#HEAD} und {@link FrameSnapshot#FOOD})
+     */
+    public int getChangedState(int i){
+        return changedStates[i];
+    }
+}
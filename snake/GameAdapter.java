@@ -0,0 +1,30 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake;
+
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse implementiert alle Methoden eines {@link GameListener}s ohne etwas zu tun,
+ * damit nur die Methoden berschrieben werden mssen, die tatschlich bentigt werden.
+ * @author Jean-Pierre Hotz
+ */
+public abstract class GameAdapter implements GameListener{
+    @Override
+    public void onFoodPlaced(int x, int y){}
+    
+    @Override
+    public void onFoodEaten(int score){}
+    
+    @Override
+    public void onGameOver(GameEngine.EndCause cause){}
+    
+    @Override
+    public void onTick(long tick, Direction dir){}
+    
+    @Override
+    public void onConfigApplied(GameConfig config){}
+}
@@ -0,0 +1,116 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake;
+
+/**
+ * Diese Klasse reprsentiert die Einstellungen eines Snake-Spiels, mit denen ein
+ * {@link GameEngine}-Objekt erzeugt wird.<br>
+ * Sie enthlt ausschlielich die Einstellungen, die den Spielablauf betreffen; wie das Spiel
+ * gezeichnet wird, wird von der jeweiligen UI entschieden.
+ * @author Jean-Pierre Hotz
+ */
+public class GameConfig{
+    /**
+     * Diese Variablen geben die Breite und Hhe des Spielfelds in Feldern an
+     */
+    private int columns, rows;
+    /**
+     * Diese Variable gibt an, ob die Schlange wieder am anderen Ende des Spielfelds auftauchen soll
+     */
+    private boolean infinite;
+    /**
+     * Diese Variable gibt an, ob die Schlange sich an Regeln halten soll
+     */
+    private boolean withRules;
+    /**
+     * Diese Variable gibt an, ob die Schlange sich selbststndig bewegen soll ("cheaten")
+     */
+    private boolean cheating;
+    /**
+     * Diese Variable gibt den Startwert des Zufallsgenerators des Spiels an.<br>
+     * Zwei Spiele mit dem gleichen Startwert und den gleichen Eingaben laufen identisch ab.
+     */
+    private long seed;
+    
+    /**
+     * Dieser Konstruktor erzeugt Einstellungen mit den gegebenen Werten und einem
+     * (von der Zeit abhngigen) Startwert fr den Zufallsgenerator
+     * @param columns   Die Breite des Spielfelds in Feldern
+     * @param rows      Die Hhe des Spielfelds in Feldern
+     * @param inf       ob das Spielfeld unendlich sein soll
+     * @param wR        ob die Schlange sich an Regeln halten soll
+     * @param cheating  ob die Schlange sich selbststndig bewegen soll
+     */
+    public GameConfig(int columns, int rows, boolean inf, boolean wR, boolean cheating){
+        this(columns, rows, inf, wR, cheating, System.nanoTime());
+    }
+    
+    /**
+     * Dieser Konstruktor erzeugt Einstellungen mit den gegebenen Werten
+     * @param columns   Die Breite des Spielfelds in Feldern
+     * @param rows      Die Hhe des Spielfelds in Feldern
+     * @param inf       ob das Spielfeld unendlich sein soll
+     * @param wR        ob die Schlange sich an Regeln halten soll
+     * @param cheating  ob die Schlange sich selbststndig bewegen soll
+     * @param seed      Der Startwert des Zufallsgenerators des Spiels
+     */
+    public GameConfig(int columns, int rows, boolean inf, boolean wR, boolean cheating, long seed){
+        this.columns = columns;
+        this.rows = rows;
+        this.infinite = inf;
+        this.withRules = wR;
+        this.cheating = cheating;
+        this.seed = seed;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Breite des Spielfelds in Feldern
+     * @return  Die Breite des Spielfelds
+     */
+    public int getColumns(){
+        return columns;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Hhe des Spielfelds in Feldern
+     * @return  Die Hhe des Spielfelds
+     */
+    public int getRows(){
+        return rows;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen an, ob das Spielfeld unendlich sein soll
+     * @return  ob das Spielfeld unendlich sein soll
+     */
+    public boolean isInfinite(){
+        return infinite;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen an, ob die Schlange sich an Regeln halten soll
+     * @return  ob die Schlange sich an Regeln halten soll
+     */
+    public boolean isWithRules(){
+        return withRules;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen an, ob die Schlange sich selbststndig bewegen soll
+     * @return  ob gecheatet werden soll
+     */
+    public boolean isCheating(){
+        return cheating;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Startwert des Zufallsgenerators des Spiels
+     * @return  der Startwert des Zufallsgenerators
+     */
+    public long getSeed(){
+        return seed;
+    }
+}
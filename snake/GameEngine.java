@@ -0,0 +1,485 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake;
+
+import java.util.ArrayList;
+
+import de.jeanpierrehotz.metrics.FoodEvent;
+import de.jeanpierrehotz.metrics.Metrics;
+import de.jeanpierrehotz.snake.autopilot.Autopilot;
+import de.jeanpierrehotz.snake.autopilot.HamiltonianAutopilot;
+import de.jeanpierrehotz.snake.parts.Food;
+import de.jeanpierrehotz.snake.parts.Snake;
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+import de.jeanpierrehotz.snake.parts.Snake.MoveResult;
+
+/**
+ * Diese Klasse reprsentiert den Ablauf eines Snake-Spiels, ohne dieses anzuzeigen.<br>
+ * Sie beinhaltet ein {@link Snake}-, ein {@link Food}- und ein {@link SnakePlayingGrid}-Objekt,
+ * die insgesamt das Spiel an sich bilden, und wird mit einem {@link GameConfig}-Objekt erzeugt.<br>
+ * Ein Tick des Spiels wird mit {@link GameEngine#step()} bzw. {@link GameEngine#step(Direction)}
+ * ausgefhrt; ber Ereignisse wird mit {@link GameListener}-Objekten informiert.<br>
+ * Da diese Klasse weder eine UI erzeugt noch auf Klassen aus java.awt zugreift, knnen
+ * beliebig viele Spiele (z.B. fr Simulationen) auch ohne Bildschirm ausgefhrt werden.
+ * @author Jean-Pierre Hotz
+ * @see de.jeanpierrehotz.control.SnakeControl
+ */
+public class GameEngine{
+    /**
+     * Diese Enumeration reprsentiert den Grund, weshalb ein Spiel vorbei ist
+     * @author Jean-Pierre Hotz
+     */
+    public static enum EndCause{
+        /**
+         * Die Schlange hat unerlaubterweise die Spielfeldgrenzen berschritten
+         */
+        HIT_BORDER,
+        /**
+         * Die Schlange hat sich selbst gefressen
+         */
+        ATE_SELF,
+        /**
+         * Die Schlange belegt das gesamte Spielfeld, weshalb kein Food-Objekt mehr erzeugt werden kann
+         */
+        BOARD_FULL;
+    }
+    
+    /**
+     * Dieses Objekt enthlt die Einstellungen des Spiels
+     */
+    private GameConfig config;
+    
+    /**
+     * Dieses Objekt ist reprsentiert die Schlange,
+     * die sich auf der Spielflche bewegen soll
+     */
+    private Snake snake;
+    /**
+     * Dieses Objekt reprsentiert das Essen der Schlange,
+     * das sich derzeit auf dem Spielfeld befindet
+     */
+    private Food food;
+    /**
+     * Dieses Objekt reprsentiert das Spielfeld, auf dem derzeitig gespielt wird
+     */
+    private SnakePlayingGrid playGrid;
+    
+    /**
+     * Dieser Zufallsgenerator gehrt ausschlielich zu diesem Spiel, und wird mit dem
+     * Startwert aus den Einstellungen erzeugt
+     */
+    private GameRandom random;
+    
+    /**
+     * Diese Variable gibt den Grund an, weshalb das Spiel vorbei ist, oder {@code null},
+     * falls das Spiel noch luft
+     */
+    private EndCause endCause;
+    /**
+     * Diese Variable gibt die Anzahl an bisher ausgefhrten Ticks an
+     */
+    private long ticks;
+    /**
+     * Diese Variable gibt das Ergebnis der letzten Bewegung der Schlange an
+     */
+    private MoveResult lastResult;
+    /**
+     * Die Strategie, mit der die Schlange gesteuert wird, falls gecheatet wird
+     */
+    private Autopilot autopilot;
+    
+    /**
+     * Dieses Array enthlt die Felder, die sich durch den letzten Tick verndert haben
+     * (alter und neuer Kopf, freigegebenes Ende und neues Food-Objekt)
+     */
+    private final int[] changedCells = new int[4];
+    /**
+     * Diese Variable gibt die Anzahl an Feldern in {@link GameEngine#changedCells} an
+     */
+    private int changedCellCount;
+    
+    /**
+     * Diese Liste enthlt alle GameListener, die ber Ereignisse in dem Spiel informiert werden
+     */
+    private ArrayList<GameListener> listeners;
+    /**
+     * Das Feld, auf dem das nchste Food-Objekt erzeugt wird, oder -1 falls dieses zufllig gewhlt wird
+     * (siehe {@link GameEngine#setNextFoodCell(int)})
+     */
+    private int nextFoodCell = -1;
+    
+    /**
+     * Dieser Konstruktor erzeugt ein neues Spiel mit den gegebenen Einstellungen.<br>
+     * Die Schlange wird dabei an einer zuflligen Stelle mit einer zuflligen Richtung erzeugt,
+     * und das erste Food-Objekt wird auf das Spielfeld gelegt.<br>
+     * Alle Zufallswerte werden mit einem eigenen Zufallsgenerator des Spiels ermittelt, weshalb
+     * Spiele mit dem gleichen Startwert (siehe {@link GameConfig#getSeed()}) reproduzierbar sind,
+     * und parallel ausgefhrte Spiele sich keinen Zufallsgenerator teilen.
+     * @param config    Die Einstellungen des Spiels
+     */
+    public GameEngine(GameConfig config){
+        this.config = config;
+        this.listeners = new ArrayList<GameListener>();
+        this.random = new GameRandom(config.getSeed());
+        this.autopilot = new HamiltonianAutopilot();
+        
+//      Zuerst mssen wir ein Spielfeld erzeugen, auf dem sich die Schlange befinden kann
+        playGrid = new SnakePlayingGrid(config.getColumns(), config.getRows(), 0, false);
+//      Dann bentigen wir eine Schlange, damit wir wissen, 
+//      wo wir das Food-Objekt generieren knnen
+        snake = new Snake(playGrid, Direction.getRandomDirection(random), config.isWithRules(), config.isInfinite(), random);
+//      Schlussendlich generieren wir ein neues Food-Objekt
+        if(!generateFood())
+            endCause = EndCause.BOARD_FULL;
+    }
+    
+    /**
+     * Diese Methode fgt einen GameListener hinzu, der ber Ereignisse in dem Spiel informiert wird
+     * @param l     Der GameListener, der hinzugefgt werden soll
+     */
+    public void addGameListener(GameListener l){
+        listeners.add(l);
+    }
+    
+    /**
+     * Diese Methode entfernt einen GameListener wieder
+     * @param l     Der GameListener, der entfernt werden soll
+     */
+    public void removeGameListener(GameListener l){
+        listeners.remove(l);
+    }
+    
+    /**
+     * Diese Methode bernimmt die gegebenen Einstellungen in das laufende Spiel.<br>
+     * Der Zufallsgenerator des Spiels bleibt dabei erhalten.<br>
+     * Dabei werden das Spielfeld, die Schlange und das Food-Objekt an die (evtl.) neue
+     * Spielfeldgre angepasst. Falls gecheatet werden soll, wird auf jeden Fall ohne Regeln
+     * und mit unendlichem Spielfeld gespielt.
+     * @param newConfig     Die neuen Einstellungen des Spiels
+     */
+    public void applyConfig(GameConfig newConfig){
+        this.config = newConfig;
+        
+        int w = newConfig.getColumns();
+        int h = newConfig.getRows();
+        
+//      Die Gre des Spielfelds wird gespeichert
+        playGrid.setSize(w, h, playGrid.getSize());
+        
+//      Und falls gecheatet werden soll
+        if(newConfig.isCheating()){
+//          Wird auf jeden Fall ohne Regeln und mit unendlichem Spielfeld gespielt
+            snake.setWithRules(false);
+            snake.setInfinite(true);
+        }else{
+//          und falls nicht werden die gegebenen Werte gespeichert
+            snake.setWithRules(newConfig.isWithRules());
+            snake.setInfinite(newConfig.isInfinite());
+        }
+        
+//      Letzten Endes werden die Schlange und das Food-Objekt in das neue Spielfeld verschoben
+        snake.notifySizeChanged(w, h);
+        food.notifySizeChanged(w, h);
+        
+        for(int i = 0; i < listeners.size(); i++)
+            listeners.get(i).onConfigApplied(newConfig);
+    }
+    
+    /**
+     * Diese Methode stellt einen gespeicherten Zustand des Spiels wieder her.<br>
+     * Die Gre des Spielfelds und die Regeln werden dabei nicht verndert, weshalb diese vorher
+     * (mit {@link GameEngine#applyConfig(GameConfig)}) zu dem Zustand passen mssen.
+     * Die GameListener werden nicht informiert.
+     * @param ticks         Die Anzahl an bereits ausgefhrten Ticks
+     * @param score         Der Score der Schlange
+     * @param dir           Die Richtung, in die die Schlange geht
+     * @param cells         Die gepackten Koordinaten der Teile der Schlange (beginnend mit dem Kopf)
+     * @param length        Die Anzahl der Teile der Schlange
+     * @param foodCell      Die gepackte Koordinate des Food-Objekts
+     * @param randomState   Der Zustand des Zufallsgenerators (siehe {@link GameRandom#getState()})
+     */
+    public void restore(long ticks, int score, Direction dir, int[] cells, int length, int foodCell, long randomState){
+        snake.restore(cells, length, dir, score);
+        food = new Food(foodCell % playGrid.getWidth(), foodCell / playGrid.getWidth());
+        random.setState(randomState);
+        
+        this.ticks = ticks;
+        this.endCause = null;
+        this.lastResult = null;
+        this.changedCellCount = 0;
+        this.nextFoodCell = -1;
+    }
+    
+    /**
+     * Diese Methode lsst die Schlange in die gegebene Richtung gehen, und fhrt dann einen
+     * Tick des Spiels aus
+     * @param dir   Die Richtung, in die die Schlange gehen soll
+     * @return      das Ergebnis der Bewegung der Schlange
+     * @see GameEngine#step()
+     */
+    public MoveResult step(Direction dir){
+        snake.changeDirectionTo(dir);
+        return step();
+    }
+    
+    /**
+     * Diese Methode fhrt einen Tick des Spiels aus.<br>
+     * Dieser besteht daraus (falls gecheatet wird) die Richtung der Schlange selbststndig
+     * zu whlen, das Snake-Objekt um ein Feld zu bewegen, und falls das Food-Objekt gefressen
+     * wurde ein neues zu generieren.<br>
+     * Falls die Schlange dabei stirbt, oder kein neues Food-Objekt mehr erzeugt werden kann,
+     * so ist das Spiel vorbei, und alle GameListener werden darber informiert.
+     * Ist das Spiel bereits vorbei, so wird nichts mehr gemacht.
+     * @return      das Ergebnis der Bewegung der Schlange
+     */
+    public MoveResult step(){
+//      Falls das Spiel bereits vorbei ist, so zeigen wir nur noch das letzte Ergebnis an
+        if(endCause != null)
+            return lastResult;
+        
+        ticks++;
+        changedCellCount = 0;
+        
+//      Falls gecheatet wird
+        if(config.isCheating()){
+//          Wird die Schlange von dem Autopiloten gesteuert
+            Direction dir = autopilot.getDirection(this);
+            if(dir != null)
+                snake.changeDirectionTo(dir);
+        }
+        
+//      Die Richtung fr diesen Tick steht jetzt fest
+        for(int i = 0; i < listeners.size(); i++)
+            listeners.get(i).onTick(ticks, snake.getDirection());
+        
+//      Wir merken uns den Kopf und das Ende der Schlange vor der Bewegung
+        int oldHead = snake.getCell(0);
+        int oldTail = snake.getCell(snake.getLength() - 1);
+        
+//      Nun bewegen wir die Schlange um ein Feld, und entscheiden nach dem Ergebnis
+        MoveResult result = snake.step(food);
+        lastResult = result;
+        switch(result){
+//          Falls die Schlange sich nur bewegt hat, haben sich der alte und der neue Kopf,
+//          sowie das freigegebene Ende verndert
+            case MOVED:
+                changedCells[changedCellCount++] = oldHead;
+                changedCells[changedCellCount++] = snake.getCell(0);
+                changedCells[changedCellCount++] = oldTail;
+                break;
+//          Falls die Schlange das Food-Objekt gefressen hat
+            case ATE:
+//              Das Ende bleibt dabei liegen, und das Food-Objekt lag auf dem neuen Kopf
+                changedCells[changedCellCount++] = oldHead;
+                changedCells[changedCellCount++] = snake.getCell(0);
+                for(int i = 0; i < listeners.size(); i++)
+                    listeners.get(i).onFoodEaten(snake.getScore());
+//              generieren wir ein neues, und falls dies nicht mehr mglich ist
+                if(!generateFood())
+//                  ist das Spiel vorbei, da die Schlange das gesamte Spielfeld belegt
+                    endGame(EndCause.BOARD_FULL);
+                break;
+//          falls die Schlange allerdings gestorben ist, ist das Spiel vorbei
+            case ATE_SELF:
+                endGame(EndCause.ATE_SELF);
+                break;
+            case HIT_BORDER:
+                endGame(EndCause.HIT_BORDER);
+                break;
+            default:
+                break;
+        }
+        return result;
+    }
+    
+    /**
+     * Diese Methode beendet das Spiel mit dem gegebenen Grund, und informiert alle GameListener
+     * @param cause     Der Grund, weshalb das Spiel vorbei ist
+     */
+    private void endGame(EndCause cause){
+        endCause = cause;
+        for(int i = 0; i < listeners.size(); i++)
+            listeners.get(i).onGameOver(cause);
+    }
+    
+    /**
+     * Diese Methode generiert ein neues Food-Objekt auf einem (gleichverteilt) zuflligen Feld,
+     * das nicht von der Schlange belegt ist.
+     * @return  falls ein neues Food-Objekt erzeugt werden konnte {@code true}; ansonsten {@code false},
+     *          da die Schlange das gesamte Spielfeld belegt
+     */
+    private boolean generateFood(){
+        long start = Metrics.ENABLED? System.nanoTime(): 0;
+        FoodEvent event = new FoodEvent();
+        event.begin();
+        int freeCells = playGrid.getFreeCellCount();
+        
+//      Das Spielfeld kennt alle freien Felder, und gibt uns ein zuflliges davon (falls das
+//      Feld nicht vorgegeben wurde)
+        int cell = nextFoodCell;
+        int attempts = (cell < 0)? 1: 2;
+        nextFoodCell = -1;
+        if(cell < 0 || playGrid.isOccupied(cell)){
+            if(Metrics.ENABLED && cell >= 0)
+                Metrics.FOOD_RETRIES.incrementAndGet();
+            cell = playGrid.getRandomFreeCell(random);
+        }else{
+            attempts = 1;
+        }
+        
+        if(event.shouldCommit()){
+            event.attempts = attempts;
+            event.placed = cell >= 0;
+            event.cell = cell;
+            event.freeCells = freeCells;
+            event.commit();
+        }
+        
+//      Falls es kein freies Feld mehr gibt, so kann kein Food-Objekt erzeugt werden
+        if(cell < 0)
+            return false;
+        
+//      Ansonsten erzeugen wir ein neues Food-Objekt mit den Koordinaten des Felds
+        food = new Food(cell % playGrid.getWidth(), cell / playGrid.getWidth());
+        if(changedCellCount < changedCells.length)
+            changedCells[changedCellCount++] = cell;
+        if(Metrics.ENABLED)
+            Metrics.FOOD_TIME.record(System.nanoTime() - start);
+        for(int i = 0; i < listeners.size(); i++)
+            listeners.get(i).onFoodPlaced(food.getxInGrid(), food.getyInGrid());
+        return true;
+    }
+    
+    /**
+     * Diese Methode legt die Strategie fest, mit der die Schlange gesteuert wird, falls
+     * gecheatet wird (standardmig ein {@link HamiltonianAutopilot})
+     * @param autopilot     Die Strategie, mit der die Schlange gesteuert wird
+     */
+    public void setAutopilot(Autopilot autopilot){
+        this.autopilot = autopilot;
+    }
+    
+    /**
+     * Diese Methode legt das Feld fest, auf dem das nchste Food-Objekt erzeugt wird (anstatt es
+     * zufllig zu whlen), z.B. um ein aufgezeichnetes Spiel exakt nachzuspielen.<br>
+     * Ist das Feld bei der Erzeugung belegt, so wird doch ein zuflliges Feld gewhlt.
+     * @param cell  Die gepackte Koordinate des Felds (y * Spielfeldbreite + x), oder -1
+     */
+    public void setNextFoodCell(int cell){
+        this.nextFoodCell = cell;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Zustand des Zufallsgenerators des Spiels
+     * @return  den Zustand des Zufallsgenerators (siehe {@link GameRandom#getState()})
+     */
+    public long getRandomState(){
+        return random.getState();
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Strategie, mit der die Schlange gesteuert wird, falls gecheatet wird
+     * @return  die Strategie, mit der die Schlange gesteuert wird
+     */
+    public Autopilot getAutopilot(){
+        return autopilot;
+    }
+    
+    /**
+     * Diese Methode lsst die Schlange in die gegebene Richtung gehen
+     * @param dir   Die Richtung, in die die Schlange gehen soll
+     */
+    public void changeDirection(Direction dir){
+        snake.changeDirectionTo(dir);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Einstellungen des Spiels
+     * @return  die Einstellungen des Spiels
+     */
+    public GameConfig getConfig(){
+        return config;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Snake-Objekt des Spiels
+     * @return  die Schlange
+     */
+    public Snake getSnake(){
+        return snake;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Food-Objekt, das sich derzeit auf dem Spielfeld befindet
+     * @return  das derzeitige Food-Objekt
+     */
+    public Food getFood(){
+        return food;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Spielfeld des Spiels
+     * @return  das Spielfeld
+     */
+    public SnakePlayingGrid getPlayingGrid(){
+        return playGrid;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den derzeitigen Score
+     * @return  die Anzahl an gefressenen Food-Objekten
+     */
+    public int getScore(){
+        return snake.getScore();
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an bisher ausgefhrten Ticks
+     * @return  die Anzahl an Ticks
+     */
+    public long getTicks(){
+        return ticks;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Feldern, die sich durch den letzten Tick
+     * verndert haben.<br>
+     * Ist die Schlange gestorben, so hat sich nichts verndert.
+     * @return  die Anzahl an vernderten Feldern
+     * @see GameEngine#getChangedCell(int)
+     */
+    public int getChangedCellCount(){
+        return changedCellCount;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das i-te Feld (als y * Breite + x), das sich durch den
+     * letzten Tick verndert hat.<br>
+     * Damit muss eine UI nur diese Felder neu zeichnen, statt des gesamten Spielfelds.
+     * @param i     Der Index des Felds (0 .. {@link GameEngine#getChangedCellCount()} - 1)
+     * @return      das vernderte Feld
+     */
+    public int getChangedCell(int i){
+        return changedCells[i];
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob das Spiel vorbei ist
+     * @return  ob das Spiel vorbei ist
+     */
+    public boolean isGameOver(){
+        return endCause != null;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Grund, weshalb das Spiel vorbei ist
+     * @return  der Grund, weshalb das Spiel vorbei ist, oder {@code null} falls es noch luft
+     */
+    public EndCause getEndCause(){
+        return endCause;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake;
+
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Dieses Interface wird von einem {@link GameEngine}-Objekt benutzt, um ber Ereignisse
+ * in dem Spiel zu informieren.<br>
+ * Alle Methoden werden in dem Thread aufgerufen, in dem das Spiel ausgefhrt wird.
+ * @author Jean-Pierre Hotz
+ * @see GameAdapter
+ */
+public interface GameListener{
+    /**
+     * Diese Methode wird aufgerufen, sobald ein neues Food-Objekt auf das Spielfeld gelegt wurde
+     * @param x     Die x-Koordinate des Food-Objekts
+     * @param y     Die y-Koordinate des Food-Objekts
+     */
+    public void onFoodPlaced(int x, int y);
+    
+    /**
+     * Diese Methode wird aufgerufen, sobald die Schlange ein Food-Objekt gefressen hat
+     * @param score     Der neue Score der Schlange
+     */
+    public void onFoodEaten(int score);
+    
+    /**
+     * Diese Methode wird aufgerufen, sobald das Spiel vorbei ist
+     * @param cause     Der Grund, weshalb das Spiel vorbei ist
+     */
+    public void onGameOver(GameEngine.EndCause cause);
+    
+    /**
+     * Diese Methode wird zu Beginn jedes Ticks aufgerufen, nachdem die Richtung der Schlange
+     * fr diesen Tick feststeht, und bevor sie sich bewegt
+     * @param tick  Die Nummer des Ticks (beginnend mit 1)
+     * @param dir   Die Richtung, in die die Schlange in diesem Tick geht
+     */
+    public void onTick(long tick, Direction dir);
+    
+    /**
+     * Diese Methode wird aufgerufen, sobald neue Einstellungen in das laufende Spiel bernommen wurden
+     * @param config    Die neuen Einstellungen
+     */
+    public void onConfigApplied(GameConfig config);
+}
@@ -0,0 +1,86 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake;
+
+import java.util.Random;
+
+/**
+ * Diese Klasse reprsentiert einen Zufallsgenerator, der zu genau einem Spiel gehrt.<br>
+ * Im Gegensatz zu {@link Math#random()} (das einen einzigen, synchronisierten Zufallsgenerator
+ * fr alle Threads benutzt) wird der Zustand nicht geteilt oder synchronisiert, und die
+ * erzeugten Zahlen hngen ausschlielich von dem Startwert ab.<br>
+ * Die Zahlen werden nach dem SplitMix64-Verfahren (wie in {@link java.util.SplittableRandom})
+ * erzeugt. Da der Zustand aus einem einzigen long-Wert besteht, kann dieser ausgelesen
+ * und wiederhergestellt werden.<br>
+ * Ein Objekt dieser Klasse darf nur von einem Thread gleichzeitig benutzt werden.
+ * @author Jean-Pierre Hotz
+ */
+public class GameRandom extends Random{
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Diese Konstante wird bei jeder erzeugten Zahl zu dem Zustand addiert
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    
+    /**
+     * Diese Variable reprsentiert den Zustand des Zufallsgenerators.<br>
+     * Sie wird (ohne Initialisierung) in {@link GameRandom#setSeed(long)} gesetzt, das bereits
+     * von dem Konstruktor der Klasse Random aufgerufen wird.
+     */
+    private long state;
+    
+    /**
+     * Dieser Konstruktor erzeugt einen Zufallsgenerator mit dem gegebenen Startwert
+     * @param seed  Der Startwert des Zufallsgenerators
+     */
+    public GameRandom(long seed){
+        super(seed);
+    }
+    
+    /**
+     * Diese Methode setzt den Zustand des Zufallsgenerators auf den gegebenen Startwert
+     */
+    @Override
+    public void setSeed(long seed){
+        state = seed;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den derzeitigen Zustand des Zufallsgenerators, mit dem
+     * dieser ber {@link GameRandom#setState(long)} wiederhergestellt werden kann
+     * @return  der Zustand des Zufallsgenerators
+     */
+    public long getState(){
+        return state;
+    }
+    
+    /**
+     * Diese Methode stellt den gegebenen Zustand des Zufallsgenerators wieder her
+     * @param state     der Zustand, der wiederhergestellt werden soll
+     */
+    public void setState(long state){
+        this.state = state;
+    }
+    
+    @Override
+    public long nextLong(){
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Diese Methode erzeugt die gegebene Anzahl an Zufallsbits. Alle anderen Methoden der Klasse
+     * Random (z.B. {@link Random#nextInt(int)}) benutzen diese Methode.
+     */
+    @Override
+    protected int next(int bits){
+        return (int) (nextLong() >>> (64 - bits));
+    }
+}
@@ -0,0 +1,518 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.arena;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.jeanpierrehotz.snake.GameRandom;
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse reprsentiert eine Arena, in der mehrere Schlangen auf einem gemeinsamen Spielfeld
+ * um mehrere Food-Objekte kmpfen.<br>
+ * Alle Schlangen tragen ihre Teile in dasselbe {@link SnakePlayingGrid} ein. Ein Tick besteht aus
+ * zwei Phasen:
+ * <ol>
+ * <li>Entscheiden: Fr jede lebende Schlange wird (parallel auf allen Prozessorkernen) mit dem
+ * {@link ArenaPilot} die Richtung ermittelt. Dabei wird die Arena nur gelesen.</li>
+ * <li>Anwenden: In einem einzigen sequenziellen Durchlauf werden die Zusammenste entschieden, und
+ * die Schlangen bewegt. Alle Schlangen bewegen sich dabei gleichzeitig: Wollen mehrere Schlangen
+ * auf dasselbe Feld, oder tauschen zwei Schlangen ihre Kpfe, so sterben alle (Kopf an Kopf); fhrt eine Schlange auf ein Feld, das zu Beginn
+ * des Ticks belegt war (und nicht von einem Ende verlassen wird), so stirbt sie (Kopf an Krper).
+ * Das Ergebnis hngt also nicht von der Reihenfolge der Schlangen ab.</li>
+ * </ol>
+ * Zusammenste werden ber ein Feld pro Spielfeldfeld erkannt, in dem sich die Kpfe (mit der
+ * Nummer des Ticks markiert) eintragen, und nicht durch den Vergleich aller Schlangen miteinander.
+ * Das nchste Food-Objekt finden die Schlangen ber einen rumlichen Index ({@link #getNearestFood(int)}).
+ * Dadurch wchst der Aufwand eines Ticks linear mit der Anzahl an Schlangen, auch wenn die Anzahl an
+ * Food-Objekten mit ihr wchst.<br>
+ * Mit dem gleichen Startwert verluft eine Arena (unabhngig von der Anzahl an Threads) immer gleich.
+ * @author Jean-Pierre Hotz
+ */
+public class Arena{
+    /**
+     * Unterhalb dieser Anzahl an Schlangen wird das Entscheiden nicht weiter aufgeteilt
+     */
+    private static final int SNAKES_PER_TASK = 256;
+    /**
+     * Wie oft hchstens versucht wird, ein Food-Objekt auf ein Feld ohne Food-Objekt zu legen
+     */
+    private static final int FOOD_ATTEMPTS = 8;
+    
+    /**
+     * Das gemeinsame Spielfeld, seine Breite und Hhe, und ob die Schlangen ber den Rand
+     * hinweg gehen drfen
+     */
+    private final SnakePlayingGrid grid;
+    private final int width, height;
+    private final boolean infinite;
+    /**
+     * Der Zufallsgenerator, mit dem die Schlangen und die Food-Objekte platziert werden
+     */
+    private final GameRandom random;
+    
+    /**
+     * Die Schlangen und die Anzahl der lebenden Schlangen
+     */
+    private final ArenaSnake[] snakes;
+    private int alive;
+    /**
+     * Die Felder der Food-Objekte (oder -1), und fr jedes Feld der Index des Food-Objekts
+     * darauf (oder -1)
+     */
+    private final int[] foods;
+    private final int[] foodAt;
+    /**
+     * Der rumliche Index der Food-Objekte, in dem die Schlangen das nchste Food-Objekt finden
+     */
+    private final FoodIndex foodIndex;
+    
+    /**
+     * Die Strategie, mit der die Schlangen gesteuert werden
+     */
+    private ArenaPilot pilot = new GreedyArenaPilot();
+    /**
+     * Der Pool, in dem die Richtungen entschieden werden, oder {@code null} falls nur ein
+     * Thread benutzt werden soll
+     */
+    private final ForkJoinPool pool;
+    
+    /**
+     * Die entschiedenen Richtungen und die Felder, auf die sich die Schlangen bewegen (oder -1,
+     * falls sie dabei den Rand berschreiten), sowie ob sie dabei sterben bzw. wachsen
+     */
+    private final Direction[] decisions;
+    private final int[] targets;
+    private final boolean[] dying;
+    private final boolean[] growing;
+    /**
+     * Fr jedes Feld die Nummer des Ticks, in dem es zuletzt von einem Kopf beansprucht wurde,
+     * und die Schlange, die es beansprucht hat. Durch die Nummer muss das Feld nie gelscht werden.
+     */
+    private final int[] claimTick;
+    private final int[] claimOwner;
+    
+    /**
+     * Die Anzahl an ausgefhrten Ticks
+     */
+    private long ticks;
+    
+    /**
+     * Dieser Konstruktor erzeugt eine Arena, deren Schlangen auf allen Prozessorkernen gesteuert werden
+     * @param columns       Die Breite des Spielfelds in Feldern
+     * @param rows          Die Hhe des Spielfelds in Feldern
+     * @param infinite      ob die Schlangen ber den Rand hinweg gehen drfen
+     * @param snakeCount    Die Anzahl an Schlangen
+     * @param foodCount     Die Anzahl an Food-Objekten
+     * @param seed          Der Startwert des Zufallsgenerators
+     */
+    public Arena(int columns, int rows, boolean infinite, int snakeCount, int foodCount, long seed){
+        this(columns, rows, infinite, snakeCount, foodCount, seed, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Dieser Konstruktor erzeugt eine Arena, deren Schlangen mit der gegebenen Anzahl an Threads
+     * gesteuert werden.<br>
+     * Die Schlangen (der Lnge 1) und die Food-Objekte werden zufllig auf freie Felder gelegt.
+     * @param columns       Die Breite des Spielfelds in Feldern
+     * @param rows          Die Hhe des Spielfelds in Feldern
+     * @param infinite      ob die Schlangen ber den Rand hinweg gehen drfen
+     * @param snakeCount    Die Anzahl an Schlangen
+     * @param foodCount     Die Anzahl an Food-Objekten
+     * @param seed          Der Startwert des Zufallsgenerators
+     * @param parallelism   Die Anzahl an Threads
+     * @throws IllegalArgumentException  falls das Spielfeld zu klein fr alle Schlangen ist
+     */
+    public Arena(int columns, int rows, boolean infinite, int snakeCount, int foodCount, long seed, int parallelism){
+        if(snakeCount < 1 || foodCount < 0 || (long) columns * rows <= snakeCount)
+            throw new IllegalArgumentException("Board too small for " + snakeCount + " snakes");
+        
+        this.grid = new SnakePlayingGrid(columns, rows, 1, false);
+        this.width = columns;
+        this.height = rows;
+        this.infinite = infinite;
+        this.random = new GameRandom(seed);
+        this.pool = (parallelism > 1)? new ForkJoinPool(parallelism): null;
+        
+        this.snakes = new ArenaSnake[snakeCount];
+        this.decisions = new Direction[snakeCount];
+        this.targets = new int[snakeCount];
+        this.dying = new boolean[snakeCount];
+        this.growing = new boolean[snakeCount];
+        this.claimTick = new int[columns * rows];
+        this.claimOwner = new int[columns * rows];
+        Arrays.fill(claimTick, -1);
+        
+        for(int i = 0; i < snakeCount; i++){
+            int cell = grid.getRandomFreeCell(random);
+            grid.occupy(cell);
+            snakes[i] = new ArenaSnake(i, cell, Direction.getRandomDirection(random));
+        }
+        alive = snakeCount;
+        
+        this.foods = new int[foodCount];
+        this.foodAt = new int[columns * rows];
+        this.foodIndex = new FoodIndex(columns, rows, infinite, foodCount);
+        Arrays.fill(foods, -1);
+        Arrays.fill(foodAt, -1);
+        placeMissingFood();
+    }
+    
+    /**
+     * Diese Methode legt die Strategie fest, mit der die Schlangen gesteuert werden
+     * (standardmig ein {@link GreedyArenaPilot})
+     * @param pilot     Die (threadsichere) Strategie
+     */
+    public void setPilot(ArenaPilot pilot){
+        this.pilot = pilot;
+    }
+    
+    /**
+     * Diese Methode fhrt einen Tick der Arena aus: Zuerst entscheiden alle lebenden Schlangen
+     * parallel, in welche Richtung sie gehen, und danach werden alle Schlangen gleichzeitig bewegt.
+     */
+    public void step(){
+        if(isOver())
+            return;
+        
+        if(pool != null && snakes.length > SNAKES_PER_TASK)
+            pool.invoke(new DecisionTask(0, snakes.length));
+        else
+            decide(0, snakes.length);
+        
+        apply();
+        ticks++;
+    }
+    
+    /**
+     * Diese Methode entscheidet die Richtungen der lebenden Schlangen im gegebenen Bereich
+     * @param from  Der Index der ersten Schlange
+     * @param to    Der Index nach der letzten Schlange
+     */
+    private void decide(int from, int to){
+        for(int i = from; i < to; i++){
+            ArenaSnake snake = snakes[i];
+            if(!snake.isAlive())
+                continue;
+            
+            Direction d = pilot.getDirection(this, snake);
+//          Ohne Entscheidung, oder falls sich die Schlange umdrehen wrde, behlt sie ihre Richtung bei
+            if(d == null || (snake.getLength() > 1 && d == snake.getDirection().getOpposite()))
+                d = snake.getDirection();
+            decisions[i] = d;
+        }
+    }
+    
+    /**
+     * Diese Methode entscheidet die Zusammenste aller Schlangen, und bewegt sie.<br>
+     * Dabei wird jede lebende Schlange (unabhngig von der Anzahl an Schlangen) nur eine
+     * konstante Anzahl an Malen betrachtet.
+     */
+    private void apply(){
+        int tick = (int) ticks;
+        
+//      Zuerst ermitteln wir die Felder, auf die sich die Kpfe bewegen. Wollen mehrere Kpfe
+//      auf dasselbe Feld, so sterben alle (der erste wird ber das beanspruchte Feld gefunden)
+        for(int i = 0; i < snakes.length; i++){
+            if(!snakes[i].isAlive())
+                continue;
+            
+            int target = getMovedCell(snakes[i].getHead(), decisions[i]);
+            targets[i] = target;
+            dying[i] = target < 0;
+            growing[i] = target >= 0 && foodAt[target] >= 0;
+            
+            if(target >= 0){
+                if(claimTick[target] == tick){
+                    dying[i] = true;
+                    dying[claimOwner[target]] = true;
+                }else{
+                    claimTick[target] = tick;
+                    claimOwner[target] = i;
+                }
+            }
+        }
+        
+//      Zwei Schlangen, die auf das Feld des Kopfs der jeweils anderen fahren, wrden (da die Enden
+//      der Schlangen der Lnge 1 ihre Kpfe sind) durcheinander hindurch fahren, weshalb auch sie
+//      Kopf an Kopf sterben. Da beide Schlangen so geprft werden, gengt der erste Eintrag des Felds.
+        for(int i = 0; i < snakes.length; i++){
+            if(!snakes[i].isAlive() || targets[i] < 0)
+                continue;
+            
+            int head = snakes[i].getHead();
+            if(claimTick[head] == tick){
+                int other = claimOwner[head];
+                if(other != i && snakes[other].getHead() == targets[i]){
+                    dying[i] = true;
+                    dying[other] = true;
+                }
+            }
+        }
+        
+//      Dann verlassen die Enden der Schlangen, die nicht wachsen, ihr Feld, weshalb ein anderer
+//      Kopf gleichzeitig hineinfahren darf
+        for(int i = 0; i < snakes.length; i++){
+            if(snakes[i].isAlive() && !growing[i])
+                grid.release(snakes[i].getTail());
+        }
+        
+//      Ist das Feld jetzt noch belegt, so fhrt der Kopf in eine Schlange
+        for(int i = 0; i < snakes.length; i++){
+            if(snakes[i].isAlive() && !dying[i] && grid.isOccupied(targets[i]))
+                dying[i] = true;
+        }
+        
+//      Schlussendlich sterben die Schlangen, bzw. bewegen sich, und fressen evtl. ein Food-Objekt
+        for(int i = 0; i < snakes.length; i++){
+            ArenaSnake snake = snakes[i];
+            if(!snake.isAlive())
+                continue;
+            
+            if(dying[i]){
+                snake.kill(grid, !growing[i]);
+                alive--;
+            }else{
+                int target = targets[i];
+                grid.occupy(target);
+                snake.advance(target, decisions[i], growing[i]);
+                if(growing[i]){
+                    foodIndex.remove(foodAt[target]);
+                    foods[foodAt[target]] = -1;
+                    foodAt[target] = -1;
+                }
+            }
+        }
+        
+        placeMissingFood();
+    }
+    
+    /**
+     * Diese Methode legt alle gefressenen Food-Objekte auf zufllige freie Felder, auf denen
+     * noch kein Food-Objekt liegt. Findet sich (z.B. auf einem vollen Spielfeld) kein solches Feld,
+     * so wird es im nchsten Tick erneut versucht.
+     */
+    private void placeMissingFood(){
+        for(int i = 0; i < foods.length; i++){
+            if(foods[i] >= 0)
+                continue;
+            
+            for(int attempt = 0; attempt < FOOD_ATTEMPTS; attempt++){
+                int cell = grid.getRandomFreeCell(random);
+                if(cell < 0)
+                    return;
+                if(foodAt[cell] < 0){
+                    foods[i] = cell;
+                    foodAt[cell] = i;
+                    foodIndex.add(i, cell);
+                    break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld neben dem gegebenen Feld in der gegebenen Richtung
+     * @param cell  Das Feld (als y * Breite + x)
+     * @param dir   Die Richtung
+     * @return      das benachbarte Feld, oder -1 falls dabei der Rand eines nicht unendlichen
+     *              Spielfelds berschritten wird
+     */
+    public int getMovedCell(int cell, Direction dir){
+        int x = cell % width;
+        int y = cell / width;
+        
+        switch(dir){
+            case up:
+                y = (y != 0)? y - 1: (infinite? height - 1: -1);
+                break;
+            case down:
+                y = (y + 1 != height)? y + 1: (infinite? 0: -1);
+                break;
+            case left:
+                x = (x != 0)? x - 1: (infinite? width - 1: -1);
+                break;
+            default:
+                x = (x + 1 != width)? x + 1: (infinite? 0: -1);
+                break;
+        }
+        return (x < 0 || y < 0)? -1: y * width + x;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob die Arena vorbei ist, also hchstens noch eine Schlange lebt
+     * (bzw. bei nur einer Schlange, ob diese gestorben ist)
+     * @return  ob die Arena vorbei ist
+     */
+    public boolean isOver(){
+        return alive == 0 || (snakes.length > 1 && alive == 1);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das gemeinsame Spielfeld aller Schlangen
+     * @return  das Spielfeld
+     */
+    public SnakePlayingGrid getGrid(){
+        return grid;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Breite des Spielfelds
+     * @return  die Breite des Spielfelds in Feldern
+     */
+    public int getWidth(){
+        return width;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Hhe des Spielfelds
+     * @return  die Hhe des Spielfelds in Feldern
+     */
+    public int getHeight(){
+        return height;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob die Schlangen ber den Rand des Spielfelds hinweg gehen drfen
+     * @return  ob das Spielfeld unendlich ist
+     */
+    public boolean isInfinite(){
+        return infinite;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Schlangen (lebend und tot)
+     * @return  die Anzahl an Schlangen
+     */
+    public int getSnakeCount(){
+        return snakes.length;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die i-te Schlange
+     * @param i     Der Index der Schlange
+     * @return      die Schlange
+     */
+    public ArenaSnake getSnake(int i){
+        return snakes[i];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an lebenden Schlangen
+     * @return  die Anzahl an lebenden Schlangen
+     */
+    public int getAliveCount(){
+        return alive;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Food-Objekten
+     * @return  die Anzahl an Food-Objekten
+     */
+    public int getFoodCount(){
+        return foods.length;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld des i-ten Food-Objekts
+     * @param i     Der Index des Food-Objekts
+     * @return      das Feld (als y * Breite + x), oder -1 falls es derzeit auf keinem Feld liegt
+     */
+    public int getFood(int i){
+        return foods[i];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Food-Objekt, das am nchsten an dem gegebenen Feld liegt
+     * (auf einem unendlichen Spielfeld auch ber den Rand hinweg gemessen).<br>
+     * Das Food-Objekt wird in einem rumlichen Index gesucht, weshalb der Aufwand (bei zufllig
+     * verteilten Food-Objekten) nicht von der Anzahl an Food-Objekten abhngt.
+     * @param cell  Das Feld (als y * Breite + x)
+     * @return      das Feld des nchsten Food-Objekts, oder -1 falls es keins gibt
+     */
+    public int getNearestFood(int cell){
+        return foodIndex.getNearest(cell);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an ausgefhrten Ticks
+     * @return  die Anzahl an Ticks
+     */
+    public long getTicks(){
+        return ticks;
+    }
+    
+    /**
+     * Diese Methode beendet die Threads, auf denen die Richtungen entschieden werden
+     */
+    public void shutdown(){
+        if(pool != null)
+            pool.shutdown();
+    }
+    
+    /**
+     * Diese Klasse reprsentiert das Entscheiden der Richtungen eines Bereichs der Schlangen, das
+     * so lange aufgeteilt wird, bis nur noch wenige Schlangen brig sind
+     * @author Jean-Pierre Hotz
+     */
+    private class DecisionTask extends RecursiveAction{
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final int from, to;
+        
+        private DecisionTask(int from, int to){
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute(){
+            if(to - from <= SNAKES_PER_TASK){
+                decide(from, to);
+            }else{
+                int mid = (from + to) >>> 1;
+                invokeAll(new DecisionTask(from, mid), new DecisionTask(mid, to));
+            }
+        }
+    }
+    
+    /**
+     * Diese Methode wird von der Kommandozeile aufgerufen, lsst eine Arena ohne UI bis zum Ende
+     * laufen, und gibt das Ergebnis aus.<br>
+     * Argumente: Spalten Zeilen unendlich(true/false) Schlangen Food-Objekte Startwert [maxTicks] [Threads]
+     * @param args  Die von der Kommandozeile bergebenen Argumente
+     */
+    public static void main(String[] args){
+        if(args.length < 6){
+            System.out.println("Usage: Arena <columns> <rows> <infinite> <snakes> <foods> <seed> [maxTicks] [threads]");
+            return;
+        }
+        
+        long maxTicks = (args.length > 6)? Long.parseLong(args[6]): 1000000L;
+        int threads = (args.length > 7)? Integer.parseInt(args[7]): Runtime.getRuntime().availableProcessors();
+        Arena arena = new Arena(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Boolean.parseBoolean(args[2]),
+                Integer.parseInt(args[3]), Integer.parseInt(args[4]), Long.parseLong(args[5]), threads);
+        
+        long start = System.nanoTime();
+        while(!arena.isOver() && arena.getTicks() < maxTicks)
+            arena.step();
+        long time = System.nanoTime() - start;
+        
+        int best = 0;
+        for(int i = 1; i < arena.getSnakeCount(); i++){
+            if(arena.getSnake(i).getScore() > arena.getSnake(best).getScore())
+                best = i;
+        }
+        System.out.printf("%d ticks in %.1f ms (%.1f us/tick), %d of %d snakes alive, best snake #%d with score %d%n",
+                arena.getTicks(), time / 1e6, time / 1e3 / Math.max(1, arena.getTicks()),
+                arena.getAliveCount(), arena.getSnakeCount(), best, arena.getSnake(best).getScore());
+        arena.shutdown();
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.arena;
+
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Dieses Interface reprsentiert eine Strategie, mit der die Schlangen einer {@link Arena}
+ * gesteuert werden.<br>
+ * Die Arena fragt vor jedem Tick fr alle lebenden Schlangen parallel (auf mehreren Threads
+ * gleichzeitig) nach der Richtung. Whrenddessen wird die Arena nicht verndert; die Strategie
+ * darf die Arena also nur lesen, und muss (z.B. ohne vernderlichen Zustand) threadsicher sein.
+ * @author Jean-Pierre Hotz
+ * @see de.jeanpierrehotz.snake.autopilot.Autopilot
+ */
+public interface ArenaPilot{
+    /**
+     * Diese Methode entscheidet, in welche Richtung die gegebene Schlange in dem nchsten Tick
+     * gehen soll
+     * @param arena     Die Arena
+     * @param snake     Die Schlange, die gesteuert wird
+     * @return          die Richtung, in die die Schlange gehen soll, oder {@code null}, falls
+     *                  sie ihre Richtung beibehalten soll
+     */
+    public Direction getDirection(Arena arena, ArenaSnake snake);
+}
@@ -0,0 +1,163 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.arena;
+
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+
+/**
+ * Diese Klasse reprsentiert eine der Schlangen einer {@link Arena}.<br>
+ * Wie bei {@link de.jeanpierrehotz.snake.parts.Snake} werden die Teile als gepackte Koordinaten
+ * (y * Breite + x) in einem Ringpuffer gehalten, dessen Gre eine Zweierpotenz ist. Die Schlange
+ * bewegt sich allerdings nicht selbst, sondern wird von der Arena bewegt, nachdem die Zusammenste
+ * aller Schlangen entschieden wurden.
+ * @author Jean-Pierre Hotz
+ */
+public class ArenaSnake{
+    /**
+     * Die Nummer der Schlange in der Arena
+     */
+    private final int id;
+    /**
+     * Der Ringpuffer mit den Teilen der Schlange, der Index des Kopfs darin und die Lnge
+     */
+    private int[] body = new int[4];
+    private int head;
+    private int length;
+    /**
+     * Die Richtung, in die sich die Schlange zuletzt bewegt hat
+     */
+    private Direction dir;
+    /**
+     * Die Anzahl an gefressenen Food-Objekten
+     */
+    private int score;
+    /**
+     * Ob die Schlange noch lebt
+     */
+    private boolean alive = true;
+    
+    /**
+     * Dieser Konstruktor erzeugt eine Schlange der Lnge 1 auf dem gegebenen Feld
+     * @param id    Die Nummer der Schlange in der Arena
+     * @param cell  Das Feld, auf dem die Schlange beginnt
+     * @param dir   Die Richtung, in die die Schlange anfnglich geht
+     */
+    ArenaSnake(int id, int cell, Direction dir){
+        this.id = id;
+        this.dir = dir;
+        this.body[0] = cell;
+        this.length = 1;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Nummer der Schlange in der Arena
+     * @return  die Nummer der Schlange
+     */
+    public int getId(){
+        return id;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld des Kopfs
+     * @return  das Feld (als y * Breite + x)
+     */
+    public int getHead(){
+        return body[head];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld des letzten Teils
+     * @return  das Feld (als y * Breite + x)
+     */
+    public int getTail(){
+        return getCell(length - 1);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld des i-ten Teils, wobei das Teil mit dem Index 0 der Kopf ist
+     * @param i     Der Index des Teils
+     * @return      das Feld (als y * Breite + x)
+     */
+    public int getCell(int i){
+        return body[(head + i) & (body.length - 1)];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Lnge der Schlange
+     * @return  die Lnge der Schlange
+     */
+    public int getLength(){
+        return length;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Richtung, in die sich die Schlange zuletzt bewegt hat
+     * @return  die Richtung
+     */
+    public Direction getDirection(){
+        return dir;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Food-Objekten, die die Schlange gefressen hat
+     * @return  der Score
+     */
+    public int getScore(){
+        return score;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob die Schlange noch lebt
+     * @return  ob die Schlange noch lebt
+     */
+    public boolean isAlive(){
+        return alive;
+    }
+    
+    /**
+     * Diese Methode bewegt die Schlange auf das gegebene Feld.<br>
+     * Das Spielfeld wird dabei nicht verndert; das freigegebene Ende und der neue Kopf werden
+     * von der Arena eingetragen.
+     * @param cell  Das Feld des neuen Kopfs
+     * @param dir   Die Richtung, in die sich die Schlange bewegt hat
+     * @param grow  ob die Schlange dabei ein Food-Objekt gefressen hat, und daher wchst
+     */
+    void advance(int cell, Direction dir, boolean grow){
+        if(grow){
+            if(length == body.length)
+                grow();
+            length++;
+            score++;
+        }
+        head = (head - 1) & (body.length - 1);
+        body[head] = cell;
+        this.dir = dir;
+    }
+    
+    /**
+     * Diese Methode lsst die Schlange sterben, und gibt alle ihre Felder auf dem Spielfeld frei
+     * @param grid          Das Spielfeld
+     * @param tailReleased  ob das Ende in diesem Tick bereits freigegeben wurde
+     */
+    void kill(SnakePlayingGrid grid, boolean tailReleased){
+        int count = tailReleased? length - 1: length;
+        for(int i = 0; i < count; i++)
+            grid.release(getCell(i));
+        alive = false;
+    }
+    
+    /**
+     * Diese Methode verdoppelt die Gre des Ringpuffers, wobei der Kopf an den Anfang rckt
+     */
+    private void grow(){
+        int[] grown = new int[body.length << 1];
+        for(int i = 0; i < length; i++)
+            grown[i] = getCell(i);
+        body = grown;
+        head = 0;
+    }
+}
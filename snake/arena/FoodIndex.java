@@ -0,0 +1,198 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.arena;
+
+import java.util.Arrays;
+
+/**
+ * Diese Klasse reprsentiert einen rumlichen Index der Food-Objekte einer {@link Arena}.<br>
+ * Das Spielfeld wird in quadratische Bereiche (Eimer) aufgeteilt, die so gro sind, dass in einem
+ * Eimer im Mittel etwa ein Food-Objekt liegt. Jeder Eimer kennt die Food-Objekte in ihm (als doppelt
+ * verkettete Liste ber die Indizes der Food-Objekte), weshalb ein Food-Objekt in konstanter Zeit
+ * eingetragen und entfernt werden kann.<br>
+ * Das nchste Food-Objekt wird in Ringen von Eimern um das gegebene Feld gesucht, bis kein Eimer
+ * auerhalb der durchsuchten Ringe mehr ein nheres Food-Objekt enthalten kann. Da die Food-Objekte
+ * zufllig verteilt sind, ist das (unabhngig von der Anzahl an Food-Objekten) meistens nach zwei
+ * oder drei Ringen der Fall.<br>
+ * Die Arena verndert den Index nur, whrend keine Schlange entscheidet; das Suchen verndert ihn
+ * nicht, und kann also von allen Threads gleichzeitig benutzt werden.
+ * @author Jean-Pierre Hotz
+ */
+class FoodIndex{
+    /**
+     * Die kleinste Seitenlnge eines Eimers, damit bei sehr vielen Food-Objekten nicht mehr Eimer
+     * als Felder entstehen
+     */
+    private static final int MIN_BUCKET_SIZE = 4;
+    
+    /**
+     * Die Breite und Hhe des Spielfelds, und ob ber den Rand hinweg gemessen wird
+     */
+    private final int width, height;
+    private final boolean infinite;
+    /**
+     * Die Seitenlnge eines Eimers in Feldern, und die Anzahl an Eimern nebeneinander bzw. untereinander
+     */
+    private final int bucketSize;
+    private final int bucketColumns, bucketRows;
+    /**
+     * 1, falls auf einem unendlichen Spielfeld der letzte Eimer einer Zeile oder Spalte unvollstndig
+     * ist, und ein Ring deshalb nher liegen kann, sonst 0
+     */
+    private final int partialRing;
+    
+    /**
+     * Fr jeden Eimer der Index des ersten Food-Objekts darin (oder -1)
+     */
+    private final int[] first;
+    /**
+     * Fr jedes Food-Objekt sein Feld (oder -1, falls es nicht eingetragen ist), sowie der Index
+     * des nchsten und des vorherigen Food-Objekts in demselben Eimer (oder -1)
+     */
+    private final int[] cells;
+    private final int[] next;
+    private final int[] previous;
+    
+    /**
+     * Dieser Konstruktor erzeugt einen leeren Index fr die gegebene Anzahl an Food-Objekten
+     * @param width         Die Breite des Spielfelds
+     * @param height        Die Hhe des Spielfelds
+     * @param infinite      ob ber den Rand des Spielfelds hinweg gemessen wird
+     * @param foodCount     Die Anzahl an Food-Objekten
+     */
+    FoodIndex(int width, int height, boolean infinite, int foodCount){
+        this.width = width;
+        this.height = height;
+        this.infinite = infinite;
+        
+        int size = (int) Math.ceil(Math.sqrt((double) width * height / Math.max(1, foodCount)));
+        this.bucketSize = Math.max(MIN_BUCKET_SIZE, size);
+        this.bucketColumns = (width + bucketSize - 1) / bucketSize;
+        this.bucketRows = (height + bucketSize - 1) / bucketSize;
+        this.partialRing = (infinite && (width % bucketSize != 0 || height % bucketSize != 0))? 1: 0;
+        
+        this.first = new int[bucketColumns * bucketRows];
+        this.cells = new int[foodCount];
+        this.next = new int[foodCount];
+        this.previous = new int[foodCount];
+        Arrays.fill(first, -1);
+        Arrays.fill(cells, -1);
+    }
+    
+    /**
+     * Diese Methode trgt das gegebene Food-Objekt auf dem gegebenen Feld ein
+     * @param food  Der Index des Food-Objekts
+     * @param cell  Das Feld (als y * Breite + x)
+     */
+    void add(int food, int cell){
+        int bucket = getBucket(cell);
+        cells[food] = cell;
+        previous[food] = -1;
+        next[food] = first[bucket];
+        if(first[bucket] >= 0)
+            previous[first[bucket]] = food;
+        first[bucket] = food;
+    }
+    
+    /**
+     * Diese Methode entfernt das gegebene Food-Objekt aus dem Index
+     * @param food  Der Index des Food-Objekts
+     */
+    void remove(int food){
+        if(previous[food] >= 0)
+            next[previous[food]] = next[food];
+        else
+            first[getBucket(cells[food])] = next[food];
+        if(next[food] >= 0)
+            previous[next[food]] = previous[food];
+        cells[food] = -1;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Food-Objekt, das am nchsten an dem gegebenen Feld liegt.<br>
+     * Liegen mehrere Food-Objekte gleich weit entfernt, so wird dasjenige mit dem kleinsten Index gewhlt.
+     * @param cell  Das Feld (als y * Breite + x)
+     * @return      das Feld des nchsten Food-Objekts, oder -1 falls es keins gibt
+     */
+    int getNearest(int cell){
+        int column = (cell % width) / bucketSize;
+        int row = (cell / width) / bucketSize;
+//      Auf einem unendlichen Spielfeld ist jeder Eimer hchstens halb so viele Ringe entfernt
+        int rings = infinite? Math.max(bucketColumns, bucketRows) / 2 + 1: Math.max(bucketColumns, bucketRows);
+        
+        int nearest = -1;
+        int nearestDistance = Integer.MAX_VALUE;
+        for(int ring = 0; ring <= rings; ring++){
+            for(int dy = -ring; dy <= ring; dy++){
+//              Innerhalb des Rings werden nur die Eimer am linken und rechten Rand betrachtet
+                int step = (dy == -ring || dy == ring)? 1: Math.max(1, 2 * ring);
+                for(int dx = -ring; dx <= ring; dx += step){
+                    int bucket = getBucket(column + dx, row + dy);
+                    if(bucket < 0)
+                        continue;
+                    
+                    for(int food = first[bucket]; food >= 0; food = next[food]){
+                        int distance = getDistance(cell, cells[food]);
+                        if(distance < nearestDistance || (distance == nearestDistance && food < nearest)){
+                            nearestDistance = distance;
+                            nearest = food;
+                        }
+                    }
+                }
+            }
+            
+//          Ein Food-Objekt in einem weiter entfernten Ring liegt mindestens so weit entfernt
+//          (auf einem unendlichen Spielfeld kann der letzte, unvollstndige Eimer dazwischen liegen)
+            long bound = (long) (ring - partialRing) * bucketSize + 1;
+            if(nearestDistance < bound)
+                break;
+        }
+        return (nearest < 0)? -1: cells[nearest];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Eimer, in dem das gegebene Feld liegt
+     * @param cell  Das Feld (als y * Breite + x)
+     * @return      der Index des Eimers
+     */
+    private int getBucket(int cell){
+        return ((cell / width) / bucketSize) * bucketColumns + (cell % width) / bucketSize;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Eimer an der gegebenen Stelle (auf einem unendlichen Spielfeld
+     * auch ber den Rand hinweg)
+     * @param column    Die Spalte des Eimers
+     * @param row       Die Zeile des Eimers
+     * @return          der Index des Eimers, oder -1 falls er auerhalb des Spielfelds liegt
+     */
+    private int getBucket(int column, int row){
+        if(infinite){
+            column = Math.floorMod(column, bucketColumns);
+            row = Math.floorMod(row, bucketRows);
+        }else if(column < 0 || row < 0 || column >= bucketColumns || row >= bucketRows){
+            return -1;
+        }
+        return row * bucketColumns + column;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Schritten zwischen den beiden gegebenen Feldern
+     * (auf einem unendlichen Spielfeld auch ber den Rand hinweg)
+     * @param a     Das erste Feld
+     * @param b     Das zweite Feld
+     * @return      die Anzahl an Schritten
+     */
+    private int getDistance(int a, int b){
+        int dx = Math.abs(a % width - b % width);
+        int dy = Math.abs(a / width - b / width);
+        if(infinite){
+            dx = Math.min(dx, width - dx);
+            dy = Math.min(dy, height - dy);
+        }
+        return dx + dy;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.arena;
+
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse steuert die Schlangen einer {@link Arena} gierig zu dem nchsten Food-Objekt.<br>
+ * Von den (hchstens drei) Richtungen, die auf ein freies Feld fhren, wird diejenige gewhlt,
+ * die am nchsten an das nchste Food-Objekt heranfhrt; Felder ohne freie Nachbarn (Sackgassen)
+ * werden dabei nur gewhlt, falls es keine andere Mglichkeit gibt.<br>
+ * Das nchste Food-Objekt wird in dem rumlichen Index der Arena gesucht ({@link Arena#getNearestFood(int)}),
+ * weshalb der Aufwand pro Schlange weder von der Anzahl an Schlangen noch von der Anzahl an Food-Objekten
+ * abhngt, und ein Tick linear mit der Anzahl an Schlangen wchst.<br>
+ * Da diese Klasse keinen Zustand hat, kann ein Objekt von allen Threads gleichzeitig benutzt werden.
+ * @author Jean-Pierre Hotz
+ */
+public class GreedyArenaPilot implements ArenaPilot{
+    /**
+     * Die Richtungen in der Reihenfolge, in der sie bei gleicher Bewertung bevorzugt werden
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+    
+    @Override
+    public Direction getDirection(Arena arena, ArenaSnake snake){
+        int head = snake.getHead();
+        int food = arena.getNearestFood(head);
+        
+        Direction best = null;
+        long bestRating = Long.MAX_VALUE;
+        for(Direction d: DIRECTIONS){
+//          Umdrehen kann sich die Schlange (auer mit der Lnge 1) nicht
+            if(snake.getLength() > 1 && d == snake.getDirection().getOpposite())
+                continue;
+            
+            int target = arena.getMovedCell(head, d);
+            if(target < 0 || arena.getGrid().isOccupied(target))
+                continue;
+            
+//          Sackgassen werden nach allen anderen Feldern bewertet
+            long rating = (food < 0)? 0: getDistance(arena, target, food);
+            if(countFreeNeighbours(arena, target) == 0)
+                rating += Integer.MAX_VALUE;
+            
+            if(rating < bestRating){
+                bestRating = rating;
+                best = d;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Schritten zwischen den beiden gegebenen Feldern
+     * (auf einem unendlichen Spielfeld auch ber den Rand hinweg)
+     * @param arena     Die Arena
+     * @param a         Das erste Feld
+     * @param b         Das zweite Feld
+     * @return          die Anzahl an Schritten
+     */
+    private static int getDistance(Arena arena, int a, int b){
+        int w = arena.getWidth();
+        int h = arena.getHeight();
+        int dx = Math.abs(a % w - b % w);
+        int dy = Math.abs(a / w - b / w);
+        if(arena.isInfinite()){
+            dx = Math.min(dx, w - dx);
+            dy = Math.min(dy, h - dy);
+        }
+        return dx + dy;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an freien Nachbarfeldern des gegebenen Felds
+     * @param arena     Die Arena
+     * @param cell      Das Feld
+     * @return          die Anzahl an freien Nachbarfeldern
+     */
+    private static int countFreeNeighbours(Arena arena, int cell){
+        SnakePlayingGrid grid = arena.getGrid();
+        int count = 0;
+        for(Direction d: DIRECTIONS){
+            int neighbour = arena.getMovedCell(cell, d);
+            if(neighbour >= 0 && !grid.isOccupied(neighbour))
+                count++;
+        }
+        return count;
+    }
+}
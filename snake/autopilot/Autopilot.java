@@ -0,0 +1,27 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.autopilot;
+
+import de.jeanpierrehotz.snake.GameEngine;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Dieses Interface reprsentiert eine Strategie, mit der die Schlange (falls gecheatet wird)
+ * von alleine gesteuert wird.<br>
+ * Die {@link GameEngine} fragt vor jedem Tick nach der Richtung, in die die Schlange gehen soll.
+ * @author Jean-Pierre Hotz
+ * @see GameEngine#setAutopilot(Autopilot)
+ */
+public interface Autopilot{
+    /**
+     * Diese Methode entscheidet, in welche Richtung die Schlange des gegebenen Spiels in dem
+     * nchsten Tick gehen soll
+     * @param engine    Das Spiel, dessen Schlange gesteuert wird
+     * @return          die Richtung, in die die Schlange gehen soll, oder {@code null}, falls
+     *                  sie ihre Richtung beibehalten soll
+     */
+    public Direction getDirection(GameEngine engine);
+}
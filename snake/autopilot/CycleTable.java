@@ -0,0 +1,551 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.autopilot;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse reprsentiert einen geschlossenen Weg (Hamilton-Kreis), der jedes Feld eines
+ * Spielfelds genau einmal besucht, als Tabelle, die fr jedes Feld die Richtung zu dem nchsten
+ * Feld des Wegs enthlt.<br>
+ * Eine Schlange, die diesem Weg folgt, kann sich (egal wie lang sie ist) nie selbst fressen,
+ * und frisst irgendwann jedes Food-Objekt; ein Zug ist dabei nur ein Zugriff auf ein Array.<br>
+ * Gibt es keinen solchen Weg (ungerade Breite und Hhe ohne Wrap), so lsst der Weg eine Ecke
+ * aus, und fhrt nur dann ber diese, falls dort das Food-Objekt liegt (siehe
+ * {@link CycleTable#getDirection(int, int)}).<br>
+ * Auf Spielfeldern mit mehr als {@link CycleTable#MAX_TABULATED_CELLS} Feldern wird (auer ohne
+ * geschlossenen Weg) keine Tabelle angelegt; die Richtung wird dann bei jedem Zug aus dem Aufbau
+ * des Wegs berechnet, weshalb das Erzeugen weder Zeit noch Speicher kostet.
+ * @author Jean-Pierre Hotz
+ * @see CycleTableCache
+ */
+public final class CycleTable{
+    /**
+     * Alle Richtungen nach ihrem Index in der Tabelle
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+    /**
+     * Die Anzahl an Feldern, bis zu der die Richtungen in einer Tabelle gespeichert werden
+     */
+    public static final int MAX_TABULATED_CELLS = 1 << 22;
+    
+    /**
+     * Diese Enumeration reprsentiert den Aufbau des Wegs, aus dem (ohne Tabelle) die Richtung
+     * jedes Felds berechnet wird
+     * @author Jean-Pierre Hotz
+     */
+    private static enum Layout{
+        /**
+         * Die Richtungen stehen in der Tabelle
+         */
+        TABLE,
+        /**
+         * Der Weg luft ber eine einzelne Zeile bzw. Spalte
+         */
+        LINE,
+        /**
+         * Der Weg luft wie bei {@link CycleTable#fillRows(int[], int, int, boolean)} durch die Zeilen
+         */
+        ROWS,
+        /**
+         * Der Weg luft wie bei {@link CycleTable#fillRows(int[], int, int, boolean)} durch die Spalten
+         */
+        COLUMNS,
+        /**
+         * Der Weg luft wie bei {@link CycleTable#fillStaircase(int[], int, int, boolean)} durch die Zeilen
+         */
+        STAIRCASE,
+        /**
+         * Der Weg luft wie bei {@link CycleTable#fillStaircase(int[], int, int, boolean)} durch die Spalten
+         */
+        TRANSPOSED_STAIRCASE
+    }
+    
+    /**
+     * Die Gre des Spielfelds, fr das die Tabelle berechnet wurde
+     */
+    private final int width, height;
+    /**
+     * Ob die Schlange auf dem Spielfeld am Rand auf der anderen Seite wieder auftaucht
+     */
+    private final boolean wrapping;
+    /**
+     * Der Aufbau des Wegs
+     */
+    private final Layout layout;
+    /**
+     * Dieses Array enthlt fr jedes Feld (gepackt als y * Breite + x) den Index der Richtung,
+     * in die die Schlange von diesem Feld aus gehen muss, oder {@code null} falls die Richtungen
+     * aus dem Aufbau des Wegs berechnet werden
+     */
+    private final byte[] directions;
+    /**
+     * Das Feld, das der Weg auslsst (oder -1), sowie das Feld, von dem aus der Umweg ber dieses
+     * Feld fhrt
+     */
+    private final int detourCell, detourFrom;
+    /**
+     * Der Index der Richtung, in die die Schlange von {@link CycleTable#detourFrom} aus auf den
+     * Umweg geht
+     */
+    private final byte detourDirection;
+    
+    /**
+     * Dieser Konstruktor erzeugt eine Tabelle mit den gegebenen Werten
+     * @param w             Die Breite des Spielfelds
+     * @param h             Die Hhe des Spielfelds
+     * @param wrap          Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     * @param directions    Die Richtung fr jedes Feld
+     * @param detourCell    Das ausgelassene Feld (oder -1)
+     * @param detourFrom    Das Feld, von dem aus der Umweg beginnt
+     * @param detourDir     Die Richtung des Umwegs
+     */
+    private CycleTable(int w, int h, boolean wrap, byte[] directions, int detourCell, int detourFrom, byte detourDir){
+        this(w, h, wrap, Layout.TABLE, directions, detourCell, detourFrom, detourDir);
+    }
+    
+    /**
+     * Dieser Konstruktor erzeugt einen Weg, dessen Richtungen aus dem gegebenen Aufbau berechnet werden
+     * @param w         Die Breite des Spielfelds
+     * @param h         Die Hhe des Spielfelds
+     * @param wrap      Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     * @param layout    Der Aufbau des Wegs
+     */
+    private CycleTable(int w, int h, boolean wrap, Layout layout){
+        this(w, h, wrap, layout, null, -1, -1, (byte) 0);
+    }
+    
+    /**
+     * Dieser Konstruktor erzeugt eine Tabelle mit den gegebenen Werten
+     * @param w             Die Breite des Spielfelds
+     * @param h             Die Hhe des Spielfelds
+     * @param wrap          Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     * @param layout        Der Aufbau des Wegs
+     * @param directions    Die Richtung fr jedes Feld (oder {@code null})
+     * @param detourCell    Das ausgelassene Feld (oder -1)
+     * @param detourFrom    Das Feld, von dem aus der Umweg beginnt
+     * @param detourDir     Die Richtung des Umwegs
+     */
+    private CycleTable(int w, int h, boolean wrap, Layout layout, byte[] directions, int detourCell, int detourFrom, byte detourDir){
+        this.width = w;
+        this.height = h;
+        this.wrapping = wrap;
+        this.layout = layout;
+        this.directions = directions;
+        this.detourCell = detourCell;
+        this.detourFrom = detourFrom;
+        this.detourDirection = detourDir;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Richtung, in die die Schlange von dem gegebenen Feld aus
+     * gehen muss
+     * @param head  Das Feld des Kopfes (gepackt als y * Breite + x)
+     * @param food  Das Feld des Food-Objekts (gepackt als y * Breite + x)
+     * @return      die Richtung, in die die Schlange gehen muss
+     */
+    public Direction getDirection(int head, int food){
+        if(head == detourFrom && food == detourCell)
+            return DIRECTIONS[detourDirection];
+        if(directions != null)
+            return DIRECTIONS[directions[head]];
+        return getDirection(head, getNext(head), width, height, wrapping);
+    }
+    
+    /**
+     * Diese Methode berechnet aus dem Aufbau des Wegs das Feld, das auf das gegebene Feld folgt
+     * @param cell  Das Feld (gepackt als y * Breite + x)
+     * @return      das nchste Feld des Wegs
+     */
+    private int getNext(int cell){
+        int x = cell % width;
+        int y = cell / width;
+        switch(layout){
+            case LINE:
+                return (cell + 1) % (width * height);
+            case ROWS:
+                return getNextInRows(x, y, width, height, false);
+            case COLUMNS:
+                return getNextInRows(y, x, height, width, true);
+            case STAIRCASE:
+                return getNextInStaircase(x, y, width, height, false);
+            default:
+                return getNextInStaircase(y, x, height, width, true);
+        }
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Bytes, die die Tabelle belegt
+     * @return  die Anzahl an Bytes der Richtungen (0, falls sie berechnet werden)
+     */
+    public long getByteSize(){
+        return (directions != null)? directions.length: 0;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob die Tabelle fr das gegebene Spielfeld berechnet wurde
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param wrap  Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     * @return      ob die Tabelle zu dem Spielfeld passt
+     */
+    public boolean matches(int w, int h, boolean wrap){
+        return width == w && height == h && wrapping == wrap;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Breite des Spielfelds
+     * @return  die Breite des Spielfelds
+     */
+    public int getWidth(){
+        return width;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Hhe des Spielfelds
+     * @return  die Hhe des Spielfelds
+     */
+    public int getHeight(){
+        return height;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob die Schlange auf dem Spielfeld am Rand auf der anderen Seite
+     * wieder auftaucht
+     * @return  ob die Tabelle Wege ber den Rand enthlt
+     */
+    public boolean isWrapping(){
+        return wrapping;
+    }
+    
+    /**
+     * Diese Methode berechnet die Tabelle fr das gegebene Spielfeld
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param wrap  Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     *              (unendliches Spielfeld oder ohne Regeln)
+     * @return      die berechnete Tabelle
+     */
+    public static CycleTable compute(int w, int h, boolean wrap){
+        if(w < 1 || h < 1)
+            throw new IllegalArgumentException("Invalid board size " + w + "x" + h);
+        
+//      Auf sehr groen Spielfeldern werden die Richtungen (falls es einen geschlossenen Weg gibt)
+//      bei jedem Zug berechnet, statt eine Tabelle anzulegen
+        if((long) w * h > MAX_TABULATED_CELLS){
+            Layout layout = getLayout(w, h, wrap);
+            if(layout != Layout.TABLE)
+                return new CycleTable(w, h, wrap, layout);
+        }
+        
+        int[] order = new int[w * h];
+        int detourCell = -1;
+        int detourFrom = -1;
+        byte detourDir = 0;
+        
+        if(w == 1 || h == 1){
+//          Auf einer einzelnen Zeile bzw. Spalte luft der Weg von einem Ende zum anderen
+            for(int i = 0; i < order.length; i++)
+                order[i] = i;
+        }else if(h % 2 == 0){
+            fillRows(order, w, h, false);
+        }else if(w % 2 == 0){
+            fillRows(order, h, w, true);
+        }else if(wrap){
+            if(h >= w)
+                fillStaircase(order, w, h, false);
+            else
+                fillStaircase(order, h, w, true);
+        }else{
+//          Bei ungerader Breite und Hhe gibt es ohne Wrap keinen geschlossenen Weg ber alle
+//          Felder; der Weg lsst die untere rechte Ecke aus, und fhrt von dem Feld darber
+//          nur dann ber die Ecke, falls dort das Food-Objekt liegt
+            order = fillOddRows(w, h);
+            detourCell = (h - 1) * w + (w - 1);
+            detourFrom = (h - 2) * w + (w - 1);
+            detourDir = (byte) Direction.down.ordinal();
+        }
+        
+        byte[] directions = new byte[w * h];
+        for(int i = 0; i < order.length; i++){
+            int from = order[i];
+            int to = order[(i + 1) % order.length];
+            directions[from] = (byte) getDirection(from, to, w, h, wrap).ordinal();
+        }
+        if(detourCell >= 0)
+            directions[detourCell] = (byte) Direction.left.ordinal();
+        
+        return new CycleTable(w, h, wrap, directions, detourCell, detourFrom, detourDir);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Aufbau des Wegs fr das gegebene Spielfeld (in derselben
+     * Reihenfolge wie in {@link CycleTable#compute(int, int, boolean)} entschieden)
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param wrap  Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     * @return      der Aufbau des Wegs, oder {@link Layout#TABLE} falls es keinen geschlossenen Weg gibt
+     */
+    private static Layout getLayout(int w, int h, boolean wrap){
+        if(w == 1 || h == 1)
+            return Layout.LINE;
+        if(h % 2 == 0)
+            return Layout.ROWS;
+        if(w % 2 == 0)
+            return Layout.COLUMNS;
+        if(wrap)
+            return (h >= w)? Layout.STAIRCASE: Layout.TRANSPOSED_STAIRCASE;
+        return Layout.TABLE;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld, das bei {@link CycleTable#fillRows(int[], int, int, boolean)}
+     * auf das gegebene Feld folgt
+     * @param x             Die Spalte
+     * @param y             Die Zeile
+     * @param columns       Die Anzahl an Spalten
+     * @param rows          Die (gerade) Anzahl an Zeilen
+     * @param transposed    Ob Zeilen und Spalten vertauscht sind
+     * @return              das gepackte nchste Feld in dem eigentlichen Spielfeld
+     */
+    private static int getNextInRows(int x, int y, int columns, int rows, boolean transposed){
+        if(y == 0)
+            return (x < columns - 1)? getCell(x + 1, 0, columns, rows, transposed): getCell(columns - 1, 1, columns, rows, transposed);
+//      Die erste Spalte luft zurck nach oben
+        if(x == 0)
+            return getCell(0, y - 1, columns, rows, transposed);
+//      Ungerade Zeilen laufen nach links (die letzte danach in die erste Spalte), gerade nach rechts
+        if(y % 2 == 1){
+            if(x > 1)
+                return getCell(x - 1, y, columns, rows, transposed);
+            return (y == rows - 1)? getCell(0, y, columns, rows, transposed): getCell(1, y + 1, columns, rows, transposed);
+        }
+        return (x < columns - 1)? getCell(x + 1, y, columns, rows, transposed): getCell(columns - 1, y + 1, columns, rows, transposed);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das Feld, das bei {@link CycleTable#fillStaircase(int[], int, int, boolean)}
+     * auf das gegebene Feld folgt
+     * @param x             Die Spalte
+     * @param y             Die Zeile
+     * @param columns       Die (ungerade) Anzahl an Spalten
+     * @param rows          Die (ungerade) Anzahl an Zeilen
+     * @param transposed    Ob Zeilen und Spalten vertauscht sind
+     * @return              das gepackte nchste Feld in dem eigentlichen Spielfeld
+     */
+    private static int getNextInStaircase(int x, int y, int columns, int rows, boolean transposed){
+        int rightRows = (rows - columns) / 2;
+        int step = (y < rightRows)? 1: -1;
+        int start = getStaircaseStart(y, rightRows);
+        
+//      Innerhalb der Zeile geht es (ber den Rand hinweg) weiter, nach dem letzten Feld an den
+//      Anfang der nchsten Zeile
+        if(Math.floorMod(step * (x - start), columns) < columns - 1)
+            return getCell(Math.floorMod(x + step, columns), y, columns, rows, transposed);
+        int next = (y + 1) % rows;
+        return getCell(Math.floorMod(getStaircaseStart(next, rightRows), columns), next, columns, rows, transposed);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die (nicht auf die Breite reduzierte) Spalte, mit der die gegebene Zeile
+     * bei {@link CycleTable#fillStaircase(int[], int, int, boolean)} beginnt
+     * @param y             Die Zeile
+     * @param rightRows     Die Anzahl an Zeilen, die nach rechts laufen
+     * @return              die Spalte des ersten Felds der Zeile
+     */
+    private static int getStaircaseStart(int y, int rightRows){
+        return (y <= rightRows)? -y: y - 2 * rightRows;
+    }
+    
+    /**
+     * Diese Methode fllt den gegebenen Weg fr ein Spielfeld mit gerader Anzahl an Zeilen:<br>
+     * Der Weg luft die erste Zeile nach rechts, dann in Schlangenlinien durch die restlichen
+     * Zeilen (ohne die erste Spalte), und ber die erste Spalte zurck nach oben.
+     * @param order         Das Array, in das die Felder in der Reihenfolge des Wegs geschrieben werden
+     * @param columns       Die Anzahl an Spalten
+     * @param rows          Die (gerade) Anzahl an Zeilen
+     * @param transposed    Ob Zeilen und Spalten vertauscht sind
+     */
+    private static void fillRows(int[] order, int columns, int rows, boolean transposed){
+        int i = 0;
+        for(int x = 0; x < columns; x++)
+            order[i++] = getCell(x, 0, columns, rows, transposed);
+        for(int y = 1; y < rows; y++){
+            if(y % 2 == 1){
+                for(int x = columns - 1; x >= 1; x--)
+                    order[i++] = getCell(x, y, columns, rows, transposed);
+            }else{
+                for(int x = 1; x < columns; x++)
+                    order[i++] = getCell(x, y, columns, rows, transposed);
+            }
+        }
+        for(int y = rows - 1; y >= 1; y--)
+            order[i++] = getCell(0, y, columns, rows, transposed);
+    }
+    
+    /**
+     * Diese Methode fllt den gegebenen Weg fr ein Spielfeld mit Wrap, ungerader Breite und Hhe
+     * und mindestens so vielen Zeilen wie Spalten:<br>
+     * Jede Zeile wird ganz durchlaufen (ber den Rand hinweg), wodurch sich der Anfang der
+     * nchsten Zeile um eine Spalte verschiebt (nach links bei einer Zeile nach rechts, und
+     * umgekehrt). Es laufen gerade so viele Zeilen nach rechts, dass sich die Verschiebungen
+     * ber alle Zeilen zu der Breite aufaddieren, und der Weg nach der letzten Zeile wieder am
+     * Anfang ankommt.
+     * @param order         Das Array, in das die Felder in der Reihenfolge des Wegs geschrieben werden
+     * @param columns       Die (ungerade) Anzahl an Spalten
+     * @param rows          Die (ungerade) Anzahl an Zeilen
+     * @param transposed    Ob Zeilen und Spalten vertauscht sind
+     */
+    private static void fillStaircase(int[] order, int columns, int rows, boolean transposed){
+        int rightRows = (rows - columns) / 2;
+        int i = 0;
+        int start = 0;
+        for(int y = 0; y < rows; y++){
+            int step = (y < rightRows)? 1: -1;
+            for(int x = 0; x < columns; x++)
+                order[i++] = getCell(Math.floorMod(start + step * x, columns), y, columns, rows, transposed);
+            start = Math.floorMod(start - step, columns);
+        }
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Weg fr ein Spielfeld ohne Wrap mit ungerader Breite und Hhe
+     * (jeweils mindestens 3), der alle Felder auer der unteren rechten Ecke besucht:<br>
+     * Die oberen (gerade viele) Zeilen werden wie bei {@link CycleTable#fillRows(int[], int, int, boolean)}
+     * durchlaufen; die Felder der letzten Zeile werden paarweise mit Ausbuchtungen aus der
+     * vorletzten Zeile besucht.
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @return      die Felder in der Reihenfolge des Wegs
+     */
+    private static int[] fillOddRows(int w, int h){
+        int[] order = new int[w * h - 1];
+        int i = 0;
+        for(int x = 0; x < w; x++)
+            order[i++] = x;
+        for(int y = 1; y < h - 2; y++){
+            if(y % 2 == 1){
+                for(int x = w - 1; x >= 1; x--)
+                    order[i++] = y * w + x;
+            }else{
+                for(int x = 1; x < w; x++)
+                    order[i++] = y * w + x;
+            }
+        }
+//      Die vorletzte Zeile luft nach links; zwischen (x + 1) und x (x gerade) wird dabei
+//      (x + 1) und x der letzten Zeile eingeschoben
+        for(int x = w - 1; x >= 0; x--){
+            order[i++] = (h - 2) * w + x;
+            if(x % 2 == 1){
+                order[i++] = (h - 1) * w + x;
+                order[i++] = (h - 1) * w + x - 1;
+            }
+        }
+        for(int y = h - 3; y >= 1; y--)
+            order[i++] = y * w;
+        return order;
+    }
+    
+    /**
+     * Diese Methode packt die gegebenen Koordinaten (evtl. mit vertauschten Zeilen und Spalten)
+     * @param x             Die Spalte
+     * @param y             Die Zeile
+     * @param columns       Die Anzahl an Spalten
+     * @param rows          Die Anzahl an Zeilen
+     * @param transposed    Ob Zeilen und Spalten vertauscht sind
+     * @return              das gepackte Feld (y * Breite + x) in dem eigentlichen Spielfeld
+     */
+    private static int getCell(int x, int y, int columns, int rows, boolean transposed){
+        if(transposed)
+            return x * rows + y;
+        return y * columns + x;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Richtung, in die man von einem Feld zu dem benachbarten
+     * Feld kommt.<br>
+     * Sind die Felder nicht benachbart (nur bei einer einzelnen Zeile bzw. Spalte ohne Wrap),
+     * so wird die Richtung zurck zum Anfang gegeben.
+     * @param from  Das erste Feld
+     * @param to    Das benachbarte Feld
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param wrap  Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     * @return      die Richtung von dem ersten zu dem benachbarten Feld
+     */
+    private static Direction getDirection(int from, int to, int w, int h, boolean wrap){
+        int fx = from % w, fy = from / w;
+        int tx = to % w, ty = to / w;
+        if(fy == ty){
+            if(tx == fx + 1)
+                return Direction.right;
+            if(tx == fx - 1)
+                return Direction.left;
+            if(wrap)
+                return (tx == 0)? Direction.right: Direction.left;
+            return (tx < fx)? Direction.left: Direction.right;
+        }
+        if(ty == fy + 1)
+            return Direction.down;
+        if(ty == fy - 1)
+            return Direction.up;
+        if(wrap)
+            return (ty == 0)? Direction.down: Direction.up;
+        return (ty < fy)? Direction.up: Direction.down;
+    }
+    
+    /**
+     * Diese Methode schreibt die Tabelle in den gegebenen Stream
+     * @param out           Der Stream, in den geschrieben wird
+     * @throws IOException  falls das Schreiben fehlschlgt
+     * @throws IllegalStateException    falls die Richtungen bei jedem Zug berechnet werden
+     */
+    public void write(DataOutput out) throws IOException{
+        if(directions == null)
+            throw new IllegalStateException("Cycle for " + width + "x" + height + " is computed per move and has no table");
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeBoolean(wrapping);
+        out.writeInt(detourCell);
+        out.writeInt(detourFrom);
+        out.writeByte(detourDirection);
+        out.write(directions);
+    }
+    
+    /**
+     * Diese Methode liest eine Tabelle aus dem gegebenen Stream, und prft, ob sie zu dem
+     * gegebenen Spielfeld passt
+     * @param in            Der Stream, aus dem gelesen wird
+     * @param w             Die erwartete Breite des Spielfelds
+     * @param h             Die erwartete Hhe des Spielfelds
+     * @param wrap          Ob die Schlange auf dem erwarteten Spielfeld am Rand auf der anderen
+     *                      Seite wieder auftaucht
+     * @return              die gelesene Tabelle
+     * @throws IOException  falls das Lesen fehlschlgt, oder die Tabelle nicht zu dem Spielfeld passt
+     */
+    public static CycleTable read(DataInput in, int w, int h, boolean wrap) throws IOException{
+        if(in.readInt() != w || in.readInt() != h || in.readBoolean() != wrap)
+            throw new IOException("Cycle table does not match the board " + w + "x" + h);
+        
+        int detourCell = in.readInt();
+        int detourFrom = in.readInt();
+        byte detourDir = in.readByte();
+        byte[] directions = new byte[w * h];
+        in.readFully(directions);
+        
+        if(detourCell >= directions.length || detourFrom >= directions.length || detourDir < 0 || detourDir >= DIRECTIONS.length)
+            throw new IOException("Corrupt cycle table");
+        for(int i = 0; i < directions.length; i++)
+            if(directions[i] < 0 || directions[i] >= DIRECTIONS.length)
+                throw new IOException("Corrupt cycle table");
+        
+        return new CycleTable(w, h, wrap, directions, detourCell, detourFrom, detourDir);
+    }
+}
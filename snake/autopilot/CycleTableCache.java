@@ -0,0 +1,271 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.autopilot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Diese Klasse speichert berechnete {@link CycleTable}-Objekte, damit jede Tabelle nur einmal
+ * berechnet werden muss.<br>
+ * Im Speicher werden Tabellen mit zusammen hchstens {@link CycleTableCache#getCapacity()} Bytes
+ * gehalten (die am lngsten nicht benutzte wird zuerst entfernt, die zuletzt benutzte bleibt aber
+ * immer); zustzlich werden die Tabellen in einem Ordner gespeichert, weshalb jede Spielfeldgre
+ * auf einem Rechner nur einmal berechnet wird.<br>
+ * Tabellen fr Spielfelder mit mehr als {@link CycleTable#MAX_TABULATED_CELLS} Feldern werden nicht
+ * gespeichert: Sie werden entweder bei jedem Zug berechnet, oder ihre Dateien wren (ohne
+ * geschlossenen Weg) hunderte Megabytes gro.<br>
+ * Der Ordner kann mit der System-Property {@value CycleTableCache#DIRECTORY_PROPERTY} festgelegt
+ * werden (Standard: ~/.snake/cycles); ein leerer Wert schaltet das Speichern ab.<br>
+ * Alle Methoden drfen von mehreren Threads gleichzeitig aufgerufen werden.
+ * @author Jean-Pierre Hotz
+ */
+public class CycleTableCache{
+    /**
+     * Der Name der System-Property, die den Ordner der gespeicherten Tabellen angibt
+     */
+    public static final String DIRECTORY_PROPERTY = "snake.cycleCache";
+    /**
+     * Die Anzahl an Bytes, die die Tabellen standardmig im Speicher belegen drfen
+     */
+    public static final long DEFAULT_CAPACITY = 64L << 20;
+    /**
+     * Die Anzahl an Bytes, die jede Tabelle zustzlich zu ihren Richtungen belegt
+     */
+    private static final long TABLE_OVERHEAD = 64;
+    
+    /**
+     * Die Kennung am Anfang jeder gespeicherten Tabelle ("SNKC")
+     */
+    private static final int MAGIC = 0x534E4B43;
+    /**
+     * Die Version des Dateiformats
+     */
+    private static final int VERSION = 1;
+    
+    /**
+     * Der Cache, den standardmig alle Spiele benutzen
+     */
+    private static final CycleTableCache DEFAULT = new CycleTableCache(DEFAULT_CAPACITY, getDefaultDirectory());
+    
+    /**
+     * Die Anzahl an Bytes, die die Tabellen im Speicher belegen drfen
+     */
+    private final long capacity;
+    /**
+     * Der Ordner, in dem die Tabellen gespeichert werden (oder {@code null})
+     */
+    private final Path directory;
+    /**
+     * Die Tabellen im Speicher, nach der Reihenfolge ihrer letzten Benutzung
+     */
+    private final LinkedHashMap<Long, CycleTable> tables;
+    /**
+     * Die Anzahl an Bytes, die die Tabellen im Speicher belegen
+     */
+    private long size;
+    
+    /**
+     * Dieser Konstruktor erzeugt einen leeren Cache
+     * @param capacity      Die Anzahl an Bytes, die die Tabellen im Speicher belegen drfen
+     * @param directory     Der Ordner, in dem die Tabellen gespeichert werden,
+     *                      oder {@code null} falls sie nicht gespeichert werden sollen
+     */
+    public CycleTableCache(long capacity, Path directory){
+        this.capacity = Math.max(0, capacity);
+        this.directory = directory;
+        this.tables = new LinkedHashMap<Long, CycleTable>(16, 0.75f, true);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Cache, den standardmig alle Spiele benutzen
+     * @return  den Standard-Cache
+     */
+    public static CycleTableCache getDefault(){
+        return DEFAULT;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Tabelle fr das gegebene Spielfeld.<br>
+     * Diese wird (in dieser Reihenfolge) aus dem Speicher, aus dem Ordner gelesen oder neu
+     * berechnet (und dann gespeichert).
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param wrap  Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     * @return      die Tabelle fr das Spielfeld
+     */
+    public CycleTable get(int w, int h, boolean wrap){
+        Long key = ((long) w << 32) | ((long) h << 1) | (wrap? 1: 0);
+        
+        synchronized(tables){
+            CycleTable table = tables.get(key);
+            if(table != null)
+                return table;
+        }
+        
+//      Das Lesen bzw. Berechnen geschieht auerhalb der Sperre, damit andere Spielfeldgren
+//      nicht warten mssen; wird eine Tabelle dabei doppelt berechnet, ist das Ergebnis gleich
+        CycleTable table = load(w, h, wrap);
+        if(table == null){
+            table = CycleTable.compute(w, h, wrap);
+            store(table);
+        }
+        
+        synchronized(tables){
+            CycleTable old = tables.put(key, table);
+            if(old != null)
+                size -= getSize(old);
+            size += getSize(table);
+            
+//          Die am lngsten nicht benutzten Tabellen werden entfernt, bis der Rest in den Speicher
+//          passt; die gerade benutzte steht am Ende und bleibt deshalb immer
+            Iterator<CycleTable> it = tables.values().iterator();
+            while(size > capacity && tables.size() > 1){
+                size -= getSize(it.next());
+                it.remove();
+            }
+        }
+        return table;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Bytes, die die Tabellen im Speicher belegen drfen
+     * @return  die Anzahl an Bytes, die die Tabellen im Speicher belegen drfen
+     */
+    public long getCapacity(){
+        return capacity;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Bytes, die die gegebene Tabelle im Speicher belegt
+     * @param table     Die Tabelle
+     * @return          die Anzahl an Bytes
+     */
+    private static long getSize(CycleTable table){
+        return table.getByteSize() + TABLE_OVERHEAD;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen zurck, ob die Tabelle fr das gegebene Spielfeld gespeichert wird
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @return      ob die Tabelle in dem Ordner gespeichert wird
+     */
+    private boolean isStored(int w, int h){
+        return directory != null && (long) w * h <= CycleTable.MAX_TABULATED_CELLS;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Ordner, in dem die Tabellen gespeichert werden
+     * @return  den Ordner, oder {@code null} falls die Tabellen nicht gespeichert werden
+     */
+    public Path getDirectory(){
+        return directory;
+    }
+    
+    /**
+     * Diese Methode liest die Tabelle fr das gegebene Spielfeld aus dem Ordner
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param wrap  Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     * @return      die gelesene Tabelle, oder {@code null} falls es keine (gltige) gibt
+     */
+    private CycleTable load(int w, int h, boolean wrap){
+        if(!isStored(w, h))
+            return null;
+        
+        Path file = directory.resolve(getFileName(w, h, wrap));
+        if(!Files.isRegularFile(file))
+            return null;
+        
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))){
+            if(in.readInt() != MAGIC || in.readInt() != VERSION)
+                return null;
+            return CycleTable.read(in, w, h, wrap);
+        }catch(IOException e){
+//          Eine unlesbare Datei wird einfach durch eine neu berechnete Tabelle ersetzt
+            return null;
+        }
+    }
+    
+    /**
+     * Diese Methode speichert die gegebene Tabelle in dem Ordner.<br>
+     * Die Tabelle wird zuerst in eine temporre Datei geschrieben, die dann umbenannt wird,
+     * damit andere Prozesse nie eine halb geschriebene Datei lesen.
+     * @param table     Die Tabelle, die gespeichert wird
+     */
+    private void store(CycleTable table){
+        if(!isStored(table.getWidth(), table.getHeight()))
+            return;
+        
+        Path tmp = null;
+        try{
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, "cycle", ".tmp");
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))){
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                table.write(out);
+            }
+            
+            Path file = directory.resolve(getFileName(table.getWidth(), table.getHeight(), table.isWrapping()));
+            try{
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }catch(AtomicMoveNotSupportedException e){
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        }catch(IOException e){
+//          Kann die Tabelle nicht gespeichert werden, wird sie beim nchsten Mal neu berechnet
+        }finally{
+            if(tmp != null){
+                try{
+                    Files.deleteIfExists(tmp);
+                }catch(IOException e){}
+            }
+        }
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Dateinamen der Tabelle fr das gegebene Spielfeld
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param wrap  Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     * @return      der Dateiname
+     */
+    private static String getFileName(int w, int h, boolean wrap){
+        return "cycle-" + w + "x" + h + (wrap? "-wrap": "") + ".bin";
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Ordner, der mit der System-Property
+     * {@value CycleTableCache#DIRECTORY_PROPERTY} festgelegt wurde
+     * @return  den Ordner, oder {@code null} falls die Tabellen nicht gespeichert werden sollen
+     */
+    private static Path getDefaultDirectory(){
+        try{
+            String dir = System.getProperty(DIRECTORY_PROPERTY);
+            if(dir == null)
+                return Paths.get(System.getProperty("user.home"), ".snake", "cycles");
+            if(dir.isEmpty())
+                return null;
+            return Paths.get(dir);
+        }catch(RuntimeException e){
+//          z.B. falls die Property nicht gelesen werden darf, oder der Pfad ungltig ist
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.autopilot;
+
+import de.jeanpierrehotz.snake.GameEngine;
+import de.jeanpierrehotz.snake.parts.Food;
+import de.jeanpierrehotz.snake.parts.Snake;
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse steuert die Schlange auf einem geschlossenen Weg ber alle Felder des
+ * Spielfelds (siehe {@link CycleTable}).<br>
+ * Die Tabelle fr die jeweilige Spielfeldgre wird einmal aus einem {@link CycleTableCache}
+ * geholt; danach ist jeder Zug nur ein Zugriff auf ein Array. Auf sehr groen Spielfeldern
+ * (mehr als {@link CycleTable#MAX_TABULATED_CELLS} Felder) wird die Richtung stattdessen bei
+ * jedem Zug berechnet, damit der erste Zug nicht auf eine riesige Tabelle warten muss.
+ * @author Jean-Pierre Hotz
+ */
+public class HamiltonianAutopilot implements Autopilot{
+    /**
+     * Der Cache, aus dem die Tabellen geholt werden
+     */
+    private final CycleTableCache cache;
+    /**
+     * Die Tabelle, die zuletzt benutzt wurde
+     */
+    private CycleTable table;
+    
+    /**
+     * Dieser Konstruktor erzeugt einen Autopiloten, der den Standard-Cache benutzt
+     */
+    public HamiltonianAutopilot(){
+        this(CycleTableCache.getDefault());
+    }
+    
+    /**
+     * Dieser Konstruktor erzeugt einen Autopiloten, der den gegebenen Cache benutzt
+     * @param cache     Der Cache, aus dem die Tabellen geholt werden
+     */
+    public HamiltonianAutopilot(CycleTableCache cache){
+        this.cache = cache;
+    }
+    
+    @Override
+    public Direction getDirection(GameEngine engine){
+        Snake snake = engine.getSnake();
+        SnakePlayingGrid grid = engine.getPlayingGrid();
+        int w = grid.getWidth();
+        int h = grid.getHeight();
+        boolean wrap = snake.isInfinite() || !snake.isWithRules();
+        
+//      Die Tabelle wird nur neu geholt, falls sich das Spielfeld verndert hat
+        CycleTable t = table;
+        if(t == null || !t.matches(w, h, wrap))
+            table = t = cache.get(w, h, wrap);
+        
+        Food food = engine.getFood();
+        return t.getDirection(snake.getCell(0), food.getyInGrid() * w + food.getxInGrid());
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.autopilot;
+
+import java.util.Arrays;
+
+import de.jeanpierrehotz.snake.GameEngine;
+import de.jeanpierrehotz.snake.parts.Food;
+import de.jeanpierrehotz.snake.parts.Snake;
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse steuert die Schlange wie der {@link HamiltonianAutopilot} entlang eines
+ * geschlossenen Wegs ber alle Felder, krzt diesen aber in Richtung des Food-Objekts ab.<br>
+ * Dafr wird fr jedes Feld dessen Position auf dem Weg gespeichert. Die Teile der Schlange
+ * liegen (vom Ende zum Kopf) immer in der Reihenfolge des Wegs hintereinander; alle Felder, die
+ * auf dem Weg zwischen Kopf und Ende liegen, sind also frei. Die Schlange springt nur auf solche
+ * Felder, und nie ber ihr Ende hinaus, weshalb sie sich (genau wie auf dem ganzen Weg) nie
+ * selbst fressen kann.<br>
+ * Gibt es keinen geschlossenen Weg ber alle Felder (siehe {@link CycleTable}), so wird der
+ * Tabelle ohne Abkrzungen gefolgt.<br>
+ * Abgekrzt wird nur, bis die Schlange die Hlfte des Spielfelds belegt; danach folgt sie dem Weg
+ * wie der {@link HamiltonianAutopilot}. Die zweite Hlfte des Spiels braucht deshalb genauso viele
+ * Zge (etwa ein Sechzehntel des Quadrats der Anzahl an Feldern), und ein ganzes Spiel hchstens
+ * halb so viele Zge pro Food-Objekt wie ohne Abkrzungen (auf 80x45 Feldern etwa 450 statt 870,
+ * auf 160x90 Feldern etwa 1800 statt 3600). Eine Verringerung um eine Grenordnung wird so nicht
+ * erreicht.
+ * @author Jean-Pierre Hotz
+ */
+public class PerturbedHamiltonianAutopilot implements Autopilot{
+    /**
+     * Alle Richtungen nach ihrem Index
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+    
+    /**
+     * Der Cache, aus dem die Tabellen geholt werden
+     */
+    private final CycleTableCache cache;
+    /**
+     * Die Tabelle, die zuletzt benutzt wurde
+     */
+    private CycleTable table;
+    /**
+     * Fr jedes Feld dessen Position auf dem Weg der Tabelle, oder {@code null} falls die Tabelle
+     * keinen geschlossenen Weg ber alle Felder enthlt
+     */
+    private int[] order;
+    /**
+     * Fr jedes Feld (Index Feld * 4 + Richtung) das benachbarte Feld in jeder Richtung, oder -1
+     * falls dieses auerhalb des Spielfelds liegt
+     */
+    private int[] neighbours;
+    
+    /**
+     * Dieser Konstruktor erzeugt einen Autopiloten, der den Standard-Cache benutzt
+     */
+    public PerturbedHamiltonianAutopilot(){
+        this(CycleTableCache.getDefault());
+    }
+    
+    /**
+     * Dieser Konstruktor erzeugt einen Autopiloten, der den gegebenen Cache benutzt
+     * @param cache     Der Cache, aus dem die Tabellen geholt werden
+     */
+    public PerturbedHamiltonianAutopilot(CycleTableCache cache){
+        this.cache = cache;
+    }
+    
+    @Override
+    public Direction getDirection(GameEngine engine){
+        Snake snake = engine.getSnake();
+        SnakePlayingGrid grid = engine.getPlayingGrid();
+        int w = grid.getWidth();
+        int h = grid.getHeight();
+        boolean wrap = snake.isInfinite() || !snake.isWithRules();
+        
+//      Die Tabelle (und die Positionen auf dem Weg) wird nur neu geholt, falls sich das
+//      Spielfeld verndert hat
+        CycleTable t = table;
+        if(t == null || !t.matches(w, h, wrap)){
+            table = t = cache.get(w, h, wrap);
+            prepare(t);
+        }
+        
+        Food f = engine.getFood();
+        int food = f.getyInGrid() * w + f.getxInGrid();
+        int head = snake.getCell(0);
+        if(order == null)
+            return t.getDirection(head, food);
+        
+//      Jede Abkrzung lsst Felder hinter dem Kopf frei, die erst wieder vor ihm liegen, wenn das
+//      Ende an ihnen vorbei ist; landet das Food-Objekt auf einem solchen Feld, muss die Schlange
+//      warten, bis ihr Ende (also bis zu ihrer ganzen Lnge) an ihm vorbei ist. Ab der halben Lnge
+//      des Wegs berwiegt dies die ersparten Zge, weshalb die Schlange dann nur noch dem Weg folgt
+//      (wodurch sich die Lcken wieder schlieen). Weiter abzukrzen, und dabei nur einen Abstand
+//      zu dem Ende oder eine Hchstzahl an Lcken einzuhalten, braucht insgesamt mehr Zge.
+        int length = snake.getLength();
+        if(length * 2 >= order.length)
+            return t.getDirection(head, food);
+        
+//      Die freien Felder liegen auf dem Weg zwischen Kopf und Ende; ist die Schlange nur ein
+//      Teil lang, so ist jedes andere Feld frei
+        int gap = (length > 1)? getDistance(head, snake.getCell(length - 1)): order.length;
+        int toFood = getDistance(head, food);
+        
+//      Wir nehmen das benachbarte Feld, das auf dem Weg am weitesten vorne liegt, ohne dabei
+//      ber das Food-Objekt oder das Ende der Schlange hinauszuspringen. Das nchste Feld auf
+//      dem Weg (Abstand 1) erfllt dies immer, solange das Ende nicht direkt vor dem Kopf liegt.
+        int best = -1;
+        int bestDistance = 0;
+        for(int dir = 0; dir < DIRECTIONS.length; dir++){
+            int next = neighbours[(head << 2) | dir];
+            if(next < 0)
+                continue;
+            
+            int d = getDistance(head, next);
+            if(d > bestDistance && d < gap && d <= toFood){
+                best = dir;
+                bestDistance = d;
+            }
+        }
+        if(best < 0)
+            return t.getDirection(head, food);
+        return DIRECTIONS[best];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Feldern, die man auf dem Weg von dem ersten Feld
+     * bis zu dem zweiten Feld gehen muss
+     * @param from  Das erste Feld
+     * @param to    Das zweite Feld
+     * @return      der Abstand der Felder auf dem Weg
+     */
+    private int getDistance(int from, int to){
+        int d = order[to] - order[from];
+        return (d < 0)? d + order.length: d;
+    }
+    
+    /**
+     * Diese Methode berechnet die Nachbarn jedes Felds, sowie die Position jedes Felds auf dem
+     * Weg der gegebenen Tabelle
+     * @param t     Die Tabelle
+     */
+    private void prepare(CycleTable t){
+        int w = t.getWidth();
+        int h = t.getHeight();
+        boolean wrap = t.isWrapping();
+        int cells = w * h;
+        
+        neighbours = new int[cells * 4];
+        for(int y = 0; y < h; y++){
+            for(int x = 0; x < w; x++){
+                int index = (y * w + x) << 2;
+                neighbours[index] = (y > 0)? (y - 1) * w + x: (wrap? (h - 1) * w + x: -1);
+                neighbours[index | 1] = (y < h - 1)? (y + 1) * w + x: (wrap? x: -1);
+                neighbours[index | 2] = (x > 0)? y * w + x - 1: (wrap? y * w + w - 1: -1);
+                neighbours[index | 3] = (x < w - 1)? y * w + x + 1: (wrap? y * w: -1);
+            }
+        }
+        
+//      Wir folgen der Tabelle von dem ersten Feld aus; kommen wir dabei nicht nach genau allen
+//      Feldern wieder an diesem an, so ist der Weg nicht geschlossen (z.B. bei einem Umweg)
+        order = new int[cells];
+        Arrays.fill(order, -1);
+        int cell = 0;
+        for(int i = 0; i < cells; i++){
+            if(cell < 0 || order[cell] >= 0){
+                order = null;
+                return;
+            }
+            order[cell] = i;
+            cell = neighbours[(cell << 2) | t.getDirection(cell, -1).ordinal()];
+        }
+        if(cell != 0)
+            order = null;
+    }
+}
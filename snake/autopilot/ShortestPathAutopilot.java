@@ -0,0 +1,424 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.autopilot;
+
+import java.util.Arrays;
+
+import de.jeanpierrehotz.snake.GameEngine;
+import de.jeanpierrehotz.snake.parts.Food;
+import de.jeanpierrehotz.snake.parts.Snake;
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse steuert die Schlange auf dem krzesten Weg (Breitensuche) zu dem Food-Objekt.<br>
+ * Der Weg wird allerdings nur genommen, falls die Schlange, nachdem sie ihm gefolgt ist und
+ * gefressen hat, ihr Ende noch erreichen kann (und sich somit nicht selbst eingesperrt hat);
+ * ansonsten folgt sie ihrem Ende, bis der Weg zu dem Food-Objekt sicher ist.<br>
+ * Bei der Suche wird bercksichtigt, dass ein Teil der Schlange sein Feld verlsst, bevor der
+ * Kopf es erreicht. Ein sicherer Weg wird (solange das Food-Objekt liegen bleibt) bis zum Ende
+ * verfolgt, ohne ihn neu zu suchen.<br>
+ * Alle Puffer der Suche sind primitive Arrays, die wiederverwendet werden, weshalb ein Zug
+ * (auer bei einer nderung der Spielfeldgre) keinen Speicher allokiert.<br>
+ * Ohne Regeln kann sich die Schlange selbst berlappen und somit lnger werden, als das Spielfeld
+ * Felder hat; die Puffer fr ihren Krper wachsen dann mit. Ist die Schlange eingesperrt (ist also
+ * keins der benachbarten Felder im nchsten Zug frei), so gibt {@link ShortestPathAutopilot#getDirection(GameEngine)}
+ * {@code null} zurck, und die Schlange behlt ihre Richtung bei, auch wenn sie dadurch in sich
+ * selbst oder gegen die Wand luft.<br>
+ * Solange die Schlange ihrem Ende folgt, kostet ein Zug allerdings bis zu vier Breitensuchen ber
+ * den freien Teil des Spielfelds, weshalb der Weg zu dem Food-Objekt dann nur jeden achten Zug
+ * geprft wird. Trotzdem dauert ein Zug nicht nur wenige Mikrosekunden: Auf 80x45 Feldern sind es
+ * etwa 1-5 s, bei ber 90% Fllung etwa 5 s, und auf 320x180 Feldern bei halber Fllung bis zu
+ * 0,5 ms. Dem Weg zu dem Ende einfach zu folgen wre schneller, zieht den Krper aber nicht
+ * auseinander, weshalb die Schlange dann deutlich frher nicht mehr weiterkommt.
+ * @author Jean-Pierre Hotz
+ */
+public class ShortestPathAutopilot implements Autopilot{
+    /**
+     * Alle Richtungen nach ihrem Index
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+    /**
+     * Alle wie viele Zge der Weg zu dem Food-Objekt erneut geprft wird, whrend die Schlange
+     * ihrem Ende folgt (eine Zweierpotenz)
+     */
+    private static final int FOOD_CHECK_INTERVAL = 8;
+    
+    /**
+     * Die Gre des Spielfelds, fr das die Puffer angelegt sind
+     */
+    private int width, height;
+    /**
+     * Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     */
+    private boolean wrapping;
+    
+    /**
+     * Die Felder der Schlange (vom Kopf an) zu Beginn des Zugs; mindestens so lang wie das
+     * Spielfeld, und ohne Regeln evtl. lnger
+     */
+    private int[] body;
+    /**
+     * Die Felder, die die Schlange belegen wrde, nachdem sie dem Weg gefolgt ist
+     */
+    private int[] virtualBody;
+    /**
+     * Fr jedes Feld der Index des Teils der Schlange, das auf ihm liegt; nur gltig, falls
+     * {@link ShortestPathAutopilot#bodyMark} gleich {@link ShortestPathAutopilot#bodyEpoch} ist
+     */
+    private int[] bodyIndex, bodyMark;
+    /**
+     * Fr jedes Feld (Index Feld * 4 + Richtung) das benachbarte Feld in jeder Richtung, oder -1
+     * falls dieses auerhalb des Spielfelds liegt
+     */
+    private int[] neighbours;
+    /**
+     * Die Warteschlange der Breitensuche
+     */
+    private int[] queue;
+    /**
+     * Fr jedes Feld das Feld, von dem aus es gefunden wurde, und die Anzahl an Zgen bis zu ihm;
+     * nur gltig, falls {@link ShortestPathAutopilot#visitMark} gleich
+     * {@link ShortestPathAutopilot#visitEpoch} ist
+     */
+    private int[] parent, distance, visitMark;
+    /**
+     * Die Zhler, mit denen die Markierungen ungltig gemacht werden, ohne die Arrays zu leeren
+     */
+    private int bodyEpoch, visitEpoch;
+    /**
+     * Ein Feld, das bei der Suche nicht betreten wird (oder -1)
+     */
+    private int blockedCell = -1;
+    /**
+     * Die Anzahl an Zgen, nach der die Suche aufgibt
+     */
+    private int searchLimit = Integer.MAX_VALUE;
+    
+    /**
+     * Die Felder des sicheren Wegs, dem die Schlange derzeit folgt
+     */
+    private int[] plan;
+    /**
+     * Die Lnge des Wegs und der Index des nchsten Felds
+     */
+    private int planLength, planPosition;
+    /**
+     * Das Feld des Food-Objekts, zu dem der Weg fhrt
+     */
+    private int planFood = -1;
+    /**
+     * Die Anzahl an Zgen, die die Schlange seit dem letzten sicheren Weg ihrem Ende folgt
+     */
+    private int detourTicks;
+    /**
+     * Das Feld des Food-Objekts, dessen Weg zuletzt geprft wurde
+     */
+    private int checkedFood = -1;
+    
+    /**
+     * {@inheritDoc}<br>
+     * Ist die Schlange eingesperrt, wird {@code null} zurckgegeben (siehe {@link ShortestPathAutopilot}).
+     */
+    @Override
+    public Direction getDirection(GameEngine engine){
+        Snake snake = engine.getSnake();
+        SnakePlayingGrid grid = engine.getPlayingGrid();
+        prepare(grid.getWidth(), grid.getHeight(), snake.isInfinite() || !snake.isWithRules());
+        
+        Food f = engine.getFood();
+        int food = f.getyInGrid() * width + f.getxInGrid();
+        int head = snake.getCell(0);
+        
+//      Solange die Schlange dem sicheren Weg folgt, muss nicht neu gesucht werden
+        if(food == planFood && planPosition < planLength && head == plan[planPosition - 1]){
+            return getDirection(head, plan[planPosition++]);
+        }
+        planFood = -1;
+        
+        int length = snake.getLength();
+        ensureCapacity(length + 1);
+        snake.copyCells(body);
+        markBody(body, length);
+        
+//      Zuerst suchen wir den krzesten Weg zu dem Food-Objekt. Folgt die Schlange bereits
+//      lnger ihrem Ende, wird ein sich nur langsam verndernder Krper erwartet; dann wird (auer
+//      bei einem neuen Food-Objekt) nur jeden FOOD_CHECK_INTERVAL-ten Zug geprft
+        boolean check = food != checkedFood || detourTicks < FOOD_CHECK_INTERVAL || (detourTicks & (FOOD_CHECK_INTERVAL - 1)) == 0;
+        checkedFood = food;
+        if(check && food >= 0 && food < width * height && search(head, food, length, 0) > 0){
+            int steps = distance[food];
+            
+//          Die Schlange, nachdem sie dem Weg gefolgt ist: der Weg (vom Food-Objekt zurck),
+//          dann der bisherige Krper, und um eins lnger, da sie gefressen hat
+            int virtualLength = length + 1;
+            int cell = food;
+            for(int i = steps; i > 0; i--){
+                plan[i - 1] = cell;
+                virtualBody[steps - i] = cell;
+                cell = parent[cell];
+            }
+            System.arraycopy(body, 0, virtualBody, steps, virtualLength - Math.min(steps, virtualLength));
+            
+//          Der Weg ist sicher, falls das Spielfeld danach voll ist, oder das Ende erreichbar bleibt
+            boolean safe = virtualLength >= width * height;
+            if(!safe){
+                markBody(virtualBody, virtualLength);
+                safe = search(virtualBody[0], virtualBody[virtualLength - 1], virtualLength, 0) > 0;
+                markBody(body, length);
+            }
+            if(safe){
+                setPlan(food, steps);
+                detourTicks = 0;
+                return getDirection(head, plan[0]);
+            }
+        }
+        
+//      Ansonsten folgen wir dem Ende, bis der Weg zu dem Food-Objekt sicher ist. Dabei nehmen wir
+//      den Zug, nach dem das Ende am weitesten entfernt (aber erreichbar) ist, damit sich der
+//      Krper auseinanderzieht, und meiden das Food-Objekt, da Fressen gerade nicht sicher ist.
+//      Dies wird in jedem Zug neu entschieden, da die Schlange auf dem Weg zu dem Ende Felder
+//      betreten kann, die das Ende gerade verlassen hat.
+        int free = 0;
+        for(int dir = 0; dir < DIRECTIONS.length; dir++){
+            int next = getNeighbour(head, dir);
+            if(next >= 0 && isFree(next, length, 1))
+                free |= 1 << dir;
+        }
+        
+//      Folgt sie ihrem Ende allerdings bereits eine volle Runde ber das Spielfeld, ohne dass der
+//      Weg sicher wurde, dreht sie sich vermutlich im Kreis; dann wird abwechselnd eine Runde lang
+//      der Zug genommen, nach dem das Ende am nchsten ist, wodurch sich der Krper zusammenzieht
+        boolean farthest = (detourTicks++ / (width * height) & 1) == 0;
+        
+//      Bleibt nur ein Feld, so wird es (egal ob das Ende von ihm aus erreichbar ist) genommen
+        if(Integer.bitCount(free) == 1)
+            return DIRECTIONS[Integer.numberOfTrailingZeros(free)];
+        
+        int best = -1;
+        if(length > 1){
+            best = getTailDirection(head, length, free, food, farthest);
+//          Liegt das Food-Objekt auf jedem Weg zu dem Ende, muss die Schlange doch ber dieses gehen
+            if(best < 0)
+                best = getTailDirection(head, length, free, -1, farthest);
+        }
+        if(best >= 0)
+            return DIRECTIONS[best];
+        
+//      Falls auch das nicht geht, nehmen wir irgendein Feld, das im nchsten Zug frei ist
+        for(int dir = 0; dir < DIRECTIONS.length; dir++)
+            if((free & (1 << dir)) != 0)
+                return DIRECTIONS[dir];
+        return null;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Richtung, nach der das Ende der Schlange am weitesten entfernt,
+     * aber noch erreichbar ist; die Felder der Schlange mssen dafr eingetragen sein
+     * @param head      Das Feld des Kopfes
+     * @param length    Die Lnge der Schlange
+     * @param free      Die Richtungen (als Bits nach ihrem Index), deren Feld im nchsten Zug frei ist
+     * @param blocked   Ein Feld, das nicht betreten werden soll (oder -1)
+     * @param farthest  Ob der Zug genommen wird, nach dem das Ende am weitesten (oder am nchsten) ist
+     * @return          der Index der Richtung, oder -1 falls das Ende nach keinem Zug erreichbar ist
+     */
+    private int getTailDirection(int head, int length, int free, int blocked, boolean farthest){
+        int best = -1;
+        int bestSteps = 0;
+        blockedCell = blocked;
+        for(int dir = 0; dir < DIRECTIONS.length; dir++){
+            int next = getNeighbour(head, dir);
+            if((free & (1 << dir)) == 0 || next == blocked)
+                continue;
+            
+//          Nach diesem Zug ist jedes Teil der Schlange um eins weitergerckt, und das Ende
+//          liegt auf dem Feld des vorletzten Teils. Wird der nchste Zug gesucht, muss die
+//          Suche nicht weiter als bis zu dem bisher besten Weg gehen.
+            searchLimit = (!farthest && best >= 0)? bestSteps - 1: Integer.MAX_VALUE;
+            int steps = search(next, body[length - 2], length, 1);
+            if(steps > 0 && (best < 0 || (farthest? steps > bestSteps: steps < bestSteps))){
+                best = dir;
+                bestSteps = steps;
+            }
+        }
+        blockedCell = -1;
+        searchLimit = Integer.MAX_VALUE;
+        return best;
+    }
+    
+    /**
+     * Diese Methode legt fest, dass die Schlange dem Weg in {@link ShortestPathAutopilot#plan}
+     * folgt, solange das gegebene Food-Objekt liegen bleibt
+     * @param food      Das Feld des Food-Objekts
+     * @param length    Die Lnge des Wegs
+     */
+    private void setPlan(int food, int length){
+        planFood = food;
+        planLength = length;
+        planPosition = 1;
+    }
+    
+    /**
+     * Diese Methode legt (nur falls sich das Spielfeld verndert hat) die Puffer fr das
+     * gegebene Spielfeld an
+     * @param w     Die Breite des Spielfelds
+     * @param h     Die Hhe des Spielfelds
+     * @param wrap  Ob die Schlange am Rand auf der anderen Seite wieder auftaucht
+     */
+    private void prepare(int w, int h, boolean wrap){
+        if(body != null && w == width && h == height && wrap == wrapping)
+            return;
+        
+        width = w;
+        height = h;
+        wrapping = wrap;
+        
+        int cells = w * h;
+        body = new int[cells];
+        virtualBody = new int[cells];
+        bodyIndex = new int[cells];
+        bodyMark = new int[cells];
+        queue = new int[cells];
+        parent = new int[cells];
+        distance = new int[cells];
+        visitMark = new int[cells];
+        plan = new int[cells];
+        
+//      Die Nachbarn jedes Felds werden einmal berechnet, damit die Suche ohne Divisionen auskommt
+        neighbours = new int[cells * 4];
+        for(int y = 0; y < h; y++){
+            for(int x = 0; x < w; x++){
+                int index = (y * w + x) << 2;
+                neighbours[index] = (y > 0)? (y - 1) * w + x: (wrap? (h - 1) * w + x: -1);
+                neighbours[index | 1] = (y < h - 1)? (y + 1) * w + x: (wrap? x: -1);
+                neighbours[index | 2] = (x > 0)? y * w + x - 1: (wrap? y * w + w - 1: -1);
+                neighbours[index | 3] = (x < w - 1)? y * w + x + 1: (wrap? y * w: -1);
+            }
+        }
+        bodyEpoch = 0;
+        visitEpoch = 0;
+        planFood = -1;
+        detourTicks = 0;
+        checkedFood = -1;
+    }
+    
+    /**
+     * Diese Methode vergrert (falls ntig) die Puffer fr den Krper der Schlange
+     * @param length    Die Anzahl an Teilen, die die Puffer mindestens fassen mssen
+     */
+    private void ensureCapacity(int length){
+        if(length <= body.length)
+            return;
+        
+//      Ohne Regeln kann die Schlange lnger als das Spielfeld werden; damit nicht bei jedem
+//      Fressen neu allokiert wird, werden die Puffer (mindestens) verdoppelt
+        int capacity = Math.max(length, body.length * 2);
+        body = new int[capacity];
+        virtualBody = new int[capacity];
+    }
+    
+    /**
+     * Diese Methode trgt die Felder der gegebenen Schlange ein
+     * @param cells     Die Felder der Schlange (vom Kopf an)
+     * @param length    Die Lnge der Schlange
+     */
+    private void markBody(int[] cells, int length){
+        if(++bodyEpoch == 0){
+//          Nach einem berlauf des Zhlers knnten alte Markierungen wieder gltig werden
+            Arrays.fill(bodyMark, 0);
+            bodyEpoch = 1;
+        }
+//      berlappt sich die Schlange (ohne Regeln), so bleibt fr jedes Feld das Teil eingetragen,
+//      das dem Kopf am nchsten ist, da es das Feld als letztes verlsst
+        for(int i = length - 1; i >= 0; i--){
+            bodyMark[cells[i]] = bodyEpoch;
+            bodyIndex[cells[i]] = i;
+        }
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob das gegebene Feld nach der gegebenen Anzahl an Zgen
+     * (ohne zu fressen) frei ist, da das Teil der Schlange auf ihm es bereits verlassen hat
+     * @param cell      Das Feld
+     * @param length    Die Lnge der Schlange
+     * @param steps     Die Anzahl an Zgen
+     * @return          ob das Feld frei ist
+     */
+    private boolean isFree(int cell, int length, int steps){
+        return bodyMark[cell] != bodyEpoch || bodyIndex[cell] >= length - steps;
+    }
+    
+    /**
+     * Diese Methode sucht (Breitensuche) den krzesten Weg von dem gegebenen Feld zu dem
+     * gegebenen Zielfeld, wobei die Felder der Schlange bereits mit
+     * {@link ShortestPathAutopilot#markBody(int[], int)} eingetragen sein mssen. Ist das Zielfeld
+     * weiter als {@link ShortestPathAutopilot#searchLimit} Zge entfernt, gibt die Suche auf.<br>
+     * Danach enthalten {@link ShortestPathAutopilot#parent} und
+     * {@link ShortestPathAutopilot#distance} den gefundenen Weg.
+     * @param start     Das Feld, von dem aus gesucht wird
+     * @param target    Das Feld, zu dem der Weg fhren soll
+     * @param length    Die Lnge der Schlange
+     * @param shift     Die Anzahl an Zgen, die die eingetragene Schlange bereits gemacht hat
+     * @return          die Anzahl an Zgen bis zu dem Feld, oder -1 falls es nicht erreichbar ist
+     */
+    private int search(int start, int target, int length, int shift){
+        if(++visitEpoch == 0){
+            Arrays.fill(visitMark, 0);
+            visitEpoch = 1;
+        }
+        
+        int read = 0, write = 0;
+        queue[write++] = start;
+        visitMark[start] = visitEpoch;
+        distance[start] = 0;
+        
+        while(read < write){
+            int cell = queue[read++];
+            int steps = distance[cell] + 1;
+            if(steps > searchLimit)
+                return -1;
+            
+            for(int dir = 0; dir < 4; dir++){
+                int next = getNeighbour(cell, dir);
+//              Ein Feld ist nur begehbar, falls das Teil der Schlange auf ihm es verlassen hat,
+//              bevor der Kopf es erreicht
+                if(next < 0 || next == blockedCell || visitMark[next] == visitEpoch || !isFree(next, length, steps + shift))
+                    continue;
+                
+                visitMark[next] = visitEpoch;
+                parent[next] = cell;
+                distance[next] = steps;
+                if(next == target)
+                    return steps;
+                queue[write++] = next;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das benachbarte Feld in der gegebenen Richtung
+     * @param cell  Das Feld
+     * @param dir   Der Index der Richtung (siehe {@link Direction#ordinal()})
+     * @return      das benachbarte Feld, oder -1 falls es auerhalb des Spielfelds liegt
+     */
+    private int getNeighbour(int cell, int dir){
+        return neighbours[(cell << 2) | dir];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Richtung von einem Feld zu dem benachbarten Feld
+     * @param from  Das Feld
+     * @param to    Das benachbarte Feld
+     * @return      die Richtung zu dem benachbarten Feld
+     */
+    private Direction getDirection(int from, int to){
+        for(int dir = 0; dir < DIRECTIONS.length; dir++)
+            if(getNeighbour(from, dir) == to)
+                return DIRECTIONS[dir];
+        return null;
+    }
+}
@@ -8,7 +8,9 @@ package de.jeanpierrehotz.snake.parts;
 import java.awt.Color;
 import java.awt.Graphics;
 
-import java.util.ArrayList;
+import java.util.Random;
+
+import de.jeanpierrehotz.metrics.MoveEvent;
 
 import de.jeanpierrehotz.snake.parts.exceptions.SnakeAteItselfException;
 import de.jeanpierrehotz.snake.parts.exceptions.SnakeFalseExecutionException;
@@ -28,25 +30,78 @@ import static de.jeanpierrehotz.snake.parts.Snake.Direction.right;
  */
 public class Snake{
     /**
-     * Diese ArrayList aus SnakePart-Objekten reprsentiert die Abfolge (des Krpers) der Schlange
+     * Dieser Ringpuffer reprsentiert die Abfolge (des Krpers) der Schlange.<br>
+     * Jedes Teil wird als gepackte Koordinate (y * Spielfeldbreite + x) gespeichert.
+     * Der Kopf liegt an dem Index {@link Snake#head}, das i-te Teil an dem Index
+     * (head + i) &amp; (body.length - 1). Die Lnge des Arrays ist daher immer eine Zweierpotenz.<br>
+     * Dadurch muss bei einer Bewegung nur der neue Kopf geschrieben werden, und das
+     * letzte Teil fllt automatisch heraus, ohne dass der restliche Krper verschoben wird.
+     */
+    private int[] body;
+    /**
+     * Diese Variable gibt den Index des Kopfes in {@link Snake#body} an
+     */
+    private int head;
+    /**
+     * Diese Variable gibt die Anzahl der Teile der Schlange an
+     */
+    private int length;
+    /**
+     * Diese Variable gibt die Spielfeldbreite an, mit der die Koordinaten gepackt sind
+     */
+    private int gridWidth;
+    /**
+     * Dieses Objekt reprsentiert das Spielfeld, auf dem sich die Schlange befindet.<br>
+     * In diesem trgt die Schlange ein, welche Felder von ihr belegt sind.
      */
-    private ArrayList<SnakePart> snakeParts;
+    private SnakePlayingGrid playGrid;
     
     /**
      * Diese Methode gibt ihnen die x-Position des "Kopfes" der Schlange
      * @return  x-Position des Kopfes der Schlange
      */
     public int getFirstX(){
-       return snakeParts.get(0).getxInGrid(); 
+       return body[head] % gridWidth; 
     }
     /**
      * Diese Methode gibt ihnen die y-Position des "Kopfes" der Schlange
      * @return  y-Position des Kopfes der Schlange
      */
     public int getFirstY(){
-        return snakeParts.get(0).getyInGrid(); 
+        return body[head] / gridWidth; 
      }
     
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Teilen, aus denen die Schlange besteht
+     * @return  die Lnge der Schlange
+     */
+    public int getLength(){
+        return length;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die gepackte Koordinate (y * Spielfeldbreite + x) des i-ten Teils
+     * der Schlange, wobei das Teil mit dem Index 0 der Kopf ist
+     * @param i     Der Index des Teils
+     * @return      Die gepackte Koordinate des Teils
+     */
+    public int getCell(int i){
+        return body[(head + i) & (body.length - 1)];
+    }
+    
+    /**
+     * Diese Methode kopiert die gepackten Koordinaten aller Teile der Schlange (beginnend
+     * mit dem Kopf) in das gegebene Array
+     * @param dest  Das Array, in das kopiert wird (mindestens so lang wie die Schlange)
+     */
+    public void copyCells(int[] dest){
+//      Der Krper liegt im Ringpuffer evtl. in zwei Stcken: vom Kopf bis zum Ende des Arrays,
+//      und vom Anfang des Arrays bis zum letzten Teil
+        int first = Math.min(length, body.length - head);
+        System.arraycopy(body, head, dest, 0, first);
+        System.arraycopy(body, 0, dest, first, length - first);
+    }
+    
     /**
      * Diese Variable gibt an, in welche Richtung das Objekt gehen soll
      */
@@ -102,11 +157,41 @@ public class Snake{
                     return up;
             }
         }
+        
+        /**
+         * Diese Methode gibt ihnen eine zufllige Richtung, die mit dem gegebenen Zufallsgenerator
+         * ermittelt wird.<br>
+         * Dadurch kann jedes Spiel seinen eigenen Zufallsgenerator benutzen, und ist
+         * mit dem gleichen Startwert reproduzierbar.
+         * @param random    Der Zufallsgenerator, mit dem die Richtung ermittelt wird
+         * @return  Eine zufllig ermittelte Richtung
+         */
+        public static Direction getRandomDirection(Random random){
+            return values()[random.nextInt(4)];
+        }
+        
+        /**
+         * Diese Methode gibt ihnen die entgegengesetzte Richtung
+         * @return  die entgegengesetzte Richtung
+         */
+        public Direction getOpposite(){
+            switch(this){
+                case up:
+                    return down;
+                case down:
+                    return up;
+                case left:
+                    return right;
+                default:
+                    return left;
+            }
+        }
     }
     
     /**
      * Dieser Konstruktor erzeugt eine neue Schlange an einer zuflligen Stelle in dem Spielfeld,
-     * dessen Breite und Hhe wir bentigen, und den gegebenen Werten
+     * dessen Breite und Hhe wir bentigen, und den gegebenen Werten.<br>
+     * Die Schlange trgt ihre Teile dabei in einem eigenen (nicht gezeichneten) Spielfeld ein.
      * @param w     Die Breite des Spielfelds
      * @param h     Die Hhe des Spielfelds
      * @param dir   Die Richtung, in die die Schlange anfngluch gehen soll
@@ -114,39 +199,92 @@ public class Snake{
      * @param inf   ob die Schlange ber das Spielfeld hinaus gehen darf
      */
     public Snake(int w, int h, Direction dir, boolean wR, boolean inf){
+        this(new SnakePlayingGrid(w, h, 0, false), dir, wR, inf);
+    }
+    
+    /**
+     * Dieser Konstruktor erzeugt eine neue Schlange an einer zuflligen Stelle in dem gegebenen
+     * Spielfeld mit den gegebenen Werten.<br>
+     * Die Schlange trgt ihre Teile in diesem Spielfeld als belegt ein.
+     * @param grid  Das Spielfeld, auf dem sich die Schlange befindet
+     * @param dir   Die Richtung, in die die Schlange anfngluch gehen soll
+     * @param wR    ob die Schlange Regeln zu beachten hat
+     * @param inf   ob die Schlange ber das Spielfeld hinaus gehen darf
+     */
+    public Snake(SnakePlayingGrid grid, Direction dir, boolean wR, boolean inf){
+        this(grid, dir, wR, inf, new Random());
+    }
+    
+    /**
+     * Dieser Konstruktor erzeugt eine neue Schlange an einer zuflligen Stelle in dem gegebenen
+     * Spielfeld mit den gegebenen Werten, wobei die Stelle mit dem gegebenen Zufallsgenerator
+     * ermittelt wird.<br>
+     * Die Schlange trgt ihre Teile in diesem Spielfeld als belegt ein.
+     * @param grid      Das Spielfeld, auf dem sich die Schlange befindet
+     * @param dir       Die Richtung, in die die Schlange anfngluch gehen soll
+     * @param wR        ob die Schlange Regeln zu beachten hat
+     * @param inf       ob die Schlange ber das Spielfeld hinaus gehen darf
+     * @param random    Der Zufallsgenerator, mit dem die Stelle der Schlange ermittelt wird
+     */
+    public Snake(SnakePlayingGrid grid, Direction dir, boolean wR, boolean inf, Random random){
 //      Zuerst initialisieren wir die Variablen mit den gegebenen oder mit festen Werten
         this.score = 0;
         this.dir = dir;
         this.withRules = wR;
         this.infinitePlayGrid = inf;
+        this.playGrid = grid;
         
-//      Dann erzeugen wir die ArrayList neu
-        this.snakeParts = new ArrayList<SnakePart>();
+        int w = grid.getWidth();
+        int h = grid.getHeight();
         
-//      Und geben ihr ein Schlangenteil an zuflliger Koordinate
-//      Der try-catch-Block sollte nie ausgelst werden, weshalb in diesem
-//      (auer den StackTrace auszugeben) nichts gemacht wird
-        try {
-            snakeParts.add(
-                    new SnakePart(
-                            w, h,
-                            getRandomHorizontalPoint(w), 
-                            getRandomVerticalPoint(h)
-                    )
-            );
-        }catch (SnakeHitBordersException e){
-            e.printStackTrace();
-        }
+//      Dann erzeugen wir den Ringpuffer neu
+        this.body = new int[INITIAL_CAPACITY];
+        this.gridWidth = w;
+        
+//      Und geben ihm ein Schlangenteil an zuflliger Koordinate
+        this.head = 0;
+        this.length = 1;
+        int x = getRandomHorizontalPoint(w, random);
+        this.body[head] = getRandomVerticalPoint(h, random) * w + x;
+        
+//      welches wir in dem Spielfeld eintragen
+        playGrid.occupy(body[head]);
+    }
+    
+    /**
+     * Diese Konstante gibt die anfngliche Gre des Ringpuffers an (muss eine Zweierpotenz sein)
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    
+    /**
+     * Diese Methode stellt sicher, dass in dem Ringpuffer Platz fr mindestens ein weiteres Teil
+     * ist, indem dieser (falls ntig) auf die doppelte Gre vergrert wird.
+     * Dabei wird der Krper so umkopiert, dass der Kopf wieder an dem Index 0 liegt.
+     */
+    private void ensureCapacity(){
+        if(length < body.length)
+            return;
+        
+        int[] grown = new int[body.length * 2];
+//      Wir kopieren die Teile ab dem Kopf bis zum Ende des Arrays,
+        int firstPart = body.length - head;
+        System.arraycopy(body, head, grown, 0, firstPart);
+//      und dann die Teile vom Anfang des Arrays bis vor den Kopf
+        System.arraycopy(body, 0, grown, firstPart, head);
+        
+        body = grown;
+        head = 0;
     }
 
     /**
      * Diese Methode gibt ihnen einen zuflligen x-Punkt in dem Spielfeld mit gegebener Breite.
      * Dabei wird auch die Richtung, in die die Schlange geht bercksichtigt, damit man
      * nicht am Anfang direkt aus dem Spielfeld luft und verliert.
-     * @param w     Die Breite des Spielfelds
-     * @return      Einen zuflligen x-Punkt im Spielfeld
+     * @param w         Die Breite des Spielfelds
+     * @param random    Der Zufallsgenerator, mit dem der Punkt ermittelt wird
+     * @return          Einen zuflligen x-Punkt im Spielfeld
      */
-    private int getRandomHorizontalPoint(int w){
+    private int getRandomHorizontalPoint(int w, Random random){
 //      Falls die Schlange nach links geht ist das Minimum ein Fnftel der Breite; ansonsten 0
         int min = (dir == left)? w / 5: 0;
 //      Falls die Schlange nach rechts geht ist das Maximum bei VierFnftel der Breite;
@@ -154,18 +292,19 @@ public class Snake{
         int max = (dir == right)? (w * 4) / 5: w - 1;
 //      Dann geben wir eine Zufallszahl in dem Intervall [min .. max] zurck
 //      Damit ein geschlossenes Intervall gegeben ist muss man zum Umfang eins dazuzhlen 
-//      (da Math.random() eine Zufallszahl im halboffenen Intervall [0 .. 1[ erzeugt)
-        return (int) (Math.random() * (max - min + 1)) + min;
+//      (da Random#nextInt(int) eine Zufallszahl im halboffenen Intervall [0 .. Umfang[ erzeugt)
+        return random.nextInt(max - min + 1) + min;
     }
     
     /**
      * Diese Methode gibt ihnen einen zuflligen y-Punkt in dem Spielfeld mit gegebener Hhe.
      * Dabei wird auch die Richtung, in die die Schlange geht bercksichtigt, damit man
      * nicht am Anfang direkt aus dem Spielfeld luft und verliert.
-     * @param h     Die Hhe des Spielfelds
-     * @return      Einen zuflligen y-Punkt im Spielfeld
+     * @param h         Die Hhe des Spielfelds
+     * @param random    Der Zufallsgenerator, mit dem der Punkt ermittelt wird
+     * @return          Einen zuflligen y-Punkt im Spielfeld
      */
-    private int getRandomVerticalPoint(int h){
+    private int getRandomVerticalPoint(int h, Random random){
 //      Falls die Schlange nach oben geht ist das Minimum ein Fnftel der Hhe; ansonsten 0
         int min = (dir == up)? h / 5: 0;
 //      Falls die Schlange nach rechts geht ist das Maximum bei VierFnftel der Hhe;
@@ -173,12 +312,47 @@ public class Snake{
         int max = (dir == down)? (h * 4) / 5: h - 1;
 //      Dann geben wir eine Zufallszahl in dem Intervall [min .. max] zurck
 //      Damit ein geschlossenes Intervall gegeben ist muss man zum Umfang eins dazuzhlen 
-//      (da Math.random() eine Zufallszahl im halboffenen Intervall [0 .. 1[ erzeugt)
-        return (int) (Math.random() * (max - min + 1)) + min;
+//      (da Random#nextInt(int) eine Zufallszahl im halboffenen Intervall [0 .. Umfang[ erzeugt)
+        return random.nextInt(max - min + 1) + min;
     }
     
     /**
-     * Diese Methode bewegt die Schlange um einen Schritt, und schaut, ob etwas von ihr gefressen wurde
+     * Diese Enumeration reprsentiert das Ergebnis eines Schritts der Schlange.<br>
+     * Sie wird von {@link Snake#step(Food)} zurckgegeben, damit das Sterben der Schlange
+     * ohne das (teure) Erzeugen einer Exception angezeigt werden kann.
+     * @author Jean-Pierre Hotz
+     */
+    public static enum MoveResult{
+        /**
+         * Die Schlange hat sich bewegt, ohne etwas zu fressen
+         */
+        MOVED,
+        /**
+         * Die Schlange hat sich bewegt, und das Food-Objekt gefressen
+         */
+        ATE,
+        /**
+         * Die Schlange hat unerlaubterweise die Spielfeldgrenzen berschritten
+         */
+        HIT_BORDER,
+        /**
+         * Die Schlange ist in sich selbst hineingefahren
+         */
+        ATE_SELF;
+    }
+    
+    /**
+     * Die Nachricht, die angezeigt wird, falls die Schlange sich selbst gefressen hat
+     */
+    public static final String ATE_ITSELF_MESSAGE = "Your Snake ate itself!";
+    /**
+     * Die Nachricht, die angezeigt wird, falls die Schlange die Spielfeldgrenzen berschritten hat
+     */
+    public static final String HIT_BORDERS_MESSAGE = "Your Snake hit the borders!";
+    
+    /**
+     * Diese Methode bewegt die Schlange um einen Schritt, und schaut, ob etwas von ihr gefressen wurde.<br>
+     * Sie ist eine Hlle um {@link Snake#step(Food)}, die das Sterben der Schlange als Exception anzeigt.
      * @param f     Das Food-Objekt, das derzeit auf dem Spielfeld ist
      * @param w     Die Breite des Spielfelds
      * @param h     Die Hhe des Spielfelds
@@ -187,98 +361,147 @@ public class Snake{
      * @throws SnakeHitBordersException     Falls die Schlange die Spielfeldgrenzen berschritten hat
      */
     public boolean move(Food f, int w, int h) throws SnakeAteItselfException, SnakeHitBordersException{
-//      Wir speichern das letzte Teil zwischen, damit wir es, falls das Food-Objekt gefressen
-//      wurde, wieder an die Schlange anhngen knnen
-        SnakePart lastPart = snakeParts.get(snakeParts.size() - 1);
+        switch(step(f.getxInGrid(), f.getyInGrid(), w, h)){
+            case ATE:
+                return true;
+            case HIT_BORDER:
+                throw new SnakeHitBordersException(HIT_BORDERS_MESSAGE);
+            case ATE_SELF:
+                throw new SnakeAteItselfException(ATE_ITSELF_MESSAGE);
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Diese Methode bewegt die Schlange um einen Schritt auf ihrem Spielfeld, und schaut, ob etwas
+     * von ihr gefressen wurde.<br>
+     * Im Gegensatz zu {@link Snake#move(Food, int, int)} wird dabei (solange die Schlange nicht wchst)
+     * kein Objekt erzeugt, und das Sterben der Schlange wird ber den Rckgabewert angezeigt.
+     * Stirbt die Schlange, so bleibt sie unverndert.
+     * @param f     Das Food-Objekt, das derzeit auf dem Spielfeld ist
+     * @return      das Ergebnis des Schritts
+     */
+    public MoveResult step(Food f){
+        return step(f.getxInGrid(), f.getyInGrid(), playGrid.getWidth(), playGrid.getHeight());
+    }
+    
+    /**
+     * Diese Methode fhrt einen Schritt der Schlange aus, und meldet diesen (falls eingeschaltet)
+     * als {@link MoveEvent} an den JDK Flight Recorder
+     * @param foodX     Die x-Koordinate des Food-Objekts
+     * @param foodY     Die y-Koordinate des Food-Objekts
+     * @param w         Die Breite des Spielfelds
+     * @param h         Die Hhe des Spielfelds
+     * @return          das Ergebnis des Schritts
+     */
+    private MoveResult step(int foodX, int foodY, int w, int h){
+        MoveEvent event = new MoveEvent();
+        event.begin();
         
-//      Dann wird jedes Objekt in der ArrayList um 1 nach hinten geshiftet
-        for(int i = snakeParts.size() - 1; i > 0; i--){
-            snakeParts.set(i, snakeParts.get(i - 1));
+        MoveResult result = advance(foodX, foodY, w, h);
+        
+        if(event.shouldCommit()){
+            event.result = result.name();
+            event.snakeLength = length;
+            event.commit();
         }
+        return result;
+    }
+    
+    /**
+     * Diese Methode fhrt einen Schritt der Schlange aus
+     * @param foodX     Die x-Koordinate des Food-Objekts
+     * @param foodY     Die y-Koordinate des Food-Objekts
+     * @param w         Die Breite des Spielfelds
+     * @param h         Die Hhe des Spielfelds
+     * @return          das Ergebnis des Schritts
+     */
+    private MoveResult advance(int foodX, int foodY, int w, int h){
+//      Wir berechnen zuerst die Koordinate des bewegten ersten Teils
+        int movedCell = getMovedCell(w, h);
+        
+//      Falls diese auerhalb des Spielfelds liegt, ist die Schlange gestorben
+        if(movedCell < 0)
+            return MoveResult.HIT_BORDER;
+        
+//      Dann stellen wir sicher, dass das letzte Teil beim Schreiben des neuen Kopfes nicht
+//      berschrieben wird, damit wir es, falls das Food-Objekt gefressen wurde, wieder an
+//      die Schlange anhngen knnen
+        ensureCapacity();
+        
+        int lastCell = getCell(length - 1);
         
-//      Und dem ersten Objekt wird das bewegte Teil zugewiesen
-        snakeParts.set(0, getMovedElement(w, h));
+//      Das letzte Teil verlsst sein Feld (falls es nicht wieder angehngt wird), weshalb
+//      die Schlange in dieses Feld hineinfahren darf
+        playGrid.release(lastCell);
         
-//      Falls die Schlange sich an Regeln zu halten hat
-        if(withRules)
-//          wird fr jedes auer dem ersten Teil geschaut
-            for(int i = 1; i < snakeParts.size(); i++)
-//              ob das erste Teil dem Teil an Index i gleicht
-                if(snakeParts.get(0).equals(snakeParts.get(i)))
-//                  Falls dies so ist, so wird eine SnakeAteItselfException geworfen
-                    throw new SnakeAteItselfException("Your Snake ate itself!");
+//      Falls die Schlange sich an Regeln zu halten hat, und das Feld, in das sie fhrt
+//      bereits von ihr belegt ist
+        if(withRules && playGrid.isOccupied(movedCell)){
+//          Tragen wir das letzte Teil wieder ein
+            playGrid.occupy(lastCell);
+//          und zeigen, dass die Schlange sich selbst gefressen hat
+            return MoveResult.ATE_SELF;
+        }
+        
+//      Der neue Kopf wird vor den bisherigen Kopf geschrieben. Dadurch rckt jedes Teil
+//      um eins nach hinten, und das letzte Teil fllt aus der Lnge heraus
+        head = (head - 1) & (body.length - 1);
+        body[head] = movedCell;
+        playGrid.occupy(movedCell);
         
 //      Ansonsten falls das erste Teil auf dem Food-Objekt ist
-        if(snakeParts.get(0).getxInGrid() == f.getxInGrid() && snakeParts.get(0).getyInGrid() == f.getyInGrid()){
-//          Wird das letzte Objekt wieder angehngt
-            snakeParts.add(lastPart);
+        if(movedCell == foodY * gridWidth + foodX){
+//          Wird das letzte Objekt wieder angehngt, indem die Lnge erhht wird
+            length++;
+            playGrid.occupy(lastCell);
 //          Der Score wird erhht
             score++;
-//          Und true wird zurckgegeben, was anzeigt, dass ein neues Food-Objekt erzeugt werden muss
-            return true;
+//          Und es wird angezeigt, dass ein neues Food-Objekt erzeugt werden muss
+            return MoveResult.ATE;
         }
-//      Ansonsten wird false zurckgegeben
-        return false;
+//      Ansonsten hat sich die Schlange nur bewegt
+        return MoveResult.MOVED;
     }
     
     /**
-     * Diese Methode gibt das erste Element um einen Schritt weitergerckt zurck
+     * Diese Methode gibt die gepackte Koordinate des ersten Elements um einen Schritt weitergerckt zurck
      * @param w     Die Breite des Spielfelds
      * @param h     Die Hhe des Spielfelds
-     * @return      Das erste Teil um einen Schritt weitergerckt
-     * @throws SnakeHitBordersException     falls die Spielfeldgrenzen unerlaubterweise berschritten
-     *                                      wurde
+     * @return      Die gepackte Koordinate des ersten Teils um einen Schritt weitergerckt, oder -1
+     *              falls die Spielfeldgrenzen unerlaubterweise berschritten wurden
      */
-    private SnakePart getMovedElement(int w, int h) throws SnakeHitBordersException{
-//      Zuerst bentigen wir eine Referenz auf das erste Teil
-        SnakePart front = snakeParts.get(0);
+    private int getMovedCell(int w, int h){
+//      Zuerst bentigen wir die Koordinaten des ersten Teils
+        int x = getFirstX();
+        int y = getFirstY();
+//      Die Schlange darf nur dann auf der anderen Seite des Spielfelds wieder auftauchen,
+//      falls sie sich nicht an Regeln halten muss, oder das Spielfeld unendlich ist
+        boolean wrap = infinitePlayGrid || !withRules;
         
 //      Und entscheiden nach Richtung, in die wir gehen wollen
         switch(dir){
-//          Falls wir nach oben gehen
+//          Falls wir nach oben gehen verndern wir die x-Position nicht, und nehmen 
+//          entweder die Hhe des ersten - 1 oder die Spielfeldhhe - 1
             case up:
-//              Verndern wir die x-Position nicht, und geben dem neuen Teil entweder die Hhe
-//              des ersten - 1 oder die Spielfeldhhe - 1
-                return new SnakePart(
-                        w, h,
-                        front.getxInGrid(), 
-                        (front.getyInGrid() != 0 || (!infinitePlayGrid && withRules))?
-                                front.getyInGrid() - 1:
-                                h - 1
-                );
-//          Falls wir nach unten gehen
+                y = (y != 0 || !wrap)? y - 1: h - 1;
+                break;
+//          Falls wir nach unten gehen verndern wir die x-Position nicht, und nehmen 
+//          entweder die Hhe des ersten + 1 oder 0
             case down:
-//              Verndern wir die x-Position nicht, und geben dem neuen Teil entweder die Hhe
-//              des ersten + 1 oder 0
-                return new SnakePart(
-                        w, h,
-                        front.getxInGrid(), 
-                        (front.getyInGrid() + 1 != h || (!infinitePlayGrid && withRules))?
-                                front.getyInGrid() + 1:
-                                0
-                );
-//          Falls wir nach links gehen
+                y = (y + 1 != h || !wrap)? y + 1: 0;
+                break;
+//          Falls wir nach links gehen verndern wir die y-Position nicht, und nehmen 
+//          entweder die Breitenposition des ersten - 1 oder die Spielfeldbreite - 1
             case left:
-//              Verndern wir die y-Position nicht, und geben dem neuen Teil entweder die Breitenposition
-//              des ersten - 1 oder die Spielfeldbreite - 1
-                return new SnakePart(
-                        w, h,
-                        (front.getxInGrid() != 0 || (!infinitePlayGrid && withRules))?
-                                front.getxInGrid() - 1:
-                                w - 1, 
-                        front.getyInGrid()
-                );
-//          Falls wir nach rechts gehen
+                x = (x != 0 || !wrap)? x - 1: w - 1;
+                break;
+//          Falls wir nach rechts gehen verndern wir die y-Position nicht, und nehmen 
+//          entweder die Breitenposition des ersten + 1 oder 0
             case right:
-//              Verndern wir die y-Position nicht, und geben dem neuen Teil entweder die Breitenposition
-//              des ersten + 1 oder 0
-                return new SnakePart(
-                        w, h,
-                        (front.getxInGrid() != w - 1 || (!infinitePlayGrid && withRules))?
-                                front.getxInGrid() + 1:
-                                0, 
-                        front.getyInGrid()
-                );
+                x = (x != w - 1 || !wrap)? x + 1: 0;
+                break;
 //          Bei einem anderen Wert (nicht mglich, allerdings zur fehlerfreien Kompilierbarkeit bentigt)
 //          werfen wir eine Exception, die zeigt, dass das Programm falsch ausgefhrt wurde
 //          Grund dafr kann nur ein Aufruf der Snake#move(int, int)-Methode bevor das Attribut 
@@ -287,6 +510,12 @@ public class Snake{
             default:
                 throw new SnakeFalseExecutionException();
         }
+        
+//      Falls die Koordinaten auerhalb des Spielfelds liegen, so zeigen wir dies mit -1 an
+        if(x < 0 || x >= w || y < 0 || y >= h)
+            return -1;
+        
+        return y * gridWidth + x;
     }
     
     /**
@@ -305,6 +534,31 @@ public class Snake{
         this.dir = dir;
     }
     
+    /**
+     * Diese Methode gibt ihnen die Richtung, in die das Snake-Objekt derzeit luft
+     * @return  Die Richtung, in die das Objekt geht
+     */
+    public Direction getDirection(){
+        return dir;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob die Schlange sich an Regeln zu halten hat
+     * @return  ob die Schlange sich an Regeln zu halten hat
+     */
+    public boolean isWithRules(){
+        return withRules;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob die Schlange an der anderen Seite des Spielfelds
+     * wieder auftaucht
+     * @return  ob das Spielfeld unendlich ist
+     */
+    public boolean isInfinite(){
+        return infinitePlayGrid;
+    }
+    
     /**
      * Diese Methode setzt die Eigenschaft, ob die Schlange sich an Regeln zu halten hat
      * @param wR    ob die Schlange sich an Regeln zu halten hat
@@ -322,17 +576,59 @@ public class Snake{
         this.infinitePlayGrid = inf;
     }
     
+    /**
+     * Diese Methode stellt die Schlange mit den gegebenen Teilen (beginnend mit dem Kopf) wieder
+     * her, und trgt diese neu in dem Spielfeld ein
+     * @param cells     Die gepackten Koordinaten der Teile (y * Spielfeldbreite + x)
+     * @param length    Die Anzahl der Teile
+     * @param dir       Die Richtung, in die die Schlange geht
+     * @param score     Der Score der Schlange
+     */
+    public void restore(int[] cells, int length, Direction dir, int score){
+//      Der Ringpuffer muss eine Zweierpotenz lang sein, und mindestens ein Teil mehr fassen
+        int capacity = INITIAL_CAPACITY;
+        while(capacity <= length)
+            capacity <<= 1;
+        
+        this.body = new int[capacity];
+        System.arraycopy(cells, 0, body, 0, length);
+        this.head = 0;
+        this.length = length;
+        this.gridWidth = playGrid.getWidth();
+        this.dir = dir;
+        this.score = score;
+        
+        playGrid.clearOccupancy();
+        for(int i = 0; i < length; i++)
+            playGrid.occupy(cells[i]);
+    }
+    
     /**
      * Diese Methode zeigt dem Snake-Objekt, dass die Gre des Spielfelds gendert wurde,
-     * und zeigt dies allen SnakePart-Objekten, aus dem dieses Objekt besteht
+     * verschiebt alle Teile, aus denen dieses Objekt besteht, in das neue Spielfeld,
+     * und trgt diese neu in dem Spielfeld ein
      * @param w     Die neue Breite des Spielfelds
      * @param h     Die neue Hhe des Spielfelds
      */
     public void notifySizeChanged(int w, int h){
-//      Wir gehen durch alle SnakePart-Objekte in snakeParts
-        for(SnakePart s : snakeParts)
-//          und zeigen jedem an, dass sich die Spielfeldgre auf w * h gendert hat
-            s.notifySizeChanged(w, h);
+//      Falls das Spielfeld selbst noch nicht die neue Gre hat, so setzen wir diese
+        if(playGrid.getWidth() != w || playGrid.getHeight() != h)
+            playGrid.setSize(w, h, playGrid.getSize());
+//      Die bisherige Belegung ist ungltig, da sich die Koordinaten der Teile ndern
+        playGrid.clearOccupancy();
+        
+//      Wir gehen durch alle Teile in dem Ringpuffer
+        for(int i = 0; i < length; i++){
+            int index = (head + i) & (body.length - 1);
+//          entpacken die Koordinaten mit der alten Breite, verhindern dass sie auerhalb
+//          des Spielfelds mit der Gre w * h liegen, und packen sie mit der neuen Breite
+            int x = (body[index] % gridWidth) % w;
+            int y = (body[index] / gridWidth) % h;
+            body[index] = y * w + x;
+//          und tragen das Teil in dem Spielfeld ein
+            playGrid.occupy(body[index]);
+        }
+        gridWidth = w;
     }
     
     /**
@@ -345,12 +641,13 @@ public class Snake{
      * @param g     Das Graphics-Objekt, auf dem wir zeichnen
      */
     public void drawSnake(int x, int y, int s, Graphics g){
-//      Zuerst gehen wir durch alle SnakePart-Objekte auer dem ersten
-        for(int i = 1; i < snakeParts.size(); i++){
+//      Zuerst gehen wir durch alle Teile auer dem ersten
+        for(int i = 1; i < length; i++){
+            int cell = getCell(i);
 //          Und zeichnen es in Schwarz
             g.fillRect(
-                    x + snakeParts.get(i).getxInGrid() * s, 
-                    y + snakeParts.get(i).getyInGrid() * s, 
+                    x + (cell % gridWidth) * s, 
+                    y + (cell / gridWidth) * s, 
                     s, 
                     s
             );
@@ -360,8 +657,8 @@ public class Snake{
         g.setColor(Color.RED);
         
         g.fillRect(
-                x + snakeParts.get(0).getxInGrid() * s, 
-                y + snakeParts.get(0).getyInGrid() * s,
+                x + getFirstX() * s, 
+                y + getFirstY() * s,
                 s,
                 s
         );
@@ -379,15 +676,8 @@ public class Snake{
      * @return      Ob die Schlange diese Koordinate berdeckt
      */
     public boolean contains(int x, int y){
-//      Wir gehen durch alle SnakePart-Objekte
-        for(SnakePart s : snakeParts){
-//          Und falls bei einem davon die Koordinaten bereinstimmen
-            if(s.getxInGrid() == x && s.getyInGrid() == y)
-//              Geben wir true zurck
-                return true;
-        }
-//      Falls wir durch die gesamte ArrayList gehen konnten, ohne true zurckgeben zu mssen
-//      So geben wir false zurck
-        return false;
+//      Das Spielfeld wei, welche Felder von der Schlange belegt sind, und gibt fr
+//      Koordinaten auerhalb des Spielfelds immer false zurck
+        return playGrid.isOccupied(x, y);
     }
 }
\ No newline at end of file
@@ -7,6 +7,10 @@ package de.jeanpierrehotz.snake.parts;
 
 import java.awt.Graphics;
 
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Diese Klasse reprsentiert ein Spielfeld fr ein Snake-Spiel.<br>
  * Dieses ist mit einer gewissen Spielfeldgre (x Felder * y Felder) ausgestattet,
@@ -31,6 +35,75 @@ public class SnakePlayingGrid {
      * Diese Variable gibt an, ob das Spielfeld gezeichnet werden soll
      */
     private boolean drawingGrid;
+    /**
+     * Diese Variable wird erhht, sobald sich das Aussehen des Spielfelds (Gre, Zeichengre
+     * oder ob das Spielfeld gezeichnet wird) ndert, damit zwischengespeicherte Bilder des
+     * Spielfelds wissen, dass sie neu gezeichnet werden mssen
+     */
+    private int layoutVersion;
+    
+    /**
+     * Die Anzahl an Bits des Index eines Felds, die die Stelle des Felds in seinem Chunk angeben;
+     * ein Chunk umfasst also 4096 aufeinanderfolgende Felder (64 long-Werte)
+     */
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_CELLS = 1 << CHUNK_BITS;
+    /**
+     * Die grte Anzahl an Feldern, fr die die freien Felder aufgelistet werden (siehe
+     * {@link SnakePlayingGrid#isListingFreeCells()}); darber wrde die Liste mehr Speicher
+     * bentigen, als die Belegung selbst
+     */
+    public static final int MAX_LISTED_CELLS = 1 << 22;
+    /**
+     * Wie oft auf einem Spielfeld ohne Liste der freien Felder ein zuflliges Feld gewhlt wird,
+     * bevor die freien Felder abgezhlt werden
+     */
+    private static final int RANDOM_ATTEMPTS = 64;
+    
+    /**
+     * Dieses Bitset gibt fr jedes Feld (Index y * Breite + x) an, ob es von einer Schlange
+     * belegt ist. Dadurch kann mit einem einzigen Bit-Test herausgefunden werden, ob ein Feld
+     * frei ist, ohne den gesamten Krper der Schlange durchgehen zu mssen.<br>
+     * Das Bitset ist in Chunks von {@link SnakePlayingGrid#CHUNK_CELLS} Feldern aufgeteilt, die erst
+     * erzeugt werden, sobald eins ihrer Felder belegt wird. Bis dahin verweisen sie auf den gemeinsamen
+     * (nie beschriebenen) {@link SnakePlayingGrid#EMPTY_CHUNK}, weshalb leere Bereiche auch auf sehr
+     * groen Spielfeldern keinen Speicher bentigen, und ein Bit-Test keine Fallunterscheidung braucht.
+     */
+    private long[][] occupied;
+    /**
+     * Der Chunk, auf den alle Chunks verweisen, in denen noch kein Feld belegt wurde
+     */
+    private static final long[] EMPTY_CHUNK = new long[CHUNK_CELLS >>> 6];
+    /**
+     * Die Anzahl an belegten Feldern in jedem Chunk
+     */
+    private int[] chunkCounts;
+    /**
+     * Dieses Array zhlt fr jedes Feld, wie viele Teile zustzlich zu dem ersten auf diesem Feld
+     * liegen (ebenfalls in Chunks).<br>
+     * Dies kann nur vorkommen, wenn die Schlange sich nicht an Regeln halten muss (oder genau auf
+     * ihr eigenes letztes Teil frisst), weshalb die Arrays erst erzeugt werden, sobald sie bentigt werden.
+     */
+    private int[][] stacked;
+    
+    /**
+     * Dieses Array enthlt dicht gepackt die Indizes aller freien Felder.<br>
+     * Nur die ersten {@link SnakePlayingGrid#freeCount} Eintrge sind gltig.
+     * Dadurch kann ein zuflliges freies Feld unabhngig davon, wie voll das Spielfeld ist,
+     * in konstanter Zeit gewhlt werden.<br>
+     * Auf Spielfeldern mit mehr als {@link SnakePlayingGrid#MAX_LISTED_CELLS} Feldern gibt es
+     * diese Liste nicht ({@code null}).
+     */
+    private int[] freeCells;
+    /**
+     * Dieses Array gibt fr jedes freie Feld an, an welchem Index es in
+     * {@link SnakePlayingGrid#freeCells} steht
+     */
+    private int[] freePosition;
+    /**
+     * Diese Variable gibt die Anzahl an freien Feldern an
+     */
+    private int freeCount;
     
     /**
      * Dieser Konstruktor erzeugt ein Spielfeld mit gegebener Breite, Hhe, Zeichengre
@@ -45,22 +118,335 @@ public class SnakePlayingGrid {
         this.height = h;
         this.size = s;
         this.drawingGrid = dG;
+        
+        allocate(w * h);
     }
     
     /**
      * Diese Methode setzt die Gre des Spielfelds und die Zeichengre auf die gegebenen Werte.
      * Diese Methode wird aufgerufen, sobald das Spiel mit gespeicherten Optionen wieder
-     * aufgenommen werden soll.
+     * aufgenommen werden soll.<br>
+     * Falls sich dabei die Anzahl an Feldern ndert, so wird die Belegung aller Felder gelscht,
+     * und muss von der Schlange neu eingetragen werden (siehe {@link Snake#notifySizeChanged(int, int)}).
      * @param w     Die neue Breite des Spielfelds in Feldern
      * @param h     Die neue Hhe des Spielfelds in Feldern
      * @param s     Die neue Zeichengre in px
      */
     public void setSize(int w, int h, int s){
+        if(w != width || h != height)
+            allocate(w * h);
+        if(w != width || h != height || s != size)
+            layoutVersion++;
+        
         this.width = w;
         this.height = h;
         this.size = s;
     }
     
+    /**
+     * Diese Methode erzeugt die (leere) Belegung fr ein Spielfeld mit der gegebenen Anzahl an Feldern
+     * @param cells     Die Anzahl an Feldern des Spielfelds
+     */
+    private void allocate(int cells){
+        int chunks = (cells + CHUNK_CELLS - 1) >>> CHUNK_BITS;
+        this.occupied = new long[chunks][];
+        Arrays.fill(occupied, EMPTY_CHUNK);
+        this.chunkCounts = new int[chunks];
+        this.stacked = null;
+        
+        if(cells <= MAX_LISTED_CELLS){
+            this.freeCells = new int[cells];
+            this.freePosition = new int[cells];
+        }else{
+            this.freeCells = null;
+            this.freePosition = null;
+        }
+        resetFreeCells(cells);
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob das Feld mit dem gegebenen Index (y * Breite + x) belegt ist
+     * @param cell  Der Index des Felds
+     * @return      ob das Feld belegt ist
+     */
+    public boolean isOccupied(int cell){
+        return (occupied[cell >>> CHUNK_BITS][(cell >>> 6) & 63] & (1L << cell)) != 0;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob das Feld an den gegebenen Koordinaten belegt ist.<br>
+     * Fr Koordinaten auerhalb des Spielfelds wird immer {@code false} zurckgegeben.
+     * @param x     Die x-Koordinate des Felds
+     * @param y     Die y-Koordinate des Felds
+     * @return      ob das Feld belegt ist
+     */
+    public boolean isOccupied(int x, int y){
+        if(x < 0 || y < 0 || x >= width || y >= height)
+            return false;
+        return isOccupied(y * width + x);
+    }
+    
+    /**
+     * Diese Methode trgt ein, dass ein (weiteres) Teil auf dem Feld mit dem gegebenen Index liegt
+     * @param cell  Der Index des Felds
+     */
+    public void occupy(int cell){
+        int index = cell >>> CHUNK_BITS;
+        long[] chunk = occupied[index];
+        if(chunk == EMPTY_CHUNK)
+            occupied[index] = chunk = new long[CHUNK_CELLS >>> 6];
+        long bit = 1L << cell;
+        
+//      Falls das Feld bereits belegt ist, merken wir uns das zustzliche Teil
+        if((chunk[(cell >>> 6) & 63] & bit) != 0){
+            if(stacked == null)
+                stacked = new int[occupied.length][];
+            if(stacked[index] == null)
+                stacked[index] = new int[CHUNK_CELLS];
+            stacked[index][cell & (CHUNK_CELLS - 1)]++;
+        }else{
+            chunk[(cell >>> 6) & 63] |= bit;
+            chunkCounts[index]++;
+            removeFreeCell(cell);
+        }
+    }
+    
+    /**
+     * Diese Methode trgt ein, dass ein Teil das Feld mit dem gegebenen Index verlassen hat.<br>
+     * Das Feld wird erst dann frei, wenn kein weiteres Teil mehr darauf liegt.
+     * @param cell  Der Index des Felds
+     */
+    public void release(int cell){
+        int index = cell >>> CHUNK_BITS;
+        if(stacked != null && stacked[index] != null && stacked[index][cell & (CHUNK_CELLS - 1)] > 0){
+            stacked[index][cell & (CHUNK_CELLS - 1)]--;
+        }else{
+            occupied[index][(cell >>> 6) & 63] &= ~(1L << cell);
+            chunkCounts[index]--;
+            addFreeCell(cell);
+        }
+    }
+    
+    /**
+     * Diese Methode gibt alle Felder des Spielfelds wieder frei
+     */
+    public void clearOccupancy(){
+        Arrays.fill(occupied, EMPTY_CHUNK);
+        Arrays.fill(chunkCounts, 0);
+        stacked = null;
+        resetFreeCells(width * height);
+    }
+    
+    /**
+     * Diese Methode kopiert die Belegung des gegebenen rechteckigen Ausschnitts des Spielfelds in
+     * das gegebene Bitset, in dem die Felder Zeile fr Zeile (Index Zeile * Spalten + Spalte) stehen.<br>
+     * Chunks, in denen kein Feld belegt ist, werden dabei bersprungen, weshalb der Aufwand nur von der
+     * Gre des Ausschnitts abhngt, und nicht von der Gre des Spielfelds oder der Lnge der Schlange.
+     * @param col       Die erste Spalte des Ausschnitts
+     * @param row       Die erste Zeile des Ausschnitts
+     * @param cols      Die Anzahl an Spalten des Ausschnitts
+     * @param rows      Die Anzahl an Zeilen des Ausschnitts
+     * @param dest      Das Bitset, in das kopiert wird (mindestens (cols * rows + 63) / 64 lang)
+     */
+    public void copyOccupancy(int col, int row, int cols, int rows, long[] dest){
+        Arrays.fill(dest, 0, (cols * rows + 63) >>> 6, 0L);
+        
+        for(int r = 0; r < rows; r++){
+            int cell = (row + r) * width + col;
+            int end = cell + cols;
+            int bit = r * cols;
+            while(cell < end){
+//              Wir gehen die Zeile Chunk fr Chunk durch
+                int index = cell >>> CHUNK_BITS;
+                int chunkEnd = Math.min(end, (index + 1) << CHUNK_BITS);
+                long[] chunk = occupied[index];
+                if(chunkCounts[index] == 0){
+                    bit += chunkEnd - cell;
+                    cell = chunkEnd;
+                    continue;
+                }
+                
+                for(; cell < chunkEnd; cell++, bit++){
+                    if((chunk[(cell >>> 6) & 63] & (1L << cell)) != 0)
+                        dest[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Diese Methode trgt alle Felder als frei ein
+     * @param cells     Die Anzahl an Feldern des Spielfelds
+     */
+    private void resetFreeCells(int cells){
+        freeCount = cells;
+        if(freeCells == null)
+            return;
+        for(int i = 0; i < cells; i++){
+            freeCells[i] = i;
+            freePosition[i] = i;
+        }
+    }
+    
+    /**
+     * Diese Methode entfernt das gegebene Feld aus den freien Feldern, indem es mit dem letzten
+     * freien Feld vertauscht wird
+     * @param cell  Der Index des Felds, das belegt wurde
+     */
+    private void removeFreeCell(int cell){
+        if(freeCells == null){
+            freeCount--;
+            return;
+        }
+        int pos = freePosition[cell];
+        int last = freeCells[--freeCount];
+        
+        freeCells[pos] = last;
+        freePosition[last] = pos;
+    }
+    
+    /**
+     * Diese Methode fgt das gegebene Feld an das Ende der freien Felder an
+     * @param cell  Der Index des Felds, das frei geworden ist
+     */
+    private void addFreeCell(int cell){
+        if(freeCells == null){
+            freeCount++;
+            return;
+        }
+        freeCells[freeCount] = cell;
+        freePosition[cell] = freeCount++;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Feldern, die von keiner Schlange belegt sind
+     * @return  die Anzahl an freien Feldern
+     */
+    public int getFreeCellCount(){
+        return freeCount;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob das Spielfeld die freien Felder auflistet.<br>
+     * Dies ist nur bei Spielfeldern mit hchstens {@link SnakePlayingGrid#MAX_LISTED_CELLS} Feldern
+     * der Fall; auf greren Spielfeldern hngt {@link SnakePlayingGrid#getRandomFreeCell(Random)}
+     * nur von der Belegung ab, weshalb es keine Reihenfolge der freien Felder gibt.
+     * @return  ob die freien Felder aufgelistet werden
+     */
+    public boolean isListingFreeCells(){
+        return freeCells != null;
+    }
+    
+    /**
+     * Diese Methode kopiert die freien Felder in der Reihenfolge, in der sie gespeichert sind.<br>
+     * Da {@link SnakePlayingGrid#getRandomFreeCell(Random)} von dieser Reihenfolge abhngt, muss
+     * diese mitgespeichert werden, damit ein gespeichertes Spiel genauso weiterluft.
+     * Werden die freien Felder nicht aufgelistet (siehe {@link SnakePlayingGrid#isListingFreeCells()}),
+     * so wird nichts kopiert.
+     * @param dest  Das Array, in das kopiert wird (mindestens {@link SnakePlayingGrid#getFreeCellCount()} lang)
+     */
+    public void copyFreeCells(int[] dest){
+        if(freeCells != null)
+            System.arraycopy(freeCells, 0, dest, 0, freeCount);
+    }
+    
+    /**
+     * Diese Methode stellt die Reihenfolge der freien Felder wieder her (siehe
+     * {@link SnakePlayingGrid#copyFreeCells(int[])}).<br>
+     * Die Belegung muss dabei bereits eingetragen sein; die gegebenen Felder mssen genau die
+     * freien Felder sein. Werden die freien Felder nicht aufgelistet, so drfen keine Felder gegeben werden.
+     * @param cells     Die freien Felder in ihrer Reihenfolge
+     * @param count     Die Anzahl der freien Felder
+     * @throws IllegalArgumentException     falls die gegebenen Felder nicht genau die freien Felder sind
+     */
+    public void restoreFreeCells(int[] cells, int count){
+        if(freeCells == null){
+            if(count != 0)
+                throw new IllegalArgumentException("Free cells are not listed on a board of " + width + "x" + height);
+            return;
+        }
+        if(count != freeCount)
+            throw new IllegalArgumentException("Expected " + freeCount + " free cells, but got " + count);
+        boolean[] seen = new boolean[width * height];
+        for(int i = 0; i < count; i++){
+            if(cells[i] < 0 || cells[i] >= seen.length || isOccupied(cells[i]) || seen[cells[i]])
+                throw new IllegalArgumentException("Cell " + cells[i] + " is not free");
+            seen[cells[i]] = true;
+        }
+        
+        for(int i = 0; i < count; i++){
+            freeCells[i] = cells[i];
+            freePosition[cells[i]] = i;
+        }
+    }
+    
+    /**
+     * Diese Methode gibt ihnen (gleichverteilt) ein zuflliges Feld, das von keiner Schlange
+     * belegt ist.<br>
+     * Dies geschieht unabhngig davon, wie voll das Spielfeld ist, in konstanter Zeit.
+     * @return  der Index (y * Breite + x) eines zuflligen freien Felds, oder -1 falls
+     *          das gesamte Spielfeld belegt ist
+     */
+    public int getRandomFreeCell(){
+        if(freeCount == 0)
+            return -1;
+        if(freeCells == null)
+            return getUnlistedFreeCell(ThreadLocalRandom.current());
+        return freeCells[(int) (Math.random() * freeCount)];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen (gleichverteilt) ein zuflliges Feld, das von keiner Schlange
+     * belegt ist, wobei das Feld mit dem gegebenen Zufallsgenerator gewhlt wird
+     * @param random    Der Zufallsgenerator, mit dem das Feld gewhlt wird
+     * @return  der Index (y * Breite + x) eines zuflligen freien Felds, oder -1 falls
+     *          das gesamte Spielfeld belegt ist
+     * @see SnakePlayingGrid#getRandomFreeCell()
+     */
+    public int getRandomFreeCell(Random random){
+        if(freeCount == 0)
+            return -1;
+        if(freeCells == null)
+            return getUnlistedFreeCell(random);
+        return freeCells[random.nextInt(freeCount)];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen (gleichverteilt) ein zuflliges freies Feld auf einem Spielfeld,
+     * dessen freie Felder nicht aufgelistet werden.<br>
+     * Solange das Spielfeld grtenteils frei ist, trifft schon eins der ersten zufllig gewhlten
+     * Felder ein freies Feld; da dabei jedes freie Feld gleich wahrscheinlich ist, ist das Ergebnis
+     * gleichverteilt. Erst auf einem fast vollen Spielfeld werden die freien Felder Chunk fr Chunk
+     * abgezhlt, wobei volle Chunks bersprungen werden.
+     * @param random    Der Zufallsgenerator, mit dem das Feld gewhlt wird
+     * @return          der Index eines zuflligen freien Felds (es muss ein freies Feld geben)
+     */
+    private int getUnlistedFreeCell(Random random){
+        int cells = width * height;
+        for(int i = 0; i < RANDOM_ATTEMPTS; i++){
+            int cell = random.nextInt(cells);
+            if(!isOccupied(cell))
+                return cell;
+        }
+        
+        int n = random.nextInt(freeCount);
+        for(int index = 0; index < occupied.length; index++){
+            int first = index << CHUNK_BITS;
+            int free = Math.min(CHUNK_CELLS, cells - first) - chunkCounts[index];
+            if(n >= free){
+                n -= free;
+                continue;
+            }
+            
+//          Das gesuchte Feld liegt in diesem Chunk
+            for(int cell = first; ; cell++){
+                if(!isOccupied(cell) && n-- == 0)
+                    return cell;
+            }
+        }
+        return -1;
+    }
+    
     /**
      * Diese Methode gibt ihnen die Breite des Spielfelds in Feldern
      * @return  Die Breite des Spielfelds
@@ -90,9 +476,21 @@ public class SnakePlayingGrid {
      * @param dG    Die Eigenschaft, ob das Spielfeld gezeichnet werden soll
      */
     public void setDrawingGrid(boolean dG){
+        if(dG != drawingGrid)
+            layoutVersion++;
         this.drawingGrid = dG;
     }
     
+    /**
+     * Diese Methode gibt ihnen die Version des Aussehens des Spielfelds, die sich bei jeder
+     * nderung der Gre, der Zeichengre oder der Eigenschaft, ob das Spielfeld gezeichnet
+     * werden soll, ndert
+     * @return  die Version des Aussehens des Spielfelds
+     */
+    public int getLayoutVersion(){
+        return layoutVersion;
+    }
+    
     /**
      * Diese Methode zeichnet das Spielfeld
      * @param x     das Offset in x-Richtung
@@ -118,4 +516,65 @@ public class SnakePlayingGrid {
                 g.drawLine(x, y + i * size, x + width * size, y + i * size);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Diese Methode zeichnet nur den gegebenen rechteckigen Ausschnitt des Spielfelds, also die
+     * Linien innerhalb des Ausschnitts, und den Aussenrand nur, soweit er in dem Ausschnitt liegt.<br>
+     * Die Offsets geben dabei (wie bei {@link SnakePlayingGrid#drawPlayingGrid(int, int, Graphics)})
+     * die Stelle des gesamten Spielfelds an, die auch auerhalb des Bildschirms liegen kann.
+     * @param x     das Offset in x-Richtung
+     * @param y     das Offset in y-Richtung
+     * @param col   die erste Spalte des Ausschnitts
+     * @param row   die erste Zeile des Ausschnitts
+     * @param cols  die Anzahl an Spalten des Ausschnitts
+     * @param rows  die Anzahl an Zeilen des Ausschnitts
+     * @param g     das Graphics-Objekt, auf dem gezeichnet wird
+     */
+    public void drawPlayingGrid(int x, int y, int col, int row, int cols, int rows, Graphics g){
+        int left = x + col * size;
+        int top = y + row * size;
+        int right = left + cols * size;
+        int bottom = top + rows * size;
+        
+        if(drawingGrid){
+            for(int i = 0; i <= cols; i++)
+                g.drawLine(left + i * size, top, left + i * size, bottom);
+            for(int i = 0; i <= rows; i++)
+                g.drawLine(left, top + i * size, right, top + i * size);
+        }else{
+//          Vom Aussenrand liegen nur die Seiten in dem Ausschnitt, an die dieser grenzt
+            if(col == 0)
+                g.drawLine(left, top, left, bottom);
+            if(row == 0)
+                g.drawLine(left, top, right, top);
+            if(col + cols == width)
+                g.drawLine(right, top, right, bottom);
+            if(row + rows == height)
+                g.drawLine(left, bottom, right, bottom);
+        }
+    }
+    
+    /**
+     * Diese Methode zeichnet die Linien des Spielfelds, die zu dem gegebenen Feld gehren.<br>
+     * Das sind die linke und die obere Linie des Felds (die rechte und die untere gehren
+     * zu den benachbarten Feldern), bzw. der Aussenrand, falls das Feld am Rand liegt.
+     * Damit sieht ein einzeln neu gezeichnetes Feld genauso aus, wie mit
+     * {@link SnakePlayingGrid#drawPlayingGrid(int, int, Graphics)} gezeichnet.
+     * @param x     das Offset in x-Richtung
+     * @param y     das Offset in y-Richtung
+     * @param cell  das Feld (als y * Breite + x)
+     * @param g     das Graphics-Objekt, auf dem gezeichnet wird
+     */
+    public void drawCellGrid(int x, int y, int cell, Graphics g){
+        int cx = x + (cell % width) * size;
+        int cy = y + (cell / width) * size;
+        
+//      Die obere Linie gehrt zum Feld, falls das Spielfeld gezeichnet wird, oder
+//      das Feld in der obersten Zeile liegt (und somit am Aussenrand)
+        if(drawingGrid || cell < width)
+            g.drawLine(cx, cy, cx + size - 1, cy);
+//      Genauso die linke Linie, bei der ersten Spalte
+        if(drawingGrid || cell % width == 0)
+            g.drawLine(cx, cy, cx, cy + size - 1);
+    }
+}
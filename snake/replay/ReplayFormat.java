@@ -0,0 +1,156 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Diese Klasse beschreibt das Dateiformat der Aufzeichnungen, und enthlt Methoden zum Lesen und
+ * Schreiben der Zahlen darin.<br>
+ * Eine Aufzeichnung beginnt mit einem Kopf aus {@link ReplayFormat#MAGIC}, {@link ReplayFormat#VERSION},
+ * dem Startwert des Spiels (long) und dem Abstand der Keyframes (int). Danach folgen die Eintrge;
+ * jeder Eintrag besteht aus seiner Art (ein Byte), dem Abstand seines Ticks zu dem Tick des vorherigen
+ * Eintrags (varint) und seinem Inhalt:
+ * <ul>
+ *   <li>{@link ReplayFormat#DIRECTION}: die neue Richtung (ein Byte)</li>
+ *   <li>{@link ReplayFormat#FOOD}: das Feld des neuen Food-Objekts (varint)</li>
+ *   <li>{@link ReplayFormat#CONFIG}: Breite, Hhe (varint) und die Regeln (ein Byte)</li>
+ *   <li>{@link ReplayFormat#KEYFRAME}: Breite, Hhe, Regeln, Zustand des Zufallsgenerators (long),
+ *       Score, Richtung, Food-Objekt, Lnge und die Teile der Schlange (als Abstnde zu dem vorherigen
+ *       Teil, zigzag-varint)</li>
+ *   <li>{@link ReplayFormat#END}: der Grund fr das Ende (ein Byte) und der Score (varint)</li>
+ * </ul>
+ * Der Tick eines Eintrags ist der Tick, zu dem er gehrt: Einstellungen und Keyframes gelten vor
+ * der Bewegung in diesem Tick, Richtungen und Food-Objekte whrend dieses Ticks.
+ * Alle Zahlen werden in Big-Endian gespeichert.
+ * @author Jean-Pierre Hotz
+ */
+final class ReplayFormat{
+    /**
+     * Die Kennung am Anfang jeder Aufzeichnung ("SNKR")
+     */
+    static final int MAGIC = 0x534E4B52;
+    /**
+     * Die Version des Dateiformats
+     */
+    static final int VERSION = 1;
+    /**
+     * Die Lnge des Kopfs in Bytes
+     */
+    static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+    
+    /**
+     * Ein Eintrag, der die Richtung der Schlange ndert
+     */
+    static final byte DIRECTION = 1;
+    /**
+     * Ein Eintrag, der ein neues Food-Objekt erzeugt
+     */
+    static final byte FOOD = 2;
+    /**
+     * Ein Eintrag, der neue Einstellungen bernimmt
+     */
+    static final byte CONFIG = 3;
+    /**
+     * Ein Eintrag, der den vollstndigen Zustand des Spiels enthlt
+     */
+    static final byte KEYFRAME = 4;
+    /**
+     * Der letzte Eintrag einer Aufzeichnung
+     */
+    static final byte END = 5;
+    
+    /**
+     * Der Grund fr das Ende, falls die Aufzeichnung abgebrochen wurde, bevor das Spiel vorbei war
+     */
+    static final byte END_ABORTED = -1;
+    
+    /**
+     * Das Bit der Regeln, das angibt, ob das Spielfeld unendlich ist
+     */
+    static final int FLAG_INFINITE = 1;
+    /**
+     * Das Bit der Regeln, das angibt, ob sich die Schlange an Regeln halten muss
+     */
+    static final int FLAG_WITH_RULES = 2;
+    
+    /**
+     * Die maximale Lnge einer varint in Bytes
+     */
+    static final int MAX_VARINT_SIZE = 10;
+    
+    /**
+     * Diese Klasse kann nicht instanziiert werden
+     */
+    private ReplayFormat(){}
+    
+    /**
+     * Diese Methode schreibt die gegebene (nicht negative) Zahl mit 7 Bits pro Byte; das hchste
+     * Bit jedes Bytes zeigt an, ob noch ein weiteres folgt
+     * @param buffer    Der Puffer, in den geschrieben wird
+     * @param value     Die Zahl
+     */
+    static void putVarLong(ByteBuffer buffer, long value){
+        while((value & ~0x7FL) != 0){
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    /**
+     * Diese Methode schreibt die gegebene Zahl so, dass kleine negative Zahlen ebenfalls
+     * wenige Bytes bentigen (zigzag)
+     * @param buffer    Der Puffer, in den geschrieben wird
+     * @param value     Die Zahl
+     */
+    static void putSignedVarLong(ByteBuffer buffer, long value){
+        putVarLong(buffer, (value << 1) ^ (value >> 63));
+    }
+    
+    /**
+     * Diese Methode liest eine Zahl, die mit {@link ReplayFormat#putVarLong(ByteBuffer, long)}
+     * geschrieben wurde
+     * @param buffer    Der Puffer, aus dem gelesen wird
+     * @return          die gelesene Zahl
+     */
+    static long getVarLong(ByteBuffer buffer){
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do{
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }while(b < 0 && shift < 64);
+        return value;
+    }
+    
+    /**
+     * Diese Methode liest eine Zahl, die mit {@link ReplayFormat#putSignedVarLong(ByteBuffer, long)}
+     * geschrieben wurde
+     * @param buffer    Der Puffer, aus dem gelesen wird
+     * @return          die gelesene Zahl
+     */
+    static long getSignedVarLong(ByteBuffer buffer){
+        long value = getVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    /**
+     * Diese Methode liest eine Zahl, die mit {@link ReplayFormat#putVarLong(ByteBuffer, long)}
+     * geschrieben wurde, und in einen int passen muss
+     * @param buffer    Der Puffer, aus dem gelesen wird
+     * @return          die gelesene Zahl
+     * @throws IllegalStateException    falls die Zahl nicht in einen int passt
+     */
+    static int getVarInt(ByteBuffer buffer){
+        long value = getVarLong(buffer);
+        if(value < 0 || value > Integer.MAX_VALUE)
+            throw new IllegalStateException("Invalid replay: " + value + " is out of range");
+        return (int) value;
+    }
+}
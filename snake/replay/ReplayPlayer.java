@@ -0,0 +1,387 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.replay;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import de.jeanpierrehotz.snake.GameConfig;
+import de.jeanpierrehotz.snake.GameEngine;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse spielt ein Spiel nach, das mit einem {@link ReplayRecorder} aufgezeichnet wurde.<br>
+ * Die Datei wird dafr in den Speicher abgebildet, und einmal durchlaufen, um die Keyframes zu finden.
+ * Danach kann mit {@link ReplayPlayer#seek(long)} zu jedem Tick gesprungen werden: Dafr wird der
+ * letzte Keyframe vor diesem Tick wiederhergestellt, und das Spiel von dort aus (ohne UI und so
+ * schnell es geht) bis zu dem Tick weitergespielt. Dabei werden die aufgezeichneten Richtungen und
+ * Food-Objekte vorgegeben, weshalb die Schlange exakt denselben Weg geht.<br>
+ * Das nachgespielte Spiel wird nie von einem Autopiloten gesteuert, da auch dessen Richtungen
+ * aufgezeichnet wurden.<br>
+ * Aufzeichnungen, die (z.B. durch einen Absturz) unvollstndig sind, knnen bis zu ihrem letzten
+ * vollstndigen Eintrag nachgespielt werden.
+ * @author Jean-Pierre Hotz
+ */
+public class ReplayPlayer{
+    /**
+     * Alle Richtungen nach ihrem Index
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+    /**
+     * Alle Grnde fr das Ende eines Spiels nach ihrem Index
+     */
+    private static final GameEngine.EndCause[] END_CAUSES = GameEngine.EndCause.values();
+    
+    /**
+     * Der Inhalt der Datei (bis zu dem letzten vollstndigen Eintrag)
+     */
+    private final ByteBuffer data;
+    /**
+     * Der Startwert des aufgezeichneten Spiels
+     */
+    private final long seed;
+    /**
+     * Die Anzahl an Keyframes
+     */
+    private int keyframeCount;
+    /**
+     * Der Tick jedes Keyframes
+     */
+    private long[] keyframeTicks = new long[16];
+    /**
+     * Die Position jedes Keyframes in der Datei (nach der Art des Eintrags)
+     */
+    private int[] keyframeOffsets = new int[16];
+    /**
+     * Der letzte Tick, der aufgezeichnet wurde
+     */
+    private long lastTick;
+    /**
+     * Der Grund fr das Ende des aufgezeichneten Spiels, oder {@code null} falls die Aufzeichnung
+     * vor dem Ende abgebrochen wurde
+     */
+    private GameEngine.EndCause endCause;
+    /**
+     * Der Score am Ende der Aufzeichnung, oder -1 falls diese unvollstndig ist
+     */
+    private int endScore = -1;
+    
+    /**
+     * Das nachgespielte Spiel
+     */
+    private GameEngine engine;
+    /**
+     * Der Tick des letzten Eintrags, der bereits nachgespielt wurde
+     */
+    private long positionTick;
+    /**
+     * Dieses Array nimmt die Teile der Schlange eines Keyframes auf
+     */
+    private int[] cells = new int[0];
+    
+    /**
+     * Dieser Konstruktor ffnet die gegebene Aufzeichnung, und stellt deren ersten Keyframe wieder her
+     * @param file  Die Datei der Aufzeichnung
+     * @throws IOException  falls die Datei nicht gelesen werden kann, oder keine (gltige) Aufzeichnung ist
+     */
+    public ReplayPlayer(Path file) throws IOException{
+        ByteBuffer mapped;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        
+        if(mapped.remaining() < ReplayFormat.HEADER_SIZE || mapped.getInt() != ReplayFormat.MAGIC)
+            throw new IOException(file + " is not a replay");
+        if(mapped.getInt() != ReplayFormat.VERSION)
+            throw new IOException(file + " has an unsupported replay version");
+        this.seed = mapped.getLong();
+        mapped.getInt();
+        
+        this.data = mapped;
+        index();
+        if(keyframeCount == 0)
+            throw new IOException(file + " does not contain a keyframe");
+        
+        restoreKeyframe(0);
+    }
+    
+    /**
+     * Diese Methode durchluft alle Eintrge, und merkt sich die Position jedes Keyframes.<br>
+     * Die Daten werden dabei bis zu dem letzten vollstndigen Eintrag begrenzt.
+     */
+    private void index(){
+        int start = data.position();
+        long tick = 0;
+        int end = start;
+        try{
+            while(data.hasRemaining()){
+                byte type = data.get();
+                tick += ReplayFormat.getVarLong(data);
+                int offset = data.position();
+                skipEntry(type);
+                
+                if(type == ReplayFormat.KEYFRAME){
+                    if(keyframeCount == keyframeTicks.length){
+                        keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+                        keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+                    }
+                    keyframeTicks[keyframeCount] = tick;
+                    keyframeOffsets[keyframeCount++] = offset;
+                }else if(type == ReplayFormat.END){
+                    data.position(offset);
+                    byte cause = data.get();
+                    endCause = (cause >= 0 && cause < END_CAUSES.length)? END_CAUSES[cause]: null;
+                    endScore = ReplayFormat.getVarInt(data);
+                }
+                
+                lastTick = tick;
+                end = data.position();
+                if(type == ReplayFormat.END)
+                    break;
+            }
+        }catch(BufferUnderflowException | IllegalStateException e){
+//          Der letzte Eintrag ist unvollstndig (z.B. da das Spiel abgestrzt ist)
+        }
+        
+        data.limit(end);
+        data.position(start);
+    }
+    
+    /**
+     * Diese Methode berspringt den Inhalt eines Eintrags der gegebenen Art
+     * @param type  Die Art des Eintrags
+     */
+    private void skipEntry(byte type){
+        switch(type){
+            case ReplayFormat.DIRECTION:
+                data.get();
+                break;
+            case ReplayFormat.FOOD:
+                ReplayFormat.getVarLong(data);
+                break;
+            case ReplayFormat.CONFIG:
+                ReplayFormat.getVarLong(data);
+                ReplayFormat.getVarLong(data);
+                data.get();
+                break;
+            case ReplayFormat.KEYFRAME:
+                ReplayFormat.getVarLong(data);
+                ReplayFormat.getVarLong(data);
+                data.get();
+                data.getLong();
+                ReplayFormat.getVarLong(data);
+                data.get();
+                ReplayFormat.getVarLong(data);
+                int length = ReplayFormat.getVarInt(data);
+                for(int i = 0; i < length; i++)
+                    ReplayFormat.getVarLong(data);
+                break;
+            case ReplayFormat.END:
+                data.get();
+                ReplayFormat.getVarLong(data);
+                break;
+            default:
+                throw new IllegalStateException("Invalid replay: unknown entry " + type);
+        }
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das nachgespielte Spiel.<br>
+     * Dieses bleibt bei jedem Sprung dasselbe Objekt, weshalb angemeldete GameListener erhalten bleiben;
+     * diese werden allerdings nur ber die tatschlich nachgespielten Ticks informiert.
+     * @return  das nachgespielte Spiel
+     */
+    public GameEngine getEngine(){
+        return engine;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Startwert des aufgezeichneten Spiels
+     * @return  den Startwert des Spiels
+     */
+    public long getSeed(){
+        return seed;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den letzten Tick, bis zu dem das Spiel nachgespielt werden kann
+     * @return  den letzten aufgezeichneten Tick
+     */
+    public long getLastTick(){
+        return lastTick;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Grund, aus dem das aufgezeichnete Spiel vorbei war
+     * @return  den Grund fr das Ende, oder {@code null} falls die Aufzeichnung vor dem Ende des
+     *          Spiels abgebrochen wurde (oder unvollstndig ist)
+     */
+    public GameEngine.EndCause getRecordedEndCause(){
+        return endCause;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Score am Ende der Aufzeichnung
+     * @return  den aufgezeichneten Score, oder -1 falls die Aufzeichnung unvollstndig ist
+     */
+    public int getRecordedScore(){
+        return endScore;
+    }
+    
+    /**
+     * Diese Methode spielt das Spiel bis zu dem gegebenen Tick nach.<br>
+     * Liegt der Tick vor dem derzeitigen Tick, oder liegt zwischen beiden ein Keyframe, so wird von
+     * dem letzten Keyframe vor dem gegebenen Tick aus weitergespielt. Der Tick wird dabei auf den
+     * aufgezeichneten Bereich begrenzt.
+     * @param tick  Die Anzahl an Ticks, die das Spiel danach ausgefhrt hat
+     * @return      das nachgespielte Spiel
+     */
+    public GameEngine seek(long tick){
+        tick = Math.max(keyframeTicks[0] - 1, Math.min(tick, lastTick));
+        
+//      Der Keyframe mit dem Tick k enthlt den Zustand nach k - 1 Ticks (nachdem die Einstellungen
+//      des Ticks k bernommen wurden); es wird der letzte Keyframe benutzt, dessen Tick noch
+//      nachgespielt werden muss, da nur dann der Zustand vor diesen Einstellungen erreicht wird
+        int keyframe = Arrays.binarySearch(keyframeTicks, 0, keyframeCount, tick);
+        if(keyframe < 0)
+            keyframe = -keyframe - 2;
+        keyframe = Math.max(keyframe, 0);
+        
+        if(tick < engine.getTicks() || keyframeTicks[keyframe] - 1 > engine.getTicks())
+            restoreKeyframe(keyframe);
+        
+        while(engine.getTicks() < tick && !engine.isGameOver()){
+            applyEntries(engine.getTicks() + 1);
+            engine.step();
+        }
+        return engine;
+    }
+    
+    /**
+     * Diese Methode spielt das gesamte aufgezeichnete Spiel (von seinem derzeitigen Tick aus) nach
+     * @return  das nachgespielte Spiel
+     */
+    public GameEngine play(){
+        return seek(lastTick);
+    }
+    
+    /**
+     * Diese Methode bernimmt alle Eintrge des gegebenen Ticks in das Spiel
+     * @param tick  Der Tick, der als nchstes ausgefhrt wird
+     */
+    private void applyEntries(long tick){
+        while(data.hasRemaining()){
+            int start = data.position();
+            byte type = data.get();
+            long entryTick = positionTick + ReplayFormat.getVarLong(data);
+            if(entryTick > tick){
+                data.position(start);
+                return;
+            }
+            positionTick = entryTick;
+            
+            switch(type){
+                case ReplayFormat.DIRECTION:
+                    engine.changeDirection(DIRECTIONS[data.get()]);
+                    break;
+                case ReplayFormat.FOOD:
+                    engine.setNextFoodCell(ReplayFormat.getVarInt(data));
+                    break;
+                case ReplayFormat.CONFIG:
+                    int w = ReplayFormat.getVarInt(data);
+                    int h = ReplayFormat.getVarInt(data);
+                    engine.applyConfig(createConfig(w, h, data.get()));
+                    break;
+                default:
+//                  Keyframes enthalten nur den Zustand, der sich bereits ergibt
+                    skipEntry(type);
+                    break;
+            }
+        }
+    }
+    
+    /**
+     * Diese Methode stellt den Zustand des gegebenen Keyframes wieder her
+     * @param keyframe  Der Index des Keyframes
+     */
+    private void restoreKeyframe(int keyframe){
+        data.position(keyframeOffsets[keyframe]);
+        int w = ReplayFormat.getVarInt(data);
+        int h = ReplayFormat.getVarInt(data);
+        GameConfig config = createConfig(w, h, data.get());
+        long randomState = data.getLong();
+        int score = ReplayFormat.getVarInt(data);
+        Direction dir = DIRECTIONS[data.get()];
+        int food = ReplayFormat.getVarInt(data);
+        int length = ReplayFormat.getVarInt(data);
+        
+        if(cells.length < length)
+            cells = new int[Math.max(length, cells.length * 2)];
+        int previous = 0;
+        for(int i = 0; i < length; i++)
+            cells[i] = previous = (int) (previous + ReplayFormat.getSignedVarLong(data));
+        
+//      Das Spiel wird beim ersten Keyframe erzeugt, und danach nur noch angepasst
+        if(engine == null)
+            engine = new GameEngine(config);
+        else
+            engine.applyConfig(config);
+        engine.restore(keyframeTicks[keyframe] - 1, score, dir, cells, length, food, randomState);
+        
+//      Die Eintrge nach dem Keyframe werden ab hier nachgespielt
+        positionTick = keyframeTicks[keyframe];
+    }
+    
+    /**
+     * Diese Methode erzeugt die Einstellungen, mit denen das Spiel nachgespielt wird
+     * @param w         Die Breite des Spielfelds
+     * @param h         Die Hhe des Spielfelds
+     * @param flags     Die aufgezeichneten Regeln
+     * @return          die Einstellungen (ohne Autopiloten)
+     */
+    private GameConfig createConfig(int w, int h, byte flags){
+        return new GameConfig(w, h, (flags & ReplayFormat.FLAG_INFINITE) != 0,
+                (flags & ReplayFormat.FLAG_WITH_RULES) != 0, false, seed);
+    }
+    
+    /**
+     * Diese Methode spielt die gegebene Aufzeichnung ohne UI nach, und gibt aus, ob das Ergebnis
+     * mit dem aufgezeichneten bereinstimmt.<br>
+     * Aufruf: {@code ReplayPlayer <Datei> [Tick]}
+     * @param args  Die Datei der Aufzeichnung, und optional der Tick, bis zu dem nachgespielt wird
+     * @throws IOException  falls die Aufzeichnung nicht gelesen werden kann
+     */
+    public static void main(String[] args) throws IOException{
+        if(args.length < 1){
+            System.err.println("Usage: ReplayPlayer <file> [tick]");
+            System.exit(2);
+        }
+        
+        ReplayPlayer player = new ReplayPlayer(Paths.get(args[0]));
+        long start = System.nanoTime();
+        GameEngine engine = (args.length > 1)? player.seek(Long.parseLong(args[1])): player.play();
+        long time = System.nanoTime() - start;
+        
+        System.out.println("ticks=" + engine.getTicks() + " score=" + engine.getScore()
+                + " length=" + engine.getSnake().getLength() + " end=" + engine.getEndCause()
+                + " (" + (time / 1000000) + " ms)");
+        
+        if(args.length < 2 && player.getRecordedScore() >= 0){
+            boolean matches = engine.getEndCause() == player.getRecordedEndCause()
+                    && engine.getScore() == player.getRecordedScore();
+            System.out.println("recorded: end=" + player.getRecordedEndCause() + " score="
+                    + player.getRecordedScore() + (matches? " (matches)": " (MISMATCH)"));
+            if(!matches)
+                System.exit(1);
+        }
+    }
+}
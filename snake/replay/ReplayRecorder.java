@@ -0,0 +1,432 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import de.jeanpierrehotz.snake.GameConfig;
+import de.jeanpierrehotz.snake.GameEngine;
+import de.jeanpierrehotz.snake.GameListener;
+import de.jeanpierrehotz.snake.parts.Snake;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse zeichnet ein Spiel in einer Datei auf, damit es spter (mit einem {@link ReplayPlayer})
+ * nachgespielt werden kann.<br>
+ * Aufgezeichnet werden nur der Startwert, die Einstellungen, die Richtungsnderungen der Schlange und
+ * die Felder der Food-Objekte (siehe {@link ReplayFormat}); zustzlich wird alle
+ * {@link ReplayRecorder#getKeyframeInterval()} Ticks der vollstndige Zustand des Spiels gespeichert,
+ * damit beim Nachspielen schnell zu jedem Tick gesprungen werden kann.<br>
+ * Die Eintrge werden in Puffer geschrieben, die ein eigener Thread in die Datei schreibt; der Thread
+ * des Spiels wartet also nie auf die Festplatte. Ein voller Puffer wird weitergereicht, und durch einen
+ * bereits geschriebenen (oder falls es keinen gibt einen neuen) ersetzt.<br>
+ * Kann die Datei nicht geschrieben werden, so luft das Spiel trotzdem weiter; der Fehler wird von
+ * {@link ReplayRecorder#close()} geworfen.
+ * @author Jean-Pierre Hotz
+ */
+public class ReplayRecorder implements GameListener{
+    /**
+     * Der Name der System-Property, die den Ordner angibt, in dem die Spiele standardmig
+     * aufgezeichnet werden (siehe {@link ReplayRecorder#getDefaultDirectory()})
+     */
+    public static final String DIRECTORY_PROPERTY = "snake.replayDir";
+    /**
+     * Der Abstand der Keyframes (in Ticks), der standardmig benutzt wird
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 1024;
+    
+    /**
+     * Die Gre eines Puffers in Bytes
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+    /**
+     * Dieser Puffer zeigt dem schreibenden Thread an, dass die Aufzeichnung beendet ist
+     */
+    private static final ByteBuffer CLOSE = ByteBuffer.allocate(0);
+    
+    /**
+     * Das Spiel, das aufgezeichnet wird
+     */
+    private final GameEngine engine;
+    /**
+     * Der Abstand der Keyframes in Ticks
+     */
+    private final int keyframeInterval;
+    /**
+     * Die Datei, in die geschrieben wird
+     */
+    private final FileChannel channel;
+    /**
+     * Der Thread, der die Puffer in die Datei schreibt
+     */
+    private final Thread writer;
+    /**
+     * Die Puffer, die darauf warten, geschrieben zu werden
+     */
+    private final LinkedBlockingQueue<ByteBuffer> pending = new LinkedBlockingQueue<ByteBuffer>();
+    /**
+     * Die Puffer, die bereits geschrieben wurden, und wiederverwendet werden knnen
+     */
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<ByteBuffer>();
+    
+    /**
+     * Der Puffer, in den derzeit geschrieben wird
+     */
+    private ByteBuffer buffer;
+    /**
+     * Der Tick des letzten Eintrags
+     */
+    private long lastTick;
+    /**
+     * Der Tick des letzten Keyframes
+     */
+    private long lastKeyframe;
+    /**
+     * Diese Variable gibt an, ob im nchsten Tick ein Keyframe geschrieben werden muss
+     * (z.B. da sich die Einstellungen gendert haben)
+     */
+    private boolean keyframeRequested;
+    /**
+     * Die Richtung, die zuletzt aufgezeichnet wurde
+     */
+    private Direction lastDirection;
+    /**
+     * Dieses Array nimmt die Teile der Schlange fr einen Keyframe auf
+     */
+    private int[] cells = new int[0];
+    /**
+     * Diese Variable gibt an, ob die Aufzeichnung bereits beendet wurde
+     */
+    private boolean finished;
+    /**
+     * Der Fehler, der beim Schreiben aufgetreten ist, oder {@code null}
+     */
+    private volatile IOException failure;
+    
+    /**
+     * Dieser Konstruktor beginnt die Aufzeichnung des gegebenen Spiels mit dem Standard-Abstand der
+     * Keyframes
+     * @param engine    Das Spiel, das aufgezeichnet wird
+     * @param file      Die Datei, in die aufgezeichnet wird (wird berschrieben)
+     * @throws IOException  falls die Datei nicht geffnet werden kann
+     */
+    public ReplayRecorder(GameEngine engine, Path file) throws IOException{
+        this(engine, file, DEFAULT_KEYFRAME_INTERVAL);
+    }
+    
+    /**
+     * Dieser Konstruktor beginnt die Aufzeichnung des gegebenen Spiels.<br>
+     * Dabei wird der derzeitige Zustand des Spiels als erster Keyframe gespeichert, und der
+     * Recorder als GameListener bei dem Spiel angemeldet.
+     * @param engine            Das Spiel, das aufgezeichnet wird
+     * @param file              Die Datei, in die aufgezeichnet wird (wird berschrieben)
+     * @param keyframeInterval  Der Abstand der Keyframes in Ticks
+     * @throws IOException  falls die Datei nicht geffnet werden kann
+     */
+    public ReplayRecorder(GameEngine engine, Path file, int keyframeInterval) throws IOException{
+        if(keyframeInterval <= 0)
+            throw new IllegalArgumentException("The keyframe interval has to be positive");
+        
+        this.engine = engine;
+        this.keyframeInterval = keyframeInterval;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        
+        buffer.putInt(ReplayFormat.MAGIC);
+        buffer.putInt(ReplayFormat.VERSION);
+        buffer.putLong(engine.getConfig().getSeed());
+        buffer.putInt(keyframeInterval);
+        
+//      Der erste Keyframe gilt vor dem nchsten Tick des Spiels
+        writeKeyframe(engine.getTicks() + 1);
+        
+        this.writer = new Thread(new Runnable(){
+            @Override
+            public void run(){
+                writeLoop();
+            }
+        }, "Snake-ReplayRecorder");
+        writer.setDaemon(true);
+        writer.start();
+        
+        engine.addGameListener(this);
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Abstand der Keyframes
+     * @return  der Abstand der Keyframes in Ticks
+     */
+    public int getKeyframeInterval(){
+        return keyframeInterval;
+    }
+    
+    @Override
+    public synchronized void onTick(long tick, Direction dir){
+        if(finished)
+            return;
+        
+//      Der Keyframe enthlt den Zustand vor der Bewegung in diesem Tick
+        if(keyframeRequested || tick - lastKeyframe >= keyframeInterval)
+            writeKeyframe(tick);
+        
+        if(dir != lastDirection){
+            beginEntry(ReplayFormat.DIRECTION, tick, 1);
+            buffer.put((byte) dir.ordinal());
+            lastDirection = dir;
+        }
+    }
+    
+    @Override
+    public synchronized void onFoodPlaced(int x, int y){
+        if(finished)
+            return;
+        
+        beginEntry(ReplayFormat.FOOD, engine.getTicks(), ReplayFormat.MAX_VARINT_SIZE);
+        ReplayFormat.putVarLong(buffer, y * engine.getPlayingGrid().getWidth() + x);
+    }
+    
+    @Override
+    public void onFoodEaten(int score){}
+    
+    @Override
+    public synchronized void onConfigApplied(GameConfig config){
+        if(finished)
+            return;
+        
+//      Die Einstellungen gelten ab dem nchsten Tick; die Schlange gibt an, mit welchen Regeln
+//      tatschlich gespielt wird (falls gecheatet wird, sind diese nicht die eingestellten)
+        Snake snake = engine.getSnake();
+        beginEntry(ReplayFormat.CONFIG, engine.getTicks() + 1, 2 * ReplayFormat.MAX_VARINT_SIZE + 1);
+        ReplayFormat.putVarLong(buffer, config.getColumns());
+        ReplayFormat.putVarLong(buffer, config.getRows());
+        buffer.put(getFlags(snake));
+        
+//      Da sich dabei das Spielfeld und die Schlange verndern knnen, wird im nchsten Tick
+//      ein Keyframe geschrieben, damit von dort aus gesprungen werden kann
+        keyframeRequested = true;
+    }
+    
+    @Override
+    public synchronized void onGameOver(GameEngine.EndCause cause){
+        if(finished)
+            return;
+        
+        writeEnd(engine.getTicks(), (byte) cause.ordinal());
+    }
+    
+    /**
+     * Diese Methode beendet die Aufzeichnung, und wartet, bis alle Eintrge in die Datei geschrieben
+     * wurden.<br>
+     * Ist das Spiel noch nicht vorbei, so wird die Aufzeichnung an dem derzeitigen Tick abgebrochen.
+     * @throws IOException  falls beim Schreiben ein Fehler aufgetreten ist
+     */
+    public void close() throws IOException{
+        synchronized(this){
+            if(!finished)
+                writeEnd(engine.getTicks(), ReplayFormat.END_ABORTED);
+        }
+        engine.removeGameListener(this);
+        
+        boolean interrupted = false;
+        while(writer.isAlive()){
+            try{
+                writer.join();
+            }catch(InterruptedException e){
+                interrupted = true;
+            }
+        }
+        if(interrupted)
+            Thread.currentThread().interrupt();
+        
+        if(failure != null)
+            throw failure;
+    }
+    
+    /**
+     * Diese Methode schreibt den letzten Eintrag, und gibt den letzten Puffer an den schreibenden
+     * Thread weiter, der die Datei danach schliet
+     * @param tick      Der Tick, in dem das Spiel vorbei ist
+     * @param cause     Der Grund fr das Ende
+     */
+    private void writeEnd(long tick, byte cause){
+        beginEntry(ReplayFormat.END, tick, 1 + ReplayFormat.MAX_VARINT_SIZE);
+        buffer.put(cause);
+        ReplayFormat.putVarLong(buffer, engine.getScore());
+        
+        finished = true;
+        pending.add(buffer);
+        pending.add(CLOSE);
+        buffer = null;
+    }
+    
+    /**
+     * Diese Methode schreibt einen Keyframe mit dem derzeitigen Zustand des Spiels, und gibt den
+     * Puffer danach an den schreibenden Thread weiter (wodurch bei einem Absturz hchstens die
+     * Eintrge seit dem letzten Keyframe verloren gehen)
+     * @param tick  Der Tick, vor dessen Bewegung der Zustand gilt
+     */
+    private void writeKeyframe(long tick){
+        Snake snake = engine.getSnake();
+        int length = snake.getLength();
+        if(cells.length < length)
+            cells = new int[Math.max(length, cells.length * 2)];
+        snake.copyCells(cells);
+        
+        beginEntry(ReplayFormat.KEYFRAME, tick, 8 + 2 + (length + 7) * ReplayFormat.MAX_VARINT_SIZE);
+        ReplayFormat.putVarLong(buffer, engine.getPlayingGrid().getWidth());
+        ReplayFormat.putVarLong(buffer, engine.getPlayingGrid().getHeight());
+        buffer.put(getFlags(snake));
+        buffer.putLong(engine.getRandomState());
+        ReplayFormat.putVarLong(buffer, snake.getScore());
+//      Gespeichert wird die Richtung des vorherigen Ticks, da die des derzeitigen Ticks bereits
+//      feststehen kann; diese folgt dann als eigener Eintrag
+        if(lastDirection == null)
+            lastDirection = snake.getDirection();
+        buffer.put((byte) lastDirection.ordinal());
+        ReplayFormat.putVarLong(buffer, engine.getFood().getyInGrid() * engine.getPlayingGrid().getWidth()
+                + engine.getFood().getxInGrid());
+        ReplayFormat.putVarLong(buffer, length);
+        
+//      Benachbarte Teile liegen meist auch auf benachbarten Feldern, weshalb die Abstnde
+//      meist nur ein Byte bentigen
+        int previous = 0;
+        for(int i = 0; i < length; i++){
+            ReplayFormat.putSignedVarLong(buffer, cells[i] - previous);
+            previous = cells[i];
+        }
+        
+        lastKeyframe = tick;
+        keyframeRequested = false;
+        
+        pending.add(buffer);
+        buffer = obtainBuffer(BUFFER_SIZE);
+    }
+    
+    /**
+     * Diese Methode beginnt einen neuen Eintrag, und stellt dabei sicher, dass in dem Puffer
+     * gengend Platz fr diesen ist
+     * @param type      Die Art des Eintrags
+     * @param tick      Der Tick, zu dem der Eintrag gehrt
+     * @param size      Die maximale Lnge des Inhalts des Eintrags in Bytes
+     */
+    private void beginEntry(byte type, long tick, int size){
+        size += 1 + ReplayFormat.MAX_VARINT_SIZE;
+        if(buffer.remaining() < size){
+            if(buffer.position() > 0)
+                pending.add(buffer);
+            buffer = obtainBuffer(size);
+        }
+        
+        buffer.put(type);
+        ReplayFormat.putVarLong(buffer, tick - lastTick);
+        lastTick = tick;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen einen leeren Puffer mit der gegebenen Mindestgre.<br>
+     * Dabei wird ein bereits geschriebener Puffer wiederverwendet, falls es einen gibt.
+     * @param size  Die Mindestgre des Puffers
+     * @return      der leere Puffer
+     */
+    private ByteBuffer obtainBuffer(int size){
+        if(size <= BUFFER_SIZE){
+            ByteBuffer b = free.poll();
+            if(b != null)
+                return b;
+        }
+        return ByteBuffer.allocate(Math.max(size, BUFFER_SIZE));
+    }
+    
+    /**
+     * Diese Methode wird von dem schreibenden Thread ausgefhrt, und schreibt alle weitergereichten
+     * Puffer in die Datei, bis die Aufzeichnung beendet ist
+     */
+    private void writeLoop(){
+        try{
+            while(true){
+                ByteBuffer b;
+                try{
+                    b = pending.take();
+                }catch(InterruptedException e){
+//                  Der Thread wird nur von close() beendet, damit keine Eintrge verloren gehen
+                    continue;
+                }
+                if(b == CLOSE)
+                    break;
+                
+                b.flip();
+                try{
+                    while(failure == null && b.hasRemaining())
+                        channel.write(b);
+                }catch(IOException e){
+                    failure = e;
+                }
+        
+//              Nur Puffer der normalen Gre werden wiederverwendet
+                b.clear();
+                if(b.capacity() == BUFFER_SIZE)
+                    free.add(b);
+            }
+        }finally{
+            try{
+                channel.close();
+            }catch(IOException e){
+                if(failure == null)
+                    failure = e;
+            }
+        }
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Regeln, mit denen die gegebene Schlange spielt, als ein Byte
+     * @param snake     Die Schlange
+     * @return          die Regeln (siehe {@link ReplayFormat#FLAG_INFINITE} und {@link ReplayFormat#FLAG_WITH_RULES})
+     */
+    private static byte getFlags(Snake snake){
+        return (byte) ((snake.isInfinite()? ReplayFormat.FLAG_INFINITE: 0)
+                | (snake.isWithRules()? ReplayFormat.FLAG_WITH_RULES: 0));
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Ordner, der mit der System-Property
+     * {@value ReplayRecorder#DIRECTORY_PROPERTY} festgelegt wurde
+     * @return  den Ordner, oder {@code null} falls keine Spiele aufgezeichnet werden sollen
+     */
+    public static Path getDefaultDirectory(){
+        try{
+            String dir = System.getProperty(DIRECTORY_PROPERTY);
+            if(dir == null || dir.isEmpty())
+                return null;
+            return Paths.get(dir);
+        }catch(RuntimeException e){
+//          z.B. falls die Property nicht gelesen werden darf, oder der Pfad ungltig ist
+            return null;
+        }
+    }
+    
+    /**
+     * Diese Methode beginnt die Aufzeichnung des gegebenen Spiels in einer neuen Datei in dem
+     * gegebenen Ordner
+     * @param engine        Das Spiel, das aufgezeichnet wird
+     * @param directory     Der Ordner, in dem die Datei erzeugt wird
+     * @return              der Recorder, der das Spiel aufzeichnet
+     * @throws IOException  falls die Datei nicht erzeugt werden kann
+     */
+    public static ReplayRecorder record(GameEngine engine, Path directory) throws IOException{
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "snake-" + engine.getConfig().getSeed() + "-", ".snkr");
+        return new ReplayRecorder(engine, file);
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.save;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import de.jeanpierrehotz.snake.GameConfig;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse speichert und liest {@link GameSnapshot}-Objekte in einem binren Format.<br>
+ * Eine gespeicherte Datei besteht aus {@link Checkpoint#MAGIC}, {@link Checkpoint#VERSION},
+ * den Einstellungen (Breite, Hhe, Regeln, Startwert), den tatschlichen Regeln der Schlange,
+ * den Ticks, dem Score, der Richtung, dem Food-Objekt, dem Zustand des Zufallsgenerators, der Lnge
+ * und den Teilen der Schlange (je ein int), der Anzahl und der Reihenfolge der freien Felder (je ein int),
+ * und endet wieder mit {@link Checkpoint#MAGIC}.<br>
+ * Beim Speichern wird zuerst eine temporre Datei geschrieben und auf die Festplatte gezwungen, die
+ * dann umbenannt wird; eine gespeicherte Datei ist also (auch nach einem Absturz) immer vollstndig
+ * entweder der alte oder der neue Stand.<br>
+ * Beim Lesen wird die Datei in den Speicher abgebildet, und die Teile der Schlange am Stck gelesen.
+ * @author Jean-Pierre Hotz
+ */
+public final class Checkpoint{
+    /**
+     * Der Name der System-Property, die die Datei angibt, in der das Spiel standardmig gespeichert
+     * wird (Standard: ~/.snake/savegame.bin; ein leerer Wert schaltet das Speichern ab)
+     */
+    public static final String FILE_PROPERTY = "snake.saveFile";
+    
+    /**
+     * Die Kennung am Anfang (und am Ende) jeder gespeicherten Datei ("SNKS")
+     */
+    private static final int MAGIC = 0x534E4B53;
+    /**
+     * Die Version des Dateiformats
+     */
+    private static final int VERSION = 1;
+    /**
+     * Die Lnge einer Datei ohne die Teile der Schlange in Bytes
+     */
+    private static final int FIXED_SIZE = 4 + 4 + (4 + 4 + 1 + 8) + 1 + 8 + 4 + 1 + 4 + 8 + 4 + 4 + 4;
+    
+    /**
+     * Das Bit der Regeln, das angibt, ob das Spielfeld unendlich ist
+     */
+    private static final int FLAG_INFINITE = 1;
+    /**
+     * Das Bit der Regeln, das angibt, ob sich die Schlange an Regeln halten muss
+     */
+    private static final int FLAG_WITH_RULES = 2;
+    /**
+     * Das Bit der Regeln, das angibt, ob gecheatet wird
+     */
+    private static final int FLAG_CHEATING = 4;
+    
+    /**
+     * Diese Klasse kann nicht instanziiert werden
+     */
+    private Checkpoint(){}
+    
+    /**
+     * Diese Methode speichert den gegebenen Snapshot in der gegebenen Datei.<br>
+     * Die Datei wird dabei nur (atomar) ersetzt, falls der Snapshot vollstndig geschrieben wurde.
+     * @param snapshot  Der Snapshot, der gespeichert wird
+     * @param file      Die Datei
+     * @throws IOException  falls die Datei nicht geschrieben werden kann
+     */
+    public static void write(GameSnapshot snapshot, Path file) throws IOException{
+        ByteBuffer buffer = encode(snapshot);
+        
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, "savegame", ".tmp");
+        try{
+            try(FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)){
+                while(buffer.hasRemaining())
+                    channel.write(buffer);
+//              Die Daten mssen auf der Festplatte sein, bevor die alte Datei ersetzt wird
+                channel.force(true);
+            }
+            
+            try{
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }catch(AtomicMoveNotSupportedException e){
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        }finally{
+            if(tmp != null){
+                try{
+                    Files.deleteIfExists(tmp);
+                }catch(IOException e){}
+            }
+        }
+    }
+    
+    /**
+     * Diese Methode liest einen Snapshot aus der gegebenen Datei
+     * @param file  Die Datei
+     * @return      der gelesene Snapshot
+     * @throws IOException  falls die Datei nicht gelesen werden kann, oder keinen (gltigen) Snapshot enthlt
+     */
+    public static GameSnapshot read(Path file) throws IOException{
+        ByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        
+        try{
+            return decode(buffer);
+        }catch(BufferUnderflowException | IllegalArgumentException e){
+            throw new IOException(file + " is not a valid savegame", e);
+        }
+    }
+    
+    /**
+     * Diese Methode schreibt den gegebenen Snapshot in einen neuen Puffer
+     * @param snapshot  Der Snapshot
+     * @return          der Puffer, bereit zum Lesen
+     */
+    private static ByteBuffer encode(GameSnapshot snapshot){
+        GameConfig config = snapshot.getConfig();
+        int length = snapshot.getLength();
+        int free = snapshot.getFreeCellCount();
+        
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + (length + free) * 4);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        
+        buffer.putInt(config.getColumns());
+        buffer.putInt(config.getRows());
+        buffer.put((byte) ((config.isInfinite()? FLAG_INFINITE: 0) | (config.isWithRules()? FLAG_WITH_RULES: 0)
+                | (config.isCheating()? FLAG_CHEATING: 0)));
+        buffer.putLong(config.getSeed());
+        
+        buffer.put((byte) ((snapshot.isInfinite()? FLAG_INFINITE: 0) | (snapshot.isWithRules()? FLAG_WITH_RULES: 0)));
+        buffer.putLong(snapshot.getTicks());
+        buffer.putInt(snapshot.getScore());
+        buffer.put((byte) snapshot.getDirection().ordinal());
+        buffer.putInt(snapshot.getFoodCell());
+        buffer.putLong(snapshot.getRandomState());
+        
+        buffer.putInt(length);
+        for(int i = 0; i < length; i++)
+            buffer.putInt(snapshot.getCell(i));
+        buffer.putInt(free);
+        for(int i = 0; i < free; i++)
+            buffer.putInt(snapshot.getFreeCell(i));
+        buffer.putInt(MAGIC);
+        
+        buffer.flip();
+        return buffer;
+    }
+    
+    /**
+     * Diese Methode liest einen Snapshot aus dem gegebenen Puffer
+     * @param buffer    Der Puffer
+     * @return          der gelesene Snapshot
+     * @throws IOException  falls der Puffer keinen gltigen Snapshot enthlt
+     */
+    private static GameSnapshot decode(ByteBuffer buffer) throws IOException{
+        if(buffer.getInt() != MAGIC)
+            throw new IOException("Not a savegame");
+        if(buffer.getInt() != VERSION)
+            throw new IOException("Unsupported savegame version");
+        
+        int columns = buffer.getInt();
+        int rows = buffer.getInt();
+        int configFlags = buffer.get();
+        long seed = buffer.getLong();
+        GameConfig config = new GameConfig(columns, rows, (configFlags & FLAG_INFINITE) != 0,
+                (configFlags & FLAG_WITH_RULES) != 0, (configFlags & FLAG_CHEATING) != 0, seed);
+        
+        int snakeFlags = buffer.get();
+        long ticks = buffer.getLong();
+        int score = buffer.getInt();
+        int direction = buffer.get();
+        int foodCell = buffer.getInt();
+        long randomState = buffer.getLong();
+        
+        int cellCount = columns * rows;
+        if(columns <= 0 || rows <= 0 || direction < 0 || direction >= Direction.values().length
+                || foodCell < 0 || foodCell >= cellCount)
+            throw new IOException("Corrupt savegame");
+        
+        int[] cells = readCells(buffer, 1, cellCount);
+        int[] freeCells = readCells(buffer, 0, cellCount);
+        if(buffer.getInt() != MAGIC || buffer.hasRemaining())
+            throw new IOException("Corrupt savegame");
+        
+        return new GameSnapshot(config, (snakeFlags & FLAG_INFINITE) != 0, (snakeFlags & FLAG_WITH_RULES) != 0,
+                ticks, score, Direction.values()[direction], cells, freeCells, foodCell, randomState);
+    }
+    
+    /**
+     * Diese Methode liest eine Anzahl und danach so viele Felder aus dem gegebenen Puffer.<br>
+     * Die Felder werden dabei am Stck aus der abgebildeten Datei kopiert.
+     * @param buffer        Der Puffer
+     * @param minCount      Die Mindestanzahl an Feldern
+     * @param cellCount     Die Anzahl an Feldern des Spielfelds
+     * @return              die gelesenen Felder
+     * @throws IOException  falls die Anzahl oder eines der Felder ungltig ist
+     */
+    private static int[] readCells(ByteBuffer buffer, int minCount, int cellCount) throws IOException{
+        int count = buffer.getInt();
+        if(count < minCount || count > cellCount || count > buffer.remaining() / 4)
+            throw new IOException("Corrupt savegame");
+        
+        int[] cells = new int[count];
+        buffer.asIntBuffer().get(cells);
+        buffer.position(buffer.position() + count * 4);
+        
+        for(int i = 0; i < count; i++){
+            if(cells[i] < 0 || cells[i] >= cellCount)
+                throw new IOException("Corrupt savegame");
+        }
+        return cells;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Datei, die mit der System-Property {@value Checkpoint#FILE_PROPERTY}
+     * festgelegt wurde
+     * @return  die Datei, oder {@code null} falls das Spiel nicht gespeichert werden soll
+     */
+    public static Path getDefaultFile(){
+        try{
+            String file = System.getProperty(FILE_PROPERTY);
+            if(file == null)
+                return Paths.get(System.getProperty("user.home"), ".snake", "savegame.bin");
+            if(file.isEmpty())
+                return null;
+            return Paths.get(file);
+        }catch(RuntimeException e){
+//          z.B. falls die Property nicht gelesen werden darf, oder der Pfad ungltig ist
+            return null;
+        }
+    }
+}
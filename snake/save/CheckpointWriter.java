@@ -0,0 +1,133 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.save;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Diese Klasse speichert {@link GameSnapshot}-Objekte mit einem eigenen Thread, damit der Thread des
+ * Spiels nie auf die Festplatte warten muss.<br>
+ * Es wird immer nur der neueste Snapshot gespeichert: Wird ein Snapshot bergeben, whrend der
+ * vorherige noch nicht gespeichert wurde, so ersetzt er diesen.
+ * @author Jean-Pierre Hotz
+ */
+public class CheckpointWriter{
+    /**
+     * Dieses Objekt wird zum Warten der Threads benutzt
+     */
+    private final Object lock = new Object();
+    /**
+     * Der Thread, der die Snapshots speichert
+     */
+    private final Thread thread;
+    
+    /**
+     * Der Snapshot, der als nchstes gespeichert wird (oder {@code null})
+     */
+    private GameSnapshot pending;
+    /**
+     * Die Datei, in der der nchste Snapshot gespeichert wird
+     */
+    private Path pendingFile;
+    /**
+     * Diese Variable gibt an, ob der Thread gerade einen Snapshot speichert
+     */
+    private boolean writing;
+    /**
+     * Der Fehler, der beim letzten Speichern aufgetreten ist, oder {@code null}
+     */
+    private IOException failure;
+    
+    /**
+     * Dieser Konstruktor erzeugt einen CheckpointWriter, und startet dessen Thread
+     * @param name  Der Name des Threads
+     */
+    public CheckpointWriter(String name){
+        this.thread = new Thread(new Runnable(){
+            @Override
+            public void run(){
+                writeLoop();
+            }
+        }, name);
+//      Der Thread soll das Beenden des Programms nicht verhindern (siehe dafr flush())
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+    
+    /**
+     * Diese Methode bergibt den gegebenen Snapshot an den Thread, und kehrt sofort zurck
+     * @param snapshot  Der Snapshot, der gespeichert wird
+     * @param file      Die Datei, in der er gespeichert wird
+     */
+    public void save(GameSnapshot snapshot, Path file){
+        synchronized(lock){
+            pending = snapshot;
+            pendingFile = file;
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Diese Methode wartet, bis alle bergebenen Snapshots gespeichert wurden
+     * @throws IOException  falls beim Speichern des letzten Snapshots ein Fehler aufgetreten ist
+     */
+    public void flush() throws IOException{
+        boolean interrupted = false;
+        synchronized(lock){
+            while(pending != null || writing){
+                try{
+                    lock.wait();
+                }catch(InterruptedException e){
+                    interrupted = true;
+                }
+            }
+            if(interrupted)
+                Thread.currentThread().interrupt();
+            
+            IOException e = failure;
+            failure = null;
+            if(e != null)
+                throw e;
+        }
+    }
+    
+    /**
+     * Diese Methode wird von dem Thread ausgefhrt, und speichert alle bergebenen Snapshots
+     */
+    private void writeLoop(){
+        while(true){
+            GameSnapshot snapshot;
+            Path file;
+            synchronized(lock){
+                while(pending == null){
+                    try{
+                        lock.wait();
+                    }catch(InterruptedException e){
+//                      Der Thread luft so lange wie das Programm
+                    }
+                }
+                snapshot = pending;
+                file = pendingFile;
+                pending = null;
+                writing = true;
+            }
+            
+            IOException error = null;
+            try{
+                Checkpoint.write(snapshot, file);
+            }catch(IOException e){
+                error = e;
+            }
+            
+            synchronized(lock){
+                failure = error;
+                writing = false;
+                lock.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.save;
+
+import de.jeanpierrehotz.snake.GameConfig;
+import de.jeanpierrehotz.snake.GameEngine;
+import de.jeanpierrehotz.snake.parts.Food;
+import de.jeanpierrehotz.snake.parts.Snake;
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+import de.jeanpierrehotz.snake.parts.Snake.Direction;
+
+/**
+ * Diese Klasse reprsentiert den vollstndigen Zustand eines Spiels zu einem Zeitpunkt.<br>
+ * Ein Snapshot wird mit {@link GameSnapshot#of(GameEngine)} von dem Thread erzeugt, der das Spiel
+ * ausfhrt; dabei werden nur die Teile der Schlange (einmal, am Stck) kopiert. Danach ist der
+ * Snapshot unvernderlich, und kann von einem anderen Thread gespeichert werden, whrend das Spiel
+ * bereits weiterluft (siehe {@link CheckpointWriter}).
+ * @author Jean-Pierre Hotz
+ */
+public class GameSnapshot{
+    /**
+     * Die Einstellungen des Spiels
+     */
+    private final GameConfig config;
+    /**
+     * Ob das Spielfeld fr die Schlange tatschlich unendlich ist
+     */
+    private final boolean infinite;
+    /**
+     * Ob sich die Schlange tatschlich an Regeln halten muss
+     */
+    private final boolean withRules;
+    /**
+     * Die Anzahl an bereits ausgefhrten Ticks
+     */
+    private final long ticks;
+    /**
+     * Der Score der Schlange
+     */
+    private final int score;
+    /**
+     * Die Richtung, in die die Schlange geht
+     */
+    private final Direction direction;
+    /**
+     * Die gepackten Koordinaten der Teile der Schlange (beginnend mit dem Kopf)
+     */
+    private final int[] cells;
+    /**
+     * Die freien Felder in der Reihenfolge, in der das Spielfeld sie speichert
+     * (siehe {@link SnakePlayingGrid#copyFreeCells(int[])}); leer, falls das Spielfeld
+     * die freien Felder nicht auflistet
+     */
+    private final int[] freeCells;
+    /**
+     * Die gepackte Koordinate des Food-Objekts
+     */
+    private final int foodCell;
+    /**
+     * Der Zustand des Zufallsgenerators des Spiels
+     */
+    private final long randomState;
+    
+    /**
+     * Dieser Konstruktor erzeugt einen Snapshot mit den gegebenen Werten.<br>
+     * Die Arrays werden dabei bernommen (und nicht kopiert).
+     * @param config        Die Einstellungen des Spiels
+     * @param infinite      Ob das Spielfeld fr die Schlange tatschlich unendlich ist
+     * @param withRules     Ob sich die Schlange tatschlich an Regeln halten muss
+     * @param ticks         Die Anzahl an bereits ausgefhrten Ticks
+     * @param score         Der Score der Schlange
+     * @param direction     Die Richtung, in die die Schlange geht
+     * @param cells         Die gepackten Koordinaten der Teile der Schlange (beginnend mit dem Kopf)
+     * @param freeCells     Die freien Felder in der Reihenfolge, in der das Spielfeld sie speichert
+     * @param foodCell      Die gepackte Koordinate des Food-Objekts
+     * @param randomState   Der Zustand des Zufallsgenerators des Spiels
+     */
+    GameSnapshot(GameConfig config, boolean infinite, boolean withRules, long ticks, int score,
+            Direction direction, int[] cells, int[] freeCells, int foodCell, long randomState){
+        this.config = config;
+        this.infinite = infinite;
+        this.withRules = withRules;
+        this.ticks = ticks;
+        this.score = score;
+        this.direction = direction;
+        this.cells = cells;
+        this.freeCells = freeCells;
+        this.foodCell = foodCell;
+        this.randomState = randomState;
+    }
+    
+    /**
+     * Diese Methode erzeugt einen Snapshot des derzeitigen Zustands des gegebenen Spiels.<br>
+     * Sie muss von dem Thread aufgerufen werden, der das Spiel ausfhrt (oder whrend das Spiel
+     * pausiert ist), und kopiert dabei lediglich die Teile der Schlange und die freien Felder.
+     * @param engine    Das Spiel
+     * @return          der Snapshot des Spiels
+     */
+    public static GameSnapshot of(GameEngine engine){
+        Snake snake = engine.getSnake();
+        Food food = engine.getFood();
+        int[] cells = new int[snake.getLength()];
+        snake.copyCells(cells);
+        SnakePlayingGrid grid = engine.getPlayingGrid();
+        int[] freeCells = new int[grid.isListingFreeCells()? grid.getFreeCellCount(): 0];
+        grid.copyFreeCells(freeCells);
+        
+        return new GameSnapshot(engine.getConfig(), snake.isInfinite(), snake.isWithRules(), engine.getTicks(),
+                snake.getScore(), snake.getDirection(), cells, freeCells,
+                food.getyInGrid() * engine.getPlayingGrid().getWidth() + food.getxInGrid(), engine.getRandomState());
+    }
+    
+    /**
+     * Diese Methode erzeugt ein neues Spiel mit dem Zustand dieses Snapshots
+     * @return  das wiederhergestellte Spiel
+     */
+    public GameEngine toEngine(){
+        GameEngine engine = new GameEngine(config);
+        engine.restore(ticks, score, direction, cells, cells.length, foodCell, randomState);
+//      Die Reihenfolge der freien Felder bestimmt, wo die nchsten Food-Objekte erzeugt werden
+        engine.getPlayingGrid().restoreFreeCells(freeCells, freeCells.length);
+        
+//      Die Regeln der Schlange knnen von den Einstellungen abweichen (z.B. falls gecheatet wird)
+        engine.getSnake().setInfinite(infinite);
+        engine.getSnake().setWithRules(withRules);
+        return engine;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Einstellungen des Spiels
+     * @return  die Einstellungen des Spiels
+     */
+    public GameConfig getConfig(){
+        return config;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob das Spielfeld fr die Schlange tatschlich unendlich ist
+     * @return  ob das Spielfeld unendlich ist
+     */
+    public boolean isInfinite(){
+        return infinite;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob sich die Schlange tatschlich an Regeln halten muss
+     * @return  ob sich die Schlange an Regeln halten muss
+     */
+    public boolean isWithRules(){
+        return withRules;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an bereits ausgefhrten Ticks
+     * @return  die Anzahl an Ticks
+     */
+    public long getTicks(){
+        return ticks;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Score der Schlange
+     * @return  den Score der Schlange
+     */
+    public int getScore(){
+        return score;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Richtung, in die die Schlange geht
+     * @return  die Richtung der Schlange
+     */
+    public Direction getDirection(){
+        return direction;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl der Teile der Schlange
+     * @return  die Lnge der Schlange
+     */
+    public int getLength(){
+        return cells.length;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die gepackte Koordinate des i-ten Teils der Schlange
+     * @param i     Der Index des Teils (0 ist der Kopf)
+     * @return      die gepackte Koordinate (y * Spielfeldbreite + x)
+     */
+    public int getCell(int i){
+        return cells[i];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl der freien Felder
+     * @return  die Anzahl der freien Felder
+     */
+    public int getFreeCellCount(){
+        return freeCells.length;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen das i-te freie Feld in der Reihenfolge, in der das Spielfeld sie speichert
+     * @param i     Der Index des freien Felds
+     * @return      die gepackte Koordinate (y * Spielfeldbreite + x)
+     */
+    public int getFreeCell(int i){
+        return freeCells[i];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die gepackte Koordinate des Food-Objekts
+     * @return  die gepackte Koordinate (y * Spielfeldbreite + x)
+     */
+    public int getFoodCell(){
+        return foodCell;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Zustand des Zufallsgenerators des Spiels
+     * @return  den Zustand des Zufallsgenerators
+     */
+    public long getRandomState(){
+        return randomState;
+    }
+}
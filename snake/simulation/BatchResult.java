@@ -0,0 +1,150 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.simulation;
+
+import de.jeanpierrehotz.snake.GameEngine.EndCause;
+
+/**
+ * Diese Klasse reprsentiert die Ergebnisse einer Reihe von simulierten Spielen,
+ * und fasst diese zusammen
+ * @author Jean-Pierre Hotz
+ * @see BatchSimulation
+ */
+public class BatchResult{
+    /**
+     * Die Ergebnisse der einzelnen Spiele (in der Reihenfolge ihrer Startwerte)
+     */
+    private final GameResult[] results;
+    /**
+     * Die (reale) Zeit, die fr die gesamte Simulation bentigt wurde in ns
+     */
+    private final long wallTime;
+    
+    /**
+     * Diese Variablen fassen die Ergebnisse zusammen
+     */
+    private final long totalTicks, totalScore;
+    private final int minScore, maxScore;
+    /**
+     * Dieses Array zhlt fr jeden Grund (Index {@link EndCause#ordinal()}) die Spiele,
+     * die aus diesem Grund vorbei sind; der letzte Eintrag zhlt die abgebrochenen Spiele
+     */
+    private final int[] causeCounts;
+    
+    /**
+     * Dieser Konstruktor erzeugt eine Zusammenfassung der gegebenen Ergebnisse
+     * @param results   Die Ergebnisse der einzelnen Spiele
+     * @param wallTime  Die fr die gesamte Simulation bentigte Zeit in ns
+     */
+    public BatchResult(GameResult[] results, long wallTime){
+        this.results = results;
+        this.wallTime = wallTime;
+        this.causeCounts = new int[EndCause.values().length + 1];
+        
+        long ticks = 0, score = 0;
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for(GameResult r : results){
+            ticks += r.getTicks();
+            score += r.getScore();
+            min = Math.min(min, r.getScore());
+            max = Math.max(max, r.getScore());
+            causeCounts[(r.getEndCause() == null)? causeCounts.length - 1: r.getEndCause().ordinal()]++;
+        }
+        this.totalTicks = ticks;
+        this.totalScore = score;
+        this.minScore = (results.length == 0)? 0: min;
+        this.maxScore = (results.length == 0)? 0: max;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Ergebnisse der einzelnen Spiele
+     * @return  die Ergebnisse der einzelnen Spiele
+     */
+    public GameResult[] getResults(){
+        return results;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an simulierten Spielen
+     * @return  die Anzahl an Spielen
+     */
+    public int getGameCount(){
+        return results.length;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Ticks aller Spiele
+     * @return  die Anzahl an Ticks
+     */
+    public long getTotalTicks(){
+        return totalTicks;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den durchschnittlichen Score der Spiele
+     * @return  der durchschnittliche Score
+     */
+    public double getMeanScore(){
+        return (results.length == 0)? 0: (double) totalScore / results.length;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den kleinsten Score der Spiele
+     * @return  der kleinste Score
+     */
+    public int getMinScore(){
+        return minScore;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den grten Score der Spiele
+     * @return  der grte Score
+     */
+    public int getMaxScore(){
+        return maxScore;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Spielen, die aus dem gegebenen Grund vorbei sind
+     * @param cause     Der Grund fr das Ende der Spiele, oder {@code null} fr abgebrochene Spiele
+     * @return          die Anzahl an Spielen
+     */
+    public int getCount(EndCause cause){
+        return causeCounts[(cause == null)? causeCounts.length - 1: cause.ordinal()];
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die fr die gesamte Simulation bentigte Zeit
+     * @return  die bentigte Zeit in ns
+     */
+    public long getWallTime(){
+        return wallTime;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Ticks, die (ber alle Threads) pro Sekunde
+     * simuliert wurden
+     * @return  die Anzahl an Ticks pro Sekunde
+     */
+    public double getTicksPerSecond(){
+        return (wallTime == 0)? 0: totalTicks * 1e9 / wallTime;
+    }
+    
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder();
+        sb.append("games=").append(results.length)
+          .append(", ticks=").append(totalTicks)
+          .append(", score(min/mean/max)=").append(minScore).append('/')
+          .append(String.format("%.2f", getMeanScore())).append('/').append(maxScore);
+        for(EndCause cause : EndCause.values())
+            sb.append(", ").append(cause.name()).append('=').append(getCount(cause));
+        sb.append(", TICK_LIMIT=").append(getCount(null))
+          .append(", wallTime=").append(wallTime / 1000000).append("ms")
+          .append(", ticks/s=").append(String.format("%.0f", getTicksPerSecond()));
+        return sb.toString();
+    }
+}
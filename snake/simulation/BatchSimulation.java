@@ -0,0 +1,165 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.jeanpierrehotz.snake.GameConfig;
+import de.jeanpierrehotz.snake.GameEngine;
+
+/**
+ * Diese Klasse simuliert eine Reihe von Spielen mit den gleichen Einstellungen ohne UI und
+ * ohne zeitliche Verzgerung auf allen Prozessorkernen.<br>
+ * Das i-te Spiel wird dabei mit dem Startwert (erster Startwert + i) gespielt, weshalb jedes
+ * Spiel einzeln reproduziert werden kann. Da sich die Spiele keinen Zustand teilen, skaliert
+ * der Durchsatz (nahezu) linear mit der Anzahl an Prozessorkernen.
+ * @author Jean-Pierre Hotz
+ */
+public class BatchSimulation{
+    /**
+     * Unterhalb dieser Anzahl an Spielen wird eine Aufgabe nicht weiter aufgeteilt
+     */
+    private static final int GAMES_PER_TASK = 4;
+    
+    /**
+     * Die Einstellungen, mit denen jedes Spiel gespielt wird (der Startwert wird ersetzt)
+     */
+    private final GameConfig config;
+    /**
+     * Die Anzahl an Ticks, nach der ein Spiel abgebrochen wird
+     */
+    private final long maxTicks;
+    /**
+     * Der Pool, in dem die Spiele simuliert werden
+     */
+    private final ForkJoinPool pool;
+    
+    /**
+     * Dieser Konstruktor erzeugt eine Simulation, die auf allen Prozessorkernen ausgefhrt wird
+     * @param config    Die Einstellungen, mit denen jedes Spiel gespielt wird
+     * @param maxTicks  Die Anzahl an Ticks, nach der ein Spiel abgebrochen wird (z.B. weil
+     *                  die Schlange ohne Regeln nie stirbt)
+     */
+    public BatchSimulation(GameConfig config, long maxTicks){
+        this(config, maxTicks, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Dieser Konstruktor erzeugt eine Simulation, die mit der gegebenen Anzahl an Threads ausgefhrt wird
+     * @param config        Die Einstellungen, mit denen jedes Spiel gespielt wird
+     * @param maxTicks      Die Anzahl an Ticks, nach der ein Spiel abgebrochen wird
+     * @param parallelism   Die Anzahl an Threads
+     */
+    public BatchSimulation(GameConfig config, long maxTicks, int parallelism){
+        this.config = config;
+        this.maxTicks = maxTicks;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+    
+    /**
+     * Diese Methode simuliert die gegebene Anzahl an Spielen, und wartet, bis alle vorbei sind
+     * @param firstSeed     Der Startwert des ersten Spiels
+     * @param count         Die Anzahl an Spielen
+     * @return              die Ergebnisse der Spiele
+     */
+    public BatchResult run(long firstSeed, int count){
+        GameResult[] results = new GameResult[count];
+        
+        long start = System.nanoTime();
+        pool.invoke(new SimulationTask(results, firstSeed, 0, count));
+        
+        return new BatchResult(results, System.nanoTime() - start);
+    }
+    
+    /**
+     * Diese Methode beendet die Threads der Simulation
+     */
+    public void shutdown(){
+        pool.shutdown();
+    }
+    
+    /**
+     * Diese Methode simuliert ein einzelnes Spiel mit dem gegebenen Startwert
+     * @param seed  Der Startwert des Spiels
+     * @return      das Ergebnis des Spiels
+     */
+    public GameResult runGame(long seed){
+        long start = System.nanoTime();
+        
+        GameEngine engine = new GameEngine(new GameConfig(
+                config.getColumns(), config.getRows(),
+                config.isInfinite(), config.isWithRules(), config.isCheating(),
+                seed
+        ));
+        
+//      Das Spiel wird so lange ohne Verzgerung ausgefhrt, bis es vorbei ist, oder
+//      die maximale Anzahl an Ticks erreicht wurde
+        while(!engine.isGameOver() && engine.getTicks() < maxTicks)
+            engine.step();
+        
+        return new GameResult(seed, engine.getScore(), engine.getTicks(), engine.getEndCause(), System.nanoTime() - start);
+    }
+    
+    /**
+     * Diese Klasse reprsentiert die Simulation eines Bereichs der Spiele, die so lange
+     * aufgeteilt wird, bis nur noch wenige Spiele brig sind
+     * @author Jean-Pierre Hotz
+     */
+    private class SimulationTask extends RecursiveAction{
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final GameResult[] results;
+        private final long firstSeed;
+        private final int from, to;
+        
+        private SimulationTask(GameResult[] results, long firstSeed, int from, int to){
+            this.results = results;
+            this.firstSeed = firstSeed;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute(){
+            if(to - from <= GAMES_PER_TASK){
+                for(int i = from; i < to; i++)
+                    results[i] = runGame(firstSeed + i);
+            }else{
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                        new SimulationTask(results, firstSeed, from, mid),
+                        new SimulationTask(results, firstSeed, mid, to)
+                );
+            }
+        }
+    }
+    
+    /**
+     * Diese Methode wird von der Kommandozeile aufgerufen, und gibt die Zusammenfassung
+     * der simulierten Spiele aus.<br>
+     * Argumente: Spalten Zeilen unendlich(true/false) mitRegeln(true/false) ersterStartwert Anzahl [maxTicks]
+     * @param args  Die von der Kommandozeile bergebenen Argumente
+     */
+    public static void main(String[] args){
+        if(args.length < 6){
+            System.out.println("Usage: BatchSimulation <columns> <rows> <infinite> <withRules> <firstSeed> <count> [maxTicks]");
+            return;
+        }
+        
+        GameConfig config = new GameConfig(
+                Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+                Boolean.parseBoolean(args[2]), Boolean.parseBoolean(args[3]),
+                true
+        );
+        long maxTicks = (args.length > 6)? Long.parseLong(args[6]): 10000000L;
+        
+        BatchSimulation simulation = new BatchSimulation(config, maxTicks);
+        System.out.println(simulation.run(Long.parseLong(args[4]), Integer.parseInt(args[5])));
+        simulation.shutdown();
+    }
+}
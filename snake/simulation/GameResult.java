@@ -0,0 +1,109 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.snake.simulation;
+
+import de.jeanpierrehotz.snake.GameEngine.EndCause;
+
+/**
+ * Diese Klasse reprsentiert das Ergebnis eines einzelnen, ohne UI simulierten Spiels
+ * @author Jean-Pierre Hotz
+ * @see BatchSimulation
+ */
+public class GameResult{
+    /**
+     * Der Startwert des Zufallsgenerators, mit dem das Spiel gespielt wurde
+     */
+    private final long seed;
+    /**
+     * Der Score, den die Schlange am Ende des Spiels hatte
+     */
+    private final int score;
+    /**
+     * Die Anzahl an Ticks, die das Spiel gedauert hat
+     */
+    private final long ticks;
+    /**
+     * Der Grund, weshalb das Spiel vorbei ist, oder {@code null}, falls das Spiel wegen der
+     * maximalen Anzahl an Ticks abgebrochen wurde
+     */
+    private final EndCause endCause;
+    /**
+     * Die (reale) Zeit, die fr die Simulation des Spiels bentigt wurde in ns
+     */
+    private final long wallTime;
+    
+    /**
+     * Dieser Konstruktor erzeugt ein Ergebnis mit den gegebenen Werten
+     * @param seed      Der Startwert des Zufallsgenerators des Spiels
+     * @param score     Der Score am Ende des Spiels
+     * @param ticks     Die Anzahl an Ticks des Spiels
+     * @param endCause  Der Grund fr das Ende des Spiels, oder {@code null}
+     * @param wallTime  Die bentigte Zeit in ns
+     */
+    public GameResult(long seed, int score, long ticks, EndCause endCause, long wallTime){
+        this.seed = seed;
+        this.score = score;
+        this.ticks = ticks;
+        this.endCause = endCause;
+        this.wallTime = wallTime;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Startwert des Zufallsgenerators des Spiels
+     * @return  der Startwert
+     */
+    public long getSeed(){
+        return seed;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Score am Ende des Spiels
+     * @return  der Score
+     */
+    public int getScore(){
+        return score;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Anzahl an Ticks des Spiels
+     * @return  die Anzahl an Ticks
+     */
+    public long getTicks(){
+        return ticks;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen den Grund, weshalb das Spiel vorbei ist
+     * @return  der Grund fr das Ende des Spiels, oder {@code null} falls das Spiel wegen
+     *          der maximalen Anzahl an Ticks abgebrochen wurde
+     */
+    public EndCause getEndCause(){
+        return endCause;
+    }
+    
+    /**
+     * Diese Methode zeigt ihnen, ob das Spiel wegen der maximalen Anzahl an Ticks abgebrochen wurde
+     * @return  ob das Spiel abgebrochen wurde
+     */
+    public boolean reachedTickLimit(){
+        return endCause == null;
+    }
+    
+    /**
+     * Diese Methode gibt ihnen die Zeit, die fr die Simulation des Spiels bentigt wurde
+     * @return  die bentigte Zeit in ns
+     */
+    public long getWallTime(){
+        return wallTime;
+    }
+    
+    @Override
+    public String toString(){
+        return "seed=" + seed + ", score=" + score + ", ticks=" + ticks
+                + ", cause=" + ((endCause == null)? "TICK_LIMIT": endCause.name())
+                + ", wallTime=" + (wallTime / 1000000.0) + "ms";
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.ui;
+
+import java.awt.Canvas;
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Diese Klasse reprsentiert das aktive Rendern eines Spiels auf einem Canvas.<br>
+ * Statt ber {@link java.awt.Component#repaint()} (und somit ber die Warteschlange des
+ * Event-Dispatch-Threads, die Aufrufe beliebig zusammenfasst) wird jeder Frame von einem eigenen
+ * Thread gezeichnet, und mit einer {@link BufferStrategy} (Page Flipping) ausgegeben.<br>
+ * Das Spiel wird dabei inkrementell auf ein Bild gezeichnet, das zwischen den Frames erhalten
+ * bleibt, da der Inhalt des hinteren Puffers nach dem Umschalten nicht definiert ist. Dieses Bild
+ * wird dann pro Frame einmal in den hinteren Puffer kopiert.<br>
+ * Die Frames werden hchstens mit der Bildwiederholrate des Bildschirms ausgegeben; mehrere
+ * angeforderte Frames dazwischen werden zu einem zusammengefasst.
+ * @author Jean-Pierre Hotz
+ */
+public class ActiveRenderer{
+    /**
+     * Dieses Interface reprsentiert das Zeichnen eines Frames
+     * @author Jean-Pierre Hotz
+     */
+    public static interface Painter{
+        /**
+         * Diese Methode zeichnet den Frame auf das Bild, das zwischen den Frames erhalten bleibt
+         * @param g     Das Graphics-Objekt des Bilds
+         * @param full  ob das gesamte Bild neu gezeichnet werden muss
+         */
+        public void paintFrame(Graphics g, boolean full);
+    }
+    
+    /**
+     * Die Bildwiederholrate, die angenommen wird, falls sie nicht ermittelt werden kann
+     */
+    private static final int DEFAULT_REFRESH_RATE = 60;
+    
+    /**
+     * Der Canvas, auf dem gerendert wird
+     */
+    private final Canvas canvas;
+    /**
+     * Das Objekt, das die Frames zeichnet
+     */
+    private final Painter painter;
+    /**
+     * Der Thread, in dem gerendert wird
+     */
+    private final Thread thread;
+    /**
+     * Dieses Objekt wird zum Warten des Threads auf den nchsten Frame benutzt
+     */
+    private final Object lock = new Object();
+    
+    /**
+     * Diese Variablen geben an, ob gerendert werden soll, ob ein Frame angefordert wurde,
+     * ob dieser vollstndig gezeichnet werden muss, und ob der Renderer (endgltig) beendet wurde
+     */
+    private boolean active, frameRequested, fullRequested, disposed;
+    /**
+     * Der minimale Abstand zwischen zwei Frames in ns
+     */
+    private volatile long frameInterval;
+    
+    /**
+     * Die BufferStrategy des Canvas
+     */
+    private BufferStrategy strategy;
+    /**
+     * Das Bild, auf das das Spiel inkrementell gezeichnet wird, und dessen Graphics-Objekt
+     */
+    private Image layer;
+    private Graphics layerGraphics;
+    
+    /**
+     * Dieser Konstruktor erzeugt einen (noch nicht aktiven) Renderer fr den gegebenen Canvas.
+     * Der Thread wird dabei bereits gestartet.
+     * @param canvas    Der Canvas, auf dem gerendert wird
+     * @param painter   Das Objekt, das die Frames zeichnet
+     * @param name      Der Name des Threads
+     */
+    public ActiveRenderer(Canvas canvas, Painter painter, String name){
+        this.canvas = canvas;
+        this.painter = painter;
+        this.frameInterval = 1000000000L / DEFAULT_REFRESH_RATE;
+        
+//      Der Canvas wird ausschlielich von diesem Renderer gezeichnet
+        this.canvas.setIgnoreRepaint(true);
+        
+        this.thread = new Thread(new Runnable(){
+            @Override
+            public void run(){
+                loop();
+            }
+        }, name);
+//      Der Thread soll das Beenden des Programms nicht verhindern
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+    
+    /**
+     * Diese Methode lsst den Renderer (wieder) rendern; der erste Frame wird vollstndig gezeichnet.
+     * Der Canvas muss dazu sichtbar sein.
+     */
+    public void start(){
+//      Wir ermitteln die Bildwiederholrate des Bildschirms, auf dem der Canvas liegt
+        int refreshRate = DisplayMode.REFRESH_RATE_UNKNOWN;
+        GraphicsConfiguration gc = canvas.getGraphicsConfiguration();
+        if(gc != null)
+            refreshRate = gc.getDevice().getDisplayMode().getRefreshRate();
+        if(refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN)
+            refreshRate = DEFAULT_REFRESH_RATE;
+        frameInterval = 1000000000L / refreshRate;
+        
+        synchronized(lock){
+            active = true;
+            frameRequested = true;
+            fullRequested = true;
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Diese Methode lsst den Renderer aufhren zu rendern. Ein Frame, der gerade gezeichnet
+     * wird, wird noch beendet.
+     */
+    public void stop(){
+        synchronized(lock){
+            active = false;
+        }
+    }
+    
+    /**
+     * Diese Methode fordert einen neuen Frame an. Diese Methode wartet nicht auf das Zeichnen.
+     */
+    public void requestFrame(){
+        synchronized(lock){
+            frameRequested = true;
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Diese Methode beendet den Renderer endgltig
+     */
+    public void dispose(){
+        synchronized(lock){
+            disposed = true;
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Diese Methode wird von dem Thread des Renderers ausgefhrt
+     */
+    private void loop(){
+//      Der Zeitpunkt, zu dem der letzte Frame ausgegeben wurde
+        long lastFrame = System.nanoTime() - frameInterval;
+        
+        while(true){
+//          Wir warten, bis ein Frame angefordert wird
+            synchronized(lock){
+                while(!disposed && !(active && frameRequested)){
+                    try{
+                        lock.wait();
+                    }catch(InterruptedException e){
+                        e.printStackTrace();
+                    }
+                }
+                if(disposed)
+                    return;
+            }
+            
+//          Dann warten wir (falls ntig), bis der nchste Frame ausgegeben werden darf;
+//          Frames, die bis dahin angefordert werden, werden somit zusammengefasst
+            long wait = lastFrame + frameInterval - System.nanoTime();
+            if(wait > 0)
+                LockSupport.parkNanos(wait);
+            
+            boolean full;
+            synchronized(lock){
+                if(!active)
+                    continue;
+                frameRequested = false;
+                full = fullRequested;
+                fullRequested = false;
+            }
+            
+            render(full);
+            lastFrame = System.nanoTime();
+        }
+    }
+    
+    /**
+     * Diese Methode zeichnet einen Frame, und gibt ihn aus
+     * @param full  ob das gesamte Bild neu gezeichnet werden muss
+     */
+    private void render(boolean full){
+        int w = canvas.getWidth();
+        int h = canvas.getHeight();
+        
+//      Ohne sichtbaren Canvas kann nichts ausgegeben werden
+        if(w <= 0 || h <= 0 || !canvas.isDisplayable())
+            return;
+        
+        if(strategy == null){
+            canvas.createBufferStrategy(2);
+            strategy = canvas.getBufferStrategy();
+        }
+        
+//      Falls es noch kein Bild gibt, oder sich die Gre gendert hat, wird ein neues erzeugt
+        if(layer == null || layer.getWidth(null) != w || layer.getHeight(null) != h){
+            if(layerGraphics != null)
+                layerGraphics.dispose();
+            layer = canvas.getGraphicsConfiguration().createCompatibleImage(w, h);
+            layerGraphics = layer.getGraphics();
+            full = true;
+        }
+        
+//      Das Spiel wird (inkrementell) auf das Bild gezeichnet
+        painter.paintFrame(layerGraphics, full);
+        
+//      Und das Bild in den hinteren Puffer kopiert, und ausgegeben. Falls der Inhalt der Puffer
+//      dabei verloren geht, muss das ganze wiederholt werden
+        do{
+            do{
+                Graphics g = strategy.getDrawGraphics();
+                g.drawImage(layer, 0, 0, null);
+                g.dispose();
+            }while(strategy.contentsRestored());
+            
+            strategy.show();
+        }while(strategy.contentsLost());
+        
+//      Schlussendlich stellen wir sicher, dass der Frame auch tatschlich angezeigt wird
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
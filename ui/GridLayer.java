@@ -0,0 +1,201 @@
+/*
+ * Diese Klasse ist von Jean-Pierre Hotz geschrieben worden, und gehrt zu einem
+ * CT-Projekt, in dem einige Eigenschaften von Enumerations und Exceptions 
+ * herausgearbeitet werden sollen.
+ */
+package de.jeanpierrehotz.ui;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+import de.jeanpierrehotz.snake.parts.SnakePlayingGrid;
+
+/**
+ * Diese Klasse reprsentiert ein zwischengespeichertes Bild eines Spielfelds (Hintergrund,
+ * Aussenrand und evtl. die Linien des Spielfelds).<br>
+ * Da sich das Spielfeld nur ndert, wenn dessen Gre, Zeichengre oder die Eigenschaft,
+ * ob es gezeichnet werden soll, gendert wird (siehe {@link SnakePlayingGrid#getLayoutVersion()}),
+ * wird es nur dann neu gezeichnet, und ansonsten nur noch das Bild ausgegeben.<br>
+ * Das Bild wird (wenn mglich) als VolatileImage im Grafikspeicher gehalten, und ansonsten
+ * als BufferedImage. Wre das Bild grer als {@link GridLayer#MAX_PIXELS}, so wird das
+ * Spielfeld wie bisher direkt gezeichnet.
+ * @author Jean-Pierre Hotz
+ */
+public class GridLayer{
+    /**
+     * Die grte Anzahl an Pixeln, die das Bild haben darf (16 MB bei 4 Byte pro Pixel)
+     */
+    public static final int MAX_PIXELS = 4 * 1024 * 1024;
+    
+    /**
+     * Die Komponente, auf der das Spielfeld ausgegeben wird
+     */
+    private Component component;
+    
+    /**
+     * Das zwischengespeicherte Bild des Spielfelds (ein VolatileImage oder ein BufferedImage)
+     */
+    private Image image;
+    /**
+     * Diese Variablen geben an, fr welches Spielfeld in welcher Version, und mit welcher
+     * Hintergrundfarbe das Bild gezeichnet wurde
+     */
+    private SnakePlayingGrid renderedGrid;
+    private int renderedVersion;
+    private int renderedBackground;
+    
+    /**
+     * Dieser Konstruktor erzeugt ein (noch leeres) Bild eines Spielfelds fr die gegebene Komponente
+     * @param component     Die Komponente, auf der das Spielfeld ausgegeben wird
+     */
+    public GridLayer(Component component){
+        this.component = component;
+    }
+    
+    /**
+     * Diese Methode zeichnet das gesamte Spielfeld (inkl. Hintergrund) an die gegebene Stelle
+     * @param grid  Das Spielfeld, das gezeichnet werden soll
+     * @param x     das Offset in x-Richtung
+     * @param y     das Offset in y-Richtung
+     * @param g     das Graphics-Objekt, auf dem gezeichnet wird
+     */
+    public void drawGrid(SnakePlayingGrid grid, int x, int y, Graphics g){
+        int w = grid.getWidth() * grid.getSize() + 1;
+        int h = grid.getHeight() * grid.getSize() + 1;
+        
+        if(!drawImage(grid, x, y, 0, 0, w, h, g)){
+//          Falls es kein Bild gibt, zeichnen wir das Spielfeld direkt
+            g.setColor(component.getBackground());
+            g.fillRect(x, y, w, h);
+            g.setColor(Color.BLACK);
+            grid.drawPlayingGrid(x, y, g);
+        }
+    }
+    
+    /**
+     * Diese Methode zeichnet ein einzelnes Feld des Spielfelds (inkl. Hintergrund) an die
+     * gegebene Stelle, und lscht somit alles, was auf dem Feld gezeichnet war
+     * @param grid  Das Spielfeld, zu dem das Feld gehrt
+     * @param x     das Offset in x-Richtung
+     * @param y     das Offset in y-Richtung
+     * @param cell  das Feld (als y * Breite + x)
+     * @param g     das Graphics-Objekt, auf dem gezeichnet wird
+     */
+    public void drawCell(SnakePlayingGrid grid, int x, int y, int cell, Graphics g){
+        int s = grid.getSize();
+        int cx = (cell % grid.getWidth()) * s;
+        int cy = (cell / grid.getWidth()) * s;
+        
+        if(!drawImage(grid, x, y, cx, cy, s, s, g)){
+            g.setColor(component.getBackground());
+            g.fillRect(x + cx, y + cy, s, s);
+            g.setColor(Color.BLACK);
+            grid.drawCellGrid(x, y, cell, g);
+        }
+    }
+    
+    /**
+     * Diese Methode verwirft das zwischengespeicherte Bild, wodurch es beim nchsten
+     * Zeichnen neu erzeugt wird
+     */
+    public void invalidate(){
+        if(image != null)
+            image.flush();
+        image = null;
+        renderedGrid = null;
+    }
+    
+    /**
+     * Diese Methode gibt den gegebenen Ausschnitt des Bilds an die entsprechende Stelle aus,
+     * und zeichnet das Bild vorher (falls ntig) neu
+     * @param grid  Das Spielfeld
+     * @param x     das Offset in x-Richtung
+     * @param y     das Offset in y-Richtung
+     * @param sx    die x-Koordinate des Ausschnitts im Bild
+     * @param sy    die y-Koordinate des Ausschnitts im Bild
+     * @param w     die Breite des Ausschnitts
+     * @param h     die Hhe des Ausschnitts
+     * @param g     das Graphics-Objekt, auf dem gezeichnet wird
+     * @return      ob das Bild ausgegeben werden konnte
+     */
+    private boolean drawImage(SnakePlayingGrid grid, int x, int y, int sx, int sy, int w, int h, Graphics g){
+        int width = grid.getWidth() * grid.getSize() + 1;
+        int height = grid.getHeight() * grid.getSize() + 1;
+        
+//      Ein zu groes Bild wird gar nicht erst erzeugt
+        if((long) width * height > MAX_PIXELS)
+            return false;
+        
+//      Falls sich das Spielfeld seit dem Zeichnen des Bilds verndert hat, wird es verworfen
+        if(grid != renderedGrid || grid.getLayoutVersion() != renderedVersion
+                || component.getBackground().getRGB() != renderedBackground)
+            invalidate();
+        
+        for(int i = 0; i < 3; i++){
+            if(image == null){
+                image = createImage(width, height);
+                if(image == null)
+                    return false;
+                render(grid);
+            }
+            
+            if(image instanceof VolatileImage){
+                VolatileImage vImage = (VolatileImage) image;
+//              Ein VolatileImage kann seinen Inhalt (z.B. bei einem Wechsel des Bildschirms) verlieren
+                int state = vImage.validate(component.getGraphicsConfiguration());
+                if(state == VolatileImage.IMAGE_INCOMPATIBLE){
+                    invalidate();
+                    continue;
+                }else if(state == VolatileImage.IMAGE_RESTORED){
+                    render(grid);
+                }
+            }
+            
+            g.drawImage(image, x + sx, y + sy, x + sx + w, y + sy + h, sx, sy, sx + w, sy + h, null);
+            
+//          Falls der Inhalt whrend des Ausgebens verloren ging, versuchen wir es nochmal
+            if(!(image instanceof VolatileImage) || !((VolatileImage) image).contentsLost())
+                return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Diese Methode erzeugt ein Bild mit der gegebenen Gre; ein VolatileImage, falls die
+     * Komponente dies zulsst, und ansonsten ein BufferedImage
+     * @param width     Die Breite des Bilds
+     * @param height    Die Hhe des Bilds
+     * @return          das Bild
+     */
+    private Image createImage(int width, int height){
+        GraphicsConfiguration gc = component.getGraphicsConfiguration();
+        if(gc != null){
+            VolatileImage vImage = gc.createCompatibleVolatileImage(width, height);
+            if(vImage != null)
+                return vImage;
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+    
+    /**
+     * Diese Methode zeichnet das gegebene Spielfeld auf das Bild
+     * @param grid  Das Spielfeld
+     */
+    private void render(SnakePlayingGrid grid){
+        Graphics g = image.getGraphics();
+        g.setColor(component.getBackground());
+        g.fillRect(0, 0, image.getWidth(null), image.getHeight(null));
+        g.setColor(Color.BLACK);
+        grid.drawPlayingGrid(0, 0, g);
+        g.dispose();
+        
+        renderedGrid = grid;
+        renderedVersion = grid.getLayoutVersion();
+        renderedBackground = component.getBackground().getRGB();
+    }
+}
@@ -6,6 +6,7 @@
 package de.jeanpierrehotz.ui;
 
 import java.awt.Button;
+import java.awt.Canvas;
 import java.awt.Checkbox;
 import java.awt.Choice;
 import java.awt.Font;
@@ -51,6 +52,17 @@ import static de.jeanpierrehotz.control.SnakeControl.CauseOfPause.UICause;
  * @author Jean-Pierre Hotz
  */
 public class SnakeUI extends Frame{
+    /**
+     * Der Titel des Fensters
+     */
+    private static final String TITLE = "Snake - CT-Projekt 2016 Jean-Pierre Hotz";
+    /**
+     * Die grte Anzahl an Spalten bzw. Zeilen, die eingestellt werden kann.<br>
+     * Spielfelder, die nicht vollstndig in das Fenster passen, werden nur als Ausschnitt um den
+     * Kopf der Schlange gezeichnet (siehe {@link de.jeanpierrehotz.snake.Camera}).
+     */
+    private static final int MAX_BOARD_SIZE = 10000;
+    
     /**
      * Dieses Label reprsentiert die berschrift des Spiels
      */
@@ -142,6 +154,45 @@ public class SnakeUI extends Frame{
         return drawGridCheckbox.getState();
     }
     
+    /**
+     * Diese Checkbox gibt dem User die Mglichkeit einzustellen, ob das Spiel aktiv
+     * (mit einer BufferStrategy in einem eigenen Thread) gerendert werden soll
+     */
+    private Checkbox activeRenderingCheckbox;
+    
+    /**
+     * Auf diesem Canvas wird das Spiel beim aktiven Rendern ausgegeben
+     */
+    private Canvas gameCanvas;
+    /**
+     * Dieses Objekt rendert das Spiel aktiv auf {@link SnakeUI#gameCanvas}
+     */
+    private ActiveRenderer activeRenderer;
+    /**
+     * Diese Variable gibt an, ob das derzeitige Spiel aktiv gerendert wird
+     */
+    private volatile boolean renderingActively;
+    
+    /**
+     * Diese Methode zeigt ihnen, ob das Spiel aktiv gerendert werden soll
+     * @return  ob das Spiel aktiv gerendert werden soll
+     */
+    public boolean shouldRenderActively(){
+        return activeRenderingCheckbox.getState();
+    }
+    
+    /**
+     * Dieses Objekt zeichnet beim aktiven Rendern die Frames, genauso wie beim Double-Buffern
+     * (siehe {@link SnakeUI#update(Graphics)})
+     */
+    private ActiveRenderer.Painter framePainter = new ActiveRenderer.Painter(){
+        @Override
+        public void paintFrame(Graphics g, boolean full){
+            if(control.isInGame())
+                control.paintGame(xOff, yOff, getBackground(), g, full);
+        }
+    };
+    
     /**
      * Diese Checkbox gibt dem User die Mglichkeit einzustellen, ob er "cheaten" mchte
      */
@@ -185,6 +236,22 @@ public class SnakeUI extends Frame{
         }
     };
     
+    /**
+     * Dieser Button lsst den User das zuletzt gespeicherte Spiel fortsetzen
+     */
+    private Button loadBtn;
+    
+    /**
+     * Dieser ActionListener ldt das gespeicherte Spiel, sobald der entspr. Button gedrckt wurde
+     */
+    private ActionListener loadActionListener = new ActionListener(){
+        @Override
+        public void actionPerformed(ActionEvent ev){
+            if(!control.loadGame())
+                messageLabel.setText("The saved game could not be loaded!");
+        }
+    };
+    
     /**
      * Diese Methode stellt ein, ob das vorherige Spiel wiederaufnehmbar ist.<br>
      * Dies ist nur der Fall, wenn das Spiel seitens der UI pausiert wird
@@ -290,13 +357,20 @@ public class SnakeUI extends Frame{
                 
                 resumeBtn.removeActionListener(resumeActionListener);
                 
+                loadBtn.removeActionListener(loadActionListener);
+                
                 saveAndResumeBtn.removeFocusListener(resumeAndSaveFocusListener);
                 saveAndResumeBtn.removeActionListener(saveAndResumeActionListener);
                 
                 removeWindowListener(this);
                 
                 removeKeyListener(steuerungsListener);
+                gameCanvas.removeKeyListener(steuerungsListener);
                 
+                activeRenderer.dispose();
+//              Ein wiederaufnehmbares Spiel wird gespeichert, damit es beim nchsten Mal fortgesetzt werden kann
+                if(resumeBtn.isEnabled())
+                    control.saveGame();
                 control.disposeThread();
                 
 //              Und beenden dann das Programm
@@ -340,6 +414,16 @@ public class SnakeUI extends Frame{
 //                      Pausieren wir das Spiel
                         control.pauseGame("You hit escape!", UICause);
                         return;
+//                  Falls "F5" gedrckt wurde
+                    case KeyEvent.VK_F5:
+//                      Speichern wir das Spiel (nach dem nchsten Tick)
+                        control.requestCheckpoint();
+                        return;
+//                  Falls "T" gedrckt wurde
+                    case KeyEvent.VK_T:
+//                      Schalten wir den Turbo-Modus (der nur beim Cheaten wirkt) um
+                        control.setTurbo(!control.isTurbo());
+                        return;
                 }
             }
         }
@@ -352,7 +436,7 @@ public class SnakeUI extends Frame{
      * @param control
      */
     public SnakeUI(SnakeControl control){
-        super("Snake - CT-Projekt 2016 Jean-Pierre Hotz");
+        super(TITLE);
         
 //      Die Referenz auf das SnakeControl-Objekt wird kopiert
         this.control = control;
@@ -383,6 +467,10 @@ public class SnakeUI extends Frame{
         for(int i = 16; i <= 320; i++){
             columnsChoice.add("" + i);
         }
+//      Fr grere Spielfelder gibt es nur grobe Abstufungen
+        for(int i = 400; i <= MAX_BOARD_SIZE; i += 400){
+            columnsChoice.add("" + i);
+        }
         add(columnsChoice);
 
         columnsLabel = new Label("Spalten: ");
@@ -395,6 +483,9 @@ public class SnakeUI extends Frame{
         for(int i = 9; i <= 180; i++){
             rowsChoice.add("" + i);
         }
+        for(int i = 200; i <= MAX_BOARD_SIZE; i += 200){
+            rowsChoice.add("" + i);
+        }
         add(rowsChoice);
         
         infiniteCheckbox = new Checkbox("Snake soll wieder am anderen Ende auftauchen?");
@@ -409,6 +500,10 @@ public class SnakeUI extends Frame{
         drawGridCheckbox.setState(true);
         add(drawGridCheckbox);
         
+        activeRenderingCheckbox = new Checkbox("Soll das Spiel aktiv (mit BufferStrategy) gerendert werden?");
+        activeRenderingCheckbox.setState(true);
+        add(activeRenderingCheckbox);
+        
         playBtn = new Button("Spielen");
         playBtn.addActionListener(playListener);
         add(playBtn);
@@ -431,6 +526,11 @@ public class SnakeUI extends Frame{
         saveAndResumeBtn.addActionListener(saveAndResumeActionListener);
         add(saveAndResumeBtn);
         
+        loadBtn = new Button("Load saved game");
+        loadBtn.setEnabled(control.hasSavedGame());
+        loadBtn.addActionListener(loadActionListener);
+        add(loadBtn);
+        
         warningLabel_1 = new Label();
         warningLabel_1.setAlignment(Label.CENTER);
         add(warningLabel_1);
@@ -442,6 +542,14 @@ public class SnakeUI extends Frame{
         warningLabel_3 = new Label();
         warningLabel_3.setAlignment(Label.CENTER);
         add(warningLabel_3);
+        
+//      Der Canvas fr das aktive Rendern wird nur whrend eines Spiels angezeigt,
+//      und muss daher auch die Eingaben des Users weitergeben
+        gameCanvas = new Canvas();
+        gameCanvas.setVisible(false);
+        gameCanvas.addKeyListener(steuerungsListener);
+        add(gameCanvas);
+        activeRenderer = new ActiveRenderer(gameCanvas, framePainter, "Snake-Renderer");
 
 //      Dann setzen wir die Gre dieses Frames auf 1600 * 900 px
         setBounds(0, 40, 1600, 900);
@@ -465,14 +573,17 @@ public class SnakeUI extends Frame{
         infiniteCheckbox.setBounds(getWidth() / 2 - 150, 170, 800, 20);
         withRulesCheckbox.setBounds(getWidth() / 2 - 150, 200, 800, 20);
         drawGridCheckbox.setBounds(getWidth() / 2 - 150, 230, 800, 20);
+        activeRenderingCheckbox.setBounds(getWidth() / 2 - 150, 260, 800, 20);
         playBtn.setBounds(getWidth() / 2 - 100, 300, 200, 40);
         lastScoreLabel.setBounds(getWidth() / 2 - 100, 350, 200, 20);
         cheatingCheckbox.setBounds(20, getHeight() - 40, 40, 40);
         resumeBtn.setBounds(getWidth() / 2 - 60, 390, 120, 30);
         saveAndResumeBtn.setBounds(getWidth() / 2 - 100, 430, 200, 40);
+        loadBtn.setBounds(getWidth() / 2 - 100, 560, 200, 30);
         warningLabel_1.setBounds(20, 480, getWidth() - 40, 20);
         warningLabel_2.setBounds(20, 500, getWidth() - 40, 20);
         warningLabel_3.setBounds(20, 520, getWidth() - 40, 20);
+        gameCanvas.setBounds(0, 0, getWidth(), getHeight());
     }
 
     /**
@@ -493,13 +604,23 @@ public class SnakeUI extends Frame{
         infiniteCheckbox.setVisible(false);
         withRulesCheckbox.setVisible(false);
         drawGridCheckbox.setVisible(false);
+        activeRenderingCheckbox.setVisible(false);
         cheatingCheckbox.setVisible(false);
         playBtn.setVisible(false);
         resumeBtn.setVisible(false);
         saveAndResumeBtn.setVisible(false);
+        loadBtn.setVisible(false);
         warningLabel_1.setVisible(false);
         warningLabel_2.setVisible(false);
         warningLabel_3.setVisible(false);
+        
+//      Beim aktiven Rendern wird das Spiel auf dem Canvas ausgegeben, der dazu den Fokus braucht
+        renderingActively = activeRenderingCheckbox.getState();
+        if(renderingActively){
+            gameCanvas.setVisible(true);
+            gameCanvas.requestFocus();
+            activeRenderer.start();
+        }
     }
     
     /**
@@ -509,6 +630,10 @@ public class SnakeUI extends Frame{
      * @param score         Der Score des letzten Spiels, der ebenfalls angezeigt wird
      */
     public void showUI(String abortMessage, int score){
+//      Das aktive Rendern wird beendet, und der Canvas versteckt
+        activeRenderer.stop();
+        gameCanvas.setVisible(false);
+        
 //      Wir zeigen alle Komponenten der UI wieder an
         captionLabel.setVisible(true);
         columnsLabel.setVisible(true);
@@ -520,20 +645,51 @@ public class SnakeUI extends Frame{
         infiniteCheckbox.setVisible(true);
         withRulesCheckbox.setVisible(true);
         drawGridCheckbox.setVisible(true);
+        activeRenderingCheckbox.setVisible(true);
         cheatingCheckbox.setVisible(true);
         playBtn.setVisible(true);
         resumeBtn.setVisible(true);
         saveAndResumeBtn.setVisible(true);
+        loadBtn.setEnabled(control.hasSavedGame());
+        loadBtn.setVisible(true);
         warningLabel_1.setVisible(true);
         warningLabel_2.setVisible(true);
         warningLabel_3.setVisible(true);
         
-//      Zeigen die Nachricht
+//      Entfernen die Ticks pro Sekunde aus dem Titel,
+        setTitle(TITLE);
+//      zeigen die Nachricht
         messageLabel.setText(abortMessage);
 //      und den Score an
         lastScoreLabel.setText("Last Score: " + score);
     }
     
+    /**
+     * Diese Methode lsst den nchsten Frame des Spiels ausgeben; beim aktiven Rendern von
+     * dem Thread des Renderers, und ansonsten ber {@link SnakeUI#repaint()}
+     */
+    public void requestFrame(){
+//      Ist das Fenster minimiert oder versteckt, so wird nichts gezeichnet; die Vernderungen
+//      des Spiels werden dann mit dem nchsten Frame nachgeholt
+        if((getExtendedState() & ICONIFIED) != 0 || !isShowing())
+            return;
+        
+        if(renderingActively)
+            activeRenderer.requestFrame();
+        else
+            repaint();
+    }
+    
+    /**
+     * Diese Methode zeigt (whrend eines Spiels) im Titel des Fensters an, wie viele Ticks
+     * pro Sekunde ausgefhrt werden
+     * @param ticksPerSecond    Die Anzahl an Ticks pro Sekunde
+     */
+    public void showTicksPerSecond(long ticksPerSecond){
+        if(control.isInGame())
+            setTitle(TITLE + " - " + ticksPerSecond + " ticks/s" + (control.isTurbo()? " (Turbo)": ""));
+    }
+    
     /**
      * Diese Variablen reprsentieren die Offsets in x- und y-Richtung des Spielfelds,
      * damit dieses zentriert ist
@@ -556,7 +712,9 @@ public class SnakeUI extends Frame{
      * Das bedeutet, dass man zuerst auf dieses Bild zeichnen lsst, ohne es dem
      * User anzuzeigen, und gibt dann dieses Image-Objekt auf einmal aus.<br>
      * Dadurch verhindert man Flackern, das durch die einzeln (zeitlich versetzt)
-     * ausgefhrten Befehle verursacht wird, bei schnellen Aktualisierungsraten.
+     * ausgefhrten Befehle verursacht wird, bei schnellen Aktualisierungsraten.<br>
+     * Das Bild bleibt zwischen den Frames erhalten, weshalb pro Frame nur die vernderten
+     * Felder neu gezeichnet werden mssen.
      */
     private Image dbImage;
     /**
@@ -567,15 +725,21 @@ public class SnakeUI extends Frame{
     private Graphics dbg;
 
     /**
-     * Diese Methode dient der Ausgabe des Spiels
+     * Diese Methode dient der Ausgabe des Spiels, falls das Fenster (z.B. nachdem es verdeckt
+     * war) neu gezeichnet werden muss
      */
     @Override
     public void paint(Graphics g){
 //      Falls wir in einem Spiel sind
-        if(control.isInGame())
-//          Sagen wir dem Steuerungsobjekt, dass es mit g und den gegebenen Offsets
-//          das Spiel ausgeben soll
-            control.paintEverything(xOff, yOff, g);
+        if(control.isInGame()){
+//          Geben wir das zuletzt gezeichnete Bild aus, bzw. falls es noch keins gibt
+            if(dbImage != null)
+                g.drawImage(dbImage, 0, 0, this);
+            else
+//              Sagen wir dem Steuerungsobjekt, dass es mit g und den gegebenen Offsets
+//              das Spiel ausgeben soll
+                control.paintEverything(xOff, yOff, g);
+        }
     }
 
     /**
@@ -583,20 +747,30 @@ public class SnakeUI extends Frame{
      */
     @Override
     public void update(Graphics g){
-//      Falls das Image-Objekt zum Double-Buffern noch nicht erzeugt wurde
-        if(dbImage == null){
+        boolean full = false;
+        
+//      Falls das Image-Objekt zum Double-Buffern noch nicht erzeugt wurde,
+//      oder die Gre des Fensters verndert wurde
+        if(dbImage == null || dbImage.getWidth(this) != getWidth() || dbImage.getHeight(this) != getHeight()){
+            if(dbg != null)
+                dbg.dispose();
 //          Erzeugen wir eins mit den Abmessungen des Frames
             dbImage = createImage(getWidth(), getHeight());
 //          Und weisen dem Graphics-Objekt die Graphics des Image-Objekts zu
             dbg = dbImage.getGraphics();
+//          Auf ein neues Bild muss alles gezeichnet werden
+            full = true;
         }
-//      Dann lschen wir das Image in der Hintergrundfarbe
-        dbg.setColor(getBackground());
-        dbg.fillRect(0, 0, getWidth(), getHeight());
         
-//      Und malen dann (auf dem Image-Objekt) in der Vordergrundfarbe
-        dbg.setColor(getForeground());
-        paint(dbg);
+        if(control.isInGame()){
+//          Das Steuerungsobjekt zeichnet (auf dem Image-Objekt) nur die vernderten Felder,
+//          bzw. alles, falls das Bild neu ist, oder das Spiel neu gezeichnet werden muss
+            control.paintGame(xOff, yOff, getBackground(), dbg, full);
+        }else{
+//          Auerhalb eines Spiels lschen wir das Image in der Hintergrundfarbe
+            dbg.setColor(getBackground());
+            dbg.fillRect(0, 0, getWidth(), getHeight());
+        }
         
 //      Schlussendlich geben wir das Image-Objekt auf den Koordinaten (0|0) aus
         g.drawImage(dbImage, 0, 0, this);